@@ -0,0 +1,51 @@
+package com.java.benchmark;
+
+/*
+Runs every benchmark suite in the project one after the other.
+Each suite writes its own <group>.json file (see Harness), so a full run against two JDKs or two collectors can be compared file by file.
+The suites share this JVM only to hand out the work: the Harness starts every benchmark in a JVM of its own, so no benchmark runs with a profile another one left behind.
+Pass suite class names as arguments to run only those.
+ */
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+public class BenchmarkRunner {
+
+  private static final List<String> SUITES = List.of(
+      "com.java.concurrency.CounterBenchmark",
+      "com.java.concurrency.ThresholdWatchBenchmark",
+      "com.java.concurrency.BlockingTasksBenchmark",
+      "com.java.concurrency.TimerBenchmark",
+      "com.java.concurrency.InstrumentationBenchmark",
+      "com.java.concurrency.RingPipelineBenchmark",
+      "com.java.concurrency.DeadlineGoodputBenchmark",
+      "com.java.concurrency.AsyncPrintStreamBenchmark",
+      "com.java.decisions.SwitchBenchmark",
+      "com.java.functionalProgramming.StatsBenchmark",
+      "com.java.genericsCollections.CollectionsBenchmark",
+      "com.java.genericsCollections.PrimitiveCrateBenchmark",
+      "com.java.genericsCollections.OffHeapCrateBenchmark",
+      "com.java.genericsCollections.PrimitiveMapBenchmark",
+      "com.java.genericsCollections.CratePoolBenchmark",
+      "com.java.genericsCollections.RadixSortBenchmark",
+      "com.java.genericsCollections.ComparatorChainBenchmark",
+      "com.java.genericsCollections.PersistentCollectionsBenchmark",
+      "com.java.genericsCollections.PerfectHashMapBenchmark",
+      "com.java.genericsCollections.DequeBenchmark",
+      "com.java.genericsCollections.BulkListBenchmark",
+      "com.java.genericsCollections.ShippingBenchmark",
+      "com.java.genericsCollections.BTreeBenchmark",
+      "com.java.genericsCollections.CacheBenchmark",
+      "com.java.genericsCollections.BloomFilterBenchmark",
+      "com.java.string.StringBuilderBenchmark");
+
+  public static void main(String[] args) throws Exception {
+    List<String> suites = args.length == 0 ? SUITES : List.of(args);
+    for (String suite : suites) {
+      System.out.println("# " + suite);
+      Method main = Class.forName(suite).getMethod("main", String[].class);
+      main.invoke(null, (Object) new String[0]);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.java.benchmark;
+
+/*
+Retained heap per element of a data structure, for comparing memory layouts.
+measure() runs full GCs, reads the used heap, builds the structure, runs full GCs again and reads the used heap with the structure still reachable. The difference divided by the element count is printed and returned.
+In a JVM the Harness forked for a single benchmark nothing is measured and NaN is returned; the parent has already printed the numbers.
+Anything the structure shares with the caller (keys built beforehand, for example) is not counted. Expect a few percent of noise; use a count large enough that per-structure overhead disappears.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.function.IntFunction;
+
+public final class Footprint {
+
+  private Footprint() {
+  }
+
+  public static double measure(String name, int count, IntFunction<?> build) {
+    if (Harness.forked()) {
+      return Double.NaN;
+    }
+    long before = usedHeapAfterGc();
+    Object structure = build.apply(count);
+    long after = usedHeapAfterGc();
+    double perElement = (double) (after - before) / count;
+    System.out.printf("footprint %-24s %6.1f bytes/element%n", name, perElement);
+    // Keeps the structure reachable until after the second measurement
+    Reference.reachabilityFence(structure);
+    return perElement;
+  }
+
+  private static long usedHeapAfterGc() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
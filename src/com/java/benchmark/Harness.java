@@ -0,0 +1,442 @@
+package com.java.benchmark;
+
+/*
+A small, dependency-free micro-benchmark harness.
+It follows the same shape as JMH's average-time mode: a number of warmup iterations that are thrown away, followed by measured iterations of a fixed duration. Each iteration calls the workload back to back and the harness reports the average cost of one operation.
+Benchmarks added with addSampled() run in JMH's sample-time mode instead: each invoke() returns one latency measured by the workload itself, in nanoseconds, and the report adds the p50/p90/p99/p99.9/max of those samples.
+
+Every benchmark runs in a JVM of its own, as JMH forks do: runAndReport() starts the suite's main class again for each benchmark, with the same JVM options and bench.filter narrowed to that one name, and collects the results the child prints. Otherwise the profile the JIT gathered for the first benchmark (at the invoke() call site in iteration(), or inside a shared collection class) would shape the code the next one runs with. A suite's one-off work outside the harness can check forked() to skip itself in the children.
+
+Every group of benchmarks is written to <bench.dir>/<group>.json together with the JDK version, VM name and garbage collectors in use, so results from different JDKs or -XX:+UseXxxGC runs can be diffed.
+
+Tuning is done with system properties:
+bench.warmup      warmup iterations (default 3)
+bench.iterations  measured iterations (default 5)
+bench.time        milliseconds per iteration (default 500)
+bench.params      comma separated parameter values, overrides the group defaults
+bench.filter      regular expression a benchmark name must contain to run
+bench.dir         output directory (default bench-results)
+bench.fork        false runs every benchmark in the calling JVM (default true)
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+public final class Harness {
+
+  private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999, 1.0};
+  private static final String[] PERCENTILE_LABELS = {"p50", "p90", "p99", "p99.9", "max"};
+
+  // Prefixes a result a forked child hands back to its parent on standard output
+  private static final String RESULT_MARKER = "#bench-result ";
+
+  private static volatile long sink;
+
+  private final String group;
+  private final String paramName;
+  private final int[] params;
+  private final Map<String, Workload> workloads = new LinkedHashMap<>();
+  private final Set<String> sampled = new HashSet<>();
+
+  private final int warmupIterations = Integer.getInteger("bench.warmup", 3);
+  private final int measuredIterations = Integer.getInteger("bench.iterations", 5);
+  private final long iterationNanos = TimeUnit.MILLISECONDS
+      .toNanos(Long.getLong("bench.time", 500L));
+  private final Pattern filter = Pattern.compile(System.getProperty("bench.filter", ""));
+  private final boolean fork = Boolean.parseBoolean(System.getProperty("bench.fork", "true"));
+
+  public Harness(String group, String paramName, int... defaultParams) {
+    this.group = group;
+    this.paramName = paramName;
+    this.params = parseParams(System.getProperty("bench.params"), defaultParams);
+  }
+
+  public Harness add(String name, Workload workload) {
+    workloads.put(name, workload);
+    return this;
+  }
+
+  public Harness addSampled(String name, Workload workload) {
+    sampled.add(name);
+    return add(name, workload);
+  }
+
+  public List<Result> run() throws Exception {
+    List<Result> results = new ArrayList<>();
+    for (Map.Entry<String, Workload> e : workloads.entrySet()) {
+      if (!filter.matcher(e.getKey()).find()) {
+        continue;
+      }
+      for (int param : params) {
+        Result result = measure(e.getKey(), e.getValue(), param);
+        if (result == null) {
+          continue;
+        }
+        System.out.println(result);
+        results.add(result);
+      }
+    }
+    return results;
+  }
+
+  // True in a JVM forked by runAndReport() to run a single benchmark
+  public static boolean forked() {
+    return Boolean.getBoolean("bench.forked");
+  }
+
+  // Runs every registered benchmark, each in a forked JVM unless bench.fork=false, and writes the JSON report.
+  // In a forked child the results go back to the parent instead and null is returned.
+  public Path runAndReport() throws Exception {
+    if (forked()) {
+      if (group.equals(System.getProperty("bench.group"))) {
+        for (Result result : run()) {
+          System.out.println(RESULT_MARKER + result.toJson());
+        }
+      }
+      return null;
+    }
+    List<String> results = new ArrayList<>();
+    Class<?> suite = fork ? suiteClass() : null;
+    if (suite == null) {
+      for (Result result : run()) {
+        results.add(result.toJson());
+      }
+    } else {
+      for (String name : workloads.keySet()) {
+        if (filter.matcher(name).find()) {
+          results.addAll(runForked(suite, name));
+        }
+      }
+    }
+    Path dir = Paths.get(System.getProperty("bench.dir", "bench-results"));
+    Files.createDirectories(dir);
+    Path file = dir.resolve(group + ".json");
+    Files.write(file, toJson(results).getBytes(StandardCharsets.UTF_8));
+    System.out.println("Wrote " + file.toAbsolutePath());
+    return file;
+  }
+
+  // The class whose main() called us, or null when there is none to start again
+  private static Class<?> suiteClass() {
+    return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE)
+        .walk(frames -> frames
+            .filter(f -> f.getMethodName().equals("main") && f.getDeclaringClass() != Harness.class)
+            .findFirst()
+            .<Class<?>>map(StackWalker.StackFrame::getDeclaringClass)
+            .orElse(null));
+  }
+
+  // Runs one benchmark in a fresh JVM, relaying its output, and returns its results as JSON
+  private List<String> runForked(Class<?> suite, String name) throws Exception {
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+      if (!arg.startsWith("-Dbench.filter=") && !arg.startsWith("-Dbench.fork")
+          && !arg.startsWith("-Dbench.group=")) {
+        command.add(arg);
+      }
+    }
+    command.add("-Dbench.forked=true");
+    command.add("-Dbench.group=" + group);
+    command.add("-Dbench.filter=^" + Pattern.quote(name) + "$");
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(suite.getName());
+    Process child = new ProcessBuilder(command)
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+    child.getOutputStream().close();
+    List<String> results = new ArrayList<>();
+    try (BufferedReader out = new BufferedReader(new InputStreamReader(child.getInputStream()))) {
+      String line;
+      while ((line = out.readLine()) != null) {
+        if (line.startsWith(RESULT_MARKER)) {
+          results.add(line.substring(RESULT_MARKER.length()));
+        } else {
+          System.out.println(line);
+        }
+      }
+    }
+    int status = child.waitFor();
+    if (status != 0) {
+      throw new IllegalStateException(
+          "Forked JVM for " + group + "/" + name + " exited with status " + status);
+    }
+    return results;
+  }
+
+  private Result measure(String name, Workload workload, int param) throws Exception {
+    boolean sampleMode = sampled.contains(name);
+    double[] samples = new double[measuredIterations];
+    LatencySamples latencies = new LatencySamples();
+    long gcCountBefore;
+    long gcTimeBefore;
+    long allocatedBefore;
+    long operations = 0;
+    Workload.Invocation prepared = workload.prepare(param);
+    if (prepared == null) {
+      return null;
+    }
+    try (Workload.Invocation invocation = prepared) {
+      for (int i = 0; i < warmupIterations; i++) {
+        iteration(invocation, sampleMode ? new LatencySamples() : null);
+      }
+      gcCountBefore = gcCount();
+      gcTimeBefore = gcTimeMillis();
+      allocatedBefore = allocatedBytes();
+      for (int i = 0; i < measuredIterations; i++) {
+        long[] iteration = iteration(invocation, sampleMode ? latencies : null);
+        samples[i] = (double) iteration[0] / iteration[1];
+        operations += iteration[1];
+      }
+    }
+    long allocated = allocatedBytes() - allocatedBefore;
+    return new Result(group, name, paramName, param, samples,
+        sampleMode ? latencies.percentiles() : null,
+        allocatedBefore < 0 ? -1 : (double) allocated / operations,
+        gcCount() - gcCountBefore, gcTimeMillis() - gcTimeBefore);
+  }
+
+  // Returns {elapsed nanos, operations}. In sample mode every invoke() result is recorded as a latency.
+  private long[] iteration(Workload.Invocation invocation, LatencySamples latencies)
+      throws Exception {
+    long operations = 0;
+    long acc = 0;
+    long start = System.nanoTime();
+    long elapsed;
+    do {
+      long value = invocation.invoke();
+      if (latencies != null) {
+        latencies.add(value);
+      }
+      acc += value;
+      operations += invocation.operations();
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < iterationNanos);
+    sink += acc;
+    return new long[]{elapsed, operations};
+  }
+
+  private static int[] parseParams(String property, int[] defaults) {
+    if (property == null || property.isBlank()) {
+      return defaults;
+    }
+    String[] parts = property.split(",");
+    int[] parsed = new int[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      parsed[i] = Integer.parseInt(parts[i].strip().replace("_", ""));
+    }
+    return parsed;
+  }
+
+  private static long gcCount() {
+    long count = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(0, gc.getCollectionCount());
+    }
+    return count;
+  }
+
+  private static long gcTimeMillis() {
+    long time = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      time += Math.max(0, gc.getCollectionTime());
+    }
+    return time;
+  }
+
+  // Bytes allocated by the measuring thread, or -1 if the VM can't tell us
+  private static long allocatedBytes() {
+    var threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  private String toJson(List<String> results) {
+    StringBuilder json = new StringBuilder();
+    json.append("{\n");
+    json.append("  \"group\": ").append(quote(group)).append(",\n");
+    json.append("  \"jdk\": ").append(quote(System.getProperty("java.version"))).append(",\n");
+    json.append("  \"vm\": ").append(quote(System.getProperty("java.vm.name"))).append(",\n");
+    json.append("  \"gc\": [");
+    List<GarbageCollectorMXBean> gcs = ManagementFactory.getGarbageCollectorMXBeans();
+    for (int i = 0; i < gcs.size(); i++) {
+      json.append(i == 0 ? "" : ", ").append(quote(gcs.get(i).getName()));
+    }
+    json.append("],\n");
+    json.append("  \"processors\": ").append(Runtime.getRuntime().availableProcessors())
+        .append(",\n");
+    json.append("  \"maxHeapBytes\": ").append(Runtime.getRuntime().maxMemory()).append(",\n");
+    json.append("  \"results\": [\n");
+    for (int i = 0; i < results.size(); i++) {
+      json.append("    ").append(results.get(i))
+          .append(i + 1 < results.size() ? ",\n" : "\n");
+    }
+    json.append("  ]\n");
+    json.append("}\n");
+    return json.toString();
+  }
+
+  static String quote(String s) {
+    StringBuilder quoted = new StringBuilder("\"");
+    for (char c : s.toCharArray()) {
+      switch (c) {
+        case '"' -> quoted.append("\\\"");
+        case '\\' -> quoted.append("\\\\");
+        case '\n' -> quoted.append("\\n");
+        default -> {
+          if (c < 0x20) {
+            quoted.append(String.format("\\u%04x", (int) c));
+          } else {
+            quoted.append(c);
+          }
+        }
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+  private static final class LatencySamples {
+
+    private long[] values = new long[1024];
+    private int size;
+
+    void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size << 1);
+      }
+      values[size++] = value;
+    }
+
+    long[] percentiles() {
+      long[] sorted = Arrays.copyOf(values, size);
+      Arrays.sort(sorted);
+      long[] percentiles = new long[PERCENTILES.length];
+      for (int i = 0; i < PERCENTILES.length && size > 0; i++) {
+        int rank = (int) Math.ceil(PERCENTILES[i] * size) - 1;
+        percentiles[i] = sorted[Math.max(0, Math.min(size - 1, rank))];
+      }
+      return percentiles;
+    }
+  }
+
+  public static final class Result {
+
+    private final String group;
+    private final String benchmark;
+    private final String paramName;
+    private final int param;
+    private final double[] nanosPerOp;
+    private final long[] percentiles;
+    private final double allocatedBytesPerOp;
+    private final long gcCount;
+    private final long gcTimeMillis;
+
+    Result(String group, String benchmark, String paramName, int param, double[] nanosPerOp,
+        long[] percentiles, double allocatedBytesPerOp, long gcCount, long gcTimeMillis) {
+      this.group = group;
+      this.benchmark = benchmark;
+      this.paramName = paramName;
+      this.param = param;
+      this.nanosPerOp = nanosPerOp;
+      this.percentiles = percentiles;
+      this.allocatedBytesPerOp = allocatedBytesPerOp;
+      this.gcCount = gcCount;
+      this.gcTimeMillis = gcTimeMillis;
+    }
+
+    public String benchmark() {
+      return benchmark;
+    }
+
+    public int param() {
+      return param;
+    }
+
+    public double mean() {
+      double sum = 0;
+      for (double sample : nanosPerOp) {
+        sum += sample;
+      }
+      return sum / nanosPerOp.length;
+    }
+
+    public double stdDev() {
+      if (nanosPerOp.length < 2) {
+        return 0;
+      }
+      double mean = mean();
+      double squares = 0;
+      for (double sample : nanosPerOp) {
+        squares += (sample - mean) * (sample - mean);
+      }
+      return Math.sqrt(squares / (nanosPerOp.length - 1));
+    }
+
+    String toJson() {
+      StringBuilder samples = new StringBuilder("[");
+      for (int i = 0; i < nanosPerOp.length; i++) {
+        samples.append(i == 0 ? "" : ", ").append(format(nanosPerOp[i]));
+      }
+      samples.append(']');
+      return "{\"benchmark\": " + quote(benchmark)
+          + ", \"paramName\": " + quote(paramName)
+          + ", \"param\": " + param
+          + ", \"mode\": " + (percentiles == null ? "\"avgt\"" : "\"sample\"")
+          + ", \"unit\": \"ns/op\""
+          + ", \"score\": " + format(mean())
+          + ", \"scoreError\": " + format(stdDev())
+          + ", \"samples\": " + samples
+          + (percentiles == null ? "" : ", \"percentiles\": " + percentilesJson())
+          + ", \"allocBytesPerOp\": " + format(allocatedBytesPerOp)
+          + ", \"gcCount\": " + gcCount
+          + ", \"gcTimeMs\": " + gcTimeMillis + "}";
+    }
+
+    private String percentilesJson() {
+      StringBuilder json = new StringBuilder("{");
+      for (int i = 0; i < PERCENTILES.length; i++) {
+        json.append(i == 0 ? "" : ", ")
+            .append(quote(PERCENTILE_LABELS[i]))
+            .append(": ").append(percentiles[i]);
+      }
+      return json.append('}').toString();
+    }
+
+    private static String format(double d) {
+      return String.format(Locale.ROOT, "%.3f", d);
+    }
+
+    @Override
+    public String toString() {
+      String line = String.format(Locale.ROOT,
+          "%-12s %-40s %s=%-10d %14.3f +- %10.3f ns/op %12.1f B/op",
+          group, benchmark, paramName, param, mean(), stdDev(), allocatedBytesPerOp);
+      if (percentiles != null) {
+        line += String.format(Locale.ROOT, "  p50=%d p99=%d max=%d ns",
+            percentiles[0], percentiles[2], percentiles[PERCENTILES.length - 1]);
+      }
+      return line;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.java.benchmark;
+
+/*
+An Invocation that runs the same batch on several threads at once.
+The worker threads are started once in the constructor and parked between invocations, so thread start-up is not part of the measurement. One invoke() releases every worker, each runs batch.run(opsPerThread), and invoke() returns when the slowest one is done.
+The loop over operations lives inside the Batch implementation, not here, so every benchmark gets its own monomorphic hot loop instead of sharing one polluted call site.
+ */
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+public class ParallelInvocation implements Workload.Invocation {
+
+  @FunctionalInterface
+  public interface Batch {
+
+    long run(int worker, int operations) throws Exception;
+  }
+
+  private final Thread[] workers;
+  private final CyclicBarrier start;
+  private final CyclicBarrier done;
+  private final int opsPerThread;
+  private final long[] results;
+  private volatile boolean closed;
+  private volatile Exception failure;
+
+  public ParallelInvocation(int threads, int opsPerThread, Batch batch) {
+    this.workers = new Thread[threads];
+    this.start = new CyclicBarrier(threads + 1);
+    this.done = new CyclicBarrier(threads + 1);
+    this.opsPerThread = opsPerThread;
+    this.results = new long[threads];
+    for (int i = 0; i < threads; i++) {
+      int worker = i;
+      workers[i] = new Thread(() -> {
+        try {
+          while (true) {
+            start.await();
+            if (closed) {
+              return;
+            }
+            try {
+              results[worker] = batch.run(worker, opsPerThread);
+            } catch (Exception e) {
+              failure = e;
+            }
+            done.await();
+          }
+        } catch (InterruptedException | BrokenBarrierException e) {
+          // closing
+        }
+      }, "bench-worker-" + i);
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+  }
+
+  @Override
+  public long invoke() throws Exception {
+    start.await();
+    done.await();
+    if (failure != null) {
+      throw failure;
+    }
+    long sum = 0;
+    for (long result : results) {
+      sum += result;
+    }
+    return sum;
+  }
+
+  @Override
+  public long operations() {
+    return (long) opsPerThread * workers.length;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      try {
+        start.await();
+      } catch (BrokenBarrierException e) {
+        // The workers were released by the broken barrier all the same
+      }
+      for (Thread worker : workers) {
+        worker.join();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.java.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+A Workload is the unit the Harness measures.
+prepare() runs outside the timed region and builds whatever state the benchmark needs for one parameter value (an input size, a thread count, ...).
+The returned Invocation is then called repeatedly inside the timed region.
+prepare() may return null when a benchmark doesn't apply to a parameter value (for example a single-producer queue with 4 producers); that combination is skipped.
+ */
+@FunctionalInterface
+public interface Workload {
+
+  Invocation prepare(int param) throws Exception;
+
+  // For Invocation.close(): waits for an executor that was already shut down, keeping an interrupt for the caller
+  static void awaitTermination(ExecutorService executor) {
+    try {
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  interface Invocation extends AutoCloseable {
+
+    // The returned value is consumed by the harness so the JIT can't treat the work as dead code
+    long invoke() throws Exception;
+
+    // How many logical operations one invoke() performs, used to report a per-operation cost
+    default long operations() {
+      return 1;
+    }
+
+    // Declared without exceptions, so try-with-resources over an Invocation has nothing to handle
+    @Override
+    default void close() {
+    }
+  }
+}
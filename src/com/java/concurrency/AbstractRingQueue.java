@@ -0,0 +1,147 @@
+package com.java.concurrency;
+
+/*
+Shared state of the ring queues.
+The producer index and the consumer index are written by different threads, so each sits on its own cache line; otherwise every hand-off would bounce one line between the producer's and the consumer's core (false sharing). As in StripedCounter, the padding is spread across a class hierarchy because the JVM keeps superclass fields before subclass fields.
+Indexes only ever grow; the slot for index i is i & mask. A slot is empty when it holds null, which is how the consumer knows a claimed slot has been published.
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Consumer;
+
+abstract class AbstractRingQueue<E> extends RingQueueConsumerFields implements RingQueue<E> {
+
+  static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+  static final VarHandle PRODUCER_INDEX;
+  static final VarHandle CONSUMER_INDEX;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      PRODUCER_INDEX = lookup.findVarHandle(RingQueueProducerFields.class, "producerIndex",
+          long.class);
+      CONSUMER_INDEX = lookup.findVarHandle(RingQueueConsumerFields.class, "consumerIndex",
+          long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  long p21, p22, p23, p24, p25, p26, p27;
+
+  AbstractRingQueue(int capacity) {
+    super(capacity);
+  }
+
+  @Override
+  public E poll() {
+    long index = consumerIndex;
+    int offset = (int) (index & mask);
+    @SuppressWarnings("unchecked")
+    E e = (E) SLOT.getAcquire(buffer, offset);
+    if (e == null) {
+      if (index == (long) PRODUCER_INDEX.getVolatile(this)) {
+        return null;
+      }
+      // A producer has claimed the slot but not written it yet; it is about to
+      do {
+        Thread.onSpinWait();
+        e = (E) SLOT.getAcquire(buffer, offset);
+      } while (e == null);
+    }
+    SLOT.setOpaque(buffer, offset, null);
+    CONSUMER_INDEX.setRelease(this, index + 1);
+    return e;
+  }
+
+  /*
+  Takes only elements that are already published, and moves the consumer index once for the whole batch.
+  Producers see the freed slots at the end of the batch rather than one at a time, which saves a cache-line transfer per element.
+   */
+  @Override
+  public int drain(Consumer<? super E> consumer, int limit) {
+    long index = consumerIndex;
+    int taken = 0;
+    try {
+      while (taken < limit) {
+        int offset = (int) ((index + taken) & mask);
+        @SuppressWarnings("unchecked")
+        E e = (E) SLOT.getAcquire(buffer, offset);
+        if (e == null) {
+          break;
+        }
+        SLOT.setOpaque(buffer, offset, null);
+        taken++;
+        consumer.accept(e);
+      }
+    } finally {
+      if (taken > 0) {
+        CONSUMER_INDEX.setRelease(this, index + taken);
+      }
+    }
+    return taken;
+  }
+
+  @Override
+  public int size() {
+    long consumer = (long) CONSUMER_INDEX.getVolatile(this);
+    long producer = (long) PRODUCER_INDEX.getVolatile(this);
+    return (int) Math.max(0, Math.min(buffer.length, producer - consumer));
+  }
+
+  @Override
+  public int capacity() {
+    return buffer.length;
+  }
+}
+
+// Read-only after construction, read by every producer and the consumer
+abstract class RingQueueBuffer {
+
+  final Object[] buffer;
+  final int mask;
+
+  RingQueueBuffer(int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("capacity must be >= 2");
+    }
+    int size = 1 << (32 - Integer.numberOfLeadingZeros(capacity - 1));
+    this.buffer = new Object[size];
+    this.mask = size - 1;
+  }
+}
+
+abstract class RingQueueLeftPadding extends RingQueueBuffer {
+  long p01, p02, p03, p04, p05, p06, p07;
+
+  RingQueueLeftPadding(int capacity) {
+    super(capacity);
+  }
+}
+
+abstract class RingQueueProducerFields extends RingQueueLeftPadding {
+  volatile long producerIndex;
+  // Producer-side cache of consumerIndex + capacity, so producers rarely read the consumer's line
+  long producerLimit;
+
+  RingQueueProducerFields(int capacity) {
+    super(capacity);
+  }
+}
+
+abstract class RingQueueMiddlePadding extends RingQueueProducerFields {
+  long p11, p12, p13, p14, p15, p16, p17;
+
+  RingQueueMiddlePadding(int capacity) {
+    super(capacity);
+  }
+}
+
+abstract class RingQueueConsumerFields extends RingQueueMiddlePadding {
+  volatile long consumerIndex;
+
+  RingQueueConsumerFields(int capacity) {
+    super(capacity);
+  }
+}
@@ -0,0 +1,320 @@
+package com.java.concurrency;
+
+/*
+A PrintStream that hands lines to a background writer instead of writing them itself.
+System.out.println() takes the stream's lock, encodes the line and (System.out flushes automatically) makes one write system call per line, all on the calling thread. With many threads printing, they spend most of their time queueing for that lock.
+
+Here println() encodes the line on the calling thread and offers it to a multi-producer RingQueue, without taking a lock. One writer thread drains the queue and copies lines into a buffer. It writes the buffer to the target stream in one call when the buffer is full or when the queue runs empty. With a flush interval it keeps collecting while the queue is empty, and writes once the oldest buffered line has waited that long, which saves write calls when lines trickle in one at a time.
+Lines from one thread stay in order. Lines from different threads interleave line by line, never in the middle of a line.
+
+When the queue is full, the Overflow policy decides:
+BLOCK   the printing thread waits for room, so nothing is lost and fast producers slow down to the speed of the target.
+DROP    the line is discarded and counted in droppedCount(), so logging can never stall the caller.
+
+flush() waits until everything printed before it has been written to the target and the target has been flushed. close() does the same, then closes the target.
+installAsSystemOut() replaces System.out and flushes it from a shutdown hook, so lines are not lost when the program exits.
+ */
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncPrintStream extends PrintStream {
+
+  public enum Overflow {
+    BLOCK, DROP
+  }
+
+  private static final int DEFAULT_CAPACITY = 8192;
+  private static final int BUFFER_BYTES = 64 * 1024;
+  private static final int MAX_BATCH = 1024;
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  // Queued by flush() and close(); the writer counts it down once everything before it is written
+  private static final class FlushRequest {
+
+    final CountDownLatch written = new CountDownLatch(1);
+  }
+
+  private final OutputStream target;
+  private final Charset charset;
+  private final RingQueue<Object> queue;
+  private final Overflow overflow;
+  private final long flushIntervalNanos;
+  private final WaitStrategy waitStrategy = WaitStrategy.parking();
+  private final StripedCounter dropped = new StripedCounter();
+  private final Thread writer;
+
+  // Only the writer thread touches these
+  private byte[] buffer = new byte[BUFFER_BYTES];
+  private int buffered;
+  private long oldestBufferedAt;
+
+  private volatile boolean closed;
+
+  public AsyncPrintStream(OutputStream target) {
+    this(target, DEFAULT_CAPACITY, 0, TimeUnit.MILLISECONDS, Overflow.BLOCK);
+  }
+
+  public AsyncPrintStream(OutputStream target, int capacity, long flushInterval, TimeUnit unit,
+      Overflow overflow) {
+    // Every method that would write to target directly is overridden below to queue instead
+    super(target);
+    this.target = target;
+    this.charset = Charset.defaultCharset();
+    this.queue = RingQueue.multiProducer(capacity);
+    this.overflow = overflow;
+    this.flushIntervalNanos = unit.toNanos(flushInterval);
+    this.writer = new Thread(this::drain, "async-print-stream");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  public static AsyncPrintStream installAsSystemOut() {
+    // Write to the file descriptor directly; the old System.out would add its own buffering and locking
+    AsyncPrintStream async = new AsyncPrintStream(new FileOutputStream(FileDescriptor.out));
+    System.setOut(async);
+    Runtime.getRuntime().addShutdownHook(new Thread(async::flush, "async-print-stream-flush"));
+    return async;
+  }
+
+  public long droppedCount() {
+    return dropped.sum();
+  }
+
+  @Override
+  public void println() {
+    enqueue(LINE_SEPARATOR);
+  }
+
+  @Override
+  public void println(boolean x) {
+    enqueue(x + LINE_SEPARATOR);
+  }
+
+  @Override
+  public void println(char x) {
+    enqueue(x + LINE_SEPARATOR);
+  }
+
+  @Override
+  public void println(int x) {
+    enqueue(x + LINE_SEPARATOR);
+  }
+
+  @Override
+  public void println(long x) {
+    enqueue(x + LINE_SEPARATOR);
+  }
+
+  @Override
+  public void println(float x) {
+    enqueue(x + LINE_SEPARATOR);
+  }
+
+  @Override
+  public void println(double x) {
+    enqueue(x + LINE_SEPARATOR);
+  }
+
+  @Override
+  public void println(char[] x) {
+    enqueue(new String(x) + LINE_SEPARATOR);
+  }
+
+  @Override
+  public void println(String x) {
+    enqueue(x + LINE_SEPARATOR);
+  }
+
+  @Override
+  public void println(Object x) {
+    enqueue(x + LINE_SEPARATOR);
+  }
+
+  @Override
+  public void print(boolean b) {
+    enqueue(String.valueOf(b));
+  }
+
+  @Override
+  public void print(char c) {
+    enqueue(String.valueOf(c));
+  }
+
+  @Override
+  public void print(int i) {
+    enqueue(String.valueOf(i));
+  }
+
+  @Override
+  public void print(long l) {
+    enqueue(String.valueOf(l));
+  }
+
+  @Override
+  public void print(float f) {
+    enqueue(String.valueOf(f));
+  }
+
+  @Override
+  public void print(double d) {
+    enqueue(String.valueOf(d));
+  }
+
+  @Override
+  public void print(char[] s) {
+    enqueue(new String(s));
+  }
+
+  @Override
+  public void print(String s) {
+    enqueue(String.valueOf(s));
+  }
+
+  @Override
+  public void print(Object obj) {
+    enqueue(String.valueOf(obj));
+  }
+
+  // Formatted on the calling thread so the whole result is queued as one entry
+  @Override
+  public PrintStream format(String format, Object... args) {
+    enqueue(String.format(format, args));
+    return this;
+  }
+
+  @Override
+  public PrintStream format(Locale l, String format, Object... args) {
+    enqueue(String.format(l, format, args));
+    return this;
+  }
+
+  @Override
+  public void write(int b) {
+    offer(new byte[]{(byte) b});
+  }
+
+  @Override
+  public void write(byte[] buf, int off, int len) {
+    offer(Arrays.copyOfRange(buf, off, off + len));
+  }
+
+  @Override
+  public void flush() {
+    if (closed) {
+      return;
+    }
+    FlushRequest request = new FlushRequest();
+    put(request);
+    awaitWritten(request);
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    flush();
+    closed = true;
+    try {
+      writer.join();
+      target.close();
+    } catch (IOException e) {
+      setError();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void enqueue(String text) {
+    offer(text.getBytes(charset));
+  }
+
+  private void offer(byte[] bytes) {
+    if (closed) {
+      setError();
+      return;
+    }
+    if (overflow == Overflow.DROP) {
+      if (!queue.offer(bytes)) {
+        dropped.increment();
+      }
+    } else {
+      put(bytes);
+    }
+  }
+
+  private void put(Object entry) {
+    int attempt = 0;
+    while (!queue.offer(entry)) {
+      waitStrategy.idle(attempt++);
+    }
+  }
+
+  private void awaitWritten(FlushRequest request) {
+    try {
+      request.written.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void drain() {
+    int attempt = 0;
+    while (true) {
+      int taken = queue.drain(this::append, MAX_BATCH);
+      if (buffered > 0 && (taken == 0 || flushIntervalNanos > 0)
+          && System.nanoTime() - oldestBufferedAt >= flushIntervalNanos) {
+        writeBuffer();
+      }
+      if (taken > 0) {
+        attempt = 0;
+      } else if (closed && queue.isEmpty()) {
+        return;
+      } else {
+        waitStrategy.idle(attempt++);
+      }
+    }
+  }
+
+  private void append(Object entry) {
+    if (entry instanceof FlushRequest) {
+      writeBuffer();
+      ((FlushRequest) entry).written.countDown();
+      return;
+    }
+    byte[] bytes = (byte[]) entry;
+    if (buffered + bytes.length > buffer.length) {
+      writeBuffer();
+      if (bytes.length > buffer.length) {
+        buffer = new byte[Integer.highestOneBit(bytes.length) << 1];
+      }
+    }
+    if (buffered == 0) {
+      oldestBufferedAt = System.nanoTime();
+    }
+    System.arraycopy(bytes, 0, buffer, buffered, bytes.length);
+    buffered += bytes.length;
+  }
+
+  private void writeBuffer() {
+    try {
+      if (buffered > 0) {
+        target.write(buffer, 0, buffered);
+      }
+      target.flush();
+    } catch (IOException e) {
+      setError();
+    } finally {
+      buffered = 0;
+    }
+  }
+}
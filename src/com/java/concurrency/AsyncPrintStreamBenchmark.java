@@ -0,0 +1,68 @@
+package com.java.concurrency;
+
+/*
+println() throughput with `threads` threads printing at once: the JDK PrintStream against AsyncPrintStream.
+Output goes to the null device through a real file descriptor, so every write is still a system call, but nothing fills the disk or the terminal. Each invocation prints 65536 lines split over the threads; the reported ns/op is the wall-clock cost of one line.
+directPrintln is set up the way the JDK sets up System.out: a 128-byte BufferedOutputStream and automatic flushing, so one lock acquisition and one write per line.
+asyncPrintln ends every invocation with flush(), so the time until the lines have actually been written is included.
+asyncPrintlnDrop uses a small queue and the DROP policy and does not flush, so it measures only what the printing threads pay; the number of dropped lines is printed when it finishes.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.ParallelInvocation;
+import com.java.benchmark.Workload;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncPrintStreamBenchmark {
+
+  private static final int LINES = 65_536;
+  private static final String NULL_DEVICE =
+      System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null";
+
+  public static void main(String[] args) throws Exception {
+    new Harness("concurrency-println", "threads", 1, 2, 4, 8, 16, 32)
+        .add("directPrintln", threads -> run(threads,
+            new PrintStream(new BufferedOutputStream(nullDevice(), 128), true), false))
+        .add("asyncPrintln", threads -> run(threads,
+            new AsyncPrintStream(nullDevice()), true))
+        .add("asyncPrintlnDrop", threads -> run(threads, new AsyncPrintStream(nullDevice(), 1024,
+            0, TimeUnit.MILLISECONDS, AsyncPrintStream.Overflow.DROP), false))
+        .runAndReport();
+  }
+
+  private static FileOutputStream nullDevice() throws IOException {
+    return new FileOutputStream(NULL_DEVICE);
+  }
+
+  private static Workload.Invocation run(int threads, PrintStream out, boolean flush) {
+    return new ParallelInvocation(threads, LINES / threads, (worker, lines) -> {
+      for (int i = 0; i < lines; i++) {
+        out.println("worker " + worker + " line " + i);
+      }
+      return lines;
+    }) {
+      @Override
+      public long invoke() throws Exception {
+        long printed = super.invoke();
+        if (flush) {
+          out.flush();
+        }
+        return printed;
+      }
+
+      @Override
+      public void close() {
+        super.close();
+        if (out instanceof AsyncPrintStream && ((AsyncPrintStream) out).droppedCount() > 0) {
+          System.out.println("  " + threads + " threads: dropped "
+              + ((AsyncPrintStream) out).droppedCount() + " lines");
+        }
+        out.close();
+      }
+    };
+  }
+}
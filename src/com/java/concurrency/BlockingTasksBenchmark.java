@@ -0,0 +1,93 @@
+package com.java.concurrency;
+
+/*
+Runs many concurrent blocking tasks on platform threads and on virtual threads.
+Each invocation submits `tasks` tasks that each block for 10 ms (Thread.sleep, or waiting on a queue the way a task waits for a socket) and returns when all of them are done. The reported ns/op is wall-clock time divided by the number of tasks, so lower means more tasks finished per second.
+platformPool uses a fixed pool of 256 platform threads, a typical server setting: only 256 tasks can be blocked at once, so 100k tasks take roughly 100_000 / 256 * 10 ms.
+virtualPerTask gives every task its own virtual thread and is only registered on JDK 21+.
+An unbounded cached pool of platform threads is deliberately left out: at 100k tasks it tries to start 100k OS threads.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class BlockingTasksBenchmark {
+
+  private static final int PLATFORM_POOL_SIZE = 256;
+  private static final long BLOCK_MILLIS = 10;
+
+  public static void main(String[] args) throws Exception {
+    Harness harness = new Harness("concurrency-blocking", "tasks", 1_000, 10_000, 100_000)
+        .add("platformPoolSleep", tasks -> run(tasks, BlockingTasksBenchmark::sleepTask,
+            () -> ExecutorFactory.platform().newFixedThreadPool(PLATFORM_POOL_SIZE)))
+        .add("platformPoolBlockingQueue", tasks -> run(tasks, BlockingTasksBenchmark::queueTask,
+            () -> ExecutorFactory.platform().newFixedThreadPool(PLATFORM_POOL_SIZE)));
+    if (ExecutorFactory.virtualThreadsAvailable()) {
+      harness
+          .add("virtualPerTaskSleep", tasks -> run(tasks, BlockingTasksBenchmark::sleepTask,
+              () -> ExecutorFactory.virtual().newTaskExecutor()))
+          .add("virtualPerTaskBlockingQueue", tasks -> run(tasks,
+              BlockingTasksBenchmark::queueTask, () -> ExecutorFactory.virtual().newTaskExecutor()));
+    } else {
+      System.out.println("Virtual threads need JDK 21+, running on " + Runtime.version()
+          + ": only platform threads are measured");
+    }
+    harness.runAndReport();
+  }
+
+  private interface BlockingTask {
+
+    void block() throws InterruptedException;
+  }
+
+  private static void sleepTask() throws InterruptedException {
+    Thread.sleep(BLOCK_MILLIS);
+  }
+
+  // Nobody ever offers, so poll() blocks for the full timeout
+  private static final SynchronousQueue<Object> NEVER = new SynchronousQueue<>();
+
+  private static void queueTask() throws InterruptedException {
+    NEVER.poll(BLOCK_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  private static Workload.Invocation run(int tasks, BlockingTask task,
+      Supplier<ExecutorService> executorFactory) {
+    ExecutorService executor = executorFactory.get();
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() throws Exception {
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+          executor.execute(() -> {
+            try {
+              task.block();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            } finally {
+              done.countDown();
+            }
+          });
+        }
+        done.await();
+        return tasks;
+      }
+
+      @Override
+      public long operations() {
+        return tasks;
+      }
+
+      @Override
+      public void close() {
+        executor.shutdown();
+        Workload.awaitTermination(executor);
+      }
+    };
+  }
+}
@@ -0,0 +1,139 @@
+package com.java.concurrency;
+
+/*
+A fixed-size thread pool whose queue has a limit.
+Executors.newSingleThreadExecutor() and newFixedThreadPool() queue tasks in an unbounded LinkedBlockingQueue. When tasks arrive faster than the threads can run them, the queue, and every object the queued tasks hold on to, grows until the JVM runs out of memory.
+Here the queue is an ArrayBlockingQueue of fixed capacity, allocated up front. When it is full the executor applies its OverloadPolicy instead of growing.
+
+execute() and submit() apply the policy when the queue is full.
+tryExecute() and trySubmit() never apply it: they return false / an empty Optional straight away when the executor is saturated, so the caller can decide what to do.
+
+All threads are started up front, so the only state that grows with load is the queue, and the queue can't grow.
+ */
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class BoundedExecutor extends ThreadPoolExecutor {
+
+  private final StripedCounter overloaded = new StripedCounter();
+  private final StripedCounter discarded = new StripedCounter();
+  private final StripedCounter callerRuns = new StripedCounter();
+  private final StripedCounter saturated = new StripedCounter();
+
+  public BoundedExecutor(int threads, int queueCapacity, OverloadPolicy policy) {
+    this(threads, queueCapacity, policy, Executors.defaultThreadFactory());
+  }
+
+  public BoundedExecutor(int threads, int queueCapacity, OverloadPolicy policy,
+      ThreadFactory threadFactory) {
+    super(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), threadFactory, new Dispatcher(policy));
+    prestartAllCoreThreads();
+  }
+
+  public boolean tryExecute(Runnable command) {
+    Attempt attempt = new Attempt(command);
+    execute(attempt);
+    return !attempt.refused;
+  }
+
+  public <T> Optional<Future<T>> trySubmit(Callable<T> callable) {
+    FutureTask<T> future = new FutureTask<>(callable);
+    return tryExecute(future) ? Optional.of(future) : Optional.empty();
+  }
+
+  public Optional<Future<?>> trySubmit(Runnable command) {
+    FutureTask<Void> future = new FutureTask<>(command, null);
+    return tryExecute(future) ? Optional.of(future) : Optional.empty();
+  }
+
+  // Called by policies for every task they throw away
+  void discard(Runnable task) {
+    discarded.increment();
+    OverloadPolicy.cancelIfFuture(task instanceof Attempt ? ((Attempt) task).task : task);
+  }
+
+  void recordCallerRuns() {
+    callerRuns.increment();
+  }
+
+  // Times the queue was full when execute() or submit() was called
+  public long overloadedCount() {
+    return overloaded.sum();
+  }
+
+  // Tasks thrown away by the overload policy (shed, dropped as oldest, or timed out waiting)
+  public long discardedCount() {
+    return discarded.sum();
+  }
+
+  public long callerRunsCount() {
+    return callerRuns.sum();
+  }
+
+  // tryExecute()/trySubmit() calls that found the executor saturated
+  public long saturatedCount() {
+    return saturated.sum();
+  }
+
+  public int queueCapacity() {
+    return getQueue().size() + getQueue().remainingCapacity();
+  }
+
+  @Override
+  public String toString() {
+    return super.toString() + "[queue capacity = " + queueCapacity() + ", overloaded = "
+        + overloadedCount() + ", discarded = " + discardedCount() + ", caller runs = "
+        + callerRunsCount() + ", saturated = " + saturatedCount() + "]";
+  }
+
+  // Marks a task that came through tryExecute(), so the handler refuses it instead of applying the policy
+  private static final class Attempt implements Runnable {
+
+    private final Runnable task;
+    private boolean refused;
+
+    Attempt(Runnable task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      task.run();
+    }
+  }
+
+  private static final class Dispatcher implements RejectedExecutionHandler {
+
+    private final OverloadPolicy policy;
+
+    Dispatcher(OverloadPolicy policy) {
+      this.policy = policy;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor pool) {
+      BoundedExecutor executor = (BoundedExecutor) pool;
+      if (executor.isShutdown()) {
+        throw new RejectedExecutionException("Executor has been shut down");
+      }
+      if (task instanceof Attempt) {
+        ((Attempt) task).refused = true;
+        executor.saturated.increment();
+        return;
+      }
+      executor.overloaded.increment();
+      policy.onOverload(task, executor);
+    }
+  }
+}
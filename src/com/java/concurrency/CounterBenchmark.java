@@ -0,0 +1,98 @@
+package com.java.concurrency;
+
+/*
+Compares ways of counting from many threads at once, from 1 to 64 threads.
+volatileLong is the pattern Test started with (counter++ on a shared field); it is the fastest on one thread but loses updates under contention, which the benchmark prints.
+atomicInteger and synchronizedInt are correct but every increment contends for one cache line.
+longAdder and stripedCounter spread increments over padded cells.
+The reported ns/op is wall-clock time divided by the total number of increments across all threads, i.e. the inverse of aggregate throughput.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.ParallelInvocation;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CounterBenchmark {
+
+  private static final int OPS_PER_THREAD = 100_000;
+
+  private static volatile long volatileCounter;
+  private static int synchronizedCounter;
+
+  public static void main(String[] args) throws Exception {
+    new Harness("concurrency-counter", "threads", 1, 2, 4, 8, 16, 32, 64)
+        .add("volatileLong", threads -> {
+          volatileCounter = 0;
+          LongAdder expected = new LongAdder();
+          return new ParallelInvocation(threads, OPS_PER_THREAD, (worker, ops) -> {
+            for (int i = 0; i < ops; i++) {
+              volatileCounter++;
+            }
+            expected.add(ops);
+            return volatileCounter;
+          }) {
+            @Override
+            public void close() {
+              super.close();
+              System.out.println("volatileLong with " + threads + " threads lost "
+                  + (expected.sum() - volatileCounter) + " of " + expected.sum() + " updates");
+            }
+          };
+        })
+        .add("atomicInteger", threads -> {
+          AtomicInteger counter = new AtomicInteger();
+          return new ParallelInvocation(threads, OPS_PER_THREAD, (worker, ops) -> {
+            for (int i = 0; i < ops; i++) {
+              counter.incrementAndGet();
+            }
+            return counter.get();
+          });
+        })
+        .add("synchronizedInt", threads -> {
+          Object lock = new Object();
+          return new ParallelInvocation(threads, OPS_PER_THREAD, (worker, ops) -> {
+            for (int i = 0; i < ops; i++) {
+              synchronized (lock) {
+                synchronizedCounter++;
+              }
+            }
+            return 0;
+          });
+        })
+        .add("longAdder", threads -> {
+          LongAdder counter = new LongAdder();
+          return new ParallelInvocation(threads, OPS_PER_THREAD, (worker, ops) -> {
+            for (int i = 0; i < ops; i++) {
+              counter.increment();
+            }
+            return 0;
+          });
+        })
+        .add("stripedCounter", threads -> {
+          StripedCounter counter = new StripedCounter();
+          return new ParallelInvocation(threads, OPS_PER_THREAD, (worker, ops) -> {
+            for (int i = 0; i < ops; i++) {
+              counter.increment();
+            }
+            return 0;
+          });
+        })
+        .add("stripedCounterWithReader", threads -> {
+          // One of the threads only reads, as main() does in Test while it waits
+          StripedCounter counter = new StripedCounter();
+          return new ParallelInvocation(threads, OPS_PER_THREAD, (worker, ops) -> {
+            long seen = 0;
+            for (int i = 0; i < ops; i++) {
+              if (worker == 0 && threads > 1) {
+                seen += counter.approximateSum();
+              } else {
+                counter.increment();
+              }
+            }
+            return seen;
+          });
+        })
+        .runAndReport();
+  }
+}
@@ -0,0 +1,82 @@
+package com.java.concurrency;
+
+/*
+A point in time by which some work must be finished, measured on System.nanoTime().
+A timeout ("10 seconds") is relative to when it is checked; a deadline ("10 seconds after the request arrived") is fixed, so it can be handed from the caller to the queued task to any code the task calls, and each of them sees how much time is really left.
+
+Inside a task run by DeadlineExecutor, Deadline.current() returns the task's deadline, so code deep in the call stack can check it without it being passed down explicitly. Long tasks should call throwIfExpired() (or check isExpired()) between steps and stop when nobody is waiting for the result any more.
+ */
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+public final class Deadline implements Comparable<Deadline> {
+
+  private static final Deadline NONE = new Deadline(Long.MAX_VALUE, true);
+  private static final ThreadLocal<Deadline> CURRENT = ThreadLocal.withInitial(() -> NONE);
+
+  private final long deadlineNanos;
+  private final boolean none;
+
+  private Deadline(long deadlineNanos, boolean none) {
+    this.deadlineNanos = deadlineNanos;
+    this.none = none;
+  }
+
+  public static Deadline after(long timeout, TimeUnit unit) {
+    long nanos = Math.min(unit.toNanos(Math.max(0, timeout)), Long.MAX_VALUE / 2);
+    return new Deadline(System.nanoTime() + nanos, false);
+  }
+
+  // A deadline that never expires
+  public static Deadline none() {
+    return NONE;
+  }
+
+  // The deadline of the task running on this thread, or none()
+  public static Deadline current() {
+    return CURRENT.get();
+  }
+
+  static Deadline swapCurrent(Deadline deadline) {
+    Deadline previous = CURRENT.get();
+    CURRENT.set(deadline);
+    return previous;
+  }
+
+  public boolean isExpired() {
+    return !none && System.nanoTime() - deadlineNanos >= 0;
+  }
+
+  public long remaining(TimeUnit unit) {
+    if (none) {
+      return Long.MAX_VALUE;
+    }
+    return unit.convert(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+  }
+
+  public void throwIfExpired() {
+    if (isExpired()) {
+      throw new CancellationException("Deadline exceeded");
+    }
+  }
+
+  @Override
+  public int compareTo(Deadline other) {
+    if (none || other.none) {
+      return Boolean.compare(none, other.none);
+    }
+    return Long.signum(deadlineNanos - other.deadlineNanos);
+  }
+
+  @Override
+  public String toString() {
+    if (none) {
+      return "Deadline[none]";
+    }
+    long remaining = deadlineNanos - System.nanoTime();
+    return remaining > 0
+        ? "Deadline[in " + TimeUnit.NANOSECONDS.toMillis(remaining) + " ms]"
+        : "Deadline[expired " + TimeUnit.NANOSECONDS.toMillis(-remaining) + " ms ago]";
+  }
+}
@@ -0,0 +1,172 @@
+package com.java.concurrency;
+
+/*
+Runs tasks on an ExecutorService, but only while somebody is still waiting for them.
+A caller that uses future.get(10, TimeUnit.SECONDS) gives up after 10 seconds, yet the task stays in the queue and runs later anyway. Under overload that is the worst possible outcome: the pool spends its time on answers nobody will read, which makes the queue longer, which makes even more tasks late.
+
+Every task submitted here carries a Deadline:
+- When a worker picks the task up after its deadline, the task is dropped without running and its Future is cancelled.
+  With a minimum run time, tasks that have less time left than that are dropped too: a task that needs 5 ms and starts 1 ms before its deadline can only finish late.
+- While it runs, Deadline.current() (or the argument of a DeadlineCallable) tells the task how much time is left, so it can stop early.
+- The outcome is counted: dropped before starting, finished in time (goodput), or finished late (wasted work). Every task that reaches a worker lands in exactly one of the three, so they add up to the tasks taken off the queue.
+
+Futures returned by submit() give up at the deadline on their own: get() without a timeout waits no longer than the deadline, then cancels the task and throws an ExecutionException caused by a TimeoutException.
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class DeadlineExecutor {
+
+  @FunctionalInterface
+  public interface DeadlineCallable<T> {
+
+    T call(Deadline deadline) throws Exception;
+  }
+
+  private final ExecutorService delegate;
+  private final long minRunNanos;
+  private final StripedCounter submitted = new StripedCounter();
+  private final StripedCounter dropped = new StripedCounter();
+  private final StripedCounter onTime = new StripedCounter();
+  private final StripedCounter late = new StripedCounter();
+
+  public DeadlineExecutor(ExecutorService delegate) {
+    this(delegate, 0, TimeUnit.NANOSECONDS);
+  }
+
+  public DeadlineExecutor(ExecutorService delegate, long minRunTime, TimeUnit unit) {
+    if (minRunTime < 0) {
+      throw new IllegalArgumentException("Minimum run time must not be negative: " + minRunTime);
+    }
+    this.delegate = delegate;
+    this.minRunNanos = unit.toNanos(minRunTime);
+  }
+
+  public <T> DeadlineFuture<T> submit(Callable<T> task, long timeout, TimeUnit unit) {
+    return submit(deadline -> task.call(), Deadline.after(timeout, unit));
+  }
+
+  public DeadlineFuture<Void> submit(Runnable task, long timeout, TimeUnit unit) {
+    return submit(deadline -> {
+      task.run();
+      return null;
+    }, Deadline.after(timeout, unit));
+  }
+
+  public <T> DeadlineFuture<T> submit(DeadlineCallable<T> task, Deadline deadline) {
+    DeadlineFuture<T> future = new DeadlineFuture<>(task, deadline);
+    submitted.increment();
+    delegate.execute(future);
+    return future;
+  }
+
+  public long submittedCount() {
+    return submitted.sum();
+  }
+
+  // Tasks that never started: still queued at their deadline, or cancelled before a worker took them
+  public long droppedCount() {
+    return dropped.sum();
+  }
+
+  // Tasks that finished before their deadline
+  public long onTimeCount() {
+    return onTime.sum();
+  }
+
+  // Tasks that started in time but finished after their deadline
+  public long lateCount() {
+    return late.sum();
+  }
+
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+
+  @Override
+  public String toString() {
+    return "DeadlineExecutor[submitted=" + submittedCount() + ", onTime=" + onTimeCount()
+        + ", late=" + lateCount() + ", dropped=" + droppedCount() + "]";
+  }
+
+  // The task as FutureTask runs it; started tells run() whether super.run() got as far as the task
+  private static final class Body<T> implements Callable<T> {
+
+    private final DeadlineCallable<T> task;
+    private final Deadline deadline;
+    // Written and read only by the worker thread inside run()
+    private boolean started;
+
+    Body(DeadlineCallable<T> task, Deadline deadline) {
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public T call() throws Exception {
+      started = true;
+      return task.call(deadline);
+    }
+  }
+
+  public final class DeadlineFuture<T> extends FutureTask<T> {
+
+    private final Body<T> body;
+    private final Deadline deadline;
+
+    DeadlineFuture(DeadlineCallable<T> task, Deadline deadline) {
+      this(new Body<>(task, deadline));
+    }
+
+    private DeadlineFuture(Body<T> body) {
+      super(body);
+      this.body = body;
+      this.deadline = body.deadline;
+    }
+
+    public Deadline deadline() {
+      return deadline;
+    }
+
+    // A future cancelled before this point (by get() at the deadline, or by the caller) counts as dropped
+    @Override
+    public void run() {
+      if (deadline.isExpired() || deadline.remaining(TimeUnit.NANOSECONDS) < minRunNanos) {
+        cancel(false);
+        dropped.increment();
+        return;
+      }
+      Deadline previous = Deadline.swapCurrent(deadline);
+      try {
+        super.run();
+      } finally {
+        Deadline.swapCurrent(previous);
+      }
+      if (!body.started) {
+        dropped.increment();
+      } else {
+        (deadline.isExpired() ? late : onTime).increment();
+      }
+    }
+
+    // Waits until the deadline at most; the task is cancelled if it hasn't finished by then
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+      try {
+        return get(deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        cancel(false);
+        throw new ExecutionException("Deadline exceeded", e);
+      }
+    }
+  }
+}
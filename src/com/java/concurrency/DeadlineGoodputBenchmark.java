@@ -0,0 +1,103 @@
+package com.java.concurrency;
+
+/*
+Goodput under overload: how many tasks finish before their caller gives up, with and without deadline dropping.
+Each invocation offers tasks for 200 ms at `overload` times what the pool can handle (4 threads, each task blocks for 1 ms, so 4000 tasks/s is 100%), then waits for the pool to drain. Every caller waits 20 ms for its answer.
+The reported ns/op is wall-clock time divided by the number of tasks that finished within 20 ms, so lower is better and 1e9 / score is the goodput in tasks per second.
+plainExecutor runs every task: once the queue is more than 20 ms deep, every task it runs is already late, and at 200% or more goodput collapses to the first few dozen tasks.
+deadlineExecutor drops tasks that were not started in time, so the queue never gets much deeper than the deadline, but it still runs tasks that start just before their deadline and finish just after it.
+deadlineExecutorMinRun also drops tasks with less than 2 ms left, enough to finish a 1 ms task with some scheduling slack, and turns most of that late work into goodput.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class DeadlineGoodputBenchmark {
+
+  private static final int THREADS = 4;
+  private static final long TASK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long DEADLINE_MILLIS = 20;
+  private static final long OFFER_MILLIS = 200;
+  private static final long MIN_RUN_MILLIS = 2;
+
+  public static void main(String[] args) throws Exception {
+    new Harness("concurrency-deadline", "overload", 50, 100, 200, 400)
+        .add("plainExecutor", overload -> run(overload, false, 0))
+        .add("deadlineExecutor", overload -> run(overload, true, 0))
+        .add("deadlineExecutorMinRun", overload -> run(overload, true, MIN_RUN_MILLIS))
+        .runAndReport();
+  }
+
+  private static Workload.Invocation run(int overloadPercent, boolean dropLate,
+      long minRunMillis) {
+    ExecutorService pool = ExecutorFactory.platform().newFixedThreadPool(THREADS);
+    DeadlineExecutor deadlines = new DeadlineExecutor(pool, minRunMillis, TimeUnit.MILLISECONDS);
+    // Tasks offered per millisecond, at 100% exactly what THREADS threads can run
+    double perMilli = THREADS * (overloadPercent / 100.0) * TimeUnit.MILLISECONDS.toNanos(1)
+        / TASK_NANOS;
+    int tasks = (int) (perMilli * OFFER_MILLIS);
+    return new Workload.Invocation() {
+      private long goodput;
+
+      @Override
+      public long invoke() throws Exception {
+        CountDownLatch done = new CountDownLatch(tasks);
+        StripedCounter inTime = new StripedCounter();
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+          long offerAt = start + (long) (i * TimeUnit.MILLISECONDS.toNanos(1) / perMilli);
+          long wait = offerAt - System.nanoTime();
+          if (wait > 0) {
+            LockSupport.parkNanos(wait);
+          }
+          Deadline deadline = Deadline.after(DEADLINE_MILLIS, TimeUnit.MILLISECONDS);
+          Runnable task = () -> {
+            try {
+              LockSupport.parkNanos(TASK_NANOS);
+              if (!deadline.isExpired()) {
+                inTime.increment();
+              }
+            } finally {
+              done.countDown();
+            }
+          };
+          if (dropLate) {
+            deadlines.submit(d -> {
+              task.run();
+              return null;
+            }, deadline);
+          } else {
+            pool.execute(task);
+          }
+        }
+        if (dropLate) {
+          // Dropped tasks never run, so wait for the executor's own count instead of the latch
+          while (deadlines.onTimeCount() + deadlines.lateCount() + deadlines.droppedCount()
+              < deadlines.submittedCount()) {
+            Thread.sleep(1);
+          }
+        } else {
+          done.await();
+        }
+        goodput = Math.max(1, inTime.sum());
+        return goodput;
+      }
+
+      @Override
+      public long operations() {
+        return goodput;
+      }
+
+      @Override
+      public void close() {
+        System.out.println("  " + overloadPercent + "% " + (dropLate ? deadlines : "plain"));
+        pool.shutdown();
+        Workload.awaitTermination(pool);
+      }
+    };
+  }
+}
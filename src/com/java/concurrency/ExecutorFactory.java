@@ -0,0 +1,135 @@
+package com.java.concurrency;
+
+/*
+Creates the executors used in Test, either on platform threads or on virtual threads.
+A platform thread is a thin wrapper around an operating system thread: each one reserves a native stack, and a machine runs out of them after a few thousand. Tasks that spend most of their time blocked on I/O therefore hit the thread limit long before the CPU is busy.
+Virtual threads (final in JDK 21) are scheduled by the JVM onto a small pool of carrier threads. When a virtual thread blocks, it is unmounted and the carrier runs another one, so a blocking task costs a few hundred bytes of heap instead of an OS thread.
+
+The project compiles for JDK 15, so the JDK 21 API is looked up reflectively. Asking for VIRTUAL on an older JDK quietly falls back to PLATFORM; mode() tells you which one you actually got.
+The mode can be chosen at launch with -Dexecutor.mode=virtual (see fromSystemProperty()).
+ */
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+public final class ExecutorFactory {
+
+  public enum Mode { PLATFORM, VIRTUAL }
+
+  private static final ThreadFactory VIRTUAL_THREAD_FACTORY = lookupVirtualThreadFactory();
+  private static final Method THREAD_PER_TASK_EXECUTOR = lookupThreadPerTaskExecutor();
+
+  private final Mode mode;
+  private final ThreadFactory threadFactory;
+
+  private ExecutorFactory(Mode requested) {
+    if (requested == Mode.VIRTUAL && virtualThreadsAvailable()) {
+      this.mode = Mode.VIRTUAL;
+      this.threadFactory = VIRTUAL_THREAD_FACTORY;
+    } else {
+      this.mode = Mode.PLATFORM;
+      this.threadFactory = Executors.defaultThreadFactory();
+    }
+  }
+
+  public static ExecutorFactory platform() {
+    return new ExecutorFactory(Mode.PLATFORM);
+  }
+
+  // Virtual threads when the running JDK has them, platform threads otherwise
+  public static ExecutorFactory virtual() {
+    return new ExecutorFactory(Mode.VIRTUAL);
+  }
+
+  public static ExecutorFactory fromSystemProperty() {
+    String mode = System.getProperty("executor.mode", "platform");
+    return "virtual".equalsIgnoreCase(mode) ? virtual() : platform();
+  }
+
+  public static boolean virtualThreadsAvailable() {
+    return VIRTUAL_THREAD_FACTORY != null && THREAD_PER_TASK_EXECUTOR != null;
+  }
+
+  public Mode mode() {
+    return mode;
+  }
+
+  public ThreadFactory threadFactory() {
+    return threadFactory;
+  }
+
+  // One thread, tasks run one at a time in submission order, in both modes
+  public ExecutorService newSingleThreadExecutor() {
+    return Executors.newSingleThreadExecutor(threadFactory);
+  }
+
+  // At most nThreads tasks run at once, in both modes
+  public ExecutorService newFixedThreadPool(int nThreads) {
+    return Executors.newFixedThreadPool(nThreads, threadFactory);
+  }
+
+  // Like newFixedThreadPool, but the queue holds at most queueCapacity tasks
+  public BoundedExecutor newBoundedThreadPool(int nThreads, int queueCapacity,
+      OverloadPolicy policy) {
+    return new BoundedExecutor(nThreads, queueCapacity, policy, threadFactory);
+  }
+
+  /*
+  An executor for many independent, mostly blocking tasks.
+  With virtual threads every task gets its own thread, which is the intended way to use them (pooling virtual threads buys nothing).
+  With platform threads it is a cached pool that reuses idle threads.
+   */
+  public ExecutorService newTaskExecutor() {
+    if (mode == Mode.VIRTUAL) {
+      try {
+        return (ExecutorService) THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        throw new IllegalStateException("Can't create a virtual thread executor", e);
+      }
+    }
+    return Executors.newCachedThreadPool(threadFactory);
+  }
+
+  public ScheduledExecutorService newSingleThreadScheduledExecutor() {
+    return Executors.newSingleThreadScheduledExecutor(threadFactory);
+  }
+
+  public ScheduledExecutorService newScheduledThreadPool(int corePoolSize) {
+    return Executors.newScheduledThreadPool(corePoolSize, threadFactory);
+  }
+
+  @Override
+  public String toString() {
+    return "ExecutorFactory[" + mode + "]";
+  }
+
+  // Thread.ofVirtual().factory(), or null before JDK 21 (or when the preview API is not enabled)
+  private static ThreadFactory lookupVirtualThreadFactory() {
+    if (Runtime.version().feature() < 21) {
+      return null;
+    }
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+      return (ThreadFactory) factory.invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  // Executors.newThreadPerTaskExecutor(ThreadFactory), JDK 21+
+  private static Method lookupThreadPerTaskExecutor() {
+    if (VIRTUAL_THREAD_FACTORY == null) {
+      return null;
+    }
+    try {
+      return Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.java.concurrency;
+
+/*
+The JMX view of an InstrumentedExecutorService, visible in JConsole or VisualVM under com.java.concurrency:type=Executor.
+Latencies are in nanoseconds and come from the histograms, so they are accurate to about 1.6%.
+ */
+public interface ExecutorStatsMXBean {
+
+  long getSubmitted();
+
+  long getCompleted();
+
+  long getFailed();
+
+  long getRejected();
+
+  long getCancelled();
+
+  long getActive();
+
+  long getQueueDepth();
+
+  long getQueueWaitP50();
+
+  long getQueueWaitP99();
+
+  long getQueueWaitMax();
+
+  long getRunTimeP50();
+
+  long getRunTimeP99();
+
+  long getRunTimeMax();
+
+  void reset();
+}
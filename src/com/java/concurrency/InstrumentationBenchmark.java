@@ -0,0 +1,107 @@
+package com.java.concurrency;
+
+/*
+Measures what InstrumentedExecutorService adds to each task.
+direct* executors run the task on the submitting thread, so the difference between directPlain and directInstrumented is the instrumentation overhead alone: the wrapper, the timestamps, the counters and the histograms. directInstrumentedTimeEveryTask turns timing sampling off, which shows what System.nanoTime() costs on the machine. The parameter is the number of threads submitting at once, to show that the counters don't become a point of contention.
+singleThread* go through a real newSingleThreadExecutor() queue, where the overhead is measured against a realistic hand-off cost.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.ParallelInvocation;
+import com.java.benchmark.Workload;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class InstrumentationBenchmark {
+
+  private static final int OPS_PER_THREAD = 10_000;
+
+  public static void main(String[] args) throws Exception {
+    new Harness("concurrency-instrumentation", "threads", 1, 4, 16)
+        .add("directPlain", threads -> direct(threads, new DirectExecutorService()))
+        .add("directInstrumented", threads -> direct(threads,
+            InstrumentedExecutorService.wrap("direct", new DirectExecutorService())))
+        .add("directInstrumentedTimeEveryTask", threads -> direct(threads,
+            new InstrumentedExecutorService("direct", new DirectExecutorService(), 1)))
+        .add("singleThreadPlain", threads -> singleThread(threads,
+            Executors.newSingleThreadExecutor()))
+        .add("singleThreadInstrumented", threads -> singleThread(threads,
+            InstrumentedExecutorService.wrap("single", Executors.newSingleThreadExecutor())))
+        .runAndReport();
+  }
+
+  // Each worker counts into its own task, so the workers share nothing but the executor
+  private static Workload.Invocation direct(int threads, ExecutorService executor) {
+    return new ParallelInvocation(threads, OPS_PER_THREAD, (worker, ops) -> {
+      long[] work = new long[1];
+      Runnable task = () -> work[0]++;
+      for (int i = 0; i < ops; i++) {
+        executor.execute(task);
+      }
+      return work[0];
+    });
+  }
+
+  private static Workload.Invocation singleThread(int threads, ExecutorService executor) {
+    return new ParallelInvocation(threads, OPS_PER_THREAD, (worker, ops) -> {
+      CountDownLatch done = new CountDownLatch(ops);
+      Runnable task = done::countDown;
+      for (int i = 0; i < ops; i++) {
+        executor.execute(task);
+      }
+      done.await();
+      return ops;
+    }) {
+      @Override
+      public void close() {
+        super.close();
+        if (executor instanceof InstrumentedExecutorService) {
+          System.out.println(executor);
+        }
+        executor.shutdown();
+        Workload.awaitTermination(executor);
+      }
+    };
+  }
+
+  // Runs every task on the calling thread, so nothing but the wrapper is measured
+  private static final class DirectExecutorService extends AbstractExecutorService {
+
+    private volatile boolean shutdown;
+
+    @Override
+    public void execute(Runnable command) {
+      command.run();
+    }
+
+    @Override
+    public void shutdown() {
+      shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      shutdown = true;
+      return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return shutdown;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+      return shutdown;
+    }
+  }
+}
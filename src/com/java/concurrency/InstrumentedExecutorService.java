@@ -0,0 +1,564 @@
+package com.java.concurrency;
+
+/*
+Wraps any ExecutorService and records what happens to the tasks passing through it.
+When Future.get(10, TimeUnit.SECONDS) times out, the executor alone can't say whether the task sat in the queue for 10 seconds or ran for 10 seconds. This wrapper records both separately:
+
+submitted, completed, failed, rejected   StripedCounters, so busy submitters don't contend
+cancelled                                tasks that left the queue without running: cancelled futures, invokeAny losers, invokeAll timeouts, shutdownNow()
+active                                   started - completed - failed
+queue depth                              submitted - rejected - started - cancelled
+queue wait                               time from submit to the start of run(), as a LatencyHistogram
+run time                                 time spent inside the task, as a LatencyHistogram
+
+Counts are exact. Timing needs three System.nanoTime() calls per task, and on virtualized hosts one call can cost 20-50 ns on its own, so by default only a random 1 in 8 tasks is timed. That keeps the overhead per task to one small wrapper object and three uncontended counter updates for the untimed tasks, and the percentiles stay representative. Pass a sample interval of 1 to time every task.
+A task that was counted as cancelled and runs anyway (a cancel() racing with the start of run(), or a task from shutdownNow() run by the caller) is moved back from cancelled to started. StripedCounters only go up, so that is counted in uncancelled (and unrejected for a rejected one) and subtracted when reading.
+snapshot() returns a consistent-enough copy for reporting; writeTo() saves it as JSON and registerMBean() publishes it over JMX.
+ */
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class InstrumentedExecutorService implements ExecutorService {
+
+  private static final int DEFAULT_SAMPLE_INTERVAL = 8;
+
+  // Tracked.state: a task is counted in started, cancelled or rejected once it leaves QUEUED
+  private static final int QUEUED = 0;
+  private static final int STARTED = 1;
+  private static final int CANCELLED = 2;
+  private static final int REJECTED = 3;
+  private static final VarHandle STATE;
+
+  static {
+    try {
+      STATE = MethodHandles.lookup().findVarHandle(Tracked.class, "state", int.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final String name;
+  private final ExecutorService delegate;
+  private final int sampleMask;
+
+  private final StripedCounter submitted = new StripedCounter();
+  private final StripedCounter started = new StripedCounter();
+  private final StripedCounter completed = new StripedCounter();
+  private final StripedCounter failed = new StripedCounter();
+  private final StripedCounter rejected = new StripedCounter();
+  private final StripedCounter cancelled = new StripedCounter();
+  private final StripedCounter uncancelled = new StripedCounter();
+  private final StripedCounter unrejected = new StripedCounter();
+  private final LatencyHistogram queueWait = new LatencyHistogram();
+  private final LatencyHistogram runTime = new LatencyHistogram();
+
+  public InstrumentedExecutorService(String name, ExecutorService delegate) {
+    this(name, delegate, DEFAULT_SAMPLE_INTERVAL);
+  }
+
+  // Times one in every sampleInterval tasks on average; rounded up to a power of two
+  public InstrumentedExecutorService(String name, ExecutorService delegate, int sampleInterval) {
+    if (sampleInterval < 1) {
+      throw new IllegalArgumentException("sampleInterval must be >= 1");
+    }
+    this.name = name;
+    this.delegate = delegate;
+    this.sampleMask = (1 << (32 - Integer.numberOfLeadingZeros(sampleInterval - 1))) - 1;
+  }
+
+  public static InstrumentedExecutorService wrap(String name, ExecutorService delegate) {
+    return new InstrumentedExecutorService(name, delegate);
+  }
+
+  public String name() {
+    return name;
+  }
+
+  // ---- instrumentation ----
+
+  // 0 means "not timed"; nanoTime() is never exactly 0 in practice
+  private long submitTimestamp() {
+    return (ThreadLocalRandom.current().nextInt() & sampleMask) == 0 ? System.nanoTime() : 0;
+  }
+
+  private void afterRun(long startedAt, boolean ok) {
+    if (startedAt != 0) {
+      runTime.record(System.nanoTime() - startedAt);
+    }
+    (ok ? completed : failed).increment();
+  }
+
+  // The wrapper every submitted task is run through; its state decides which counter the task is in
+  private abstract class Tracked {
+
+    private final long submittedAt = submitTimestamp();
+    private volatile int state = QUEUED;
+
+    long beforeRun() {
+      int previous = (int) STATE.getAndSet(this, STARTED);
+      started.increment();
+      if (previous == CANCELLED || previous == REJECTED) {
+        (previous == CANCELLED ? uncancelled : unrejected).increment();
+      }
+      if (submittedAt == 0) {
+        return 0;
+      }
+      long startedAt = System.nanoTime();
+      queueWait.record(startedAt - submittedAt);
+      return startedAt;
+    }
+
+    // Counts a task that will not run, unless it has started or been counted already
+    void leaveQueue(int reason) {
+      if (STATE.compareAndSet(this, QUEUED, reason)) {
+        (reason == CANCELLED ? cancelled : rejected).increment();
+      }
+    }
+  }
+
+  private final class TimedRunnable extends Tracked implements Runnable {
+
+    private final Runnable task;
+
+    TimedRunnable(Runnable task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      long startedAt = beforeRun();
+      boolean ok = false;
+      try {
+        task.run();
+        ok = true;
+      } finally {
+        afterRun(startedAt, ok);
+      }
+    }
+  }
+
+  private final class TimedCallable<T> extends Tracked implements Callable<T> {
+
+    private final Callable<T> task;
+
+    TimedCallable(Callable<T> task) {
+      this.task = task;
+    }
+
+    @Override
+    public T call() throws Exception {
+      long startedAt = beforeRun();
+      boolean ok = false;
+      try {
+        T result = task.call();
+        ok = true;
+        return result;
+      } finally {
+        afterRun(startedAt, ok);
+      }
+    }
+  }
+
+  // The future submit() returns; cancelling it before it runs takes the task out of the queue depth
+  private final class TrackedFuture<T> extends FutureTask<T> {
+
+    private final TimedCallable<T> task;
+
+    TrackedFuture(TimedCallable<T> task) {
+      super(task);
+      this.task = task;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelledHere = super.cancel(mayInterruptIfRunning);
+      if (cancelledHere) {
+        task.leaveQueue(CANCELLED);
+      }
+      return cancelledHere;
+    }
+  }
+
+  private void dispatch(Runnable command, Tracked task) {
+    submitted.increment();
+    try {
+      delegate.execute(command);
+    } catch (RejectedExecutionException e) {
+      task.leaveQueue(REJECTED);
+      throw e;
+    }
+  }
+
+  private <T> Future<T> submitTracked(Callable<T> callable) {
+    TrackedFuture<T> future = new TrackedFuture<>(new TimedCallable<>(callable));
+    dispatch(future, future.task);
+    return future;
+  }
+
+  private <T> List<TimedCallable<T>> timed(Collection<? extends Callable<T>> tasks) {
+    List<TimedCallable<T>> wrapped = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      wrapped.add(new TimedCallable<>(task));
+    }
+    submitted.add(wrapped.size());
+    return wrapped;
+  }
+
+  /*
+  invokeAll() and invokeAny() cancel every task that hasn't finished when they return or throw, inside the delegate's own futures.
+  So whatever hasn't started by then won't: it is counted as cancelled, or as rejected if the delegate threw RejectedExecutionException.
+   */
+  private void settle(List<? extends Tracked> tasks, boolean wasRejected) {
+    for (Tracked task : tasks) {
+      task.leaveQueue(wasRejected ? REJECTED : CANCELLED);
+    }
+  }
+
+  // ---- ExecutorService ----
+
+  @Override
+  public void execute(Runnable command) {
+    TimedRunnable task = new TimedRunnable(command);
+    dispatch(task, task);
+  }
+
+  @Override
+  public Future<?> submit(Runnable command) {
+    return submitTracked(Executors.callable(command));
+  }
+
+  @Override
+  public <T> Future<T> submit(Runnable command, T result) {
+    return submitTracked(Executors.callable(command, result));
+  }
+
+  @Override
+  public <T> Future<T> submit(Callable<T> callable) {
+    return submitTracked(callable);
+  }
+
+  @Override
+  public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks)
+      throws InterruptedException {
+    List<TimedCallable<T>> wrapped = timed(tasks);
+    boolean wasRejected = false;
+    try {
+      return delegate.invokeAll(wrapped);
+    } catch (RejectedExecutionException e) {
+      wasRejected = true;
+      throw e;
+    } finally {
+      settle(wrapped, wasRejected);
+    }
+  }
+
+  @Override
+  public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout,
+      TimeUnit unit) throws InterruptedException {
+    List<TimedCallable<T>> wrapped = timed(tasks);
+    boolean wasRejected = false;
+    try {
+      return delegate.invokeAll(wrapped, timeout, unit);
+    } catch (RejectedExecutionException e) {
+      wasRejected = true;
+      throw e;
+    } finally {
+      settle(wrapped, wasRejected);
+    }
+  }
+
+  @Override
+  public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+      throws InterruptedException, ExecutionException {
+    List<TimedCallable<T>> wrapped = timed(tasks);
+    boolean wasRejected = false;
+    try {
+      return delegate.invokeAny(wrapped);
+    } catch (RejectedExecutionException e) {
+      wasRejected = true;
+      throw e;
+    } finally {
+      settle(wrapped, wasRejected);
+    }
+  }
+
+  @Override
+  public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    List<TimedCallable<T>> wrapped = timed(tasks);
+    boolean wasRejected = false;
+    try {
+      return delegate.invokeAny(wrapped, timeout, unit);
+    } catch (RejectedExecutionException e) {
+      wasRejected = true;
+      throw e;
+    } finally {
+      settle(wrapped, wasRejected);
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  // The returned tasks are counted as cancelled; running them afterwards counts them as started again
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> neverStarted = delegate.shutdownNow();
+    for (Runnable command : neverStarted) {
+      if (command instanceof TrackedFuture) {
+        ((TrackedFuture<?>) command).task.leaveQueue(CANCELLED);
+      } else if (command instanceof Tracked) {
+        ((Tracked) command).leaveQueue(CANCELLED);
+      }
+    }
+    return neverStarted;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+
+  // ---- reporting ----
+
+  // A task can start between leaveQueue()'s state change and its increment, so clamp that race to 0
+  private long rejectedCount() {
+    long taken = unrejected.sum();
+    return Math.max(0, rejected.sum() - taken);
+  }
+
+  private long cancelledCount() {
+    long taken = uncancelled.sum();
+    return Math.max(0, cancelled.sum() - taken);
+  }
+
+  public Stats snapshot() {
+    // Read the later stages first so that derived gauges can't go negative from a race
+    long done = completed.sum();
+    long errors = failed.sum();
+    long running = started.sum();
+    long rejections = rejectedCount();
+    long cancellations = cancelledCount();
+    return new Stats(name, submitted.sum(), running, done, errors, rejections, cancellations,
+        queueWait.snapshot(), runTime.snapshot());
+  }
+
+  public void reset() {
+    submitted.sumThenReset();
+    started.sumThenReset();
+    completed.sumThenReset();
+    failed.sumThenReset();
+    rejected.sumThenReset();
+    cancelled.sumThenReset();
+    uncancelled.sumThenReset();
+    unrejected.sumThenReset();
+    queueWait.reset();
+    runTime.reset();
+  }
+
+  public void writeTo(Path file) throws IOException {
+    Files.write(file, snapshot().toJson().getBytes(StandardCharsets.UTF_8));
+  }
+
+  public ObjectName registerMBean() throws JMException {
+    ObjectName objectName = new ObjectName(
+        "com.java.concurrency:type=Executor,name=" + ObjectName.quote(name));
+    ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBean(), objectName);
+    return objectName;
+  }
+
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+
+  private final class MXBean implements ExecutorStatsMXBean {
+
+    @Override
+    public long getSubmitted() {
+      return submitted.sum();
+    }
+
+    @Override
+    public long getCompleted() {
+      return completed.sum();
+    }
+
+    @Override
+    public long getFailed() {
+      return failed.sum();
+    }
+
+    @Override
+    public long getRejected() {
+      return rejectedCount();
+    }
+
+    @Override
+    public long getCancelled() {
+      return cancelledCount();
+    }
+
+    @Override
+    public long getActive() {
+      return snapshot().active();
+    }
+
+    @Override
+    public long getQueueDepth() {
+      return snapshot().queueDepth();
+    }
+
+    @Override
+    public long getQueueWaitP50() {
+      return queueWait.snapshot().percentile(50);
+    }
+
+    @Override
+    public long getQueueWaitP99() {
+      return queueWait.snapshot().percentile(99);
+    }
+
+    @Override
+    public long getQueueWaitMax() {
+      return queueWait.snapshot().max();
+    }
+
+    @Override
+    public long getRunTimeP50() {
+      return runTime.snapshot().percentile(50);
+    }
+
+    @Override
+    public long getRunTimeP99() {
+      return runTime.snapshot().percentile(99);
+    }
+
+    @Override
+    public long getRunTimeMax() {
+      return runTime.snapshot().max();
+    }
+
+    @Override
+    public void reset() {
+      InstrumentedExecutorService.this.reset();
+    }
+  }
+
+  public static final class Stats {
+
+    private final String name;
+    private final long submitted;
+    private final long started;
+    private final long completed;
+    private final long failed;
+    private final long rejected;
+    private final long cancelled;
+    private final LatencyHistogram.Snapshot queueWait;
+    private final LatencyHistogram.Snapshot runTime;
+
+    Stats(String name, long submitted, long started, long completed, long failed, long rejected,
+        long cancelled, LatencyHistogram.Snapshot queueWait, LatencyHistogram.Snapshot runTime) {
+      this.name = name;
+      this.submitted = submitted;
+      this.started = started;
+      this.completed = completed;
+      this.failed = failed;
+      this.rejected = rejected;
+      this.cancelled = cancelled;
+      this.queueWait = queueWait;
+      this.runTime = runTime;
+    }
+
+    public long submitted() {
+      return submitted;
+    }
+
+    public long completed() {
+      return completed;
+    }
+
+    public long failed() {
+      return failed;
+    }
+
+    public long rejected() {
+      return rejected;
+    }
+
+    public long cancelled() {
+      return cancelled;
+    }
+
+    public long active() {
+      return Math.max(0, started - completed - failed);
+    }
+
+    // The counters are read one after another, so clamp the small races to 0
+    public long queueDepth() {
+      return Math.max(0, submitted - rejected - started - cancelled);
+    }
+
+    public LatencyHistogram.Snapshot queueWait() {
+      return queueWait;
+    }
+
+    public LatencyHistogram.Snapshot runTime() {
+      return runTime;
+    }
+
+    public String toJson() {
+      return "{\"name\": \"" + name.replace("\"", "\\\"") + "\""
+          + ", \"submitted\": " + submitted
+          + ", \"completed\": " + completed
+          + ", \"failed\": " + failed
+          + ", \"rejected\": " + rejected
+          + ", \"cancelled\": " + cancelled
+          + ", \"active\": " + active()
+          + ", \"queueDepth\": " + queueDepth()
+          + ", \"queueWaitNanos\": " + queueWait.toJson()
+          + ", \"runTimeNanos\": " + runTime.toJson() + "}";
+    }
+
+    @Override
+    public String toString() {
+      return name + ": submitted=" + submitted + " completed=" + completed + " failed=" + failed
+          + " rejected=" + rejected + " cancelled=" + cancelled + " active=" + active()
+          + " queued=" + queueDepth()
+          + "\n  queue wait " + queueWait + "\n  run time   " + runTime;
+    }
+  }
+}
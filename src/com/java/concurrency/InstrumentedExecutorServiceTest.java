@@ -0,0 +1,125 @@
+package com.java.concurrency;
+
+/*
+Checks that InstrumentedExecutorService's counts add up once the executor is idle; run it and it exits with status 1 on a failure.
+cancelled    futures cancelled while queued behind a blocked task leave the queue depth, and the rest run.
+invoke       invokeAny() losers and invokeAll() timeouts are counted as cancelled, not left queued.
+drained      tasks returned by shutdownNow() are counted as cancelled; running them afterwards on the calling thread moves them back to started, and they run. This used to throw from the counters, so the tasks never ran and stayed active.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InstrumentedExecutorServiceTest {
+
+  private static int failures;
+
+  public static void main(String[] args) throws Exception {
+    cancelled();
+    invoke();
+    drained();
+    System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+    System.exit(failures == 0 ? 0 : 1);
+  }
+
+  private static void check(String name, boolean passed, String detail) {
+    System.out.println((passed ? "ok    " : "FAIL  ") + name + ": " + detail);
+    if (!passed) {
+      failures++;
+    }
+  }
+
+  private static InstrumentedExecutorService singleThread(String name) {
+    return InstrumentedExecutorService.wrap(name, Executors.newSingleThreadExecutor());
+  }
+
+  // Occupies the single worker until the returned latch is counted down
+  private static CountDownLatch block(InstrumentedExecutorService executor) {
+    CountDownLatch gate = new CountDownLatch(1);
+    executor.execute(() -> {
+      try {
+        gate.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    return gate;
+  }
+
+  private static void idle(String name, InstrumentedExecutorService.Stats stats, long completed,
+      long cancelled) {
+    check(name, stats.queueDepth() == 0 && stats.active() == 0
+            && stats.completed() == completed && stats.cancelled() == cancelled,
+        stats.toString().split("\n")[0]);
+  }
+
+  private static void cancelled() throws InterruptedException {
+    InstrumentedExecutorService executor = singleThread("cancelled");
+    CountDownLatch gate = block(executor);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      futures.add(executor.submit(() -> { }));
+    }
+    for (int i = 0; i < 4; i++) {
+      futures.get(i).cancel(false);
+    }
+    gate.countDown();
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    idle("cancelled while queued", executor.snapshot(), 7, 4);
+  }
+
+  private static void invoke() throws Exception {
+    InstrumentedExecutorService executor = singleThread("invoke");
+    List<Callable<Integer>> any = new ArrayList<>();
+    any.add(() -> 1);
+    for (int i = 0; i < 4; i++) {
+      any.add(() -> 2);
+    }
+    executor.invokeAny(any);
+    CountDownLatch gate = block(executor);
+    List<Callable<Integer>> all = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      all.add(() -> 3);
+    }
+    executor.invokeAll(all, 20, TimeUnit.MILLISECONDS);
+    gate.countDown();
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    InstrumentedExecutorService.Stats stats = executor.snapshot();
+    check("invokeAny and timed-out invokeAll", stats.queueDepth() == 0 && stats.active() == 0
+            && stats.completed() + stats.cancelled() == stats.submitted(),
+        stats.toString().split("\n")[0]);
+  }
+
+  private static void drained() throws InterruptedException {
+    InstrumentedExecutorService executor = singleThread("drained");
+    CountDownLatch gate = block(executor);
+    AtomicInteger ran = new AtomicInteger();
+    for (int i = 0; i < 3; i++) {
+      executor.execute(ran::incrementAndGet);
+    }
+    for (int i = 0; i < 3; i++) {
+      executor.submit(ran::incrementAndGet);
+    }
+    List<Runnable> neverStarted = executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    idle("shutdownNow() counted as cancelled", executor.snapshot(), 1, neverStarted.size());
+    boolean threw = false;
+    for (Runnable task : neverStarted) {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        threw = true;
+      }
+    }
+    check("drained tasks run", !threw && ran.get() == 6, ran.get() + " of 6 ran, threw: " + threw);
+    idle("drained tasks counted as started", executor.snapshot(), 7, 0);
+  }
+}
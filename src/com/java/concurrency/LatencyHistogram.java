@@ -0,0 +1,136 @@
+package com.java.concurrency;
+
+/*
+A fixed-size, lock-free latency histogram in the style of HdrHistogram.
+Values below 128 ns get a bucket each. Above that, every power of two is split into 64 equal buckets, so a recorded value is off by at most 1/64 (about 1.6%) whatever its magnitude, from nanoseconds up to years.
+That is 3712 counters (29 KB) in total, allocated once. record() is a couple of shifts and one atomic increment, and never allocates, so it can stay on in production.
+Percentiles are read from a snapshot(); recording carries on while a snapshot is taken.
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+
+  private static final int LINEAR_BITS = 7;
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = LINEAR_BUCKETS + (63 - LINEAR_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  public void record(long nanos) {
+    counts.getAndIncrement(indexOf(Math.max(0, nanos)));
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+  }
+
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+    }
+    return new Snapshot(copy);
+  }
+
+  static int indexOf(long value) {
+    if (value < LINEAR_BUCKETS) {
+      return (int) value;
+    }
+    int msb = 63 - Long.numberOfLeadingZeros(value);
+    int shift = msb - SUB_BUCKET_BITS;
+    int mantissa = (int) (value >>> shift) - SUB_BUCKETS;
+    return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + mantissa;
+  }
+
+  // Smallest value that lands in the bucket
+  static long lowestValueAt(int index) {
+    if (index < LINEAR_BUCKETS) {
+      return index;
+    }
+    int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+    long mantissa = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+    return mantissa << shift;
+  }
+
+  static long highestValueAt(int index) {
+    return index + 1 < BUCKETS ? lowestValueAt(index + 1) - 1 : Long.MAX_VALUE;
+  }
+
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long total;
+
+    private Snapshot(long[] counts) {
+      this.counts = counts;
+      long total = 0;
+      for (long count : counts) {
+        total += count;
+      }
+      this.total = total;
+    }
+
+    public long count() {
+      return total;
+    }
+
+    // Upper bound of the bucket holding the requested percentile (0-100), in nanoseconds
+    public long percentile(double percentile) {
+      if (total == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return highestValueAt(i);
+        }
+      }
+      return max();
+    }
+
+    public long max() {
+      for (int i = counts.length - 1; i >= 0; i--) {
+        if (counts[i] != 0) {
+          return highestValueAt(i);
+        }
+      }
+      return 0;
+    }
+
+    public double mean() {
+      if (total == 0) {
+        return 0;
+      }
+      double sum = 0;
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] != 0) {
+          sum += counts[i] * ((lowestValueAt(i) + (double) highestValueAt(i)) / 2);
+        }
+      }
+      return sum / total;
+    }
+
+    String toJson() {
+      return "{\"count\": " + total
+          + ", \"mean\": " + Math.round(mean())
+          + ", \"p50\": " + percentile(50)
+          + ", \"p90\": " + percentile(90)
+          + ", \"p99\": " + percentile(99)
+          + ", \"p99.9\": " + percentile(99.9)
+          + ", \"max\": " + max() + "}";
+    }
+
+    @Override
+    public String toString() {
+      return "count=" + total + " p50=" + percentile(50) + "ns p99=" + percentile(99)
+          + "ns max=" + max() + "ns";
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.java.concurrency;
+
+/*
+Ring queue for any number of producer threads and one consumer thread.
+A producer claims a slot by compare-and-set on the producer index, then publishes the element with an ordered write. Until that write lands the slot still reads null, so the consumer never sees a half-written slot.
+ */
+class MpscRingQueue<E> extends AbstractRingQueue<E> {
+
+  MpscRingQueue(int capacity) {
+    super(capacity);
+  }
+
+  @Override
+  public boolean offer(E e) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    long index;
+    do {
+      index = (long) PRODUCER_INDEX.getVolatile(this);
+      long limit = producerLimit;
+      if (index >= limit) {
+        // Racy refresh of the shared cache is fine: a stale value is only ever too small, never too large
+        limit = (long) CONSUMER_INDEX.getAcquire(this) + buffer.length;
+        if (index >= limit) {
+          return false;
+        }
+        producerLimit = limit;
+      }
+    } while (!PRODUCER_INDEX.compareAndSet(this, index, index + 1));
+    SLOT.setRelease(buffer, (int) (index & mask), e);
+    return true;
+  }
+}
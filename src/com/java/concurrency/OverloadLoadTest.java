@@ -0,0 +1,141 @@
+package com.java.concurrency;
+
+/*
+A load test that pushes 10 times more work at an executor than it can handle and watches the heap.
+The pool has 4 threads and each task takes 1 ms, so it can run about 4,000 tasks per second. Producers submit 40,000 tasks per second, each holding a 1 KB payload, for 10 seconds per executor.
+
+unbounded      Executors.newFixedThreadPool(4): the queue grows by ~36,000 tasks (~36 MB) every second.
+callerRuns     producers end up running tasks themselves and slow down to what the system can handle.
+block          producers wait up to 5 ms for a slot, then drop the task.
+dropOldest     the queue stays full of the newest tasks.
+shed           new tasks are thrown away and counted.
+tryExecute     producers check first and skip the task when the executor is saturated.
+
+Every second it prints the used heap (after a GC, so garbage doesn't hide the trend) and the queue length. A bounded executor should show a flat line; the unbounded one a steady climb.
+Results go to bench-results/concurrency-overload.json. Use -Doverload.seconds to change the duration.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+public class OverloadLoadTest {
+
+  private static final int THREADS = 4;
+  private static final int QUEUE_CAPACITY = 1_000;
+  private static final int TASKS_PER_SECOND = THREADS * 1_000 * 10;
+  private static final int PRODUCERS = 2;
+  private static final int PAYLOAD_BYTES = 1024;
+  private static final int SECONDS = Integer.getInteger("overload.seconds", 10);
+
+  private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+  public static void main(String[] args) throws Exception {
+    List<String> runs = new ArrayList<>();
+    runs.add(run("unbounded", () -> Executors.newFixedThreadPool(THREADS), false));
+    runs.add(run("callerRuns", () -> bounded(OverloadPolicy.callerRuns()), false));
+    runs.add(run("block", () -> bounded(OverloadPolicy.block(5, TimeUnit.MILLISECONDS)), false));
+    runs.add(run("dropOldest", () -> bounded(OverloadPolicy.dropOldest()), false));
+    runs.add(run("shed", () -> bounded(OverloadPolicy.shed()), false));
+    runs.add(run("tryExecute", () -> bounded(OverloadPolicy.shed()), true));
+
+    Path dir = Paths.get(System.getProperty("bench.dir", "bench-results"));
+    Files.createDirectories(dir);
+    Path file = dir.resolve("concurrency-overload.json");
+    Files.write(file, ("{\"jdk\": \"" + System.getProperty("java.version") + "\", \"runs\": [\n  "
+        + String.join(",\n  ", runs) + "\n]}\n").getBytes(StandardCharsets.UTF_8));
+    System.out.println("Wrote " + file.toAbsolutePath());
+  }
+
+  private static BoundedExecutor bounded(OverloadPolicy policy) {
+    return new BoundedExecutor(THREADS, QUEUE_CAPACITY, policy);
+  }
+
+  private static String run(String name, Supplier<ExecutorService> factory, boolean tryFirst)
+      throws InterruptedException {
+    System.gc();
+    ExecutorService executor = factory.get();
+    LongAdder accepted = new LongAdder();
+    LongAdder refused = new LongAdder();
+    LongAdder completed = new LongAdder();
+    long endAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+
+    Thread[] producers = new Thread[PRODUCERS];
+    for (int p = 0; p < PRODUCERS; p++) {
+      producers[p] = new Thread(() -> produce(executor, tryFirst, endAt, accepted, refused,
+          completed), name + "-producer-" + p);
+      producers[p].start();
+    }
+
+    StringBuilder heap = new StringBuilder();
+    System.out.println("# " + name);
+    for (int second = 1; second <= SECONDS; second++) {
+      Thread.sleep(1000);
+      System.gc();
+      long usedMb = MEMORY.getHeapMemoryUsage().getUsed() >> 20;
+      int queued = ((ThreadPoolExecutor) executor).getQueue().size();
+      System.out.printf("%-11s t=%2ds heap=%5d MB queued=%7d completed=%8d refused=%8d%n",
+          name, second, usedMb, queued, completed.sum(), refused.sum());
+      heap.append(second == 1 ? "" : ", ").append(usedMb);
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+    executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    if (executor instanceof BoundedExecutor) {
+      System.out.println(executor);
+    }
+    return "{\"executor\": \"" + name + "\", \"heapUsedMb\": [" + heap + "]"
+        + ", \"accepted\": " + accepted.sum() + ", \"refused\": " + refused.sum()
+        + ", \"completed\": " + completed.sum() + "}";
+  }
+
+  // Submits up to TASKS_PER_SECOND / PRODUCERS tasks per second in 1 ms bursts
+  private static void produce(ExecutorService executor, boolean tryFirst, long endAt,
+      LongAdder accepted, LongAdder refused, LongAdder completed) {
+    int perMillisecond = TASKS_PER_SECOND / PRODUCERS / 1000;
+    long next = System.nanoTime();
+    while (System.nanoTime() < endAt) {
+      for (int i = 0; i < perMillisecond; i++) {
+        byte[] payload = new byte[PAYLOAD_BYTES];
+        Runnable task = () -> {
+          LockSupport.parkNanos(1_000_000);
+          if (payload.length > 0) {
+            completed.increment();
+          }
+        };
+        try {
+          if (tryFirst) {
+            if (((BoundedExecutor) executor).tryExecute(task)) {
+              accepted.increment();
+            } else {
+              refused.increment();
+            }
+          } else {
+            executor.execute(task);
+            accepted.increment();
+          }
+        } catch (RejectedExecutionException e) {
+          refused.increment();
+        }
+      }
+      // A producer that was held back (callerRuns, block) does not try to catch up afterwards
+      next = Math.max(next + 1_000_000, System.nanoTime());
+      LockSupport.parkNanos(next - System.nanoTime());
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.java.concurrency;
+
+/*
+What a BoundedExecutor does with a task that arrives while its queue is full.
+The JDK's RejectedExecutionHandler plays the same role for ThreadPoolExecutor. These policies differ in two ways: every task they throw away is counted on the executor, and if it was submitted with submit() its Future is cancelled, so nobody blocks forever on get() for work that will never run.
+
+callerRuns()     the submitting thread runs the task itself. Producers slow down to the speed of the pool, which is the simplest form of backpressure.
+block(t, unit)   the submitting thread waits up to t for a free queue slot, then gets a RejectedExecutionException.
+dropOldest()     the task that has waited longest is discarded to make room. Good for work where only the latest value matters.
+shed()           the new task is discarded. The caller carries on immediately and the executor's shed count goes up.
+ */
+
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@FunctionalInterface
+public interface OverloadPolicy {
+
+  void onOverload(Runnable task, BoundedExecutor executor);
+
+  static OverloadPolicy callerRuns() {
+    return (task, executor) -> {
+      executor.recordCallerRuns();
+      task.run();
+    };
+  }
+
+  static OverloadPolicy block(long timeout, TimeUnit unit) {
+    return (task, executor) -> {
+      try {
+        if (executor.getQueue().offer(task, timeout, unit)) {
+          // shutdown() may have run while we waited, in which case nobody will take the task
+          if (executor.isShutdown() && executor.remove(task)) {
+            executor.discard(task);
+            throw new RejectedExecutionException("Executor shut down while waiting for space");
+          }
+          return;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      executor.discard(task);
+      throw new RejectedExecutionException(
+          "Queue still full after " + timeout + " " + unit.toString().toLowerCase());
+    };
+  }
+
+  static OverloadPolicy dropOldest() {
+    return (task, executor) -> {
+      Runnable oldest = executor.getQueue().poll();
+      if (oldest != null) {
+        executor.discard(oldest);
+      }
+      executor.execute(task);
+    };
+  }
+
+  static OverloadPolicy shed() {
+    return (task, executor) -> executor.discard(task);
+  }
+
+  // Used by BoundedExecutor.discard()
+  static void cancelIfFuture(Runnable task) {
+    if (task instanceof Future) {
+      ((Future<?>) task).cancel(false);
+    }
+  }
+}
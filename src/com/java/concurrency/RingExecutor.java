@@ -0,0 +1,48 @@
+package com.java.concurrency;
+
+/*
+A single-threaded Executor that runs tasks in submission order, like Executors.newSingleThreadExecutor(), but hands tasks over through a preallocated ring buffer instead of a LinkedBlockingQueue.
+Use singleProducer() when only one thread ever calls execute(), multiProducer() otherwise.
+execute() waits with the WaitStrategy while the ring is full rather than growing it.
+ */
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+public class RingExecutor implements Executor, AutoCloseable {
+
+  private static final int MAX_BATCH = 256;
+
+  private final RingPipeline<Runnable> pipeline;
+
+  private RingExecutor(RingQueue<Runnable> queue, WaitStrategy waitStrategy) {
+    this.pipeline = new RingPipeline<>(queue, waitStrategy, MAX_BATCH, Runnable::run);
+  }
+
+  public static RingExecutor singleProducer(int capacity, WaitStrategy waitStrategy) {
+    return new RingExecutor(RingQueue.singleProducer(capacity), waitStrategy);
+  }
+
+  public static RingExecutor multiProducer(int capacity, WaitStrategy waitStrategy) {
+    return new RingExecutor(RingQueue.multiProducer(capacity), waitStrategy);
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    try {
+      pipeline.put(command);
+    } catch (IllegalStateException e) {
+      throw new RejectedExecutionException(e.getMessage());
+    }
+  }
+
+  public long completedTaskCount() {
+    return pipeline.processedCount();
+  }
+
+  // Runs everything already submitted, then stops the worker thread
+  @Override
+  public void close() throws InterruptedException {
+    pipeline.close();
+  }
+}
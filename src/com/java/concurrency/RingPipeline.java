@@ -0,0 +1,116 @@
+package com.java.concurrency;
+
+/*
+One consumer thread that takes events off a RingQueue in batches and hands them to an EventHandler.
+Producers call offer() (fails fast when full) or put() (waits with the WaitStrategy until there is room).
+The consumer takes up to maxBatch events per pass and calls onBatchEnd() after each pass, which is the place to flush a buffer or commit a transaction once per batch instead of once per event.
+
+An exception from the handler is reported to the consumer thread's UncaughtExceptionHandler and the consumer carries on with the next event.
+close() stops accepting events, lets the consumer finish everything already queued, and waits for it to exit. Stop the producers first: an event offered at the same moment as close() may be lost.
+ */
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+public class RingPipeline<E> implements AutoCloseable {
+
+  public interface EventHandler<E> {
+
+    void onEvent(E event) throws Exception;
+
+    default void onBatchEnd() throws Exception {
+    }
+  }
+
+  private final RingQueue<E> queue;
+  private final WaitStrategy waitStrategy;
+  private final int maxBatch;
+  private final EventHandler<? super E> handler;
+  private final Thread consumer;
+  private final Consumer<E> dispatch;
+
+  private volatile boolean closed;
+  private volatile long processed;
+
+  public RingPipeline(RingQueue<E> queue, WaitStrategy waitStrategy, int maxBatch,
+      EventHandler<? super E> handler) {
+    this(queue, waitStrategy, maxBatch, handler, Executors.defaultThreadFactory());
+  }
+
+  public RingPipeline(RingQueue<E> queue, WaitStrategy waitStrategy, int maxBatch,
+      EventHandler<? super E> handler, ThreadFactory threadFactory) {
+    if (maxBatch < 1) {
+      throw new IllegalArgumentException("maxBatch must be >= 1");
+    }
+    this.queue = queue;
+    this.waitStrategy = waitStrategy;
+    this.maxBatch = maxBatch;
+    this.handler = handler;
+    this.dispatch = this::handle;
+    this.consumer = threadFactory.newThread(this::consume);
+    consumer.start();
+  }
+
+  public boolean offer(E event) {
+    if (closed) {
+      throw new IllegalStateException("Pipeline is closed");
+    }
+    return queue.offer(event);
+  }
+
+  public void put(E event) {
+    int attempt = 0;
+    while (!offer(event)) {
+      waitStrategy.idle(attempt++);
+    }
+  }
+
+  // Events handled so far; only the consumer thread writes it
+  public long processedCount() {
+    return processed;
+  }
+
+  public int queued() {
+    return queue.size();
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    closed = true;
+    consumer.join();
+  }
+
+  private void consume() {
+    int attempt = 0;
+    while (true) {
+      int taken = queue.drain(dispatch, maxBatch);
+      if (taken > 0) {
+        processed += taken;
+        attempt = 0;
+        try {
+          handler.onBatchEnd();
+        } catch (Exception e) {
+          report(e);
+        }
+      } else if (closed && queue.isEmpty()) {
+        return;
+      } else {
+        waitStrategy.idle(attempt++);
+      }
+    }
+  }
+
+  private void handle(E event) {
+    try {
+      handler.onEvent(event);
+    } catch (Exception e) {
+      report(e);
+    }
+  }
+
+  private void report(Exception e) {
+    Thread current = Thread.currentThread();
+    current.getUncaughtExceptionHandler().uncaughtException(current, e);
+  }
+}
@@ -0,0 +1,109 @@
+package com.java.concurrency;
+
+/*
+Compares handing small tasks to one consumer thread through Executors.newSingleThreadExecutor() (a LinkedBlockingQueue: one node allocation and a lock per task) and through RingExecutor (a preallocated ring buffer) with each wait strategy.
+The parameter is the number of producer threads. Each invocation has every producer submit 10,000 tasks and returns once the consumer has run all of them, so ns/op is the inverse of end-to-end throughput.
+ringSpsc only runs with one producer. Busy-spin strategies need a spare core per spinning thread; on a machine with fewer cores than producers + 1 they mostly measure the scheduler.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.ParallelInvocation;
+import com.java.benchmark.Workload;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class RingPipelineBenchmark {
+
+  private static final int TASKS_PER_PRODUCER = 10_000;
+  private static final int CAPACITY = 8192;
+
+  public static void main(String[] args) throws Exception {
+    new Harness("concurrency-ring", "producers", 1, 2, 4, 8)
+        .add("singleThreadExecutor", producers -> jdk(producers))
+        .add("ringSpscBusySpin", producers -> producers == 1
+            ? ring(producers, () -> RingExecutor.singleProducer(CAPACITY, WaitStrategy.busySpin()))
+            : null)
+        .add("ringSpscParking", producers -> producers == 1
+            ? ring(producers, () -> RingExecutor.singleProducer(CAPACITY, WaitStrategy.parking()))
+            : null)
+        .add("ringMpscBusySpin", producers -> ring(producers,
+            () -> RingExecutor.multiProducer(CAPACITY, WaitStrategy.busySpin())))
+        .add("ringMpscYielding", producers -> ring(producers,
+            () -> RingExecutor.multiProducer(CAPACITY, WaitStrategy.yielding())))
+        .add("ringMpscParking", producers -> ring(producers,
+            () -> RingExecutor.multiProducer(CAPACITY, WaitStrategy.parking())))
+        .runAndReport();
+  }
+
+  // Counts tasks run on the consumer thread; producers wait until it catches up
+  private static final class Done {
+
+    final AtomicLong submitted = new AtomicLong();
+    volatile long ran;
+    final Runnable task = () -> ran++;
+
+    void awaitAll() {
+      long expected = submitted.get();
+      while (ran < expected) {
+        Thread.yield();
+      }
+    }
+  }
+
+  private static Workload.Invocation jdk(int producers) {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Done done = new Done();
+    return new ParallelInvocation(producers, TASKS_PER_PRODUCER, (worker, ops) -> {
+      for (int i = 0; i < ops; i++) {
+        executor.execute(done.task);
+      }
+      done.submitted.addAndGet(ops);
+      return ops;
+    }) {
+      @Override
+      public long invoke() throws Exception {
+        long result = super.invoke();
+        done.awaitAll();
+        return result;
+      }
+
+      @Override
+      public void close() {
+        super.close();
+        executor.shutdown();
+        Workload.awaitTermination(executor);
+      }
+    };
+  }
+
+  private static Workload.Invocation ring(int producers, Supplier<RingExecutor> factory) {
+    RingExecutor executor = factory.get();
+    Done done = new Done();
+    return new ParallelInvocation(producers, TASKS_PER_PRODUCER, (worker, ops) -> {
+      for (int i = 0; i < ops; i++) {
+        executor.execute(done.task);
+      }
+      done.submitted.addAndGet(ops);
+      return ops;
+    }) {
+      @Override
+      public long invoke() throws Exception {
+        long result = super.invoke();
+        done.awaitAll();
+        return result;
+      }
+
+      @Override
+      public void close() {
+        super.close();
+        try {
+          executor.close();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,37 @@
+package com.java.concurrency;
+
+/*
+A bounded, lock-free queue backed by a preallocated power-of-two array.
+LinkedBlockingQueue allocates a node for every element and takes a lock on every put and take. A ring buffer reuses the same array slots forever and hands elements over with a single ordered write, so a hand-off costs no allocation and no lock.
+There is exactly one consumer thread. SpscRingQueue also allows only one producer thread; MpscRingQueue allows any number.
+ */
+
+import java.util.function.Consumer;
+
+public interface RingQueue<E> {
+
+  // false when the queue is full; never blocks
+  boolean offer(E e);
+
+  // null when the queue is empty; consumer thread only
+  E poll();
+
+  // Hands up to limit elements to the consumer and returns how many it took; consumer thread only
+  int drain(Consumer<? super E> consumer, int limit);
+
+  int size();
+
+  int capacity();
+
+  default boolean isEmpty() {
+    return size() == 0;
+  }
+
+  static <E> RingQueue<E> singleProducer(int capacity) {
+    return new SpscRingQueue<>(capacity);
+  }
+
+  static <E> RingQueue<E> multiProducer(int capacity) {
+    return new MpscRingQueue<>(capacity);
+  }
+}
@@ -0,0 +1,29 @@
+package com.java.concurrency;
+
+/*
+Ring queue for exactly one producer thread and one consumer thread.
+With a single producer nobody competes for the producer index, so offer() is a plain read of the cached limit, one ordered write of the element and one ordered write of the index: no compare-and-set at all.
+ */
+class SpscRingQueue<E> extends AbstractRingQueue<E> {
+
+  SpscRingQueue(int capacity) {
+    super(capacity);
+  }
+
+  @Override
+  public boolean offer(E e) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    long index = producerIndex;
+    if (index >= producerLimit) {
+      producerLimit = (long) CONSUMER_INDEX.getAcquire(this) + buffer.length;
+      if (index >= producerLimit) {
+        return false;
+      }
+    }
+    SLOT.setRelease(buffer, (int) (index & mask), e);
+    PRODUCER_INDEX.setRelease(this, index + 1);
+    return true;
+  }
+}
@@ -0,0 +1,223 @@
+package com.java.concurrency;
+
+/*
+A counter that many threads can increment at the same time without fighting over one memory location.
+counter++ on a shared int is a read-modify-write that loses updates, and AtomicInteger/synchronized are correct but make every core wait for the same cache line.
+Like java.util.concurrent.atomic.LongAdder, this counter starts with a single base value and, once two threads collide on it, spreads updates over an array of cells. Each thread is hashed to a cell, so threads on different cores mostly write to different cache lines. Cells are padded to keep two cells from sharing a 64-byte line (false sharing).
+
+Reads:
+sum()              exact: scans every cell. Every increment that completed before the call is included; increments running concurrently may or may not be.
+approximateSum()   returns a cached total that is at most `staleness` old, so frequent readers don't keep pulling every cell's cache line away from the writers.
+sumThenReset()     atomically swaps each cell to zero, so every increment is counted in exactly one snapshot, never lost and never counted twice.
+
+The counter only goes up between resets; add() rejects negative values.
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class StripedCounter {
+
+  private static final int MAX_CELLS = Integer.highestOneBit(
+      Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+
+  private static final VarHandle BASE;
+  private static final VarHandle CELLS_BUSY;
+  private static final VarHandle VALUE;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      BASE = lookup.findVarHandle(StripedCounter.class, "base", long.class);
+      CELLS_BUSY = lookup.findVarHandle(StripedCounter.class, "cellsBusy", int.class);
+      VALUE = lookup.findVarHandle(CellValue.class, "value", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  // Per-thread hash used to pick a cell. It is moved on collision, so two threads that keep clashing drift apart.
+  private static final ThreadLocal<int[]> PROBE = ThreadLocal
+      .withInitial(() -> new int[]{ThreadLocalRandom.current().nextInt() | 1});
+
+  private volatile long base;
+  private volatile Cell[] cells;
+  private volatile int cellsBusy;
+
+  private final long stalenessNanos;
+  private volatile long cachedSum;
+  private volatile long cachedAt;
+
+  public StripedCounter() {
+    this(1, TimeUnit.MILLISECONDS);
+  }
+
+  public StripedCounter(long staleness, TimeUnit unit) {
+    this.stalenessNanos = unit.toNanos(staleness);
+    this.cachedAt = System.nanoTime() - stalenessNanos - 1;
+  }
+
+  public void increment() {
+    add(1L);
+  }
+
+  public void add(long x) {
+    if (x < 0) {
+      throw new IllegalArgumentException("Counter can't go down: " + x);
+    }
+    Cell[] cs = cells;
+    if (cs == null) {
+      long b = base;
+      if (BASE.compareAndSet(this, b, b + x)) {
+        return;
+      }
+    } else {
+      int[] probe = PROBE.get();
+      Cell c = cs[probe[0] & (cs.length - 1)];
+      if (c != null) {
+        long v = c.value;
+        if (VALUE.compareAndSet(c, v, v + x)) {
+          return;
+        }
+      }
+    }
+    addContended(x);
+  }
+
+  // Slow path: create or grow the cell table and retry until an update sticks
+  private void addContended(long x) {
+    int[] probe = PROBE.get();
+    boolean collided = false;
+    for (;;) {
+      Cell[] cs = cells;
+      if (cs != null) {
+        int index = probe[0] & (cs.length - 1);
+        Cell c = cs[index];
+        if (c == null) {
+          if (cellsBusy == 0 && CELLS_BUSY.compareAndSet(this, 0, 1)) {
+            try {
+              if (cells == cs && cs[index] == null) {
+                Cell created = new Cell();
+                created.value = x;
+                cs[index] = created;
+                return;
+              }
+            } finally {
+              cellsBusy = 0;
+            }
+          }
+          collided = false;
+        } else {
+          long v = c.value;
+          if (VALUE.compareAndSet(c, v, v + x)) {
+            return;
+          }
+          if (collided && cs.length < MAX_CELLS && cellsBusy == 0
+              && CELLS_BUSY.compareAndSet(this, 0, 1)) {
+            try {
+              if (cells == cs) {
+                Cell[] grown = new Cell[cs.length << 1];
+                System.arraycopy(cs, 0, grown, 0, cs.length);
+                cells = grown;
+              }
+            } finally {
+              cellsBusy = 0;
+            }
+            collided = false;
+            continue;
+          }
+          collided = true;
+        }
+        probe[0] = advance(probe[0]);
+      } else if (cellsBusy == 0 && CELLS_BUSY.compareAndSet(this, 0, 1)) {
+        try {
+          if (cells == null) {
+            Cell[] created = new Cell[2];
+            Cell c = new Cell();
+            c.value = x;
+            created[probe[0] & 1] = c;
+            cells = created;
+            return;
+          }
+        } finally {
+          cellsBusy = 0;
+        }
+      } else {
+        long b = base;
+        if (BASE.compareAndSet(this, b, b + x)) {
+          return;
+        }
+      }
+    }
+  }
+
+  // xorshift step, never returns 0
+  private static int advance(int probe) {
+    probe ^= probe << 13;
+    probe ^= probe >>> 17;
+    probe ^= probe << 5;
+    return probe;
+  }
+
+  public long sum() {
+    long sum = base;
+    Cell[] cs = cells;
+    if (cs != null) {
+      for (Cell c : cs) {
+        if (c != null) {
+          sum += c.value;
+        }
+      }
+    }
+    return sum;
+  }
+
+  public long approximateSum() {
+    long now = System.nanoTime();
+    if (now - cachedAt <= stalenessNanos) {
+      return cachedSum;
+    }
+    long sum = sum();
+    cachedSum = sum;
+    cachedAt = now;
+    return sum;
+  }
+
+  public long sumThenReset() {
+    long sum = (long) BASE.getAndSet(this, 0L);
+    Cell[] cs = cells;
+    if (cs != null) {
+      for (Cell c : cs) {
+        if (c != null) {
+          sum += (long) VALUE.getAndSet(c, 0L);
+        }
+      }
+    }
+    cachedSum = 0;
+    cachedAt = System.nanoTime();
+    return sum;
+  }
+
+  @Override
+  public String toString() {
+    return Long.toString(sum());
+  }
+
+  /*
+  The JVM is free to reorder fields within one class, but superclass fields are always laid out before subclass fields.
+  Splitting the padding across a class hierarchy therefore guarantees 56 bytes on either side of `value`.
+   */
+  abstract static class CellLeftPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+  }
+
+  abstract static class CellValue extends CellLeftPadding {
+    volatile long value;
+  }
+
+  static final class Cell extends CellValue {
+    long p11, p12, p13, p14, p15, p16, p17;
+  }
+}
@@ -28,7 +28,6 @@ import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -37,10 +36,18 @@ import java.util.concurrent.TimeoutException;
 
 public class Test {
 
-  private static int counter = 0;
+  // Incremented from two threads below; a plain static int++ would lose updates
+  private static final ThresholdCounter counter = new ThresholdCounter();
 
   public static void main(String[] args)
       throws InterruptedException, TimeoutException, ExecutionException {
+    /*
+    System.out.println() is synchronized and writes every line straight away, so threads that print a lot wait on each other.
+    Run with -Dasync.out=true to replace System.out with an AsyncPrintStream, which queues lines and writes them in batches from one background thread.
+     */
+    if (Boolean.getBoolean("async.out")) {
+      AsyncPrintStream.installAsSystemOut();
+    }
     Runnable sloth = () -> System.out.println("Hello World");
     Runnable snake = () -> {
       int i = 10;
@@ -54,15 +61,26 @@ public class Test {
 
     new Thread(() -> {
       for (int i = 0; i < 500; i++) {
-        Test.counter++;
+        Test.counter.increment();
       }
     }).start();
-    while (Test.counter < 100) {
+    /*
+    Polling here (check, Thread.sleep(1000), check again) would notice the counter up to a second late.
+    await() parks until the increment that reaches 100 wakes it.
+     */
+    if (Test.counter.get() < 100) {
       System.out.println("Not reached yet");
-      Thread.sleep(1000); // 1 SECOND
     }
+    Test.counter.await(100);
     System.out.println("Reached!");
 
+    /*
+    Every executor below comes from an ExecutorFactory.
+    Run with -Dexecutor.mode=virtual on JDK 21+ to use virtual threads for the same workflows.
+     */
+    ExecutorFactory executors = ExecutorFactory.fromSystemProperty();
+    System.out.println(executors);
+
     ExecutorService service = null;
     Runnable task1 = () ->
         System.out.println("Printing zoo inventory");
@@ -72,7 +90,8 @@ public class Test {
       }
     };
     try {
-      service = Executors.newSingleThreadExecutor();
+      // Records queue wait and run time, so a timed-out get() can be told apart from a slow task
+      service = InstrumentedExecutorService.wrap("zoo", executors.newSingleThreadExecutor());
       System.out.println("begin");
       /*
       submit() methods to the ExecutorService interface, which, like execute(), can be used to complete tasks asynchronously. Unlike execute(), though, submit() returns a Future instance that can be used to determine whether the task is complete. It can also be used to return a generic result object after the task has been completed.
@@ -85,7 +104,7 @@ public class Test {
       Future<?> future = service.submit(() -> System.out.println("Hello"));
       Future<?> result = service.submit(() -> {
         for (int i = 0; i < 500; i++) {
-          Test.counter++;
+          Test.counter.increment();
         }
       });
       result.get(10, TimeUnit.SECONDS);
@@ -94,6 +113,25 @@ public class Test {
       Future<Integer> callableResult = service.submit(() -> 30 + 11);
       System.out.println(callableResult.get());   // 41
 
+      /*
+      get(10, TimeUnit.SECONDS) stops waiting after 10 seconds, but the task itself still runs whenever the executor gets to it.
+      DeadlineExecutor attaches the deadline to the task: if it is still queued when the deadline passes it is dropped, and while it runs Deadline.current() tells it how much time is left.
+       */
+      DeadlineExecutor withDeadline = new DeadlineExecutor(service);
+      Future<Long> deadlineResult = withDeadline.submit(
+          () -> Deadline.current().remaining(TimeUnit.SECONDS), 10, TimeUnit.SECONDS);
+      System.out.println(deadlineResult.get());   // 9, the seconds left when the task started
+
+      /*
+      The same single-threaded, in-order execution through a preallocated ring buffer.
+      newSingleThreadExecutor() allocates a queue node and takes a lock for every task; RingExecutor does neither.
+      close() runs whatever is still queued before it returns.
+       */
+      try (RingExecutor ring = RingExecutor.singleProducer(1024, WaitStrategy.parking())) {
+        ring.execute(task1);
+        ring.execute(task2);
+      }
+
     } finally {
       /*
       shutdown() does not actually stop any tasks that have already been submitted to the thread executor
@@ -113,12 +151,13 @@ public class Test {
       } else {
         System.out.println("At least one task is still running");
       }
+      System.out.println(service); // submitted/completed counts and latency percentiles
     }
 
     /*
     invokeAll() method will wait indefinitely until all tasks are complete, while the invokeAny() method will wait indefinitely until at least one task completes. The ExecutorService interface also includes overloaded versions of invokeAll() and invokeAny() that take a timeout value and TimeUnit parameter.
      */
-    ExecutorService service1 = Executors.newSingleThreadExecutor();
+    ExecutorService service1 = executors.newSingleThreadExecutor();
     System.out.println("begin");
     Callable<String> task = () -> "result";
     List<Future<String>> list = service1.invokeAll(List.of(task, task, task));
@@ -128,7 +167,7 @@ public class Test {
     System.out.println("end");
     service1.shutdown();
 
-    ExecutorService service2 = Executors.newSingleThreadExecutor();
+    ExecutorService service2 = executors.newSingleThreadExecutor();
     System.out.println("begin");
     Callable<String> task3 = () -> "result";
     String data = service2.invokeAny(List.of(task3, task3, task3));
@@ -146,9 +185,11 @@ public class Test {
     scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit)	Creates and executes a Runnable task after the given initial delay and subsequently with the given delay between the termination of one execution and the commencement of the next
 
      While these tasks are scheduled in the future, the actual execution may be delayed. For example, there may be no threads available to perform the task, at which point they will just wait in the queue. Also, if the ScheduledExecutorService is shut down by the time the scheduled task execution time is reached, then these tasks will be discarded.
+
+     The JDK implementation keeps scheduled tasks in a heap ordered by deadline, so schedule() and cancel() cost O(log n). TimingWheelScheduler implements the same interface on a hashed timing wheel with O(1) schedule() and cancel(), at the price of firing up to one tick (1 ms by default) late.
      */
 
-    ScheduledExecutorService scheduledExecutorService = Executors
+    ScheduledExecutorService scheduledExecutorService = executors
         .newSingleThreadScheduledExecutor();
     Runnable stask1 = () -> System.out.println("Hello Zoo");
     Callable<String> stask2 = () -> "Monkey";
@@ -165,6 +206,8 @@ public class Test {
     ExecutorService newCachedThreadPool()	Creates a thread pool that creates new threads as needed but will reuse previously constructed threads when they are available
     ExecutorService newFixedThreadPool(int)	Creates a thread pool that reuses a fixed number of threads operating off a shared unbounded queue
     ScheduledExecutorService  newScheduledThreadPool(int)	Creates a thread pool that can schedule commands to run after a given delay or to execute periodically
+
+    The unbounded queues behind newSingleThreadExecutor() and newFixedThreadPool() grow without limit when tasks arrive faster than they run. BoundedExecutor caps the queue and applies an OverloadPolicy (caller runs, block, drop oldest, shed) when it is full.
      */
 
     System.out.println(Runtime.getRuntime().availableProcessors());
@@ -0,0 +1,136 @@
+package com.java.concurrency;
+
+/*
+A counter that tells waiting threads when it reaches a value, instead of making them poll.
+Polling (check, sleep, check again) adds up to one sleep interval of delay and keeps a thread busy waking up for nothing. Here a waiter registers the value it cares about and is completed by the thread whose increment crosses it.
+
+Watchers are kept sorted by threshold. An increment only looks at them when the count has reached the lowest pending threshold, and then completes exactly the watchers that are due; a watcher waiting for 1,000,000 is never woken while the count is at 100.
+While nobody is watching, an increment costs the same as StripedCounter.increment() plus one volatile read. While someone is watching, the incrementing thread also sums the cells to see whether it crossed the lowest threshold.
+
+whenReached() futures are completed on the thread that made the crossing increment, so any dependent stages attached with thenApply() etc. also run there. Use the ...Async variants to move that work elsewhere.
+ */
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class ThresholdCounter {
+
+  private static final long NO_WATCHERS = Long.MAX_VALUE;
+
+  private final StripedCounter count = new StripedCounter();
+  private final TreeMap<Long, List<CompletableFuture<Long>>> watchers = new TreeMap<>();
+  private volatile long lowestThreshold = NO_WATCHERS;
+
+  public void increment() {
+    add(1L);
+  }
+
+  public void add(long x) {
+    count.add(x);
+    if (lowestThreshold != NO_WATCHERS) {
+      long value = count.sum();
+      if (value >= lowestThreshold) {
+        fire(value);
+      }
+    }
+  }
+
+  public long get() {
+    return count.sum();
+  }
+
+  // Completes with the count observed when the threshold was crossed
+  public CompletableFuture<Long> whenReached(long threshold) {
+    CompletableFuture<Long> future = new CompletableFuture<>();
+    synchronized (watchers) {
+      watchers.computeIfAbsent(threshold, t -> new ArrayList<>()).add(future);
+      if (threshold < lowestThreshold) {
+        lowestThreshold = threshold;
+      }
+    }
+    // The crossing increment may have read lowestThreshold before we lowered it
+    long value = count.sum();
+    if (value >= threshold) {
+      fire(value);
+    }
+    return future;
+  }
+
+  // An interrupted wait stops watching, like a timed-out one
+  public void await(long threshold) throws InterruptedException {
+    CompletableFuture<Long> future = whenReached(threshold);
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      unwatch(threshold, future);
+      throw e;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  public boolean await(long threshold, long timeout, TimeUnit unit) throws InterruptedException {
+    CompletableFuture<Long> future = whenReached(threshold);
+    try {
+      future.get(timeout, unit);
+      return true;
+    } catch (TimeoutException e) {
+      unwatch(threshold, future);
+      return future.isDone();
+    } catch (InterruptedException e) {
+      unwatch(threshold, future);
+      throw e;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  public int watcherCount() {
+    synchronized (watchers) {
+      int watching = 0;
+      for (List<CompletableFuture<Long>> list : watchers.values()) {
+        watching += list.size();
+      }
+      return watching;
+    }
+  }
+
+  private void unwatch(long threshold, CompletableFuture<Long> future) {
+    synchronized (watchers) {
+      List<CompletableFuture<Long>> list = watchers.get(threshold);
+      if (list != null && list.remove(future) && list.isEmpty()) {
+        watchers.remove(threshold);
+        lowestThreshold = watchers.isEmpty() ? NO_WATCHERS : watchers.firstKey();
+      }
+    }
+  }
+
+  private void fire(long value) {
+    List<CompletableFuture<Long>> due = new ArrayList<>();
+    synchronized (watchers) {
+      Iterator<Map.Entry<Long, List<CompletableFuture<Long>>>> it = watchers
+          .headMap(value, true).entrySet().iterator();
+      while (it.hasNext()) {
+        due.addAll(it.next().getValue());
+        it.remove();
+      }
+      lowestThreshold = watchers.isEmpty() ? NO_WATCHERS : watchers.firstKey();
+    }
+    // Completed outside the lock so a slow dependent stage can't block other increments
+    for (CompletableFuture<Long> future : due) {
+      future.complete(value);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return count.toString();
+  }
+}
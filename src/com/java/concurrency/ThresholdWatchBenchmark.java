@@ -0,0 +1,109 @@
+package com.java.concurrency;
+
+/*
+Measures wake-up latency: the time from the increment that reaches a threshold to the moment the waiting thread runs again.
+poll1000ms is the loop Test used to have (check, sleep one second, check again); poll10ms and poll1ms show that shorter sleeps only shrink the delay by burning more wake-ups.
+await and whenReached park on ThresholdCounter and are woken by the crossing increment itself.
+The parameter is the number of extra watchers registered on thresholds that are never reached. They should not change the latency, because increments only touch watchers that are due.
+Results are latency percentiles in nanoseconds (sample mode).
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+public class ThresholdWatchBenchmark {
+
+  private interface Waiter {
+
+    void waitFor(ThresholdCounter counter, long threshold) throws Exception;
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Harness("concurrency-threshold", "idleWatchers", 0, 64, 4096)
+        .addSampled("poll1000ms", watchers -> latency(watchers, poll(1000)))
+        .addSampled("poll10ms", watchers -> latency(watchers, poll(10)))
+        .addSampled("poll1ms", watchers -> latency(watchers, poll(1)))
+        .addSampled("await", watchers -> latency(watchers, ThresholdCounter::await))
+        .addSampled("whenReached",
+            watchers -> latency(watchers, (counter, threshold) -> counter
+                .whenReached(threshold).join()))
+        .runAndReport();
+  }
+
+  private static Waiter poll(long sleepMillis) {
+    return (counter, threshold) -> {
+      while (counter.get() < threshold) {
+        Thread.sleep(sleepMillis);
+      }
+    };
+  }
+
+  /*
+  Each invoke() registers interest in the next value, asks the incrementer thread to bump the counter after a short random delay, waits with the given strategy, and returns now - (time of the crossing increment).
+   */
+  private static Workload.Invocation latency(int idleWatchers, Waiter waiter) {
+    ThresholdCounter counter = new ThresholdCounter();
+    for (int i = 0; i < idleWatchers; i++) {
+      counter.whenReached(Long.MAX_VALUE - i);
+    }
+    Incrementer incrementer = new Incrementer(counter);
+    incrementer.start();
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() throws Exception {
+        long threshold = counter.get() + 1;
+        incrementer.request();
+        waiter.waitFor(counter, threshold);
+        return System.nanoTime() - incrementer.crossedAt;
+      }
+
+      @Override
+      public void close() {
+        incrementer.interrupt();
+        try {
+          incrementer.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+  }
+
+  private static final class Incrementer extends Thread {
+
+    private final ThresholdCounter counter;
+    private final CompletableFuture<Void> started = new CompletableFuture<>();
+    private volatile boolean requested;
+    volatile long crossedAt;
+
+    Incrementer(ThresholdCounter counter) {
+      super("incrementer");
+      this.counter = counter;
+      setDaemon(true);
+    }
+
+    void request() {
+      started.join();
+      requested = true;
+      LockSupport.unpark(this);
+    }
+
+    @Override
+    public void run() {
+      started.complete(null);
+      while (!isInterrupted()) {
+        if (!requested) {
+          LockSupport.park(this);
+          continue;
+        }
+        requested = false;
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(1_000_000));
+        crossedAt = System.nanoTime();
+        counter.increment();
+      }
+    }
+  }
+}
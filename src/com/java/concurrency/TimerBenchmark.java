@@ -0,0 +1,70 @@
+package com.java.concurrency;
+
+/*
+Compares ScheduledThreadPoolExecutor with TimingWheelScheduler when many timers are pending.
+Each scheduler is first filled with `pending` timers due between 1 and 2 hours from now, so they never fire during the run.
+Every invocation then does what a request-timeout does: schedule a timer 30 seconds out and cancel it again (the request finished in time), 1000 times. The reported ns/op is the cost of one schedule + cancel pair.
+ScheduledThreadPoolExecutor is configured with setRemoveOnCancelPolicy(true); otherwise cancelled timers stay in its heap until they expire.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class TimerBenchmark {
+
+  private static final int BATCH = 1000;
+
+  public static void main(String[] args) throws Exception {
+    new Harness("concurrency-timer", "pending", 1_000, 100_000, 1_000_000)
+        .add("scheduledThreadPoolExecutor", pending -> scheduleCancel(pending, () -> {
+          ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+          executor.setRemoveOnCancelPolicy(true);
+          return executor;
+        }))
+        .add("timingWheel", pending -> scheduleCancel(pending, TimingWheelScheduler::new))
+        .runAndReport();
+  }
+
+  private static Workload.Invocation scheduleCancel(int pending,
+      Supplier<ScheduledExecutorService> factory) {
+    ScheduledExecutorService scheduler = factory.get();
+    Runnable noop = () -> { };
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < pending; i++) {
+      scheduler.schedule(noop, random.nextLong(3_600, 7_200), TimeUnit.SECONDS);
+    }
+    ScheduledFuture<?>[] timers = new ScheduledFuture<?>[BATCH];
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        for (int i = 0; i < BATCH; i++) {
+          timers[i] = scheduler.schedule(noop, 30, TimeUnit.SECONDS);
+        }
+        long cancelled = 0;
+        for (ScheduledFuture<?> timer : timers) {
+          if (timer.cancel(false)) {
+            cancelled++;
+          }
+        }
+        return cancelled;
+      }
+
+      @Override
+      public long operations() {
+        return BATCH;
+      }
+
+      @Override
+      public void close() {
+        scheduler.shutdownNow();
+        Workload.awaitTermination(scheduler);
+      }
+    };
+  }
+}
@@ -0,0 +1,468 @@
+package com.java.concurrency;
+
+/*
+A ScheduledExecutorService built on a hierarchical hashed timing wheel.
+ScheduledThreadPoolExecutor keeps its tasks in a binary heap ordered by deadline, so every schedule() and cancel() costs O(log n). With millions of pending timeouts, most of which are cancelled before they fire, that heap maintenance dominates.
+
+A timing wheel trades exact ordering for constant-time bookkeeping. Time is cut into ticks (1 ms by default) and each wheel is a ring of `wheelSize` buckets, one per tick. A task due in 3 ticks goes into the bucket 3 slots ahead of the current one; each tick the timer thread runs whatever is in the current bucket.
+Deadlines too far away for one ring go into a coarser wheel whose buckets each cover wheelSize ticks, then one covering wheelSize^2 ticks, and so on, like the hands of a clock. When the finer wheel completes a turn, the next bucket of the coarser wheel is emptied into it (cascading).
+
+schedule() and cancel() only add the task to a lock-free queue; the timer thread moves it into (or unlinks it from) its bucket on the next tick, both O(1). Tasks fire within one tick after their deadline, never before.
+Tasks run on the timer thread unless an Executor is given, like newSingleThreadScheduledExecutor(); long tasks should be handed to an executor so they don't delay the clock.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class TimingWheelScheduler extends AbstractExecutorService
+    implements ScheduledExecutorService {
+
+  private final long tickNanos;
+  private final int wheelBits;
+  private final int mask;
+  private final Executor taskExecutor;
+  private final Thread timer;
+  private final long startNanos;
+
+  // levels[l][i] is the head of a doubly linked list; only the timer thread touches these
+  private final WheelTask<?>[][] levels;
+  private long currentTick;
+  private int size;
+
+  private final Queue<WheelTask<?>> pending = new ConcurrentLinkedQueue<>();
+  private final Queue<WheelTask<?>> cancelled = new ConcurrentLinkedQueue<>();
+  private final CountDownLatch terminated = new CountDownLatch(1);
+  private volatile boolean shutdown;
+  private volatile boolean stopNow;
+  private volatile boolean idle;
+  private boolean periodicPurged;
+  private final List<Runnable> drained = new ArrayList<>();
+
+  public TimingWheelScheduler() {
+    this(1, TimeUnit.MILLISECONDS, 512);
+  }
+
+  public TimingWheelScheduler(long tick, TimeUnit unit, int wheelSize) {
+    this(tick, unit, wheelSize, Executors.defaultThreadFactory(), null);
+  }
+
+  /*
+  tick        resolution of the clock; a task fires up to one tick late
+  wheelSize   buckets per wheel, rounded up to a power of two
+  taskExecutor where expired tasks run, or null to run them on the timer thread
+   */
+  public TimingWheelScheduler(long tick, TimeUnit unit, int wheelSize, ThreadFactory threadFactory,
+      Executor taskExecutor) {
+    if (tick <= 0 || wheelSize < 2) {
+      throw new IllegalArgumentException("tick must be > 0 and wheelSize >= 2");
+    }
+    this.tickNanos = unit.toNanos(tick);
+    this.wheelBits = 32 - Integer.numberOfLeadingZeros(wheelSize - 1);
+    this.mask = (1 << wheelBits) - 1;
+    this.levels = new WheelTask<?>[(63 + wheelBits - 1) / wheelBits][];
+    this.taskExecutor = taskExecutor;
+    this.startNanos = System.nanoTime();
+    this.timer = threadFactory.newThread(this::runTimer);
+    timer.start();
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return enqueue(new WheelTask<Void>(command, null, triggerTime(delay, unit), 0));
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    return enqueue(new WheelTask<>(callable, triggerTime(delay, unit)));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+      TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("period must be > 0");
+    }
+    return enqueue(new WheelTask<Void>(command, null, triggerTime(initialDelay, unit),
+        unit.toNanos(period)));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay,
+      long delay, TimeUnit unit) {
+    if (delay <= 0) {
+      throw new IllegalArgumentException("delay must be > 0");
+    }
+    return enqueue(new WheelTask<Void>(command, null, triggerTime(initialDelay, unit),
+        -unit.toNanos(delay)));
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    schedule(command, 0, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void shutdown() {
+    shutdown = true;
+    LockSupport.unpark(timer);
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown = true;
+    stopNow = true;
+    LockSupport.unpark(timer);
+    try {
+      terminated.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (drained) {
+      return new ArrayList<>(drained);
+    }
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return terminated.getCount() == 0;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return terminated.await(timeout, unit);
+  }
+
+  private long triggerTime(long delay, TimeUnit unit) {
+    long now = System.nanoTime();
+    long nanos = unit.toNanos(Math.max(delay, 0));
+    // Keep far-future deadlines from overflowing
+    return nanos > Long.MAX_VALUE / 2 ? now + Long.MAX_VALUE / 2 : now + nanos;
+  }
+
+  private <V> WheelTask<V> enqueue(WheelTask<V> task) {
+    if (shutdown) {
+      throw new RejectedExecutionException("Scheduler has been shut down");
+    }
+    offer(task);
+    return task;
+  }
+
+  // The timer parks while the wheel is empty, so anything added to pending must wake it
+  private void offer(WheelTask<?> task) {
+    pending.add(task);
+    if (idle) {
+      LockSupport.unpark(timer);
+    }
+  }
+
+  // ---- timer thread ----
+
+  private void runTimer() {
+    try {
+      while (!stopNow) {
+        if (size == 0) {
+          parkWhileIdle();
+        }
+        long deadline = startNanos + (currentTick + 1) * tickNanos;
+        long wait;
+        while ((wait = deadline - System.nanoTime()) > 0 && !stopNow) {
+          LockSupport.parkNanos(this, wait);
+        }
+        if (stopNow) {
+          break;
+        }
+        transferCancelled();
+        if (shutdown && !periodicPurged) {
+          purgePeriodic();
+        }
+        transferPending();
+        if (shutdown && size == 0 && pending.isEmpty()) {
+          break;
+        }
+        currentTick++;
+        cascade();
+        expire(0, (int) (currentTick & mask));
+      }
+    } finally {
+      if (stopNow) {
+        drainUnrun();
+      }
+      terminated.countDown();
+    }
+  }
+
+  /*
+  With nothing in the wheel there is no reason to wake up every tick.
+  Park until a task arrives, then jump the clock forward; that is safe because every bucket is empty.
+   */
+  private void parkWhileIdle() {
+    idle = true;
+    while (pending.isEmpty() && !shutdown) {
+      LockSupport.park(this);
+    }
+    idle = false;
+    currentTick = Math.max(currentTick, tickOf(System.nanoTime()) - 1);
+  }
+
+  private long tickOf(long triggerNanos) {
+    long elapsed = triggerNanos - startNanos;
+    return elapsed <= 0 ? 0 : (elapsed + tickNanos - 1) / tickNanos;
+  }
+
+  private void transferPending() {
+    WheelTask<?> task;
+    while ((task = pending.poll()) != null) {
+      if (task.isCancelled()) {
+        continue;
+      }
+      if (shutdown && task.isPeriodic()) {
+        task.cancel(false);
+        continue;
+      }
+      place(task, currentTick + 1);
+    }
+  }
+
+  // Like ScheduledThreadPoolExecutor, shutdown() cancels periodic tasks but lets delayed one-shot tasks run
+  private void purgePeriodic() {
+    periodicPurged = true;
+    for (WheelTask<?>[] wheel : levels) {
+      if (wheel == null) {
+        continue;
+      }
+      for (WheelTask<?> head : wheel) {
+        WheelTask<?> task = head;
+        while (task != null) {
+          WheelTask<?> next = task.next;
+          if (task.isPeriodic()) {
+            unlink(task);
+            task.cancel(false);
+          }
+          task = next;
+        }
+      }
+    }
+  }
+
+  private void transferCancelled() {
+    WheelTask<?> task;
+    while ((task = cancelled.poll()) != null) {
+      if (task.level >= 0) {
+        unlink(task);
+      }
+    }
+  }
+
+  /*
+  firstTick is the earliest tick whose bucket hasn't been expired yet: currentTick + 1 for new tasks, and currentTick itself while cascade() runs, because expire() handles that bucket right after.
+  A task that is already due goes into that bucket rather than a later one.
+   */
+  private void place(WheelTask<?> task, long firstTick) {
+    long deadlineTick = Math.max(tickOf(task.triggerNanos), firstTick);
+    long delta = deadlineTick - currentTick;
+    int level = 0;
+    while (level + 1 < levels.length && delta >= 1L << (wheelBits * (level + 1))) {
+      level++;
+    }
+    int index = (int) ((deadlineTick >>> (wheelBits * level)) & mask);
+    if (levels[level] == null) {
+      levels[level] = new WheelTask<?>[mask + 1];
+    }
+    WheelTask<?> head = levels[level][index];
+    task.next = head;
+    task.prev = null;
+    if (head != null) {
+      head.prev = task;
+    }
+    levels[level][index] = task;
+    task.level = level;
+    task.index = index;
+    size++;
+  }
+
+  private void unlink(WheelTask<?> task) {
+    if (task.prev != null) {
+      task.prev.next = task.next;
+    } else {
+      levels[task.level][task.index] = task.next;
+    }
+    if (task.next != null) {
+      task.next.prev = task.prev;
+    }
+    task.next = null;
+    task.prev = null;
+    task.level = -1;
+    size--;
+  }
+
+  // When the finer wheel wraps around, move the next bucket of each coarser wheel down
+  private void cascade() {
+    for (int level = levels.length - 1; level > 0; level--) {
+      long span = 1L << (wheelBits * level);
+      if ((currentTick & (span - 1)) != 0 || levels[level] == null) {
+        continue;
+      }
+      int index = (int) ((currentTick >>> (wheelBits * level)) & mask);
+      WheelTask<?> task = levels[level][index];
+      levels[level][index] = null;
+      while (task != null) {
+        WheelTask<?> next = task.next;
+        task.next = null;
+        task.prev = null;
+        task.level = -1;
+        size--;
+        place(task, currentTick);
+        task = next;
+      }
+    }
+  }
+
+  private void expire(int level, int index) {
+    if (levels[level] == null) {
+      return;
+    }
+    WheelTask<?> task = levels[level][index];
+    levels[level][index] = null;
+    while (task != null) {
+      WheelTask<?> next = task.next;
+      task.next = null;
+      task.prev = null;
+      task.level = -1;
+      size--;
+      fire(task);
+      task = next;
+    }
+  }
+
+  private void fire(WheelTask<?> task) {
+    if (task.isCancelled()) {
+      return;
+    }
+    if (taskExecutor == null) {
+      task.run();
+    } else {
+      try {
+        taskExecutor.execute(task);
+      } catch (RejectedExecutionException e) {
+        task.cancel(false);
+      }
+    }
+  }
+
+  private void drainUnrun() {
+    synchronized (drained) {
+      for (WheelTask<?>[] wheel : levels) {
+        if (wheel == null) {
+          continue;
+        }
+        for (WheelTask<?> task : wheel) {
+          for (; task != null; task = task.next) {
+            if (!task.isCancelled()) {
+              drained.add(task);
+            }
+          }
+        }
+      }
+      WheelTask<?> task;
+      while ((task = pending.poll()) != null) {
+        if (!task.isCancelled()) {
+          drained.add(task);
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "TimingWheelScheduler[tick=" + tickNanos + "ns, wheelSize=" + (mask + 1)
+        + ", shutdown=" + shutdown + "]";
+  }
+
+  /*
+  period > 0 is fixed rate, period < 0 is fixed delay (same encoding ScheduledThreadPoolExecutor uses), 0 is one-shot.
+  prev/next/level/index are owned by the timer thread.
+   */
+  private final class WheelTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+    private volatile long triggerNanos;
+    private final long period;
+    WheelTask<?> prev;
+    WheelTask<?> next;
+    int level = -1;
+    int index;
+
+    WheelTask(Runnable runnable, V result, long triggerNanos, long period) {
+      super(runnable, result);
+      this.triggerNanos = triggerNanos;
+      this.period = period;
+    }
+
+    WheelTask(Callable<V> callable, long triggerNanos) {
+      super(callable);
+      this.triggerNanos = triggerNanos;
+      this.period = 0;
+    }
+
+    @Override
+    public boolean isPeriodic() {
+      return period != 0;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(triggerNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      if (other == this) {
+        return 0;
+      }
+      return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelledNow = super.cancel(mayInterruptIfRunning);
+      if (cancelledNow) {
+        cancelled.add(this);
+      }
+      return cancelledNow;
+    }
+
+    @Override
+    public void run() {
+      if (!isPeriodic()) {
+        super.run();
+      } else if (super.runAndReset()) {
+        triggerNanos = period > 0 ? triggerNanos + period : System.nanoTime() - period;
+        if (!shutdown) {
+          offer(this);
+        } else {
+          cancel(false);
+        }
+      }
+    }
+  }
+}
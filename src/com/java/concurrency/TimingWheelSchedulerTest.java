@@ -0,0 +1,91 @@
+package com.java.concurrency;
+
+/*
+Checks TimingWheelScheduler against the two ways it has gone wrong; run it and it exits with status 1 on a failure.
+periodic    fixed-rate and fixed-delay tasks every 10 ms for 1 s, on the timer thread and on a task executor. With an executor the timer thread parks while the wheel is empty, so a periodic task that comes back after running has to wake it; when it didn't, the task ran once and stalled.
+cascade     one-shot tasks due on every 8th tick from 64 ms to 376 ms, on wheels of 8 buckets of 1 ms. They start on a coarser wheel and are moved down on their own deadline tick, when the finer wheel wraps around, and have to fire with that tick rather than the next one; the check is that the median task fires less than 1 tick after its due time (half a tick before the tick ends).
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TimingWheelSchedulerTest {
+
+  private static final long PERIOD_MILLIS = 10;
+  private static final long RUN_MILLIS = 1_000;
+  private static final int WHEEL_SIZE = 8;
+  private static final int CASCADED_TASKS = 40;
+
+  private static int failures;
+
+  public static void main(String[] args) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      periodic("fixedRate on timer thread", null, true);
+      periodic("fixedDelay on timer thread", null, false);
+      periodic("fixedRate on executor", executor, true);
+      periodic("fixedDelay on executor", executor, false);
+      cascade();
+    } finally {
+      executor.shutdown();
+    }
+    System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+    System.exit(failures == 0 ? 0 : 1);
+  }
+
+  private static void check(String name, boolean passed, String detail) {
+    System.out.println((passed ? "ok    " : "FAIL  ") + name + ": " + detail);
+    if (!passed) {
+      failures++;
+    }
+  }
+
+  private static TimingWheelScheduler scheduler(int wheelSize, ExecutorService executor) {
+    return new TimingWheelScheduler(1, TimeUnit.MILLISECONDS, wheelSize,
+        Executors.defaultThreadFactory(), executor);
+  }
+
+  // At one run per 10 ms, 1 s should see about 100 runs; half of that allows for a loaded machine
+  private static void periodic(String name, ExecutorService executor, boolean fixedRate)
+      throws InterruptedException {
+    TimingWheelScheduler scheduler = scheduler(512, executor);
+    AtomicInteger runs = new AtomicInteger();
+    Runnable task = runs::incrementAndGet;
+    ScheduledFuture<?> future = fixedRate
+        ? scheduler.scheduleAtFixedRate(task, 0, PERIOD_MILLIS, TimeUnit.MILLISECONDS)
+        : scheduler.scheduleWithFixedDelay(task, 0, PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    Thread.sleep(RUN_MILLIS);
+    future.cancel(false);
+    scheduler.shutdownNow();
+    long expected = RUN_MILLIS / PERIOD_MILLIS;
+    check(name, runs.get() >= expected / 2, runs.get() + " runs, about " + expected + " expected");
+  }
+
+  // The scheduler counts ticks from its construction, so due times just before t0 + k ms fall in tick k
+  private static void cascade() throws InterruptedException {
+    TimingWheelScheduler scheduler = scheduler(WHEEL_SIZE, null);
+    long t0 = System.nanoTime();
+    long tick = TimeUnit.MILLISECONDS.toNanos(1);
+    long[] lateness = new long[CASCADED_TASKS];
+    CountDownLatch fired = new CountDownLatch(CASCADED_TASKS);
+    for (int i = 0; i < CASCADED_TASKS; i++) {
+      int task = i;
+      long due = t0 + (WHEEL_SIZE * (8L + i)) * tick - tick / 2;
+      scheduler.schedule(() -> {
+        lateness[task] = System.nanoTime() - due;
+        fired.countDown();
+      }, due - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+    boolean allFired = fired.await(10, TimeUnit.SECONDS);
+    scheduler.shutdownNow();
+    Arrays.sort(lateness);
+    double medianTicks = (double) lateness[CASCADED_TASKS / 2] / tick;
+    check("cascaded deadlines", allFired && medianTicks < 1,
+        String.format("median %.2f ticks late, all fired: %b", medianTicks, allFired));
+  }
+}
@@ -0,0 +1,54 @@
+package com.java.concurrency;
+
+/*
+What a thread does while it waits for a ring buffer: the consumer when there is nothing to take, a producer when there is no free slot.
+idle() is called with the number of consecutive empty attempts so far (starting at 0) and returns when it is time to look again.
+
+busySpin()   never gives the core away. Lowest hand-off latency, but burns a whole core even when idle, so only use it with a core to spare per waiting thread.
+yielding()   spins briefly, then calls Thread.yield() so other runnable threads on the core get a turn.
+parking()    spins, yields, then sleeps with LockSupport.parkNanos, doubling the sleep up to maxPark. Costs next to nothing while idle, at the price of up to maxPark extra latency after a quiet spell.
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@FunctionalInterface
+public interface WaitStrategy {
+
+  int SPIN_TRIES = 100;
+  int YIELD_TRIES = 100;
+
+  void idle(int attempt);
+
+  static WaitStrategy busySpin() {
+    return attempt -> Thread.onSpinWait();
+  }
+
+  static WaitStrategy yielding() {
+    return attempt -> {
+      if (attempt < SPIN_TRIES) {
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();
+      }
+    };
+  }
+
+  static WaitStrategy parking() {
+    return parking(1, TimeUnit.MILLISECONDS);
+  }
+
+  static WaitStrategy parking(long maxPark, TimeUnit unit) {
+    long maxParkNanos = unit.toNanos(maxPark);
+    return attempt -> {
+      if (attempt < SPIN_TRIES) {
+        Thread.onSpinWait();
+      } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+        Thread.yield();
+      } else {
+        int doublings = Math.min(attempt - SPIN_TRIES - YIELD_TRIES, 30);
+        LockSupport.parkNanos(Math.min(maxParkNanos, 1_000L << doublings));
+      }
+    };
+  }
+}
@@ -0,0 +1,140 @@
+package com.java.decisions;
+
+/*
+Checks the note in Test about switch byte codes.
+denseSwitch has contiguous case values and compiles to a tableswitch (javap -c shows it), sparseSwitch has widely spread case values and compiles to a lookupswitch, and ifChain is the same mapping written as an if/else ladder.
+Each invocation dispatches over `size` pre-generated keys, so the reported ns/op is the cost of one branch selection. Every variant has its own loop calling its method directly, so no call site is shared between them.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.Random;
+
+public class SwitchBenchmark {
+
+  private static final int[] DENSE_KEYS = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15};
+  private static final int[] SPARSE_KEYS = {0, 400, 93_748, 120_000, 250_001, 999_999,
+      1_500_000, 2_000_003, 7_777_777, 10_000_000, 33_333_333, 64_000_000, 99_999_999,
+      123_456_789, 500_000_000, 1_000_000_007};
+
+  public static void main(String[] args) throws Exception {
+    new Harness("decisions", "size", 10, 1_000, 100_000, 10_000_000)
+        .add("tableSwitch", size -> new Dispatch(keys(DENSE_KEYS, size)) {
+          @Override
+          public long invoke() {
+            long sum = 0;
+            for (int key : keys) {
+              sum += denseSwitch(key);
+            }
+            return sum;
+          }
+        })
+        .add("lookupSwitch", size -> new Dispatch(keys(SPARSE_KEYS, size)) {
+          @Override
+          public long invoke() {
+            long sum = 0;
+            for (int key : keys) {
+              sum += sparseSwitch(key);
+            }
+            return sum;
+          }
+        })
+        .add("ifChain", size -> new Dispatch(keys(SPARSE_KEYS, size)) {
+          @Override
+          public long invoke() {
+            long sum = 0;
+            for (int key : keys) {
+              sum += ifChain(key);
+            }
+            return sum;
+          }
+        })
+        .runAndReport();
+  }
+
+  private static int[] keys(int[] domain, int size) {
+    Random random = new Random(42);
+    int[] keys = new int[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = domain[random.nextInt(domain.length)];
+    }
+    return keys;
+  }
+
+  private abstract static class Dispatch implements Workload.Invocation {
+    final int[] keys;
+
+    Dispatch(int[] keys) {
+      this.keys = keys;
+    }
+
+    @Override
+    public long operations() {
+      return keys.length;
+    }
+  }
+
+  static int denseSwitch(int key) {
+    switch (key) {
+      case 0: return 17;
+      case 1: return 3;
+      case 2: return 91;
+      case 3: return 12;
+      case 4: return 8;
+      case 5: return 44;
+      case 6: return 27;
+      case 7: return 5;
+      case 8: return 63;
+      case 9: return 1;
+      case 10: return 38;
+      case 11: return 70;
+      case 12: return 9;
+      case 13: return 56;
+      case 14: return 21;
+      case 15: return 33;
+      default: return -1;
+    }
+  }
+
+  static int sparseSwitch(int key) {
+    switch (key) {
+      case 0: return 17;
+      case 400: return 3;
+      case 93_748: return 91;
+      case 120_000: return 12;
+      case 250_001: return 8;
+      case 999_999: return 44;
+      case 1_500_000: return 27;
+      case 2_000_003: return 5;
+      case 7_777_777: return 63;
+      case 10_000_000: return 1;
+      case 33_333_333: return 38;
+      case 64_000_000: return 70;
+      case 99_999_999: return 9;
+      case 123_456_789: return 56;
+      case 500_000_000: return 21;
+      case 1_000_000_007: return 33;
+      default: return -1;
+    }
+  }
+
+  static int ifChain(int key) {
+    if (key == 0) return 17;
+    else if (key == 400) return 3;
+    else if (key == 93_748) return 91;
+    else if (key == 120_000) return 12;
+    else if (key == 250_001) return 8;
+    else if (key == 999_999) return 44;
+    else if (key == 1_500_000) return 27;
+    else if (key == 2_000_003) return 5;
+    else if (key == 7_777_777) return 63;
+    else if (key == 10_000_000) return 1;
+    else if (key == 33_333_333) return 38;
+    else if (key == 64_000_000) return 70;
+    else if (key == 99_999_999) return 9;
+    else if (key == 123_456_789) return 56;
+    else if (key == 500_000_000) return 21;
+    else if (key == 1_000_000_007) return 33;
+    else return -1;
+  }
+}
@@ -0,0 +1,441 @@
+package com.java.functionalProgramming;
+
+/*
+Running statistics of a stream of numbers, kept in a few primitive fields so that adding a value allocates nothing: count, sum, mean, variance, min and max, and with withQuantiles() percentiles too.
+IntStream.summaryStatistics() gives count, sum, min, max and average, but no variance, and needs a stream for every batch. average(int... scores) in Test allocates the varargs array and an Optional<Double>, and computes only the mean (and its int sum overflows past about two billion).
+
+The mean and variance are kept with Welford's method: each value moves the mean by (x - mean) / count and adds (x - oldMean) * (x - newMean) to the sum of squared deviations. That stays accurate where sum-of-squares minus square-of-sum loses every digit (values around 1e9 that differ by 1).
+The sum is compensated (Kahan summation), as in DoubleSummaryStatistics.
+addAll() takes int[], long[] and double[] slices in chunks of 1024: one pass finds the chunk's sum, min and max, a second pass the squared deviations from the chunk's mean, and the chunk is then merged as a whole (Chan's formula, the same as merge()). Both loops keep four independent sums so that the CPU overlaps four additions instead of waiting for each; the Vector API would go further, but it is an incubator module that Java 15 doesn't have.
+A single pass summing squares about a pivot would read the chunk once, but C2 compiled it unevenly, at times twice as slow as the two passes (StatsBenchmark); the chunk is still in the L1 cache for the second pass.
+merge() adds another accumulator's values, so each thread can keep its own and the results be merged at the end; an accumulator itself is not thread-safe.
+
+Percentiles come from a histogram in the style of concurrency.LatencyHistogram, for doubles of either sign: every power of two from 2^-32 to 2^63 is split into 64 buckets, so a percentile is within 0.8% of a value that was added (values nearer 0 than 2^-32 count as 0, larger ones fall in the top bucket; min() and max() are exact). Its 12,289 counters (98 KB) are allocated by withQuantiles(), not by add(), and merge the same way. NaN is left out of the histogram.
+min(), max(), mean(), variance() and percentile() throw NoSuchElementException when nothing has been added; check isEmpty() first.
+ */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+public final class StatsAccumulator {
+  private static final int CHUNK = 1024;
+
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MIN_EXPONENT = -32;
+  private static final int MAX_EXPONENT = 63;
+  private static final int SIDE = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+  private static final double SMALLEST = Math.scalb(1.0, MIN_EXPONENT);
+
+  private long count;
+  private double mean;
+  private double squaredDeviations;
+  private double sum;
+  private double sumCompensation;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+  // Negative values below index SIDE, zero at SIDE, positive ones above; null without quantiles
+  private final long[] buckets;
+  private long bucketed;
+
+  public StatsAccumulator() {
+    this.buckets = null;
+  }
+
+  private StatsAccumulator(long[] buckets) {
+    this.buckets = buckets;
+  }
+
+  public static StatsAccumulator withQuantiles() {
+    return new StatsAccumulator(new long[2 * SIDE + 1]);
+  }
+
+  public void add(double value) {
+    count++;
+    double delta = value - mean;
+    mean += delta / count;
+    squaredDeviations += delta * (value - mean);
+    addToSum(value);
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    if (buckets != null) {
+      record(value);
+    }
+  }
+
+  public void addAll(int[] values) {
+    addAll(values, 0, values.length);
+  }
+
+  // Adds values[from] to values[to - 1]
+  public void addAll(int[] values, int from, int to) {
+    checkRange(values.length, from, to);
+    for (int start = from; start < to; start += CHUNK) {
+      int end = Math.min(to, start + CHUNK);
+      long sum0 = 0;
+      long sum1 = 0;
+      long sum2 = 0;
+      long sum3 = 0;
+      int min0 = Integer.MAX_VALUE;
+      int min1 = Integer.MAX_VALUE;
+      int max0 = Integer.MIN_VALUE;
+      int max1 = Integer.MIN_VALUE;
+      int i = start;
+      for (; i + 4 <= end; i += 4) {
+        int a = values[i];
+        int b = values[i + 1];
+        int c = values[i + 2];
+        int d = values[i + 3];
+        sum0 += a;
+        sum1 += b;
+        sum2 += c;
+        sum3 += d;
+        min0 = Math.min(min0, Math.min(a, b));
+        min1 = Math.min(min1, Math.min(c, d));
+        max0 = Math.max(max0, Math.max(a, b));
+        max1 = Math.max(max1, Math.max(c, d));
+      }
+      for (; i < end; i++) {
+        sum0 += values[i];
+        min0 = Math.min(min0, values[i]);
+        max0 = Math.max(max0, values[i]);
+      }
+      long chunkSum = sum0 + sum1 + sum2 + sum3;
+      int n = end - start;
+      double chunkMean = (double) chunkSum / n;
+      double dev0 = 0;
+      double dev1 = 0;
+      double dev2 = 0;
+      double dev3 = 0;
+      i = start;
+      for (; i + 4 <= end; i += 4) {
+        double a = values[i] - chunkMean;
+        double b = values[i + 1] - chunkMean;
+        double c = values[i + 2] - chunkMean;
+        double d = values[i + 3] - chunkMean;
+        dev0 += a * a;
+        dev1 += b * b;
+        dev2 += c * c;
+        dev3 += d * d;
+      }
+      for (; i < end; i++) {
+        double a = values[i] - chunkMean;
+        dev0 += a * a;
+      }
+      combine(n, chunkMean, dev0 + dev1 + dev2 + dev3, chunkSum,
+          Math.min(min0, min1), Math.max(max0, max1));
+      if (buckets != null) {
+        for (i = start; i < end; i++) {
+          record(values[i]);
+        }
+      }
+    }
+  }
+
+  public void addAll(long[] values) {
+    addAll(values, 0, values.length);
+  }
+
+  // Longs are summed as doubles, which is exact up to 2^53
+  public void addAll(long[] values, int from, int to) {
+    checkRange(values.length, from, to);
+    for (int start = from; start < to; start += CHUNK) {
+      int end = Math.min(to, start + CHUNK);
+      double sum0 = 0;
+      double sum1 = 0;
+      double sum2 = 0;
+      double sum3 = 0;
+      long min0 = Long.MAX_VALUE;
+      long min1 = Long.MAX_VALUE;
+      long max0 = Long.MIN_VALUE;
+      long max1 = Long.MIN_VALUE;
+      int i = start;
+      for (; i + 4 <= end; i += 4) {
+        long a = values[i];
+        long b = values[i + 1];
+        long c = values[i + 2];
+        long d = values[i + 3];
+        sum0 += a;
+        sum1 += b;
+        sum2 += c;
+        sum3 += d;
+        min0 = Math.min(min0, Math.min(a, b));
+        min1 = Math.min(min1, Math.min(c, d));
+        max0 = Math.max(max0, Math.max(a, b));
+        max1 = Math.max(max1, Math.max(c, d));
+      }
+      for (; i < end; i++) {
+        sum0 += values[i];
+        min0 = Math.min(min0, values[i]);
+        max0 = Math.max(max0, values[i]);
+      }
+      double chunkSum = sum0 + sum1 + sum2 + sum3;
+      int n = end - start;
+      double chunkMean = chunkSum / n;
+      double dev0 = 0;
+      double dev1 = 0;
+      double dev2 = 0;
+      double dev3 = 0;
+      i = start;
+      for (; i + 4 <= end; i += 4) {
+        double a = values[i] - chunkMean;
+        double b = values[i + 1] - chunkMean;
+        double c = values[i + 2] - chunkMean;
+        double d = values[i + 3] - chunkMean;
+        dev0 += a * a;
+        dev1 += b * b;
+        dev2 += c * c;
+        dev3 += d * d;
+      }
+      for (; i < end; i++) {
+        double a = values[i] - chunkMean;
+        dev0 += a * a;
+      }
+      combine(n, chunkMean, dev0 + dev1 + dev2 + dev3, chunkSum,
+          Math.min(min0, min1), Math.max(max0, max1));
+      if (buckets != null) {
+        for (i = start; i < end; i++) {
+          record(values[i]);
+        }
+      }
+    }
+  }
+
+  public void addAll(double[] values) {
+    addAll(values, 0, values.length);
+  }
+
+  public void addAll(double[] values, int from, int to) {
+    checkRange(values.length, from, to);
+    for (int start = from; start < to; start += CHUNK) {
+      int end = Math.min(to, start + CHUNK);
+      double sum0 = 0;
+      double sum1 = 0;
+      double sum2 = 0;
+      double sum3 = 0;
+      double min0 = Double.POSITIVE_INFINITY;
+      double min1 = Double.POSITIVE_INFINITY;
+      double max0 = Double.NEGATIVE_INFINITY;
+      double max1 = Double.NEGATIVE_INFINITY;
+      int i = start;
+      for (; i + 4 <= end; i += 4) {
+        double a = values[i];
+        double b = values[i + 1];
+        double c = values[i + 2];
+        double d = values[i + 3];
+        sum0 += a;
+        sum1 += b;
+        sum2 += c;
+        sum3 += d;
+        min0 = Math.min(min0, Math.min(a, b));
+        min1 = Math.min(min1, Math.min(c, d));
+        max0 = Math.max(max0, Math.max(a, b));
+        max1 = Math.max(max1, Math.max(c, d));
+      }
+      for (; i < end; i++) {
+        sum0 += values[i];
+        min0 = Math.min(min0, values[i]);
+        max0 = Math.max(max0, values[i]);
+      }
+      double chunkSum = sum0 + sum1 + sum2 + sum3;
+      int n = end - start;
+      double chunkMean = chunkSum / n;
+      double dev0 = 0;
+      double dev1 = 0;
+      double dev2 = 0;
+      double dev3 = 0;
+      i = start;
+      for (; i + 4 <= end; i += 4) {
+        double a = values[i] - chunkMean;
+        double b = values[i + 1] - chunkMean;
+        double c = values[i + 2] - chunkMean;
+        double d = values[i + 3] - chunkMean;
+        dev0 += a * a;
+        dev1 += b * b;
+        dev2 += c * c;
+        dev3 += d * d;
+      }
+      for (; i < end; i++) {
+        double a = values[i] - chunkMean;
+        dev0 += a * a;
+      }
+      combine(n, chunkMean, dev0 + dev1 + dev2 + dev3, chunkSum,
+          Math.min(min0, min1), Math.max(max0, max1));
+      if (buckets != null) {
+        for (i = start; i < end; i++) {
+          record(values[i]);
+        }
+      }
+    }
+  }
+
+  private static void checkRange(int length, int from, int to) {
+    if (from < 0 || to > length || from > to) {
+      throw new IndexOutOfBoundsException(
+          "Range [" + from + ", " + to + ") out of bounds for length " + length);
+    }
+  }
+
+  // Adds the values of other; other is unchanged. Percentiles need both or neither to have them.
+  public void merge(StatsAccumulator other) {
+    if (buckets != null && other.buckets == null && other.count > 0) {
+      throw new IllegalArgumentException("Can't merge an accumulator without quantiles");
+    }
+    if (other.count == 0) {
+      return;
+    }
+    combine(other.count, other.mean, other.squaredDeviations, other.sum, other.min, other.max);
+    addToSum(-other.sumCompensation);
+    if (buckets != null) {
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] += other.buckets[i];
+      }
+      bucketed += other.bucketed;
+    }
+  }
+
+  // Chan's formula for the mean and squared deviations of two groups together
+  private void combine(long n, double groupMean, double groupDeviations, double groupSum,
+      double groupMin, double groupMax) {
+    long total = count + n;
+    double delta = groupMean - mean;
+    mean += delta * n / total;
+    squaredDeviations += groupDeviations + delta * delta * ((double) count * n / total);
+    count = total;
+    addToSum(groupSum);
+    min = Math.min(min, groupMin);
+    max = Math.max(max, groupMax);
+  }
+
+  private void addToSum(double value) {
+    double y = value - sumCompensation;
+    double t = sum + y;
+    sumCompensation = (t - sum) - y;
+    sum = t;
+  }
+
+  private void record(double value) {
+    if (value != value) {
+      return;
+    }
+    double magnitude = Math.abs(value);
+    int index = SIDE;
+    if (magnitude >= SMALLEST) {
+      long bits = Double.doubleToRawLongBits(magnitude);
+      int exponent = (int) (bits >>> 52) - 1023;
+      int subBucket = (int) (bits >>> (52 - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+      int bucket = exponent > MAX_EXPONENT ? SIDE - 1
+          : (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+      index = value > 0 ? SIDE + 1 + bucket : SIDE - 1 - bucket;
+    }
+    buckets[index]++;
+    bucketed++;
+  }
+
+  // The middle of the bucket's range of magnitudes
+  private static double valueAt(int index) {
+    if (index == SIDE) {
+      return 0;
+    }
+    int bucket = index > SIDE ? index - SIDE - 1 : SIDE - 1 - index;
+    int exponent = bucket / SUB_BUCKETS + MIN_EXPONENT;
+    double magnitude = Math.scalb(1 + (bucket % SUB_BUCKETS + 0.5) / SUB_BUCKETS, exponent);
+    return index > SIDE ? magnitude : -magnitude;
+  }
+
+  public void reset() {
+    count = 0;
+    mean = 0;
+    squaredDeviations = 0;
+    sum = 0;
+    sumCompensation = 0;
+    min = Double.POSITIVE_INFINITY;
+    max = Double.NEGATIVE_INFINITY;
+    if (buckets != null) {
+      Arrays.fill(buckets, 0);
+      bucketed = 0;
+    }
+  }
+
+  public long count() {
+    return count;
+  }
+
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  public double sum() {
+    return sum - sumCompensation;
+  }
+
+  public double mean() {
+    checkNotEmpty();
+    return mean;
+  }
+
+  // The population variance; the sample variance is variance() * count / (count - 1)
+  public double variance() {
+    checkNotEmpty();
+    return squaredDeviations / count;
+  }
+
+  public double standardDeviation() {
+    return Math.sqrt(variance());
+  }
+
+  public double min() {
+    checkNotEmpty();
+    return min;
+  }
+
+  public double max() {
+    checkNotEmpty();
+    return max;
+  }
+
+  // The value below which the given percentage (0-100) of the values fall, within 0.8%
+  public double percentile(double percentile) {
+    if (buckets == null) {
+      throw new IllegalStateException("Create the accumulator withQuantiles() for percentiles");
+    }
+    if (bucketed == 0) {
+      throw new NoSuchElementException("No values");
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * bucketed));
+    long seen = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      seen += buckets[i];
+      if (seen >= rank) {
+        // The end buckets also hold every value beyond their range
+        if (i == 0) {
+          return min;
+        }
+        if (i == buckets.length - 1) {
+          return max;
+        }
+        return Math.min(max, Math.max(min, valueAt(i)));
+      }
+    }
+    return max;
+  }
+
+  private void checkNotEmpty() {
+    if (count == 0) {
+      throw new NoSuchElementException("No values");
+    }
+  }
+
+  @Override
+  public String toString() {
+    if (count == 0) {
+      return "count=0";
+    }
+    String text = "count=" + count + " mean=" + mean + " sd=" + standardDeviation()
+        + " min=" + min + " max=" + max;
+    if (buckets != null && bucketed > 0) {
+      text += " p50=" + percentile(50) + " p99=" + percentile(99);
+    }
+    return text;
+  }
+}
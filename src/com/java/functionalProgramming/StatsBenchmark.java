@@ -0,0 +1,80 @@
+package com.java.functionalProgramming;
+
+/*
+Statistics of an int[] batch of `values` random ints, the way a metrics loop would take them:
+- legacyAverage is average(int...) as Test had it, an int sum boxed into an Optional<Double>; only the mean.
+- testAverage is the current Test.average(), a new StatsAccumulator per call behind the same Optional.
+- summaryStatistics is Arrays.stream(values).summaryStatistics(): count, sum, min, max and average.
+- accumulatorAdd calls add() once per value, accumulatorAddAll hands over the whole array, and accumulatorQuantiles does the same with withQuantiles(); the accumulators are kept from one batch to the next, as for a stream of metrics. These also compute the variance.
+The reported ns/op is per value, and B/op shows what each call allocates.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.ToLongFunction;
+
+public class StatsBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    new Harness("functionalProgramming-stats", "values", 16, 1024, 1_000_000)
+        .add("legacyAverage", n -> batch(n, values -> (long) (double) legacyAverage(values).get()))
+        .add("testAverage", n -> batch(n, values -> (long) (double) Test.average(values).get()))
+        .add("summaryStatistics", n -> batch(n, values -> Arrays.stream(values).summaryStatistics()
+            .getMax()))
+        .add("accumulatorAdd", n -> {
+          StatsAccumulator stats = new StatsAccumulator();
+          return batch(n, values -> {
+            for (int value : values) {
+              stats.add(value);
+            }
+            return (long) stats.variance();
+          });
+        })
+        .add("accumulatorAddAll", n -> {
+          StatsAccumulator stats = new StatsAccumulator();
+          return batch(n, values -> {
+            stats.addAll(values);
+            return (long) stats.variance();
+          });
+        })
+        .add("accumulatorQuantiles", n -> {
+          StatsAccumulator stats = StatsAccumulator.withQuantiles();
+          return batch(n, values -> {
+            stats.addAll(values);
+            return (long) stats.variance();
+          });
+        })
+        .runAndReport();
+  }
+
+  // Test.average() before StatsAccumulator
+  private static Optional<Double> legacyAverage(int... scores) {
+    if (scores.length == 0) {
+      return Optional.empty();
+    }
+    int sum = 0;
+    for (int score : scores) {
+      sum += score;
+    }
+    return Optional.of((double) sum / scores.length);
+  }
+
+  // Values below 1000, so that legacyAverage's int sum doesn't overflow
+  private static Workload.Invocation batch(int n, ToLongFunction<int[]> statistics) {
+    int[] values = new Random(3).ints(n, 0, 1000).toArray();
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        return statistics.applyAsLong(values);
+      }
+
+      @Override
+      public long operations() {
+        return n;
+      }
+    };
+  }
+}
@@ -42,6 +42,8 @@ Predicate	Predicate	or()	Predicate
 
  */
 
+import com.java.genericsCollections.BTreeSet;
+import com.java.genericsCollections.ObjectIntHashMap;
 import java.text.DateFormat;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
@@ -67,6 +69,7 @@ import java.util.function.BiPredicate;
 import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
@@ -98,6 +101,10 @@ public class Test {
     b2.accept("chick", 1);
 
     System.out.println(map); // {chicken=7, chick=1}
+    var counts = new ObjectIntHashMap<String>();
+    ObjIntConsumer<String> b3 = counts::put; // int values, no boxing
+    b3.accept("chicken", 7);
+    System.out.println(counts); // {chicken=7}
     c1.accept("Annie"); // Annie
     c2.accept("Annie"); // Annie
 
@@ -190,6 +197,15 @@ public class Test {
     opt.ifPresent(System.out::println);
     System.out.println(opt.orElseGet(Math::random));
 
+    // Without the varargs array and the Optional: one accumulator, reused for every batch
+    StatsAccumulator scores = StatsAccumulator.withQuantiles();
+    scores.addAll(new int[] {90, 100, 70, 85});
+    scores.add(95);
+    if (!scores.isEmpty()) {
+      System.out.println(scores.mean() + " " + scores.standardDeviation()
+          + " " + scores.percentile(50)); // 88.0 10.2956... 90.5 (within 0.8% of 90)
+    }
+
     /*
 
     Stream.empty()	Finite	Creates Stream with zero elements
@@ -274,6 +290,9 @@ public class Test {
     Stream<String> stream4 = Stream.of("w", "o", "l", "f");
     TreeSet<String> streamedSet = stream4.collect(Collectors.toCollection(TreeSet::new));
     System.out.println(streamedSet); // [f, l, o, w]
+    // The same with a B-tree set: one array per 64 elements instead of one tree node per element
+    BTreeSet<String> bTreeSet = Stream.of("w", "o", "l", "f")
+        .collect(Collectors.toCollection(BTreeSet::new));
 
     Stream<String> stream5 = Stream.of("w", "o", "l", "f");
     Set<String> streamedSet1 = stream5.collect(Collectors.toSet());
@@ -377,15 +396,11 @@ public class Test {
     System.out.println(rb.getString("hello") + ", " + rb.getString("open"));
   }
 
+  // Kept for the Optional examples; on a hot path keep one StatsAccumulator and add() to it instead
   public static Optional<Double> average(int... scores) {
-    if (scores.length == 0) {
-      return Optional.empty();
-    }
-    int sum = 0;
-    for (int score : scores) {
-      sum += score;
-    }
-    return Optional.of((double) sum / scores.length);
+    StatsAccumulator stats = new StatsAccumulator();
+    stats.addAll(scores);
+    return stats.isEmpty() ? Optional.empty() : Optional.of(stats.mean());
   }
 
 }
@@ -0,0 +1,239 @@
+package com.java.genericsCollections;
+
+/*
+TreeMap<Long, Long> against BTreeMap<Long, Long> and LongBTreeSet holding `keys` even numbers, inserted in random order (so TreeMap's entries aren't laid out in key order on the heap, which would flatter its scans).
+get looks up 1000 random keys that are present; putRemove adds an odd key and removes it again, 1000 times, so the size stays put; range scans the 1000 keys from a random start with subMap().forEach() (forEachInRange() for LongBTreeSet). The reported ns/op is per lookup, per put-and-remove or per key scanned.
+Before the timed runs the retained heap per key is printed for 1M keys, inserted at random and, for the B-trees, in ascending order, which fills the leaves.
+A structure is skipped when its estimated size would take more than half the maximum heap: 10M keys in a TreeMap need about 600 MB, and 100M keys are only run with a heap of several GB (even LongBTreeSet needs about 1.2 GB, next to an 800 MB array of the keys to insert).
+ */
+
+import com.java.benchmark.Footprint;
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+public class BTreeBenchmark {
+
+  private static final int PROBES = 1000;
+  private static final int RANGE = 1000;
+  private static final int FOOTPRINT_KEYS = 1_000_000;
+  // Estimated bytes per key, with the Long objects and the array of keys to insert
+  private static final int TREE_MAP_BYTES = 64;
+  private static final int B_TREE_MAP_BYTES = 40;
+  private static final int LONG_B_TREE_BYTES = 20;
+
+  public static void main(String[] args) throws Exception {
+    Footprint.measure("TreeMap<Long,Long>", FOOTPRINT_KEYS,
+        n -> filled(TreeMap::new, shuffledKeys(n)));
+    Footprint.measure("BTreeMap<Long,Long>", FOOTPRINT_KEYS,
+        n -> filled(BTreeMap::new, shuffledKeys(n)));
+    Footprint.measure("BTreeMap ascending", FOOTPRINT_KEYS,
+        n -> filled(BTreeMap::new, ascendingKeys(n)));
+    Footprint.measure("LongBTreeSet", FOOTPRINT_KEYS, n -> filled(shuffledKeys(n)));
+    Footprint.measure("LongBTreeSet ascending", FOOTPRINT_KEYS, n -> filled(ascendingKeys(n)));
+
+    new Harness("genericsCollections-btree", "keys", 1_000_000, 10_000_000, 100_000_000)
+        .add("treeMapGet", keys -> get(TreeMap::new, keys, TREE_MAP_BYTES))
+        .add("bTreeMapGet", keys -> get(BTreeMap::new, keys, B_TREE_MAP_BYTES))
+        .add("longBTreeSetContains", BTreeBenchmark::contains)
+        .add("treeMapPutRemove", keys -> putRemove(TreeMap::new, keys, TREE_MAP_BYTES))
+        .add("bTreeMapPutRemove", keys -> putRemove(BTreeMap::new, keys, B_TREE_MAP_BYTES))
+        .add("longBTreeSetAddRemove", BTreeBenchmark::addRemove)
+        .add("treeMapRange", keys -> range(TreeMap::new, keys, TREE_MAP_BYTES))
+        .add("bTreeMapRange", keys -> range(BTreeMap::new, keys, B_TREE_MAP_BYTES))
+        .add("longBTreeSetRange", BTreeBenchmark::longRange)
+        .runAndReport();
+  }
+
+  private static boolean tooLargeForHeap(int keys, int bytesPerKey) {
+    return (long) keys * bytesPerKey > Runtime.getRuntime().maxMemory() / 2;
+  }
+
+  private static long[] ascendingKeys(int n) {
+    long[] keys = new long[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = 2L * i;
+    }
+    return keys;
+  }
+
+  private static long[] shuffledKeys(int n) {
+    long[] keys = ascendingKeys(n);
+    Random random = new Random(13);
+    for (int i = n - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      long swap = keys[i];
+      keys[i] = keys[j];
+      keys[j] = swap;
+    }
+    return keys;
+  }
+
+  // The key is its own value, so a map holds one Long per entry
+  private static NavigableMap<Long, Long> filled(Supplier<NavigableMap<Long, Long>> factory,
+      long[] keys) {
+    NavigableMap<Long, Long> map = factory.get();
+    for (long key : keys) {
+      Long boxed = key;
+      map.put(boxed, boxed);
+    }
+    return map;
+  }
+
+  private static LongBTreeSet filled(long[] keys) {
+    LongBTreeSet set = new LongBTreeSet();
+    for (long key : keys) {
+      set.add(key);
+    }
+    return set;
+  }
+
+  // Random even keys below 2 * keys, where the maps hold every even number
+  private static long[] probes(int keys) {
+    Random random = new Random(7);
+    long[] probes = new long[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = 2L * random.nextInt(keys);
+    }
+    return probes;
+  }
+
+  private static abstract class Operations implements Workload.Invocation {
+    private final int operations;
+
+    Operations(int operations) {
+      this.operations = operations;
+    }
+
+    @Override
+    public long operations() {
+      return operations;
+    }
+  }
+
+  private static Workload.Invocation get(Supplier<NavigableMap<Long, Long>> factory, int keys,
+      int bytesPerKey) {
+    if (tooLargeForHeap(keys, bytesPerKey)) {
+      return null;
+    }
+    NavigableMap<Long, Long> map = filled(factory, shuffledKeys(keys));
+    Long[] probes = boxed(probes(keys));
+    return new Operations(PROBES) {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (Long probe : probes) {
+          sum += map.get(probe);
+        }
+        return sum;
+      }
+    };
+  }
+
+  // Boxed once, up front, so that the loop doesn't measure allocation
+  private static Long[] boxed(long[] values) {
+    Long[] boxed = new Long[values.length];
+    for (int i = 0; i < values.length; i++) {
+      boxed[i] = values[i];
+    }
+    return boxed;
+  }
+
+  private static Workload.Invocation contains(int keys) {
+    if (tooLargeForHeap(keys, LONG_B_TREE_BYTES)) {
+      return null;
+    }
+    LongBTreeSet set = filled(shuffledKeys(keys));
+    long[] probes = probes(keys);
+    return new Operations(PROBES) {
+      @Override
+      public long invoke() {
+        long found = 0;
+        for (long probe : probes) {
+          if (set.contains(probe)) {
+            found++;
+          }
+        }
+        return found;
+      }
+    };
+  }
+
+  private static Workload.Invocation putRemove(Supplier<NavigableMap<Long, Long>> factory,
+      int keys, int bytesPerKey) {
+    if (tooLargeForHeap(keys, bytesPerKey)) {
+      return null;
+    }
+    NavigableMap<Long, Long> map = filled(factory, shuffledKeys(keys));
+    Long[] odd = boxed(probes(keys));
+    for (int i = 0; i < odd.length; i++) {
+      odd[i] = odd[i] + 1;
+    }
+    return new Operations(PROBES) {
+      @Override
+      public long invoke() {
+        for (Long key : odd) {
+          map.put(key, key);
+          map.remove(key);
+        }
+        return map.size();
+      }
+    };
+  }
+
+  private static Workload.Invocation addRemove(int keys) {
+    if (tooLargeForHeap(keys, LONG_B_TREE_BYTES)) {
+      return null;
+    }
+    LongBTreeSet set = filled(shuffledKeys(keys));
+    long[] odd = probes(keys);
+    return new Operations(PROBES) {
+      @Override
+      public long invoke() {
+        for (long key : odd) {
+          set.add(key + 1);
+          set.remove(key + 1);
+        }
+        return set.size();
+      }
+    };
+  }
+
+  private static Workload.Invocation range(Supplier<NavigableMap<Long, Long>> factory, int keys,
+      int bytesPerKey) {
+    if (tooLargeForHeap(keys, bytesPerKey)) {
+      return null;
+    }
+    NavigableMap<Long, Long> map = filled(factory, shuffledKeys(keys));
+    Random random = new Random(5);
+    long[] sum = new long[1];
+    return new Operations(RANGE) {
+      @Override
+      public long invoke() {
+        long from = 2L * random.nextInt(keys - RANGE);
+        map.subMap(from, from + 2L * RANGE).forEach((key, value) -> sum[0] += value);
+        return sum[0];
+      }
+    };
+  }
+
+  private static Workload.Invocation longRange(int keys) {
+    if (tooLargeForHeap(keys, LONG_B_TREE_BYTES)) {
+      return null;
+    }
+    LongBTreeSet set = filled(shuffledKeys(keys));
+    Random random = new Random(5);
+    long[] sum = new long[1];
+    return new Operations(RANGE) {
+      @Override
+      public long invoke() {
+        long from = 2L * random.nextInt(keys - RANGE);
+        set.forEachInRange(from, from + 2L * RANGE, key -> sum[0] += key);
+        return sum[0];
+      }
+    };
+  }
+}
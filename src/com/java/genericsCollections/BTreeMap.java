@@ -0,0 +1,1186 @@
+package com.java.genericsCollections;
+
+/*
+A sorted map kept in a B+tree: every node holds up to 64 keys in an array, the entries sit in the leaves in key order, and the leaves are linked both ways.
+A TreeMap is a red-black tree with one Entry object per entry; a lookup among 1M keys goes down about 20 of them, each somewhere else on the heap, and a range scan follows parent and child pointers from one to the next. Here a lookup reads 4 or 5 arrays and binary-searches inside each, and a range scan walks along the leaf arrays. The arrays cost about 8 to 12 bytes per entry (a key and a value reference in leaves between half and completely full) instead of TreeMap's 40-byte Entry.
+The keys are still objects, so every comparison reads one from wherever it was allocated; for long keys LongBTreeSet keeps them in the leaf arrays themselves.
+
+A full node splits in half, except a leaf that is full because keys keep being appended past the largest one: it stays full and the new key starts the next leaf, so keys added in ascending order fill the leaves completely. A node that falls below half full after a removal borrows a key from a neighbour or merges with it, so no leaf but the root is ever empty.
+subMap(), headMap(), tailMap() and descendingMap() are views like TreeMap's, and so are keySet() and navigableKeySet() (as BTreeSets that can't add). A view's size() adds up the leaves in range. Entries returned by firstEntry(), ceilingEntry() and the others are snapshots; those of entrySet() write setValue() through to the map. Iterators are fail-fast; their remove() looks up where to continue, because a removal can move entries to another leaf.
+Null keys aren't allowed with natural ordering, null values are. Not thread-safe, like TreeMap.
+ */
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+
+public class BTreeMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+  static final int MAX_KEYS = 64;
+  private static final int MIN_KEYS = MAX_KEYS / 2;
+
+  private abstract static class Node {
+    final Object[] keys = new Object[MAX_KEYS];
+    int size;
+  }
+
+  private static final class Leaf extends Node {
+    final Object[] values = new Object[MAX_KEYS];
+    Leaf prev;
+    Leaf next;
+  }
+
+  // children[i] holds the keys below keys[i], children[i + 1] those from keys[i] up
+  private static final class Branch extends Node {
+    final Node[] children = new Node[MAX_KEYS + 1];
+  }
+
+  // An entry's place in a leaf, as returned by the navigation methods
+  private static final class Cursor {
+    final Leaf leaf;
+    final int index;
+
+    Cursor(Leaf leaf, int index) {
+      this.leaf = leaf;
+      this.index = index;
+    }
+
+    Object key() {
+      return leaf.keys[index];
+    }
+
+    Object value() {
+      return leaf.values[index];
+    }
+  }
+
+  private final Comparator<? super K> comparator;
+  private Node root;
+  private int height;
+  private Leaf first;
+  private Leaf last;
+  private int size;
+  private int modCount;
+  private View<K, V> whole;
+
+  // Results of the recursive put() and remove(), which only one thread may call at a time anyway
+  private Object promoted;
+  private Object previous;
+  private boolean existed;
+
+  public BTreeMap() {
+    this((Comparator<? super K>) null);
+  }
+
+  public BTreeMap(Comparator<? super K> comparator) {
+    this.comparator = comparator;
+    clear();
+  }
+
+  public BTreeMap(Map<? extends K, ? extends V> map) {
+    this();
+    putAll(map);
+  }
+
+  public BTreeMap(SortedMap<K, ? extends V> map) {
+    this(map.comparator());
+    putAll(map);
+  }
+
+  @Override
+  public Comparator<? super K> comparator() {
+    return comparator;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    Leaf leaf = leafFor(key);
+    int i = search(leaf.keys, leaf.size, key);
+    return i >= 0 ? (V) leaf.values[i] : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    Leaf leaf = leafFor(key);
+    return search(leaf.keys, leaf.size, key) >= 0;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    if (comparator == null) {
+      Objects.requireNonNull(key);
+    }
+    if (size == 0) {
+      compare(key, key);
+    }
+    Node split = insert(root, height, key, value, true);
+    if (split != null) {
+      Branch top = new Branch();
+      top.keys[0] = promoted;
+      top.children[0] = root;
+      top.children[1] = split;
+      top.size = 1;
+      root = top;
+      height++;
+      promoted = null;
+    }
+    if (existed) {
+      V old = (V) previous;
+      previous = null;
+      return old;
+    }
+    size++;
+    modCount++;
+    return null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V remove(Object key) {
+    if (!removeKey(key)) {
+      return null;
+    }
+    V old = (V) previous;
+    previous = null;
+    return old;
+  }
+
+  @Override
+  public void clear() {
+    Leaf leaf = new Leaf();
+    root = leaf;
+    height = 0;
+    first = leaf;
+    last = leaf;
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    whole().forEach(action);
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return whole().entrySet();
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return whole().navigableKeySet();
+  }
+
+  @Override
+  public Collection<V> values() {
+    return whole().values();
+  }
+
+  @Override
+  public NavigableSet<K> navigableKeySet() {
+    return whole().navigableKeySet();
+  }
+
+  @Override
+  public NavigableSet<K> descendingKeySet() {
+    return whole().descendingKeySet();
+  }
+
+  @Override
+  public NavigableMap<K, V> descendingMap() {
+    return whole().descendingMap();
+  }
+
+  @Override
+  public Entry<K, V> firstEntry() {
+    return whole().firstEntry();
+  }
+
+  @Override
+  public Entry<K, V> lastEntry() {
+    return whole().lastEntry();
+  }
+
+  @Override
+  public Entry<K, V> pollFirstEntry() {
+    return whole().pollFirstEntry();
+  }
+
+  @Override
+  public Entry<K, V> pollLastEntry() {
+    return whole().pollLastEntry();
+  }
+
+  @Override
+  public K firstKey() {
+    return whole().firstKey();
+  }
+
+  @Override
+  public K lastKey() {
+    return whole().lastKey();
+  }
+
+  @Override
+  public Entry<K, V> lowerEntry(K key) {
+    return whole().lowerEntry(key);
+  }
+
+  @Override
+  public K lowerKey(K key) {
+    return whole().lowerKey(key);
+  }
+
+  @Override
+  public Entry<K, V> floorEntry(K key) {
+    return whole().floorEntry(key);
+  }
+
+  @Override
+  public K floorKey(K key) {
+    return whole().floorKey(key);
+  }
+
+  @Override
+  public Entry<K, V> ceilingEntry(K key) {
+    return whole().ceilingEntry(key);
+  }
+
+  @Override
+  public K ceilingKey(K key) {
+    return whole().ceilingKey(key);
+  }
+
+  @Override
+  public Entry<K, V> higherEntry(K key) {
+    return whole().higherEntry(key);
+  }
+
+  @Override
+  public K higherKey(K key) {
+    return whole().higherKey(key);
+  }
+
+  @Override
+  public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey,
+      boolean toInclusive) {
+    return whole().subMap(fromKey, fromInclusive, toKey, toInclusive);
+  }
+
+  @Override
+  public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+    return whole().headMap(toKey, inclusive);
+  }
+
+  @Override
+  public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+    return whole().tailMap(fromKey, inclusive);
+  }
+
+  @Override
+  public SortedMap<K, V> subMap(K fromKey, K toKey) {
+    return whole().subMap(fromKey, true, toKey, false);
+  }
+
+  @Override
+  public SortedMap<K, V> headMap(K toKey) {
+    return whole().headMap(toKey, false);
+  }
+
+  @Override
+  public SortedMap<K, V> tailMap(K fromKey) {
+    return whole().tailMap(fromKey, true);
+  }
+
+  // The whole map as a view, which all the navigation goes through
+  View<K, V> whole() {
+    if (whole == null) {
+      whole = new View<>(this, true, null, false, true, null, false, false);
+    }
+    return whole;
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(Object a, Object b) {
+    return comparator == null
+        ? ((Comparable<Object>) a).compareTo(b) : comparator.compare((K) a, (K) b);
+  }
+
+  // Index of key among keys[0, size), or -(insertion point) - 1 like Arrays.binarySearch()
+  @SuppressWarnings("unchecked")
+  private int search(Object[] keys, int size, Object key) {
+    int low = 0;
+    int high = size - 1;
+    if (comparator == null) {
+      Comparable<Object> comparable = (Comparable<Object>) Objects.requireNonNull(key);
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int c = comparable.compareTo(keys[mid]);
+        if (c > 0) {
+          low = mid + 1;
+        } else if (c < 0) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+    } else {
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int c = comparator.compare((K) key, (K) keys[mid]);
+        if (c > 0) {
+          low = mid + 1;
+        } else if (c < 0) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+    }
+    return -(low + 1);
+  }
+
+  private int childIndex(Branch branch, Object key) {
+    int i = search(branch.keys, branch.size, key);
+    return i >= 0 ? i + 1 : -i - 1;
+  }
+
+  private Leaf leafFor(Object key) {
+    if (comparator == null) {
+      Objects.requireNonNull(key);
+    }
+    Node node = root;
+    for (int level = height; level > 0; level--) {
+      Branch branch = (Branch) node;
+      node = branch.children[childIndex(branch, key)];
+    }
+    return (Leaf) node;
+  }
+
+  private Cursor firstCursor() {
+    return size == 0 ? null : new Cursor(first, 0);
+  }
+
+  private Cursor lastCursor() {
+    return size == 0 ? null : new Cursor(last, last.size - 1);
+  }
+
+  // The first entry above key, or at key when inclusive; it is in key's leaf or starts the next one
+  private Cursor ceiling(Object key, boolean inclusive) {
+    Leaf leaf = leafFor(key);
+    int i = search(leaf.keys, leaf.size, key);
+    int index = i >= 0 ? (inclusive ? i : i + 1) : -i - 1;
+    if (index == leaf.size) {
+      leaf = leaf.next;
+      index = 0;
+    }
+    return leaf == null ? null : new Cursor(leaf, index);
+  }
+
+  // The last entry below key, or at key when inclusive; it is in key's leaf or ends the previous one
+  private Cursor floor(Object key, boolean inclusive) {
+    Leaf leaf = leafFor(key);
+    int i = search(leaf.keys, leaf.size, key);
+    int index = i >= 0 ? (inclusive ? i : i - 1) : -i - 2;
+    if (index < 0) {
+      leaf = leaf.prev;
+      index = leaf == null ? 0 : leaf.size - 1;
+    }
+    return leaf == null ? null : new Cursor(leaf, index);
+  }
+
+  // Returns the new right sibling when node had to split, with the key that separates them in promoted
+  private Node insert(Node node, int level, Object key, Object value, boolean rightmost) {
+    if (level == 0) {
+      Leaf leaf = (Leaf) node;
+      int i = search(leaf.keys, leaf.size, key);
+      if (i >= 0) {
+        previous = leaf.values[i];
+        leaf.values[i] = value;
+        existed = true;
+        return null;
+      }
+      existed = false;
+      i = -i - 1;
+      if (leaf.size < MAX_KEYS) {
+        insertAt(leaf, i, key, value);
+        return null;
+      }
+      int at = rightmost && i == MAX_KEYS ? MAX_KEYS : MAX_KEYS / 2;
+      Leaf right = splitLeaf(leaf, at);
+      if (i < at) {
+        insertAt(leaf, i, key, value);
+      } else {
+        insertAt(right, i - at, key, value);
+      }
+      promoted = right.keys[0];
+      return right;
+    }
+    Branch branch = (Branch) node;
+    int c = childIndex(branch, key);
+    Node split = insert(branch.children[c], level - 1, key, value, rightmost && c == branch.size);
+    if (split == null) {
+      return null;
+    }
+    if (branch.size < MAX_KEYS) {
+      System.arraycopy(branch.keys, c, branch.keys, c + 1, branch.size - c);
+      System.arraycopy(branch.children, c + 1, branch.children, c + 2, branch.size - c);
+      branch.keys[c] = promoted;
+      branch.children[c + 1] = split;
+      branch.size++;
+      return null;
+    }
+    return splitBranch(branch, c, promoted, split);
+  }
+
+  private static void insertAt(Leaf leaf, int i, Object key, Object value) {
+    System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.size - i);
+    System.arraycopy(leaf.values, i, leaf.values, i + 1, leaf.size - i);
+    leaf.keys[i] = key;
+    leaf.values[i] = value;
+    leaf.size++;
+  }
+
+  // Moves the entries from index at on into a new leaf linked after this one
+  private Leaf splitLeaf(Leaf leaf, int at) {
+    Leaf right = new Leaf();
+    int moved = leaf.size - at;
+    System.arraycopy(leaf.keys, at, right.keys, 0, moved);
+    System.arraycopy(leaf.values, at, right.values, 0, moved);
+    Arrays.fill(leaf.keys, at, leaf.size, null);
+    Arrays.fill(leaf.values, at, leaf.size, null);
+    right.size = moved;
+    leaf.size = at;
+    right.prev = leaf;
+    right.next = leaf.next;
+    if (leaf.next == null) {
+      last = right;
+    } else {
+      leaf.next.prev = right;
+    }
+    leaf.next = right;
+    return right;
+  }
+
+  // Splits a full branch around the middle key once separator and child are added after position c
+  private Branch splitBranch(Branch branch, int c, Object separator, Node child) {
+    Object[] keys = Arrays.copyOf(branch.keys, MAX_KEYS + 1);
+    Node[] children = Arrays.copyOf(branch.children, MAX_KEYS + 2);
+    System.arraycopy(keys, c, keys, c + 1, MAX_KEYS - c);
+    System.arraycopy(children, c + 1, children, c + 2, MAX_KEYS - c);
+    keys[c] = separator;
+    children[c + 1] = child;
+    int mid = (MAX_KEYS + 1) / 2;
+    Branch right = new Branch();
+    right.size = MAX_KEYS - mid;
+    System.arraycopy(keys, mid + 1, right.keys, 0, right.size);
+    System.arraycopy(children, mid + 1, right.children, 0, right.size + 1);
+    System.arraycopy(keys, 0, branch.keys, 0, mid);
+    System.arraycopy(children, 0, branch.children, 0, mid + 1);
+    Arrays.fill(branch.keys, mid, MAX_KEYS, null);
+    Arrays.fill(branch.children, mid + 1, MAX_KEYS + 1, null);
+    branch.size = mid;
+    promoted = keys[mid];
+    return right;
+  }
+
+  // Removes key and returns whether it was there, leaving its value in previous
+  private boolean removeKey(Object key) {
+    if (comparator == null) {
+      Objects.requireNonNull(key);
+    }
+    if (!remove(root, height, key)) {
+      return false;
+    }
+    if (height > 0 && root.size == 0) {
+      root = ((Branch) root).children[0];
+      height--;
+    }
+    size--;
+    modCount++;
+    return true;
+  }
+
+  private boolean remove(Node node, int level, Object key) {
+    if (level == 0) {
+      Leaf leaf = (Leaf) node;
+      int i = search(leaf.keys, leaf.size, key);
+      if (i < 0) {
+        return false;
+      }
+      previous = leaf.values[i];
+      int moved = leaf.size - i - 1;
+      System.arraycopy(leaf.keys, i + 1, leaf.keys, i, moved);
+      System.arraycopy(leaf.values, i + 1, leaf.values, i, moved);
+      leaf.size--;
+      leaf.keys[leaf.size] = null;
+      leaf.values[leaf.size] = null;
+      return true;
+    }
+    Branch branch = (Branch) node;
+    int c = childIndex(branch, key);
+    if (!remove(branch.children[c], level - 1, key)) {
+      return false;
+    }
+    if (branch.children[c].size < MIN_KEYS) {
+      rebalance(branch, c, level - 1 == 0);
+    }
+    return true;
+  }
+
+  // Refills child c of parent from a neighbour that can spare a key, or merges it with one
+  private void rebalance(Branch parent, int c, boolean leaves) {
+    Node left = c > 0 ? parent.children[c - 1] : null;
+    Node right = c < parent.size ? parent.children[c + 1] : null;
+    if (left != null && left.size > MIN_KEYS) {
+      if (leaves) {
+        borrowLeft((Leaf) left, (Leaf) parent.children[c], parent, c);
+      } else {
+        borrowLeft((Branch) left, (Branch) parent.children[c], parent, c);
+      }
+    } else if (right != null && right.size > MIN_KEYS) {
+      if (leaves) {
+        borrowRight((Leaf) parent.children[c], (Leaf) right, parent, c);
+      } else {
+        borrowRight((Branch) parent.children[c], (Branch) right, parent, c);
+      }
+    } else {
+      int at = left != null ? c - 1 : c;
+      if (leaves) {
+        merge((Leaf) parent.children[at], (Leaf) parent.children[at + 1]);
+      } else {
+        merge((Branch) parent.children[at], (Branch) parent.children[at + 1], parent.keys[at]);
+      }
+      System.arraycopy(parent.keys, at + 1, parent.keys, at, parent.size - at - 1);
+      System.arraycopy(parent.children, at + 2, parent.children, at + 1, parent.size - at - 1);
+      parent.size--;
+      parent.keys[parent.size] = null;
+      parent.children[parent.size + 1] = null;
+    }
+  }
+
+  private static void borrowLeft(Leaf left, Leaf child, Branch parent, int c) {
+    left.size--;
+    insertAt(child, 0, left.keys[left.size], left.values[left.size]);
+    left.keys[left.size] = null;
+    left.values[left.size] = null;
+    parent.keys[c - 1] = child.keys[0];
+  }
+
+  private static void borrowRight(Leaf child, Leaf right, Branch parent, int c) {
+    child.keys[child.size] = right.keys[0];
+    child.values[child.size] = right.values[0];
+    child.size++;
+    right.size--;
+    System.arraycopy(right.keys, 1, right.keys, 0, right.size);
+    System.arraycopy(right.values, 1, right.values, 0, right.size);
+    right.keys[right.size] = null;
+    right.values[right.size] = null;
+    parent.keys[c] = right.keys[0];
+  }
+
+  // The separator comes down in front of child's keys, left's last key goes up in its place
+  private static void borrowLeft(Branch left, Branch child, Branch parent, int c) {
+    System.arraycopy(child.keys, 0, child.keys, 1, child.size);
+    System.arraycopy(child.children, 0, child.children, 1, child.size + 1);
+    child.keys[0] = parent.keys[c - 1];
+    child.children[0] = left.children[left.size];
+    child.size++;
+    parent.keys[c - 1] = left.keys[left.size - 1];
+    left.keys[left.size - 1] = null;
+    left.children[left.size] = null;
+    left.size--;
+  }
+
+  private static void borrowRight(Branch child, Branch right, Branch parent, int c) {
+    child.keys[child.size] = parent.keys[c];
+    child.children[child.size + 1] = right.children[0];
+    child.size++;
+    parent.keys[c] = right.keys[0];
+    System.arraycopy(right.keys, 1, right.keys, 0, right.size - 1);
+    System.arraycopy(right.children, 1, right.children, 0, right.size);
+    right.size--;
+    right.keys[right.size] = null;
+    right.children[right.size + 1] = null;
+  }
+
+  private void merge(Leaf left, Leaf right) {
+    System.arraycopy(right.keys, 0, left.keys, left.size, right.size);
+    System.arraycopy(right.values, 0, left.values, left.size, right.size);
+    left.size += right.size;
+    left.next = right.next;
+    if (right.next == null) {
+      last = left;
+    } else {
+      right.next.prev = left;
+    }
+  }
+
+  private static void merge(Branch left, Branch right, Object separator) {
+    left.keys[left.size] = separator;
+    System.arraycopy(right.keys, 0, left.keys, left.size + 1, right.size);
+    System.arraycopy(right.children, 0, left.children, left.size + 1, right.size + 1);
+    left.size += right.size + 1;
+  }
+
+  /*
+  A range of the map, in either direction. lo and hi are bounds in the map's own order whatever the direction; fromStart and toEnd mean there is no bound on that side.
+  The navigation methods work in that absolute order (absLowest(), absCeiling() and so on) and swap sides for a descending view, like TreeMap's NavigableSubMap.
+   */
+  static final class View<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    private final BTreeMap<K, V> m;
+    private final boolean fromStart;
+    private final K lo;
+    private final boolean loInclusive;
+    private final boolean toEnd;
+    private final K hi;
+    private final boolean hiInclusive;
+    private final boolean descending;
+
+    View(BTreeMap<K, V> m, boolean fromStart, K lo, boolean loInclusive, boolean toEnd, K hi,
+        boolean hiInclusive, boolean descending) {
+      this.m = m;
+      this.fromStart = fromStart;
+      this.lo = lo;
+      this.loInclusive = loInclusive;
+      this.toEnd = toEnd;
+      this.hi = hi;
+      this.hiInclusive = hiInclusive;
+      this.descending = descending;
+    }
+
+    private boolean tooLow(Object key) {
+      if (fromStart) {
+        return false;
+      }
+      int c = m.compare(key, lo);
+      return c < 0 || (c == 0 && !loInclusive);
+    }
+
+    private boolean tooHigh(Object key) {
+      if (toEnd) {
+        return false;
+      }
+      int c = m.compare(key, hi);
+      return c > 0 || (c == 0 && !hiInclusive);
+    }
+
+    private boolean inRange(Object key) {
+      return !tooLow(key) && !tooHigh(key);
+    }
+
+    // Whether key can bound a view inside this one; an exclusive bound may equal this view's own
+    private boolean inRange(Object key, boolean inclusive) {
+      if (inclusive) {
+        return inRange(key);
+      }
+      return (fromStart || m.compare(key, lo) >= 0) && (toEnd || m.compare(hi, key) >= 0);
+    }
+
+    private Cursor absLowest() {
+      Cursor c = fromStart ? m.firstCursor() : m.ceiling(lo, loInclusive);
+      return c == null || tooHigh(c.key()) ? null : c;
+    }
+
+    private Cursor absHighest() {
+      Cursor c = toEnd ? m.lastCursor() : m.floor(hi, hiInclusive);
+      return c == null || tooLow(c.key()) ? null : c;
+    }
+
+    private Cursor absCeiling(Object key, boolean inclusive) {
+      if (tooLow(key)) {
+        return absLowest();
+      }
+      Cursor c = m.ceiling(key, inclusive);
+      return c == null || tooHigh(c.key()) ? null : c;
+    }
+
+    private Cursor absFloor(Object key, boolean inclusive) {
+      if (tooHigh(key)) {
+        return absHighest();
+      }
+      Cursor c = m.floor(key, inclusive);
+      return c == null || tooLow(c.key()) ? null : c;
+    }
+
+    private Cursor start() {
+      return descending ? absHighest() : absLowest();
+    }
+
+    private Cursor end() {
+      return descending ? absLowest() : absHighest();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Entry<K, V> snapshot(Cursor c) {
+      return c == null ? null : new SimpleImmutableEntry<>((K) c.key(), (V) c.value());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K key(Cursor c) {
+      return c == null ? null : (K) c.key();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K keyOrThrow(Cursor c) {
+      if (c == null) {
+        throw new NoSuchElementException();
+      }
+      return (K) c.key();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+      return descending ? Collections.reverseOrder(m.comparator) : m.comparator;
+    }
+
+    @Override
+    public int size() {
+      if (fromStart && toEnd) {
+        return m.size;
+      }
+      Cursor low = absLowest();
+      if (low == null) {
+        return 0;
+      }
+      Cursor high = absHighest();
+      int count = -low.index;
+      for (Leaf leaf = low.leaf; leaf != high.leaf; leaf = leaf.next) {
+        count += leaf.size;
+      }
+      return count + high.index + 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return fromStart && toEnd ? m.size == 0 : absLowest() == null;
+    }
+
+    @Override
+    public V get(Object key) {
+      return inRange(key) ? m.get(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return inRange(key) && m.containsKey(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+      if (!inRange(key)) {
+        throw new IllegalArgumentException("key out of range");
+      }
+      return m.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+      return inRange(key) ? m.remove(key) : null;
+    }
+
+    @Override
+    public void clear() {
+      if (fromStart && toEnd) {
+        m.clear();
+      } else {
+        super.clear();
+      }
+    }
+
+    // Walks the leaves from start() to end() without creating an entry for each
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+      Objects.requireNonNull(action);
+      Cursor from = start();
+      if (from == null) {
+        return;
+      }
+      Cursor to = end();
+      int expectedModCount = m.modCount;
+      Leaf leaf = from.leaf;
+      int i = from.index;
+      while (true) {
+        boolean lastLeaf = leaf == to.leaf;
+        if (descending) {
+          int stop = lastLeaf ? to.index : 0;
+          for (; i >= stop; i--) {
+            action.accept((K) leaf.keys[i], (V) leaf.values[i]);
+          }
+        } else {
+          int stop = lastLeaf ? to.index + 1 : leaf.size;
+          for (; i < stop; i++) {
+            action.accept((K) leaf.keys[i], (V) leaf.values[i]);
+          }
+        }
+        if (m.modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        if (lastLeaf) {
+          return;
+        }
+        leaf = descending ? leaf.prev : leaf.next;
+        i = descending ? leaf.size - 1 : 0;
+      }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+          return new RangeIterator<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            Entry<K, V> element(Leaf leaf, int index) {
+              return new MapEntry<>(m, (K) leaf.keys[index], (V) leaf.values[index]);
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return View.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+          if (!(o instanceof Map.Entry)) {
+            return false;
+          }
+          Entry<?, ?> entry = (Entry<?, ?>) o;
+          Object key = entry.getKey();
+          return containsKey(key) && Objects.equals(get(key), entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+          if (!contains(o)) {
+            return false;
+          }
+          m.removeKey(((Entry<?, ?>) o).getKey());
+          return true;
+        }
+      };
+    }
+
+    @Override
+    public Collection<V> values() {
+      return new AbstractCollection<>() {
+        @Override
+        public Iterator<V> iterator() {
+          return new RangeIterator<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            V element(Leaf leaf, int index) {
+              return (V) leaf.values[index];
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return View.this.size();
+        }
+      };
+    }
+
+    Iterator<K> keyIterator() {
+      return new RangeIterator<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        K element(Leaf leaf, int index) {
+          return (K) leaf.keys[index];
+        }
+      };
+    }
+
+    @Override
+    public Set<K> keySet() {
+      return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+      return new BTreeSet<>(this, true);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+      return new BTreeSet<>(descendingMap(), true);
+    }
+
+    @Override
+    public View<K, V> descendingMap() {
+      return new View<>(m, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+      return snapshot(start());
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+      return snapshot(end());
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+      return poll(start());
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+      return poll(end());
+    }
+
+    private Entry<K, V> poll(Cursor c) {
+      Entry<K, V> entry = snapshot(c);
+      if (entry != null) {
+        m.removeKey(entry.getKey());
+      }
+      return entry;
+    }
+
+    @Override
+    public K firstKey() {
+      return keyOrThrow(start());
+    }
+
+    @Override
+    public K lastKey() {
+      return keyOrThrow(end());
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+      return snapshot(lower(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+      return key(lower(key));
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+      return snapshot(floor(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+      return key(floor(key));
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+      return snapshot(ceiling(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+      return key(ceiling(key));
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+      return snapshot(higher(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+      return key(higher(key));
+    }
+
+    private Cursor lower(Object key) {
+      return descending ? absCeiling(key, false) : absFloor(key, false);
+    }
+
+    private Cursor floor(Object key) {
+      return descending ? absCeiling(key, true) : absFloor(key, true);
+    }
+
+    private Cursor ceiling(Object key) {
+      return descending ? absFloor(key, true) : absCeiling(key, true);
+    }
+
+    private Cursor higher(Object key) {
+      return descending ? absFloor(key, false) : absCeiling(key, false);
+    }
+
+    @Override
+    public View<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+      K low = descending ? toKey : fromKey;
+      boolean lowInclusive = descending ? toInclusive : fromInclusive;
+      K high = descending ? fromKey : toKey;
+      boolean highInclusive = descending ? fromInclusive : toInclusive;
+      if (m.compare(low, high) > 0) {
+        throw new IllegalArgumentException("fromKey > toKey");
+      }
+      if (!inRange(low, lowInclusive) || !inRange(high, highInclusive)) {
+        throw new IllegalArgumentException("key out of range");
+      }
+      return new View<>(m, false, low, lowInclusive, false, high, highInclusive, descending);
+    }
+
+    @Override
+    public View<K, V> headMap(K toKey, boolean inclusive) {
+      if (!inRange(toKey, inclusive)) {
+        throw new IllegalArgumentException("toKey out of range");
+      }
+      return descending
+          ? new View<>(m, false, toKey, inclusive, toEnd, hi, hiInclusive, true)
+          : new View<>(m, fromStart, lo, loInclusive, false, toKey, inclusive, false);
+    }
+
+    @Override
+    public View<K, V> tailMap(K fromKey, boolean inclusive) {
+      if (!inRange(fromKey, inclusive)) {
+        throw new IllegalArgumentException("fromKey out of range");
+      }
+      return descending
+          ? new View<>(m, fromStart, lo, loInclusive, false, fromKey, inclusive, true)
+          : new View<>(m, false, fromKey, inclusive, toEnd, hi, hiInclusive, false);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+      return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+      return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+      return tailMap(fromKey, true);
+    }
+
+    // Steps through the view's range in its direction; stops after the entry end() found at the start
+    private abstract class RangeIterator<T> implements Iterator<T> {
+      private Leaf leaf;
+      private int index;
+      private Leaf endLeaf;
+      private int endIndex;
+      private Object endKey;
+      private Object lastKey;
+      private boolean canRemove;
+      private int expectedModCount = m.modCount;
+
+      RangeIterator() {
+        Cursor from = start();
+        if (from != null) {
+          Cursor to = end();
+          leaf = from.leaf;
+          index = from.index;
+          endLeaf = to.leaf;
+          endIndex = to.index;
+          endKey = to.key();
+        }
+      }
+
+      abstract T element(Leaf leaf, int index);
+
+      @Override
+      public boolean hasNext() {
+        return leaf != null;
+      }
+
+      @Override
+      public T next() {
+        if (m.modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        if (leaf == null) {
+          throw new NoSuchElementException();
+        }
+        T element = element(leaf, index);
+        lastKey = leaf.keys[index];
+        canRemove = true;
+        if (leaf == endLeaf && index == endIndex) {
+          leaf = null;
+        } else if (descending) {
+          if (--index < 0) {
+            leaf = leaf.prev;
+            index = leaf.size - 1;
+          }
+        } else if (++index == leaf.size) {
+          leaf = leaf.next;
+          index = 0;
+        }
+        return element;
+      }
+
+      // The removal can move entries between leaves, so the next and the end entry are looked up again
+      @Override
+      public void remove() {
+        if (!canRemove) {
+          throw new IllegalStateException();
+        }
+        if (m.modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        boolean more = leaf != null;
+        Object nextKey = more ? leaf.keys[index] : null;
+        m.removeKey(lastKey);
+        canRemove = false;
+        expectedModCount = m.modCount;
+        if (more) {
+          Cursor next = m.ceiling(nextKey, true);
+          leaf = next.leaf;
+          index = next.index;
+          Cursor to = m.ceiling(endKey, true);
+          endLeaf = to.leaf;
+          endIndex = to.index;
+        }
+      }
+    }
+  }
+
+  // An entry from entrySet(), whose setValue() replaces the value in the map as well
+  private static final class MapEntry<K, V> extends SimpleEntry<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    private final BTreeMap<K, V> m;
+
+    MapEntry(BTreeMap<K, V> m, K key, V value) {
+      super(key, value);
+      this.m = m;
+    }
+
+    @Override
+    public V setValue(V value) {
+      m.put(getKey(), value);
+      return super.setValue(value);
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package com.java.genericsCollections;
+
+/*
+A sorted set kept in the keys of a BTreeMap, the way a TreeSet is kept in a TreeMap: the same navigation, half the arrays' worth of references unused (every value is the same marker).
+Also the type of BTreeMap.keySet() and navigableKeySet(), which remove from the map but can't add to it.
+ */
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+import java.util.function.Consumer;
+
+public class BTreeSet<E> extends AbstractSet<E> implements NavigableSet<E> {
+  private static final Object PRESENT = Boolean.TRUE;
+
+  private final BTreeMap.View<E, Object> m;
+  private final boolean keyView;
+
+  public BTreeSet() {
+    this(new BTreeMap<E, Object>().whole(), false);
+  }
+
+  public BTreeSet(Comparator<? super E> comparator) {
+    this(new BTreeMap<E, Object>(comparator).whole(), false);
+  }
+
+  public BTreeSet(Collection<? extends E> elements) {
+    this();
+    addAll(elements);
+  }
+
+  public BTreeSet(SortedSet<E> elements) {
+    this(elements.comparator());
+    addAll(elements);
+  }
+
+  @SuppressWarnings("unchecked")
+  BTreeSet(BTreeMap.View<E, ?> m, boolean keyView) {
+    this.m = (BTreeMap.View<E, Object>) m;
+    this.keyView = keyView;
+  }
+
+  @Override
+  public int size() {
+    return m.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return m.isEmpty();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return m.containsKey(o);
+  }
+
+  @Override
+  public boolean add(E e) {
+    if (keyView) {
+      throw new UnsupportedOperationException("Can't add to the keys of a map");
+    }
+    return m.put(e, PRESENT) == null;
+  }
+
+  // A key view can't tell a removed null value from a missing key by the result of remove()
+  @Override
+  public boolean remove(Object o) {
+    if (!keyView) {
+      return m.remove(o) == PRESENT;
+    }
+    if (!m.containsKey(o)) {
+      return false;
+    }
+    m.remove(o);
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    m.clear();
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return m.keyIterator();
+  }
+
+  @Override
+  public Iterator<E> descendingIterator() {
+    return m.descendingMap().keyIterator();
+  }
+
+  @Override
+  public void forEach(Consumer<? super E> action) {
+    m.forEach((key, value) -> action.accept(key));
+  }
+
+  @Override
+  public Comparator<? super E> comparator() {
+    return m.comparator();
+  }
+
+  @Override
+  public E first() {
+    return m.firstKey();
+  }
+
+  @Override
+  public E last() {
+    return m.lastKey();
+  }
+
+  @Override
+  public E lower(E e) {
+    return m.lowerKey(e);
+  }
+
+  @Override
+  public E floor(E e) {
+    return m.floorKey(e);
+  }
+
+  @Override
+  public E ceiling(E e) {
+    return m.ceilingKey(e);
+  }
+
+  @Override
+  public E higher(E e) {
+    return m.higherKey(e);
+  }
+
+  @Override
+  public E pollFirst() {
+    var entry = m.pollFirstEntry();
+    return entry == null ? null : entry.getKey();
+  }
+
+  @Override
+  public E pollLast() {
+    var entry = m.pollLastEntry();
+    return entry == null ? null : entry.getKey();
+  }
+
+  @Override
+  public NavigableSet<E> descendingSet() {
+    return new BTreeSet<>(m.descendingMap(), keyView);
+  }
+
+  @Override
+  public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement,
+      boolean toInclusive) {
+    return new BTreeSet<>(m.subMap(fromElement, fromInclusive, toElement, toInclusive), keyView);
+  }
+
+  @Override
+  public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+    return new BTreeSet<>(m.headMap(toElement, inclusive), keyView);
+  }
+
+  @Override
+  public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+    return new BTreeSet<>(m.tailMap(fromElement, inclusive), keyView);
+  }
+
+  @Override
+  public SortedSet<E> subSet(E fromElement, E toElement) {
+    return subSet(fromElement, true, toElement, false);
+  }
+
+  @Override
+  public SortedSet<E> headSet(E toElement) {
+    return headSet(toElement, false);
+  }
+
+  @Override
+  public SortedSet<E> tailSet(E fromElement) {
+    return tailSet(fromElement, true);
+  }
+}
@@ -0,0 +1,233 @@
+package com.java.genericsCollections;
+
+/*
+A set that only remembers enough of its elements to answer "definitely not added" or "probably added", in about 10 bits per element for a 1% false-positive rate however large the elements are.
+Each element sets k bits chosen by its hash, and mightContain() is false as soon as one of them is clear. Here all k bits of an element are in one 512-bit block (a 64-byte cache line), chosen by the upper half of a 64-bit hash, so a lookup reads one cache line where a classic Bloom filter reads k lines scattered over the whole array.
+Blocks fill unevenly, which raises the false-positive rate a little over the classic filter's for the same bits; the constructor takes the expected number of elements and the rate wanted, and adds bits until the expected rate of the blocked layout (averaged over how full the blocks get) is no more than that.
+Adding more elements than expected keeps the filter correct but raises the rate; falsePositiveRate() estimates the current rate from how many bits are set.
+
+The hash is 64 bits because a 32-bit hashCode() alone would cap the rate: with 300 million strings, a string that was never added has the same hashCode() as one that was about 7% of the time. By default strings and other CharSequences are hashed from their chars, so the hash is the same in every JVM run; other objects are hashed from hashCode(), which is only 32 bits and for some classes (enums, Objects without hashCode()) differs between runs. Another hash function can be passed to the constructor.
+save() writes the bits to a file and load() reads them back. The hash function isn't saved: load the file with the one it was built with, which the default hash of strings always is.
+Not thread-safe, like HashSet. Elements can't be removed, because clearing a bit could remove other elements that share it.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+public final class BloomFilter<T> {
+  private static final int FILE_MAGIC = 0x426c6f6d;
+  private static final int BLOCK_BITS = 512;
+  private static final int BLOCK_LONGS = BLOCK_BITS / Long.SIZE;
+  private static final int MAX_HASHES = 16;
+  private static final long BIT_MULTIPLIER = 0x9E3779B97F4A7C15L;
+  private static final long MAX_BLOCKS = Integer.MAX_VALUE / BLOCK_LONGS;
+
+  private final long[] bits;
+  private final int blocks;
+  private final int hashes;
+  private final ToLongFunction<? super T> hash;
+  private long count;
+
+  // Sized for expectedElements at about falsePositiveRate, hashing with defaultHash()
+  public BloomFilter(long expectedElements, double falsePositiveRate) {
+    this(expectedElements, falsePositiveRate, BloomFilter::defaultHash);
+  }
+
+  public BloomFilter(long expectedElements, double falsePositiveRate,
+      ToLongFunction<? super T> hash) {
+    if (expectedElements < 0) {
+      throw new IllegalArgumentException("Illegal expected elements: " + expectedElements);
+    }
+    if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+      throw new IllegalArgumentException("Illegal false-positive rate: " + falsePositiveRate);
+    }
+    long n = Math.max(1, expectedElements);
+    // The classic filter's optimal size, -n ln p / (ln 2)^2, is where the blocked one starts from
+    double bitsPerElement = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+    while (blockedRate(bitsPerElement, hashesFor(bitsPerElement)) > falsePositiveRate) {
+      bitsPerElement *= 1.02;
+    }
+    long blocks = (long) Math.ceil(n * bitsPerElement / BLOCK_BITS);
+    if (blocks > MAX_BLOCKS) {
+      throw new IllegalArgumentException("Too many elements for one filter: " + expectedElements);
+    }
+    this.blocks = (int) blocks;
+    this.hashes = hashesFor(bitsPerElement);
+    this.bits = new long[this.blocks * BLOCK_LONGS];
+    this.hash = Objects.requireNonNull(hash);
+  }
+
+  private BloomFilter(long[] bits, int hashes, long count, ToLongFunction<? super T> hash) {
+    this.bits = bits;
+    this.blocks = bits.length / BLOCK_LONGS;
+    this.hashes = hashes;
+    this.count = count;
+    this.hash = hash;
+  }
+
+  private static int hashesFor(double bitsPerElement) {
+    return (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerElement * Math.log(2))));
+  }
+
+  /*
+  The number of elements in a block is about Poisson distributed with mean 512 / bitsPerElement; a block holding j elements answers a miss wrongly with the classic rate (1 - (1 - 1/512)^(jk))^k.
+   */
+  private static double blockedRate(double bitsPerElement, int hashes) {
+    double mean = BLOCK_BITS / bitsPerElement;
+    double probability = Math.exp(-mean);
+    double rate = 0;
+    for (int j = 0; j < 4 * mean + 64; j++) {
+      if (j > 0) {
+        probability *= mean / j;
+      }
+      double bitSet = 1 - Math.pow(1 - 1.0 / BLOCK_BITS, (double) j * hashes);
+      rate += probability * Math.pow(bitSet, hashes);
+    }
+    return rate;
+  }
+
+  // 64 bits from the chars of a CharSequence, four at a time, otherwise the mixed hashCode()
+  public static long defaultHash(Object element) {
+    if (element instanceof CharSequence) {
+      CharSequence chars = (CharSequence) element;
+      int length = chars.length();
+      long h = length;
+      int i = 0;
+      for (; i + 4 <= length; i += 4) {
+        long word = chars.charAt(i) | (long) chars.charAt(i + 1) << 16
+            | (long) chars.charAt(i + 2) << 32 | (long) chars.charAt(i + 3) << 48;
+        h = (h + word) * 0x9E3779B97F4A7C15L;
+      }
+      for (; i < length; i++) {
+        h = (h + chars.charAt(i)) * 0x9E3779B97F4A7C15L;
+      }
+      return mix(h);
+    }
+    return mix(element.hashCode() * 0x9E3779B97F4A7C15L);
+  }
+
+  // MurmurHash3's 64-bit finalizer, so every bit of the input affects every bit of the hash
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    return h ^ (h >>> 33);
+  }
+
+  /*
+  The block comes from the upper 32 bits of the hash. Bit i of k in the block is the top 9 bits of the hash multiplied i + 1 times by an odd constant, which depend on all 64 bits; first + i * step modulo 512 would be cheaper, but allows so few patterns that the rate at 0.1% came out more than twice as high.
+  put() returns whether any bit changed, which is false only if an equal element was probably added before.
+   */
+  public boolean put(T element) {
+    long h = hash.applyAsLong(element);
+    int base = block(h);
+    boolean changed = false;
+    for (int i = 0; i < hashes; i++) {
+      h *= BIT_MULTIPLIER;
+      int bit = (int) (h >>> 55);
+      long mask = 1L << bit;
+      int index = base + (bit >>> 6);
+      if ((bits[index] & mask) == 0) {
+        bits[index] |= mask;
+        changed = true;
+      }
+    }
+    if (changed) {
+      count++;
+    }
+    return changed;
+  }
+
+  // True if the element was added, and also for a small share of the elements that weren't
+  public boolean mightContain(T element) {
+    long h = hash.applyAsLong(element);
+    int base = block(h);
+    for (int i = 0; i < hashes; i++) {
+      h *= BIT_MULTIPLIER;
+      int bit = (int) (h >>> 55);
+      if ((bits[base + (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Maps the upper 32 bits of the hash onto [0, blocks) without a division
+  private int block(long h) {
+    return (int) (((h >>> 32) * blocks) >>> 32) * BLOCK_LONGS;
+  }
+
+  // How many put() calls changed a bit: the elements added, less the few taken for duplicates
+  public long approximateElementCount() {
+    return count;
+  }
+
+  // The chance that a new element is reported as present, from how full each block is
+  public double falsePositiveRate() {
+    double sum = 0;
+    for (int base = 0; base < bits.length; base += BLOCK_LONGS) {
+      int set = 0;
+      for (int i = base; i < base + BLOCK_LONGS; i++) {
+        set += Long.bitCount(bits[i]);
+      }
+      sum += Math.pow((double) set / BLOCK_BITS, hashes);
+    }
+    return sum / blocks;
+  }
+
+  public long bitSize() {
+    return (long) bits.length * Long.SIZE;
+  }
+
+  public void clear() {
+    Arrays.fill(bits, 0);
+    count = 0;
+  }
+
+  public void save(Path file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+      out.writeInt(FILE_MAGIC);
+      out.writeInt(hashes);
+      out.writeLong(count);
+      out.writeInt(bits.length);
+      for (long word : bits) {
+        out.writeLong(word);
+      }
+    }
+  }
+
+  public static BloomFilter<Object> load(Path file) throws IOException {
+    return load(file, BloomFilter::defaultHash);
+  }
+
+  public static <T> BloomFilter<T> load(Path file, ToLongFunction<? super T> hash)
+      throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+      if (in.readInt() != FILE_MAGIC) {
+        throw new IOException("Not a BloomFilter file: " + file);
+      }
+      int hashes = in.readInt();
+      long count = in.readLong();
+      int length = in.readInt();
+      if (hashes < 1 || hashes > MAX_HASHES || length <= 0 || length % BLOCK_LONGS != 0) {
+        throw new IOException("Corrupt BloomFilter file: " + file);
+      }
+      long[] bits = new long[length];
+      for (int i = 0; i < length; i++) {
+        bits[i] = in.readLong();
+      }
+      return new BloomFilter<>(bits, hashes, count, Objects.requireNonNull(hash));
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package com.java.genericsCollections;
+
+/*
+HashSet<String> and TreeSet<String> against BloomFilteredSets (a 1% BloomFilter in front of the same sets) and a BloomFilter<String> alone, holding `elements` strings "user-0", "user-1", ...
+Each run looks up 1M different strings of which 90% were never added, the common case when deduplicating; with fewer, the part of the hash table they hit would stay in the CPU caches. The reported ns/op is per lookup.
+The probes are made once, so String has cached their hashCode() for HashSet, while BloomFilter.defaultHash() goes over the chars on every lookup; strings read from a file or a socket would have to be hashed by both.
+Before the timed runs the retained heap per element is printed for 1M elements, strings included for the sets; the filter alone keeps no strings.
+A structure is skipped when its estimated size would take more than half the maximum heap: 10M strings in a HashSet or TreeSet need about 1 GB.
+ */
+
+import com.java.benchmark.Footprint;
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class BloomFilterBenchmark {
+
+  private static final int PROBES = 1_000_000;
+  private static final double MISS_SHARE = 0.9;
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+  private static final int FOOTPRINT_ELEMENTS = 1_000_000;
+  // Estimated bytes per element, with the strings
+  private static final int SET_BYTES = 100;
+  private static final int FILTER_BYTES = 2;
+
+  public static void main(String[] args) throws Exception {
+    Footprint.measure("HashSet<String>", FOOTPRINT_ELEMENTS, n -> filled(new HashSet<>(), n));
+    Footprint.measure("BloomFilteredSet<String>", FOOTPRINT_ELEMENTS,
+        n -> filled(new BloomFilteredSet<>(n), n));
+    Footprint.measure("BloomFilter<String>", FOOTPRINT_ELEMENTS, BloomFilterBenchmark::filter);
+
+    new Harness("genericsCollections-bloom", "elements", 1_000_000, 10_000_000, 100_000_000)
+        .add("hashSetContains", elements -> contains(new HashSet<>(), elements))
+        .add("bloomFilteredSetContains",
+            elements -> contains(new BloomFilteredSet<>(elements), elements))
+        .add("treeSetContains", elements -> contains(new TreeSet<>(), elements))
+        .add("bloomFilteredTreeSetContains", elements -> contains(
+            new BloomFilteredSet<>(new TreeSet<>(), elements, FALSE_POSITIVE_RATE), elements))
+        .add("bloomFilterMightContain", BloomFilterBenchmark::mightContain)
+        .runAndReport();
+  }
+
+  private static boolean tooLargeForHeap(int elements, int bytesPerElement) {
+    return (long) elements * bytesPerElement > Runtime.getRuntime().maxMemory() / 2;
+  }
+
+  private static Set<String> filled(Set<String> set, int elements) {
+    for (int i = 0; i < elements; i++) {
+      set.add("user-" + i);
+    }
+    return set;
+  }
+
+  private static BloomFilter<String> filter(int elements) {
+    BloomFilter<String> filter = new BloomFilter<>(elements, FALSE_POSITIVE_RATE);
+    for (int i = 0; i < elements; i++) {
+      filter.put("user-" + i);
+    }
+    return filter;
+  }
+
+  // Misses are numbered from elements up, so none of them was added
+  private static String[] probes(int elements) {
+    Random random = new Random(7);
+    String[] probes = new String[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      int n = random.nextDouble() < MISS_SHARE
+          ? elements + random.nextInt(elements) : random.nextInt(elements);
+      probes[i] = "user-" + n;
+    }
+    return probes;
+  }
+
+  private static abstract class Operations implements Workload.Invocation {
+    private final int operations;
+
+    Operations(int operations) {
+      this.operations = operations;
+    }
+
+    @Override
+    public long operations() {
+      return operations;
+    }
+  }
+
+  private static Workload.Invocation contains(Set<String> set, int elements) {
+    if (tooLargeForHeap(elements, SET_BYTES)) {
+      return null;
+    }
+    filled(set, elements);
+    String[] probes = probes(elements);
+    return new Operations(PROBES) {
+      @Override
+      public long invoke() {
+        long found = 0;
+        for (String probe : probes) {
+          if (set.contains(probe)) {
+            found++;
+          }
+        }
+        return found;
+      }
+    };
+  }
+
+  private static Workload.Invocation mightContain(int elements) {
+    if (tooLargeForHeap(elements, FILTER_BYTES)) {
+      return null;
+    }
+    BloomFilter<String> filter = filter(elements);
+    String[] probes = probes(elements);
+    return new Operations(PROBES) {
+      @Override
+      public long invoke() {
+        long found = 0;
+        for (String probe : probes) {
+          if (filter.mightContain(probe)) {
+            found++;
+          }
+        }
+        return found;
+      }
+    };
+  }
+}
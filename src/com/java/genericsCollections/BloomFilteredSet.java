@@ -0,0 +1,113 @@
+package com.java.genericsCollections;
+
+/*
+A set for deduplication where most of the elements looked up are new, such as hundreds of millions of strings of which few repeat.
+A HashSet answers a miss by hashing the element and reading its bucket; once the table is far larger than the CPU caches, that read is a trip to memory for nearly every lookup. Here a BloomFilter of the same elements is checked first: it is about 10 bits per element instead of the HashSet's 40 bytes or so (before the elements themselves), and for an element that was never added it answers "no" after reading one cache line, without touching the backing set. Only the elements the filter reports as present (the ones that were added, and about 1% of the others) go on to the exact set.
+add() of an element the filter has never seen doesn't need the set's lookup either, just its insert.
+This pays off when a lookup in the backing set costs more than the filter's: a TreeSet or BTreeSet of strings compares along a whole path of the tree, and a set kept on disk or behind a network call is slower still. In front of a HashSet, in a loop that does nothing but look up, it was slower (see BloomFilterBenchmark): the CPU overlaps the memory reads of consecutive HashSet lookups, while the filter hashes the chars of every string (String caches its hashCode()) and its unpredictable answer stalls that overlap for the lookups it lets through.
+
+The filter can't forget an element, so after remove() its bits stay set and lookups of it go to the backing set. When the set grows past the number of elements the filter was sized for, the filter is rebuilt for twice as many, from the backing set, so the false-positive rate stays near the one asked for.
+The backing set is a HashSet unless one is given; a given set must only be changed through this one afterwards, or the filter will miss elements. The filter hashes with BloomFilter.defaultHash(). Not thread-safe, like HashSet.
+ */
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class BloomFilteredSet<E> extends AbstractSet<E> {
+  private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+  private final Set<E> set;
+  private final double falsePositiveRate;
+  private BloomFilter<Object> filter;
+  private long capacity;
+
+  public BloomFilteredSet(long expectedElements) {
+    this(new HashSet<>(), expectedElements, DEFAULT_FALSE_POSITIVE_RATE);
+  }
+
+  public BloomFilteredSet(long expectedElements, double falsePositiveRate) {
+    this(new HashSet<>(), expectedElements, falsePositiveRate);
+  }
+
+  // Keeps the elements in set, which may already hold some
+  public BloomFilteredSet(Set<E> set, long expectedElements, double falsePositiveRate) {
+    this.set = set;
+    this.falsePositiveRate = falsePositiveRate;
+    rebuild(Math.max(expectedElements, set.size()));
+  }
+
+  private void rebuild(long capacity) {
+    this.capacity = Math.max(1, capacity);
+    filter = new BloomFilter<>(this.capacity, falsePositiveRate);
+    for (E element : set) {
+      filter.put(element);
+    }
+  }
+
+  @Override
+  public int size() {
+    return set.size();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return o != null ? filter.mightContain(o) && set.contains(o) : set.contains(null);
+  }
+
+  @Override
+  public boolean add(E e) {
+    if (e == null) {
+      return set.add(null);
+    }
+    // If put() set a bit the element is new, and set.add() only has to insert it
+    if (filter.put(e)) {
+      set.add(e);
+    } else if (!set.add(e)) {
+      return false;
+    }
+    if (set.size() > capacity) {
+      rebuild(2 * capacity);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    return contains(o) && set.remove(o);
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends E> elements) {
+    boolean changed = false;
+    for (E element : elements) {
+      changed |= add(element);
+    }
+    return changed;
+  }
+
+  @Override
+  public void clear() {
+    set.clear();
+    filter.clear();
+  }
+
+  // Removing through the iterator leaves the filter's bits, as remove() does
+  @Override
+  public Iterator<E> iterator() {
+    return set.iterator();
+  }
+
+  @Override
+  public void forEach(Consumer<? super E> action) {
+    set.forEach(action);
+  }
+
+  // The filter's current estimate of how often a new element reaches the backing set
+  public double falsePositiveRate() {
+    return filter.falsePositiveRate();
+  }
+}
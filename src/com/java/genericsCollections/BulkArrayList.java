@@ -0,0 +1,297 @@
+package com.java.genericsCollections;
+
+/*
+An array-backed List whose bulk operations (removeIf, replaceAll, retainAll, removeAll) can run on all cores.
+ArrayList.removeIf() already works in two passes: it evaluates the predicate for every element and marks the ones to remove in a bitset, then moves the survivors down in one compaction pass. Only the first pass calls user code, and on a list of tens of millions of elements it is where the time goes, on a single thread.
+
+With parallelBulk(true) and at least PARALLEL_LIST elements, the first pass is split into chunks on the common ForkJoinPool. Every chunk is a multiple of 64 elements, so it sets bits in its own words of the bitset and needs no synchronization. The compaction is still one sequential pass: it only moves references, copying runs of survivors with System.arraycopy, and is limited by memory bandwidth rather than by the predicate. replaceAll() needs no bitset at all; every chunk writes its own slots.
+Like ArrayList, the list is left untouched when the predicate throws, because nothing moves before every element has been tested.
+
+The parallel mode calls the predicate or operator from several threads at once and in no particular order. Leave it off (the default) when they are not thread-safe or have side effects that depend on order; the sequential path then behaves exactly like ArrayList. For retainAll() and removeAll() the collection's contains() is called concurrently, which is safe for a HashSet or any collection nobody modifies meanwhile.
+Not thread-safe otherwise, like ArrayList.
+ */
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+public class BulkArrayList<E> extends AbstractList<E> implements RandomAccess {
+  static final int PARALLEL_LIST = 1 << 16;
+
+  private static final int MIN_CHUNK = 1 << 14;
+  private static final int MAX_ARRAY = Integer.MAX_VALUE - 8;
+
+  private Object[] elements;
+  private int size;
+  private boolean parallelBulk;
+
+  public BulkArrayList() {
+    this(10);
+  }
+
+  public BulkArrayList(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+    }
+    elements = new Object[initialCapacity];
+  }
+
+  public BulkArrayList(Collection<? extends E> source) {
+    elements = source.toArray();
+    if (elements.getClass() != Object[].class) {
+      elements = Arrays.copyOf(elements, elements.length, Object[].class);
+    }
+    size = elements.length;
+  }
+
+  // Whether removeIf, replaceAll, retainAll and removeAll may run on the common ForkJoinPool
+  public BulkArrayList<E> parallelBulk(boolean parallel) {
+    this.parallelBulk = parallel;
+    return this;
+  }
+
+  public boolean isParallelBulk() {
+    return parallelBulk;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    Objects.checkIndex(index, size);
+    return (E) elements[index];
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E set(int index, E element) {
+    Objects.checkIndex(index, size);
+    E previous = (E) elements[index];
+    elements[index] = element;
+    return previous;
+  }
+
+  @Override
+  public boolean add(E element) {
+    modCount++;
+    if (size == elements.length) {
+      grow(size + 1);
+    }
+    elements[size++] = element;
+    return true;
+  }
+
+  @Override
+  public void add(int index, E element) {
+    Objects.checkIndex(index, size + 1);
+    modCount++;
+    if (size == elements.length) {
+      grow(size + 1);
+    }
+    System.arraycopy(elements, index, elements, index + 1, size - index);
+    elements[index] = element;
+    size++;
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends E> source) {
+    Object[] added = source.toArray();
+    modCount++;
+    if (added.length == 0) {
+      return false;
+    }
+    if (size + added.length > elements.length) {
+      grow(size + added.length);
+    }
+    System.arraycopy(added, 0, elements, size, added.length);
+    size += added.length;
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E remove(int index) {
+    Objects.checkIndex(index, size);
+    modCount++;
+    E previous = (E) elements[index];
+    System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+    elements[--size] = null;
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    modCount++;
+    Arrays.fill(elements, 0, size, null);
+    size = 0;
+  }
+
+  @Override
+  public Object[] toArray() {
+    return Arrays.copyOf(elements, size);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEach(Consumer<? super E> action) {
+    int expectedModCount = modCount;
+    for (int i = 0; i < size && modCount == expectedModCount; i++) {
+      action.accept((E) elements[i]);
+    }
+    if (modCount != expectedModCount) {
+      throw new ConcurrentModificationException();
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void sort(Comparator<? super E> comparator) {
+    int expectedModCount = modCount;
+    Arrays.sort((E[]) elements, 0, size, comparator);
+    if (modCount != expectedModCount) {
+      throw new ConcurrentModificationException();
+    }
+    modCount++;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean removeIf(Predicate<? super E> filter) {
+    Objects.requireNonNull(filter);
+    int n = size;
+    Object[] elements = this.elements;
+    long[] removed = new long[(n + 63) >>> 6];
+    int expectedModCount = modCount;
+    forEachChunk(n, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        if (filter.test((E) elements[i])) {
+          removed[i >>> 6] |= 1L << i;
+        }
+      }
+    });
+    if (modCount != expectedModCount) {
+      throw new ConcurrentModificationException();
+    }
+    return compact(removed, n);
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> other) {
+    Objects.requireNonNull(other);
+    return removeIf(other::contains);
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> other) {
+    Objects.requireNonNull(other);
+    return removeIf(element -> !other.contains(element));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void replaceAll(UnaryOperator<E> operator) {
+    Objects.requireNonNull(operator);
+    Object[] elements = this.elements;
+    int expectedModCount = modCount;
+    forEachChunk(size, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        elements[i] = operator.apply((E) elements[i]);
+      }
+    });
+    if (modCount != expectedModCount) {
+      throw new ConcurrentModificationException();
+    }
+    modCount++;
+  }
+
+  // Moves the elements whose bit is clear down over the removed ones, a run of survivors at a time
+  private boolean compact(long[] removed, int n) {
+    int write = -1;
+    int read = 0;
+    while (read < n) {
+      int nextRemoved = nextSetBit(removed, read, n);
+      if (write >= 0 && nextRemoved > read) {
+        System.arraycopy(elements, read, elements, write, nextRemoved - read);
+        write += nextRemoved - read;
+      } else if (write < 0) {
+        write = nextRemoved;
+      }
+      read = nextClearBit(removed, nextRemoved, n);
+    }
+    if (write < 0 || write == n) {
+      return false;
+    }
+    Arrays.fill(elements, write, n, null);
+    size = write;
+    modCount++;
+    return true;
+  }
+
+  private static int nextSetBit(long[] bits, int from, int n) {
+    int word = from >>> 6;
+    long current = bits[word] & (-1L << from);
+    while (current == 0) {
+      if (++word == bits.length) {
+        return n;
+      }
+      current = bits[word];
+    }
+    return Math.min(n, (word << 6) + Long.numberOfTrailingZeros(current));
+  }
+
+  private static int nextClearBit(long[] bits, int from, int n) {
+    if (from >= n) {
+      return n;
+    }
+    int word = from >>> 6;
+    long current = ~bits[word] & (-1L << from);
+    while (current == 0) {
+      if (++word == bits.length) {
+        return n;
+      }
+      current = ~bits[word];
+    }
+    return Math.min(n, (word << 6) + Long.numberOfTrailingZeros(current));
+  }
+
+  @FunctionalInterface
+  private interface RangeTask {
+
+    void run(int from, int to);
+  }
+
+  // Runs task over [0, n) in chunks that start at multiples of 64, in parallel if enabled and worth it
+  private void forEachChunk(int n, RangeTask task) {
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    int chunks = Math.min(parallelism * 4, n / MIN_CHUNK);
+    if (!parallelBulk || n < PARALLEL_LIST || chunks <= 1) {
+      task.run(0, n);
+      return;
+    }
+    int chunkSize = ((n + chunks - 1) / chunks + 63) & ~63;
+    IntConsumer runChunk = c -> task.run(c * chunkSize, Math.min(n, (c + 1) * chunkSize));
+    IntStream.range(0, (n + chunkSize - 1) / chunkSize).parallel().forEach(runChunk);
+  }
+
+  private void grow(int minCapacity) {
+    if (minCapacity > MAX_ARRAY) {
+      throw new OutOfMemoryError("BulkArrayList can't hold " + minCapacity + " elements");
+    }
+    int capacity = (int) Math.min(MAX_ARRAY,
+        Math.max(minCapacity, elements.length + (elements.length >> 1) + 1L));
+    elements = Arrays.copyOf(elements, capacity);
+  }
+}
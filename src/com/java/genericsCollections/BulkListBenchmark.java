@@ -0,0 +1,114 @@
+package com.java.genericsCollections;
+
+/*
+removeIf and replaceAll on lists of `size` animal names: ArrayList against BulkArrayList, sequential and parallel.
+removeIf drops the names that contain "a" (about half), as in the notes in Test. Every removeIf invocation first restores the full list with clear() and addAll(), so restoreOnly measures that part alone; subtract it to get the cost of removeIf itself. replaceAll swaps every name for its "i"-suffixed twin (or back) through a HashMap, so it needs no restoring.
+The reported ns/op is per element. The parallel variants can only be faster with more than one core; the JSON report records the JDK and the harness prints availableProcessors below. 100M elements need about 1 GB for the list and its template and are skipped when the maximum heap is under 3 GB.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BulkListBenchmark {
+
+  private static final String[] ANIMALS = {"rabbit", "hare", "duck", "owl", "squirrel", "lion",
+      "tiger", "bear", "zebra", "wolf", "fox", "elk", "moose", "otter", "panda", "koala", "emu",
+      "crow", "goose", "swan", "toad", "frog", "snake", "turtle", "mouse", "horse", "sheep",
+      "goat", "camel", "llama", "bison", "hippo"};
+  private static final long LARGE_LIST = 10_000_000;
+  private static final long LARGE_LIST_HEAP = 3L << 30;
+
+  public static void main(String[] args) throws Exception {
+    System.out.println("availableProcessors " + Runtime.getRuntime().availableProcessors());
+    new Harness("genericsCollections-bulkList", "size", 1_000_000, 10_000_000, 100_000_000)
+        .add("restoreOnly", size -> restoreOnly(size))
+        .add("arrayListRemoveIf", size -> removeIf(new ArrayList<>(), size))
+        .add("bulkRemoveIf", size -> removeIf(new BulkArrayList<>(), size))
+        .add("parallelRemoveIf", size -> removeIf(new BulkArrayList<String>().parallelBulk(true),
+            size))
+        .add("arrayListReplaceAll", size -> replaceAll(new ArrayList<>(), size))
+        .add("parallelReplaceAll",
+            size -> replaceAll(new BulkArrayList<String>().parallelBulk(true), size))
+        .runAndReport();
+  }
+
+  private static boolean tooLargeForHeap(int size) {
+    return size > LARGE_LIST && Runtime.getRuntime().maxMemory() < LARGE_LIST_HEAP;
+  }
+
+  private static List<String> names(int size) {
+    List<String> names = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      names.add(ANIMALS[(int) ((i * 0x9E3779B9L) >>> 27) & (ANIMALS.length - 1)]);
+    }
+    return names;
+  }
+
+  private static abstract class PerElement implements Workload.Invocation {
+    final int size;
+
+    PerElement(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public long operations() {
+      return size;
+    }
+  }
+
+  private static Workload.Invocation restoreOnly(int size) {
+    if (tooLargeForHeap(size)) {
+      return null;
+    }
+    List<String> template = names(size);
+    List<String> list = new ArrayList<>(size);
+    return new PerElement(size) {
+      @Override
+      public long invoke() {
+        list.clear();
+        list.addAll(template);
+        return list.size();
+      }
+    };
+  }
+
+  private static Workload.Invocation removeIf(List<String> list, int size) {
+    if (tooLargeForHeap(size)) {
+      return null;
+    }
+    List<String> template = names(size);
+    return new PerElement(size) {
+      @Override
+      public long invoke() {
+        list.clear();
+        list.addAll(template);
+        list.removeIf(name -> name.contains("a"));
+        return list.size();
+      }
+    };
+  }
+
+  private static Workload.Invocation replaceAll(List<String> list, int size) {
+    if (tooLargeForHeap(size)) {
+      return null;
+    }
+    Map<String, String> twins = new HashMap<>();
+    for (String animal : ANIMALS) {
+      twins.put(animal, animal + "i");
+      twins.put(animal + "i", animal);
+    }
+    list.addAll(names(size));
+    return new PerElement(size) {
+      @Override
+      public long invoke() {
+        list.replaceAll(twins::get);
+        return list.size();
+      }
+    };
+  }
+}
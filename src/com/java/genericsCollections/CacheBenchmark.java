@@ -0,0 +1,153 @@
+package com.java.genericsCollections;
+
+/*
+TinyLfuCache against the cache most code starts with: a LinkedHashMap in access order with removeEldestEntry(), in Collections.synchronizedMap().
+First the hit rates, printed for a cache of 10,000 entries over two traces of 2M accesses to 1M keys, where a miss puts the key:
+- zipf: keys drawn from a Zipf distribution with exponent 0.99, so a few keys are asked for most of the time (like the pages of a web site).
+- zipf+scan: the same, but after every 20,000 accesses 20,000 keys that are never seen again are read in a row (like a batch job or a backup passing through).
+Then the throughput of the same get-or-put over the zipf trace, from 1 to 8 threads; each thread starts at a different place in the trace. The reported ns/op is wall-clock time divided by the total number of accesses across all threads.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.ParallelInvocation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class CacheBenchmark {
+
+  private static final int KEYS = 1_000_000;
+  private static final int CAPACITY = 10_000;
+  private static final int ACCESSES = 2_000_000;
+  private static final int SCAN = 20_000;
+  private static final double EXPONENT = 0.99;
+  private static final int OPS_PER_THREAD = 200_000;
+
+  // The small interface both caches are driven through
+  private interface Cache {
+    Integer get(Integer key);
+
+    void put(Integer key, Integer value);
+  }
+
+  public static void main(String[] args) throws Exception {
+    Integer[] zipf = zipfTrace(new Random(17));
+    Integer[] scan = withScans(zipf);
+    if (!Harness.forked()) {
+      System.out.printf("%-14s %10s %10s%n", "cache", "zipf", "zipf+scan");
+      System.out.printf("%-14s %9.1f%% %9.1f%%%n", "lru", 100 * hitRate(lru(), zipf),
+          100 * hitRate(lru(), scan));
+      System.out.printf("%-14s %9.1f%% %9.1f%%%n", "tinyLfu", 100 * hitRate(tinyLfu(), zipf),
+          100 * hitRate(tinyLfu(), scan));
+    }
+
+    new Harness("genericsCollections-cache", "threads", 1, 2, 4, 8)
+        .add("lru", threads -> throughput(lru(), zipf, threads))
+        .add("tinyLfu", threads -> throughput(tinyLfu(), zipf, threads))
+        .runAndReport();
+  }
+
+  private static Cache lru() {
+    Map<Integer, Integer> map = Collections.synchronizedMap(
+        new LinkedHashMap<Integer, Integer>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+            return size() > CAPACITY;
+          }
+        });
+    return new Cache() {
+      @Override
+      public Integer get(Integer key) {
+        return map.get(key);
+      }
+
+      @Override
+      public void put(Integer key, Integer value) {
+        map.put(key, value);
+      }
+    };
+  }
+
+  private static Cache tinyLfu() {
+    TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(CAPACITY);
+    return new Cache() {
+      @Override
+      public Integer get(Integer key) {
+        return cache.getIfPresent(key);
+      }
+
+      @Override
+      public void put(Integer key, Integer value) {
+        cache.put(key, value);
+      }
+    };
+  }
+
+  // Inverse transform sampling over the cumulative distribution, with the keys boxed once up front
+  private static Integer[] zipfTrace(Random random) {
+    double[] cumulative = new double[KEYS];
+    double sum = 0;
+    for (int i = 0; i < KEYS; i++) {
+      sum += 1 / Math.pow(i + 1, EXPONENT);
+      cumulative[i] = sum;
+    }
+    Integer[] boxed = new Integer[KEYS];
+    for (int i = 0; i < KEYS; i++) {
+      boxed[i] = i;
+    }
+    Integer[] trace = new Integer[ACCESSES];
+    for (int i = 0; i < ACCESSES; i++) {
+      int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+      trace[i] = boxed[Math.min(KEYS - 1, rank < 0 ? -rank - 1 : rank)];
+    }
+    return trace;
+  }
+
+  // Scanned keys are above the Zipf keys, so every one is new
+  private static Integer[] withScans(Integer[] zipf) {
+    Integer[] trace = new Integer[zipf.length + zipf.length / SCAN * SCAN];
+    int next = 0;
+    int scanned = KEYS;
+    for (int i = 0; i < zipf.length; i++) {
+      trace[next++] = zipf[i];
+      if ((i + 1) % SCAN == 0) {
+        for (int j = 0; j < SCAN; j++) {
+          trace[next++] = scanned++;
+        }
+      }
+    }
+    return trace;
+  }
+
+  private static double hitRate(Cache cache, Integer[] trace) {
+    long hits = 0;
+    for (Integer key : trace) {
+      if (cache.get(key) != null) {
+        hits++;
+      } else {
+        cache.put(key, key);
+      }
+    }
+    return (double) hits / trace.length;
+  }
+
+  // Warmed with the first half of the trace, so the run doesn't measure filling an empty cache
+  private static ParallelInvocation throughput(Cache cache, Integer[] trace, int threads) {
+    hitRate(cache, Arrays.copyOf(trace, trace.length / 2));
+    return new ParallelInvocation(threads, OPS_PER_THREAD, (worker, ops) -> {
+      int start = (int) ((long) worker * trace.length / threads);
+      long hits = 0;
+      for (int i = 0; i < ops; i++) {
+        Integer key = trace[(start + i) % trace.length];
+        if (cache.get(key) != null) {
+          hits++;
+        } else {
+          cache.put(key, key);
+        }
+      }
+      return hits;
+    });
+  }
+}
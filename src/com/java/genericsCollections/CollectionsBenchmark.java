@@ -0,0 +1,167 @@
+package com.java.genericsCollections;
+
+/*
+Checks the trade-offs described in the collection notes in Test.
+ArrayList vs LinkedList: looking up an arbitrary index (constant vs linear time), walking the whole list, and using the list as a queue (add at the back, remove from the front).
+HashSet vs TreeSet: contains() and add() on a set of `size` elements (constant vs logarithmic time).
+Lookups use a fixed number of random probes per invocation so the reported ns/op is the cost of a single probe at that size.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+public class CollectionsBenchmark {
+
+  private static final int PROBES = 100;
+
+  public static void main(String[] args) throws Exception {
+    new Harness("genericsCollections", "size", 10, 1_000, 100_000, 1_000_000, 10_000_000)
+        .add("arrayListGet", size -> indexedGet(filled(ArrayList::new, size)))
+        .add("linkedListGet", size -> indexedGet(filled(LinkedList::new, size)))
+        .add("arrayListIterate", size -> iterate(filled(ArrayList::new, size)))
+        .add("linkedListIterate", size -> iterate(filled(LinkedList::new, size)))
+        .add("arrayListQueue", size -> queue(filled(ArrayList::new, size)))
+        .add("linkedListQueue", size -> queue(filled(LinkedList::new, size)))
+        .add("hashSetContains", size -> contains(filled(HashSet::new, size), size))
+        .add("treeSetContains", size -> contains(filled(TreeSet::new, size), size))
+        .add("hashSetAdd", size -> add(HashSet::new, size))
+        .add("treeSetAdd", size -> add(TreeSet::new, size))
+        .runAndReport();
+  }
+
+  private static <C extends Collection<Integer>> C filled(Supplier<C> factory, int size) {
+    C collection = factory.get();
+    Random random = new Random(42);
+    while (collection.size() < size) {
+      collection.add(collection instanceof Set ? random.nextInt() : collection.size());
+    }
+    return collection;
+  }
+
+  private static int[] probes(int bound) {
+    Random random = new Random(7);
+    int[] probes = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = random.nextInt(bound);
+    }
+    return probes;
+  }
+
+  private static Workload.Invocation indexedGet(List<Integer> list) {
+    int[] indexes = probes(list.size());
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int index : indexes) {
+          sum += list.get(index);
+        }
+        return sum;
+      }
+
+      @Override
+      public long operations() {
+        return PROBES;
+      }
+    };
+  }
+
+  private static Workload.Invocation iterate(List<Integer> list) {
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int value : list) {
+          sum += value;
+        }
+        return sum;
+      }
+
+      @Override
+      public long operations() {
+        return list.size();
+      }
+    };
+  }
+
+  // Steady-state FIFO use: the list keeps its size, one element in at the back and one out at the front
+  private static Workload.Invocation queue(List<Integer> list) {
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int i = 0; i < PROBES; i++) {
+          list.add(i);
+          sum += list.remove(0);
+        }
+        return sum;
+      }
+
+      @Override
+      public long operations() {
+        return PROBES;
+      }
+    };
+  }
+
+  private static Workload.Invocation contains(Set<Integer> set, int size) {
+    // Half of the probes hit, half (most likely) miss
+    List<Integer> members = new ArrayList<>(set);
+    int[] indexes = probes(size);
+    Integer[] keys = new Integer[PROBES];
+    Random random = new Random(11);
+    for (int i = 0; i < PROBES; i++) {
+      keys[i] = i % 2 == 0 ? members.get(indexes[i]) : random.nextInt();
+    }
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        long hits = 0;
+        for (Integer key : keys) {
+          if (set.contains(key)) {
+            hits++;
+          }
+        }
+        return hits;
+      }
+
+      @Override
+      public long operations() {
+        return PROBES;
+      }
+    };
+  }
+
+  // Builds a set of `size` elements from scratch on every invocation
+  private static Workload.Invocation add(Supplier<Set<Integer>> factory, int size) {
+    Random random = new Random(42);
+    Integer[] values = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = random.nextInt();
+    }
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        Set<Integer> set = factory.get();
+        for (Integer value : values) {
+          set.add(value);
+        }
+        return set.size();
+      }
+
+      @Override
+      public long operations() {
+        return size;
+      }
+    };
+  }
+}
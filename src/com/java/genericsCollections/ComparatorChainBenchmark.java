@@ -0,0 +1,98 @@
+package com.java.genericsCollections;
+
+/*
+Sorting 100_000 Squirrels with a comparator chain of `depth` keys: the JDK chain against ComparatorChain.
+The keys are species, then weight, age, tail length and id, with few distinct values in the first four so that deeper keys are actually reached. Every chain has a reversed() after the second key, as in the notes in Test. Both comparators are built once per depth, and each invocation restores the shuffled order and sorts; the reported ns/op is per element.
+jdkChain             List.sort with Comparator.comparing(...).thenComparingInt(...)...
+generatedComparator  List.sort with ComparatorChain.build(), a class generated for the chain
+chainSort            ComparatorChain.sort(), which extracts the keys once into long columns and ranks the species
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+public class ComparatorChainBenchmark {
+
+  private static final int SQUIRRELS = 100_000;
+  private static final String[] SPECIES = {"red", "grey", "black", "flying"};
+
+  public static void main(String[] args) throws Exception {
+    new Harness("genericsCollections-comparatorChain", "depth", 1, 2, 3, 4, 5)
+        .add("jdkChain", depth -> {
+          Comparator<Squirrel> comparator = jdkChain(depth);
+          return sort(list -> list.sort(comparator));
+        })
+        .add("generatedComparator", depth -> {
+          Comparator<Squirrel> comparator = chain(depth).build();
+          return sort(list -> list.sort(comparator));
+        })
+        .add("chainSort", depth -> sort(chain(depth)::sort))
+        .runAndReport();
+  }
+
+  static Comparator<Squirrel> jdkChain(int depth) {
+    Comparator<Squirrel> comparator = Comparator.comparing(Squirrel::getSpecies);
+    if (depth >= 2) {
+      comparator = comparator.thenComparingInt(Squirrel::getWeight).reversed();
+    }
+    if (depth >= 3) {
+      comparator = comparator.thenComparingInt(Squirrel::getAge);
+    }
+    if (depth >= 4) {
+      comparator = comparator.thenComparingDouble(Squirrel::getTailLength);
+    }
+    if (depth >= 5) {
+      comparator = comparator.thenComparingLong(Squirrel::getId);
+    }
+    return comparator;
+  }
+
+  static ComparatorChain<Squirrel> chain(int depth) {
+    ComparatorChain<Squirrel> chain = ComparatorChain.comparing(Squirrel::getSpecies);
+    if (depth >= 2) {
+      chain = chain.thenComparingInt(Squirrel::getWeight).reversed();
+    }
+    if (depth >= 3) {
+      chain = chain.thenComparingInt(Squirrel::getAge);
+    }
+    if (depth >= 4) {
+      chain = chain.thenComparingDouble(Squirrel::getTailLength);
+    }
+    if (depth >= 5) {
+      chain = chain.thenComparingLong(Squirrel::getId);
+    }
+    return chain;
+  }
+
+  private static Workload.Invocation sort(Consumer<List<Squirrel>> sorter) {
+    Random random = new Random(42);
+    Squirrel[] shuffled = new Squirrel[SQUIRRELS];
+    for (int i = 0; i < SQUIRRELS; i++) {
+      shuffled[i] = new Squirrel(SPECIES[random.nextInt(SPECIES.length)], random.nextInt(10),
+          random.nextInt(10), random.nextInt(10) * 0.5, random.nextLong());
+    }
+    List<Squirrel> squirrels = new ArrayList<>(SQUIRRELS);
+    Collections.addAll(squirrels, shuffled);
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        for (int i = 0; i < SQUIRRELS; i++) {
+          squirrels.set(i, shuffled[i]);
+        }
+        sorter.accept(squirrels);
+        return squirrels.get(SQUIRRELS / 2).getWeight();
+      }
+
+      @Override
+      public long operations() {
+        return SQUIRRELS;
+      }
+    };
+  }
+}
@@ -0,0 +1,25 @@
+package com.java.genericsCollections;
+
+/*
+The class file ComparatorChain.build() copies into one hidden class per chain; it is never loaded under its own name.
+Each copy's COMPARE is a static final MethodHandle for that chain's comparison with the key extractors bound in, so the JIT treats it as a constant and inlines the whole chain into compare(), extractors included.
+ */
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Comparator;
+
+final class ComparatorChainTemplate implements Comparator<Object> {
+  private static final MethodHandle COMPARE = ComparatorChain.takeHandle();
+
+  @Override
+  public int compare(Object a, Object b) {
+    try {
+      return (int) COMPARE.invokeExact(a, b);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new UndeclaredThrowableException(t);
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.java.genericsCollections;
+
+/*
+The generic Crate of the notes in Test: one item of any type, packed and emptied again.
+ */
+class Crate<T> {
+  private T contents;
+  public T emptyCrate() {
+    return contents;
+  }
+  public void packCrate(T contents) {
+    this.contents = contents;
+  }
+
+  public static void main(String[] args) {
+    Duck duck = new Duck(10);
+    Crate<Duck> crateForDuck = new Crate<>();
+    crateForDuck.packCrate(duck);
+    Duck unpacked = crateForDuck.emptyCrate();
+  }
+}
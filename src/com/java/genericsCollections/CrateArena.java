@@ -0,0 +1,50 @@
+package com.java.genericsCollections;
+
+/*
+Creates OffHeapSizeLimitedCrates and releases all of them together.
+Off-heap memory has to be freed by hand, and freeing each crate separately is easy to get wrong. Crates that belong to one job come from one arena, and closing the arena (typically in try-with-resources) frees them all at once.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+class CrateArena implements AutoCloseable {
+  private final List<OffHeapSizeLimitedCrate<?>> crates = new ArrayList<>();
+  private boolean closed;
+
+  public <T> OffHeapSizeLimitedCrate<T> newCrate(RecordLayout<T> layout, int sizeLimitBytes) {
+    if (closed) {
+      throw new IllegalStateException("Arena is closed");
+    }
+    OffHeapSizeLimitedCrate<T> crate = new OffHeapSizeLimitedCrate<>(layout, sizeLimitBytes);
+    crates.add(crate);
+    return crate;
+  }
+
+  public long bytesReserved() {
+    long reserved = 0;
+    for (OffHeapSizeLimitedCrate<?> crate : crates) {
+      reserved += crate.sizeLimit();
+    }
+    return reserved;
+  }
+
+  public long bytesUsed() {
+    long used = 0;
+    for (OffHeapSizeLimitedCrate<?> crate : crates) {
+      if (!crate.isReleased()) {
+        used += crate.bytesUsed();
+      }
+    }
+    return used;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    for (OffHeapSizeLimitedCrate<?> crate : crates) {
+      crate.release();
+    }
+    crates.clear();
+  }
+}
@@ -0,0 +1,202 @@
+package com.java.genericsCollections;
+
+/*
+Queues of ints: LinkedList<Integer> as in the notes in Test, ArrayDeque<Integer>, IntArrayDeque and LongArrayDeque.
+genericsCollections-deque keeps `depth` elements queued; each operation polls one from the head and offers a new one at the tail, so every element passes through the whole queue before it is polled again. The values are large enough that boxing can't use the Integer cache.
+genericsCollections-dequeBfs runs a breadth-first search over a random graph of `nodes` nodes with 4 edges each, the work-queue pattern the deques are meant for; an operation is one node visited.
+The harness can't count cache misses; the B/op column and the GC counts in the JSON report show the allocation side, and running with perf stat -e cache-misses shows the misses. Before the timed runs the retained heap per element of a queue of 1M elements is printed.
+ */
+
+import com.java.benchmark.Footprint;
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Random;
+
+public class DequeBenchmark {
+
+  private static final int OPERATIONS = 1024;
+  private static final int EDGES = 4;
+  private static final int FOOTPRINT_ELEMENTS = 1_000_000;
+  private static final int BASE = 1_000_000;
+
+  public static void main(String[] args) throws Exception {
+    Footprint.measure("LinkedList<Integer>", FOOTPRINT_ELEMENTS, n -> {
+      Queue<Integer> queue = new LinkedList<>();
+      for (int i = 0; i < n; i++) {
+        queue.offer(BASE + i);
+      }
+      return queue;
+    });
+    Footprint.measure("ArrayDeque<Integer>", FOOTPRINT_ELEMENTS, n -> {
+      Queue<Integer> queue = new ArrayDeque<>();
+      for (int i = 0; i < n; i++) {
+        queue.offer(BASE + i);
+      }
+      return queue;
+    });
+    Footprint.measure("IntArrayDeque", FOOTPRINT_ELEMENTS, n -> {
+      IntArrayDeque queue = new IntArrayDeque();
+      for (int i = 0; i < n; i++) {
+        queue.offer(BASE + i);
+      }
+      return queue;
+    });
+
+    new Harness("genericsCollections-deque", "depth", 16, 1024, 65_536, 1_048_576)
+        .add("linkedList", depth -> boxedFifo(new LinkedList<>(), depth))
+        .add("arrayDeque", depth -> boxedFifo(new ArrayDeque<>(), depth))
+        .add("intArrayDeque", DequeBenchmark::intFifo)
+        .add("longArrayDeque", DequeBenchmark::longFifo)
+        .runAndReport();
+
+    new Harness("genericsCollections-dequeBfs", "nodes", 65_536, 1_048_576)
+        .add("linkedList", nodes -> boxedBfs(new LinkedList<>(), nodes))
+        .add("arrayDeque", nodes -> boxedBfs(new ArrayDeque<>(), nodes))
+        .add("intArrayDeque", DequeBenchmark::intBfs)
+        .runAndReport();
+  }
+
+  private static abstract class Operations implements Workload.Invocation {
+
+    @Override
+    public long operations() {
+      return OPERATIONS;
+    }
+  }
+
+  private static Workload.Invocation boxedFifo(Queue<Integer> queue, int depth) {
+    for (int i = 0; i < depth; i++) {
+      queue.offer(BASE + i);
+    }
+    return new Operations() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+          int value = queue.poll();
+          sum += value;
+          queue.offer(value + 1);
+        }
+        return sum;
+      }
+    };
+  }
+
+  private static Workload.Invocation intFifo(int depth) {
+    IntArrayDeque queue = new IntArrayDeque();
+    for (int i = 0; i < depth; i++) {
+      queue.offer(BASE + i);
+    }
+    return new Operations() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+          int value = queue.poll();
+          sum += value;
+          queue.offer(value + 1);
+        }
+        return sum;
+      }
+    };
+  }
+
+  private static Workload.Invocation longFifo(int depth) {
+    LongArrayDeque queue = new LongArrayDeque();
+    for (int i = 0; i < depth; i++) {
+      queue.offer(BASE + i);
+    }
+    return new Operations() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+          long value = queue.poll();
+          sum += value;
+          queue.offer(value + 1);
+        }
+        return sum;
+      }
+    };
+  }
+
+  // Node n's neighbours are edges[n * EDGES ... n * EDGES + EDGES - 1]
+  private static int[] randomGraph(int nodes) {
+    Random random = new Random(11);
+    int[] edges = new int[nodes * EDGES];
+    for (int i = 0; i < edges.length; i++) {
+      edges[i] = random.nextInt(nodes);
+    }
+    return edges;
+  }
+
+  private static abstract class Search implements Workload.Invocation {
+    final int nodes;
+    final int[] edges;
+    final boolean[] visited;
+
+    Search(int nodes) {
+      this.nodes = nodes;
+      this.edges = randomGraph(nodes);
+      this.visited = new boolean[nodes];
+    }
+
+    @Override
+    public long operations() {
+      return nodes;
+    }
+  }
+
+  private static Workload.Invocation boxedBfs(Queue<Integer> queue, int nodes) {
+    return new Search(nodes) {
+      @Override
+      public long invoke() {
+        Arrays.fill(visited, false);
+        long reached = 0;
+        queue.offer(0);
+        visited[0] = true;
+        while (!queue.isEmpty()) {
+          int node = queue.poll();
+          reached++;
+          for (int e = node * EDGES; e < node * EDGES + EDGES; e++) {
+            int next = edges[e];
+            if (!visited[next]) {
+              visited[next] = true;
+              queue.offer(next);
+            }
+          }
+        }
+        return reached;
+      }
+    };
+  }
+
+  private static Workload.Invocation intBfs(int nodes) {
+    IntArrayDeque queue = new IntArrayDeque();
+    return new Search(nodes) {
+      @Override
+      public long invoke() {
+        Arrays.fill(visited, false);
+        long reached = 0;
+        queue.offer(0);
+        visited[0] = true;
+        while (!queue.isEmpty()) {
+          int node = queue.poll();
+          reached++;
+          for (int e = node * EDGES; e < node * EDGES + EDGES; e++) {
+            int next = edges[e];
+            if (!visited[next]) {
+              visited[next] = true;
+              queue.offer(next);
+            }
+          }
+        }
+        return reached;
+      }
+    };
+  }
+}
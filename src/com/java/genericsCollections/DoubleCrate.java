@@ -0,0 +1,25 @@
+package com.java.genericsCollections;
+
+/*
+Crate<T> specialized for double; see IntCrate.
+Double.valueOf has no cache at all, so every packCrate() on a Crate<Double> allocates.
+ */
+
+class DoubleCrate {
+  private double contents;
+
+  public DoubleCrate() {
+  }
+
+  public DoubleCrate(double contents) {
+    this.contents = contents;
+  }
+
+  public double emptyCrate() {
+    return contents;
+  }
+
+  public void packCrate(double contents) {
+    this.contents = contents;
+  }
+}
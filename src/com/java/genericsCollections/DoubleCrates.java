@@ -0,0 +1,75 @@
+package com.java.genericsCollections;
+
+/*
+Many DoubleCrates stored as one double[]; see IntCrates.
+8 bytes per value instead of a 16-byte Double plus its reference; Double.valueOf never caches, so the boxed version allocates on every add.
+ */
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+
+class DoubleCrates {
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private double[] contents;
+  private int size;
+
+  public DoubleCrates() {
+    this(10);
+  }
+
+  public DoubleCrates(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+    }
+    contents = new double[initialCapacity];
+  }
+
+  public int add(double crateContents) {
+    if (size == contents.length) {
+      grow();
+    }
+    contents[size] = crateContents;
+    return size++;
+  }
+
+  public double emptyCrate(int index) {
+    return contents[Objects.checkIndex(index, size)];
+  }
+
+  public void packCrate(int index, double crateContents) {
+    contents[Objects.checkIndex(index, size)] = crateContents;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public void forEach(DoubleConsumer action) {
+    for (int i = 0; i < size; i++) {
+      action.accept(contents[i]);
+    }
+  }
+
+  public DoubleStream stream() {
+    return Arrays.stream(contents, 0, size);
+  }
+
+  public double[] toArray() {
+    return Arrays.copyOf(contents, size);
+  }
+
+  private void grow() {
+    if (size == MAX_CAPACITY) {
+      throw new OutOfMemoryError("DoubleCrates is full");
+    }
+    int capacity = (int) Math.min(MAX_CAPACITY, size + (size >> 1) + 1L);
+    contents = Arrays.copyOf(contents, capacity);
+  }
+}
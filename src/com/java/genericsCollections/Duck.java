@@ -0,0 +1,14 @@
+package com.java.genericsCollections;
+
+/*
+The Duck of the generics and comparator notes in Test, sorted, crated and shipped by weight.
+ */
+class Duck {
+  int weight;
+  public Duck(int weight) {
+    this.weight = weight;
+  }
+  public int getWeight(){
+    return this.weight;
+  }
+}
@@ -0,0 +1,33 @@
+package com.java.genericsCollections;
+
+/*
+The generic methods of the notes in Test, shipping anything in a Crate.
+ */
+class Handler {
+  public static <T> void prepare(T t) {
+    System.out.println("Preparing " + t);
+  }
+  public static <T> Crate<T> ship(T t) {
+    System.out.println("Shipping " + t);
+    return new Crate<T>();
+  }
+
+  /*
+  ship() allocates a new Crate for every shipment. shipPooled() takes one from CRATES instead, already packed with t; hand it back with unload() once it has been emptied.
+  The pool holds Crate<Object>; the unchecked casts are safe because a crate is emptied by the reset hook before it is reused for another type.
+   */
+  static final ObjectPool<Crate<Object>> CRATES =
+      new ObjectPool<>(Crate::new, crate -> crate.packCrate(null));
+
+  @SuppressWarnings("unchecked")
+  public static <T> Crate<T> shipPooled(T t) {
+    Crate<T> crate = (Crate<T>) (Crate<?>) CRATES.acquire();
+    crate.packCrate(t);
+    return crate;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static void unload(Crate<?> crate) {
+    CRATES.release((Crate<Object>) crate);
+  }
+}
@@ -0,0 +1,239 @@
+package com.java.genericsCollections;
+
+/*
+A double-ended queue of ints in one circular int[], without boxing.
+A LinkedList<Integer> used as a Queue allocates a 24-byte Node and usually a 16-byte Integer per offer(), in whatever order the allocator hands them out, so a long queue is a pointer chase across the heap. ArrayDeque<Integer> keeps the references in an array but still points at scattered Integers. Here the ints themselves sit next to each other in the array: offer() and poll() touch one slot, and neighbouring elements share cache lines.
+
+The array length is a power of two, so wrapping around is a mask instead of a division, and doubles when full.
+poll(), pollLast(), peek() and peekLast() throw NoSuchElementException on an empty deque because no int can mean "nothing"; use isEmpty() first, or the OrDefault variants.
+drainTo() moves many elements out with at most two array copies.
+Memory is not given back when the deque empties unless shrink() is called, or the deque was created with autoShrink, which shrinks the array to twice the room its elements need whenever it falls below a quarter full (never below the initial capacity).
+Not thread-safe, like ArrayDeque.
+ */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+public class IntArrayDeque {
+  private static final int MIN_CAPACITY = 8;
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private int[] elements;
+  private int mask;
+  private int head;
+  private int size;
+  private final int minCapacity;
+  private final boolean autoShrink;
+
+  public IntArrayDeque() {
+    this(16, false);
+  }
+
+  public IntArrayDeque(int expectedSize) {
+    this(expectedSize, false);
+  }
+
+  public IntArrayDeque(int expectedSize, boolean autoShrink) {
+    this.minCapacity = capacityFor(expectedSize);
+    this.autoShrink = autoShrink;
+    this.elements = new int[minCapacity];
+    this.mask = minCapacity - 1;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int capacity() {
+    return elements.length;
+  }
+
+  // Adds at the tail, like Queue.offer(); always succeeds
+  public boolean offer(int value) {
+    offerLast(value);
+    return true;
+  }
+
+  public void offerLast(int value) {
+    if (size == elements.length) {
+      resize(elements.length << 1);
+    }
+    elements[(head + size) & mask] = value;
+    size++;
+  }
+
+  public void offerFirst(int value) {
+    if (size == elements.length) {
+      resize(elements.length << 1);
+    }
+    head = (head - 1) & mask;
+    elements[head] = value;
+    size++;
+  }
+
+  // Removes from the head, like Queue.poll()
+  public int poll() {
+    if (size == 0) {
+      throw new NoSuchElementException("Deque is empty");
+    }
+    return removeFirst();
+  }
+
+  public int pollOrDefault(int defaultValue) {
+    return size == 0 ? defaultValue : removeFirst();
+  }
+
+  public int pollLast() {
+    if (size == 0) {
+      throw new NoSuchElementException("Deque is empty");
+    }
+    return removeLast();
+  }
+
+  public int pollLastOrDefault(int defaultValue) {
+    return size == 0 ? defaultValue : removeLast();
+  }
+
+  public int peek() {
+    if (size == 0) {
+      throw new NoSuchElementException("Deque is empty");
+    }
+    return elements[head];
+  }
+
+  public int peekOrDefault(int defaultValue) {
+    return size == 0 ? defaultValue : elements[head];
+  }
+
+  public int peekLast() {
+    if (size == 0) {
+      throw new NoSuchElementException("Deque is empty");
+    }
+    return elements[(head + size - 1) & mask];
+  }
+
+  // The element index positions after the head
+  public int get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+    return elements[(head + index) & mask];
+  }
+
+  // Moves up to maxElements from the head into target[offset...]; returns how many were moved
+  public int drainTo(int[] target, int offset, int maxElements) {
+    int count = Math.min(size, Math.min(maxElements, target.length - offset));
+    if (count <= 0) {
+      return 0;
+    }
+    int firstPart = Math.min(count, elements.length - head);
+    System.arraycopy(elements, head, target, offset, firstPart);
+    System.arraycopy(elements, 0, target, offset + firstPart, count - firstPart);
+    head = (head + count) & mask;
+    size -= count;
+    shrinkIfSparse();
+    return count;
+  }
+
+  // Removes every element, head first, and passes it to action
+  public int drainTo(IntConsumer action) {
+    int count = size;
+    int[] elements = this.elements;
+    while (size > 0) {
+      int value = elements[head];
+      head = (head + 1) & mask;
+      size--;
+      action.accept(value);
+    }
+    shrinkIfSparse();
+    return count;
+  }
+
+  public void forEach(IntConsumer action) {
+    int[] elements = this.elements;
+    for (int i = 0; i < size; i++) {
+      action.accept(elements[(head + i) & mask]);
+    }
+  }
+
+  public int[] toArray() {
+    int[] copy = new int[size];
+    int firstPart = Math.min(size, elements.length - head);
+    System.arraycopy(elements, head, copy, 0, firstPart);
+    System.arraycopy(elements, 0, copy, firstPart, size - firstPart);
+    return copy;
+  }
+
+  public void clear() {
+    head = 0;
+    size = 0;
+    shrinkIfSparse();
+  }
+
+  // Reduces the array to the smallest power of two that holds the elements and the initial capacity
+  public void shrink() {
+    int capacity = Math.max(minCapacity, capacityFor(size));
+    if (capacity < elements.length) {
+      resize(capacity);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  private int removeFirst() {
+    int value = elements[head];
+    head = (head + 1) & mask;
+    size--;
+    shrinkIfSparse();
+    return value;
+  }
+
+  private int removeLast() {
+    size--;
+    int value = elements[(head + size) & mask];
+    shrinkIfSparse();
+    return value;
+  }
+
+  // With autoShrink, a deque below a quarter full goes down to twice the room its elements need
+  private void shrinkIfSparse() {
+    if (autoShrink && size < elements.length >>> 2 && elements.length > minCapacity) {
+      resize(Math.max(minCapacity, capacityFor(size) << 1));
+    }
+  }
+
+  // Copies the elements to a new array of the given capacity, head first at index 0
+  private void resize(int capacity) {
+    if (capacity <= 0 || capacity > MAX_CAPACITY) {
+      throw new IllegalStateException("IntArrayDeque can't hold more than " + size + " elements");
+    }
+    int[] resized = new int[capacity];
+    int firstPart = Math.min(size, elements.length - head);
+    System.arraycopy(elements, head, resized, 0, firstPart);
+    System.arraycopy(elements, 0, resized, firstPart, size - firstPart);
+    elements = resized;
+    mask = capacity - 1;
+    head = 0;
+  }
+
+  static int capacityFor(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+    }
+    if (expectedSize <= MIN_CAPACITY) {
+      return MIN_CAPACITY;
+    }
+    if (expectedSize > MAX_CAPACITY) {
+      return MAX_CAPACITY;
+    }
+    return Integer.highestOneBit(expectedSize - 1) << 1;
+  }
+}
@@ -0,0 +1,26 @@
+package com.java.genericsCollections;
+
+/*
+Crate<T> specialized by hand for int.
+Generics can't take a primitive type parameter, so Crate<Integer> is the closest the generic version gets: every packCrate(int) autoboxes the value into an Integer (only -128..127 come from a cache), and the crate holds a reference to it. On a 64-bit JVM with compressed references that is a 16-byte crate pointing at a separate 16-byte Integer. IntCrate keeps the int in its own field: one 16-byte object and no allocation on packCrate().
+The price is one class per primitive type, which is why the JDK has IntStream, LongStream and DoubleStream next to Stream<T>, and why there is LongCrate and DoubleCrate next to this one.
+ */
+
+class IntCrate {
+  private int contents;
+
+  public IntCrate() {
+  }
+
+  public IntCrate(int contents) {
+    this.contents = contents;
+  }
+
+  public int emptyCrate() {
+    return contents;
+  }
+
+  public void packCrate(int contents) {
+    this.contents = contents;
+  }
+}
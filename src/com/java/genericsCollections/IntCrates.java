@@ -0,0 +1,76 @@
+package com.java.genericsCollections;
+
+/*
+Many IntCrates stored as one int[] instead of one object each.
+A List<Crate<Integer>> with n crates is n references, n Crate objects and up to n Integer objects, about 36 bytes per value with compressed references. A List<IntCrate> still pays for a reference and an object header per value, about 20 bytes. IntCrates stores only the int: 4 bytes per value, in one array the GC sees as a single object without references to trace.
+A crate is addressed by its index: add() packs a new crate and returns its index, packCrate(index, contents) and emptyCrate(index) work like the single-crate methods. Nothing is boxed on any path, including forEach() and stream().
+ */
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+class IntCrates {
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private int[] contents;
+  private int size;
+
+  public IntCrates() {
+    this(10);
+  }
+
+  public IntCrates(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+    }
+    contents = new int[initialCapacity];
+  }
+
+  public int add(int crateContents) {
+    if (size == contents.length) {
+      grow();
+    }
+    contents[size] = crateContents;
+    return size++;
+  }
+
+  public int emptyCrate(int index) {
+    return contents[Objects.checkIndex(index, size)];
+  }
+
+  public void packCrate(int index, int crateContents) {
+    contents[Objects.checkIndex(index, size)] = crateContents;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public void forEach(IntConsumer action) {
+    for (int i = 0; i < size; i++) {
+      action.accept(contents[i]);
+    }
+  }
+
+  public IntStream stream() {
+    return Arrays.stream(contents, 0, size);
+  }
+
+  public int[] toArray() {
+    return Arrays.copyOf(contents, size);
+  }
+
+  private void grow() {
+    if (size == MAX_CAPACITY) {
+      throw new OutOfMemoryError("IntCrates is full");
+    }
+    int capacity = (int) Math.min(MAX_CAPACITY, size + (size >> 1) + 1L);
+    contents = Arrays.copyOf(contents, capacity);
+  }
+}
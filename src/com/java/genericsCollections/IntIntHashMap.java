@@ -0,0 +1,237 @@
+package com.java.genericsCollections;
+
+/*
+An int to int map without boxing; the primitive counterpart of ObjectIntHashMap, with the same linear probing and backward-shift removal.
+A HashMap<Integer, Integer> entry is a 32-byte Node plus two 16-byte Integers; here it is two ints in parallel arrays, 8 bytes per slot.
+An empty slot is marked by key 0, so the entry for key 0 itself is kept in a separate field.
+get() returns 0 for a missing key; use getOrDefault() or containsKey() when 0 is a valid value.
+ */
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+
+public class IntIntHashMap {
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  @FunctionalInterface
+  public interface IntIntConsumer {
+
+    void accept(int key, int value);
+  }
+
+  private int[] keys;
+  private int[] values;
+  private int mask;
+  private int size;
+  private int maxFill;
+  private boolean hasZeroKey;
+  private int zeroValue;
+
+  public IntIntHashMap() {
+    this(16);
+  }
+
+  public IntIntHashMap(int expectedSize) {
+    allocate(ObjectIntHashMap.capacityFor(expectedSize));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean containsKey(int key) {
+    return key == 0 ? hasZeroKey : find(key) >= 0;
+  }
+
+  public int get(int key) {
+    return getOrDefault(key, 0);
+  }
+
+  public int getOrDefault(int key, int defaultValue) {
+    if (key == 0) {
+      return hasZeroKey ? zeroValue : defaultValue;
+    }
+    int slot = find(key);
+    return slot >= 0 ? values[slot] : defaultValue;
+  }
+
+  // Returns the previous value, or 0 if there was none
+  public int put(int key, int value) {
+    if (key == 0) {
+      int previous = zeroValue;
+      zeroValue = value;
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        size++;
+        return 0;
+      }
+      return previous;
+    }
+    int slot = slotFor(key);
+    if (keys[slot] != 0) {
+      int previous = values[slot];
+      values[slot] = value;
+      return previous;
+    }
+    insert(slot, key, value);
+    return 0;
+  }
+
+  // Stores value if the key is missing, otherwise remapping(old, value); returns the new value
+  public int merge(int key, int value, IntBinaryOperator remapping) {
+    if (key == 0) {
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        size++;
+        return zeroValue = value;
+      }
+      return zeroValue = remapping.applyAsInt(zeroValue, value);
+    }
+    int slot = slotFor(key);
+    if (keys[slot] != 0) {
+      return values[slot] = remapping.applyAsInt(values[slot], value);
+    }
+    insert(slot, key, value);
+    return value;
+  }
+
+  // Returns the removed value, or 0 if the key was missing
+  public int remove(int key) {
+    if (key == 0) {
+      if (!hasZeroKey) {
+        return 0;
+      }
+      hasZeroKey = false;
+      size--;
+      return zeroValue;
+    }
+    int slot = find(key);
+    if (slot < 0) {
+      return 0;
+    }
+    int previous = values[slot];
+    shiftBack(slot);
+    size--;
+    return previous;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, 0);
+    hasZeroKey = false;
+    size = 0;
+  }
+
+  public void forEach(IntIntConsumer action) {
+    if (hasZeroKey) {
+      action.accept(0, zeroValue);
+    }
+    int[] keys = this.keys;
+    int[] values = this.values;
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != 0) {
+        action.accept(keys[slot], values[slot]);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("{");
+    forEach((key, value) -> {
+      if (builder.length() > 1) {
+        builder.append(", ");
+      }
+      builder.append(key).append('=').append(value);
+    });
+    return builder.append('}').toString();
+  }
+
+  private static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private int find(int key) {
+    int[] keys = this.keys;
+    int slot = hash(key) & mask;
+    int current;
+    while ((current = keys[slot]) != 0) {
+      if (current == key) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  // The slot holding key, or the empty slot where it would be inserted
+  private int slotFor(int key) {
+    int[] keys = this.keys;
+    int slot = hash(key) & mask;
+    int current;
+    while ((current = keys[slot]) != 0 && current != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void insert(int slot, int key, int value) {
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > maxFill) {
+      rehash(keys.length << 1);
+    }
+  }
+
+  // Same backward shift as ObjectIntHashMap.shiftBack
+  private void shiftBack(int hole) {
+    int[] keys = this.keys;
+    int slot = hole;
+    while (true) {
+      slot = (slot + 1) & mask;
+      int current = keys[slot];
+      if (current == 0) {
+        keys[hole] = 0;
+        return;
+      }
+      int home = hash(current) & mask;
+      boolean homeInRange = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+      if (!homeInRange) {
+        keys[hole] = current;
+        values[hole] = values[slot];
+        hole = slot;
+      }
+    }
+  }
+
+  private void rehash(int capacity) {
+    if (capacity <= 0 || capacity > MAX_CAPACITY) {
+      throw new IllegalStateException("IntIntHashMap can't hold more than " + maxFill + " keys");
+    }
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      int key = oldKeys[i];
+      if (key != 0) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+    maxFill = capacity / 4 * 3;
+  }
+}
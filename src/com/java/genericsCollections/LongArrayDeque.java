@@ -0,0 +1,219 @@
+package com.java.genericsCollections;
+
+/*
+The long counterpart of IntArrayDeque: a circular, power-of-two sized long[] with the same methods, for queues of ids or packed coordinates that don't fit in an int.
+A LinkedList<Long> costs a 24-byte Node and a 16-byte Long per element; here an element is 8 bytes of the array.
+ */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+public class LongArrayDeque {
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private long[] elements;
+  private int mask;
+  private int head;
+  private int size;
+  private final int minCapacity;
+  private final boolean autoShrink;
+
+  public LongArrayDeque() {
+    this(16, false);
+  }
+
+  public LongArrayDeque(int expectedSize) {
+    this(expectedSize, false);
+  }
+
+  public LongArrayDeque(int expectedSize, boolean autoShrink) {
+    this.minCapacity = IntArrayDeque.capacityFor(expectedSize);
+    this.autoShrink = autoShrink;
+    this.elements = new long[minCapacity];
+    this.mask = minCapacity - 1;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int capacity() {
+    return elements.length;
+  }
+
+  // Adds at the tail, like Queue.offer(); always succeeds
+  public boolean offer(long value) {
+    offerLast(value);
+    return true;
+  }
+
+  public void offerLast(long value) {
+    if (size == elements.length) {
+      resize(elements.length << 1);
+    }
+    elements[(head + size) & mask] = value;
+    size++;
+  }
+
+  public void offerFirst(long value) {
+    if (size == elements.length) {
+      resize(elements.length << 1);
+    }
+    head = (head - 1) & mask;
+    elements[head] = value;
+    size++;
+  }
+
+  // Removes from the head, like Queue.poll()
+  public long poll() {
+    if (size == 0) {
+      throw new NoSuchElementException("Deque is empty");
+    }
+    return removeFirst();
+  }
+
+  public long pollOrDefault(long defaultValue) {
+    return size == 0 ? defaultValue : removeFirst();
+  }
+
+  public long pollLast() {
+    if (size == 0) {
+      throw new NoSuchElementException("Deque is empty");
+    }
+    return removeLast();
+  }
+
+  public long pollLastOrDefault(long defaultValue) {
+    return size == 0 ? defaultValue : removeLast();
+  }
+
+  public long peek() {
+    if (size == 0) {
+      throw new NoSuchElementException("Deque is empty");
+    }
+    return elements[head];
+  }
+
+  public long peekOrDefault(long defaultValue) {
+    return size == 0 ? defaultValue : elements[head];
+  }
+
+  public long peekLast() {
+    if (size == 0) {
+      throw new NoSuchElementException("Deque is empty");
+    }
+    return elements[(head + size - 1) & mask];
+  }
+
+  // The element index positions after the head
+  public long get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+    return elements[(head + index) & mask];
+  }
+
+  // Moves up to maxElements from the head into target[offset...]; returns how many were moved
+  public int drainTo(long[] target, int offset, int maxElements) {
+    int count = Math.min(size, Math.min(maxElements, target.length - offset));
+    if (count <= 0) {
+      return 0;
+    }
+    int firstPart = Math.min(count, elements.length - head);
+    System.arraycopy(elements, head, target, offset, firstPart);
+    System.arraycopy(elements, 0, target, offset + firstPart, count - firstPart);
+    head = (head + count) & mask;
+    size -= count;
+    shrinkIfSparse();
+    return count;
+  }
+
+  // Removes every element, head first, and passes it to action
+  public int drainTo(LongConsumer action) {
+    int count = size;
+    long[] elements = this.elements;
+    while (size > 0) {
+      long value = elements[head];
+      head = (head + 1) & mask;
+      size--;
+      action.accept(value);
+    }
+    shrinkIfSparse();
+    return count;
+  }
+
+  public void forEach(LongConsumer action) {
+    long[] elements = this.elements;
+    for (int i = 0; i < size; i++) {
+      action.accept(elements[(head + i) & mask]);
+    }
+  }
+
+  public long[] toArray() {
+    long[] copy = new long[size];
+    int firstPart = Math.min(size, elements.length - head);
+    System.arraycopy(elements, head, copy, 0, firstPart);
+    System.arraycopy(elements, 0, copy, firstPart, size - firstPart);
+    return copy;
+  }
+
+  public void clear() {
+    head = 0;
+    size = 0;
+    shrinkIfSparse();
+  }
+
+  // Reduces the array to the smallest power of two that holds the elements and the initial capacity
+  public void shrink() {
+    int capacity = Math.max(minCapacity, IntArrayDeque.capacityFor(size));
+    if (capacity < elements.length) {
+      resize(capacity);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  private long removeFirst() {
+    long value = elements[head];
+    head = (head + 1) & mask;
+    size--;
+    shrinkIfSparse();
+    return value;
+  }
+
+  private long removeLast() {
+    size--;
+    long value = elements[(head + size) & mask];
+    shrinkIfSparse();
+    return value;
+  }
+
+  // With autoShrink, a deque below a quarter full goes down to twice the room its elements need
+  private void shrinkIfSparse() {
+    if (autoShrink && size < elements.length >>> 2 && elements.length > minCapacity) {
+      resize(Math.max(minCapacity, IntArrayDeque.capacityFor(size) << 1));
+    }
+  }
+
+  // Copies the elements to a new array of the given capacity, head first at index 0
+  private void resize(int capacity) {
+    if (capacity <= 0 || capacity > MAX_CAPACITY) {
+      throw new IllegalStateException("LongArrayDeque can't hold more than " + size + " elements");
+    }
+    long[] resized = new long[capacity];
+    int firstPart = Math.min(size, elements.length - head);
+    System.arraycopy(elements, head, resized, 0, firstPart);
+    System.arraycopy(elements, 0, resized, firstPart, size - firstPart);
+    elements = resized;
+    mask = capacity - 1;
+    head = 0;
+  }
+}
@@ -0,0 +1,460 @@
+package com.java.genericsCollections;
+
+/*
+A sorted set of longs in a B+tree whose nodes hold the keys themselves in a long[], the primitive version of BTreeSet.
+A TreeSet<Long> or BTreeSet<Long> compares against a Long somewhere on the heap at every step; here the binary search runs over one array of 128 longs per level (1 KB, 16 cache lines), and a range scan reads the leaves' arrays in order. A key costs 8 bytes in a full leaf and about 12 in a leaf that is two thirds full, against about 56 in a TreeSet<Long> (a 40-byte Entry and a 16-byte Long).
+
+Splitting, merging and the ascending-append case work as in BTreeMap. There are no views: forEachInRange() and countInRange() cover [from, to) directly.
+first() and last() throw NoSuchElementException on an empty set because no long can mean "nothing", and the navigation methods take the value to return when there is no such key, like IntArrayDeque's OrDefault methods.
+Not thread-safe.
+ */
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+public class LongBTreeSet {
+  static final int MAX_KEYS = 128;
+  private static final int MIN_KEYS = MAX_KEYS / 2;
+
+  private abstract static class Node {
+    final long[] keys = new long[MAX_KEYS];
+    int size;
+  }
+
+  private static final class Leaf extends Node {
+    Leaf prev;
+    Leaf next;
+  }
+
+  // children[i] holds the keys below keys[i], children[i + 1] those from keys[i] up
+  private static final class Branch extends Node {
+    final Node[] children = new Node[MAX_KEYS + 1];
+  }
+
+  private Node root;
+  private int height;
+  private Leaf first;
+  private Leaf last;
+  private int size;
+  private int modCount;
+
+  // The separator a recursive add() passes up with a split node
+  private long promoted;
+
+  public LongBTreeSet() {
+    clear();
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean contains(long key) {
+    Leaf leaf = leafFor(key);
+    return Arrays.binarySearch(leaf.keys, 0, leaf.size, key) >= 0;
+  }
+
+  public boolean add(long key) {
+    int before = size;
+    Node split = insert(root, height, key, true);
+    if (split != null) {
+      Branch top = new Branch();
+      top.keys[0] = promoted;
+      top.children[0] = root;
+      top.children[1] = split;
+      top.size = 1;
+      root = top;
+      height++;
+    }
+    return size != before;
+  }
+
+  public boolean remove(long key) {
+    if (!remove(root, height, key)) {
+      return false;
+    }
+    if (height > 0 && root.size == 0) {
+      root = ((Branch) root).children[0];
+      height--;
+    }
+    size--;
+    modCount++;
+    return true;
+  }
+
+  public void clear() {
+    Leaf leaf = new Leaf();
+    root = leaf;
+    height = 0;
+    first = leaf;
+    last = leaf;
+    size = 0;
+    modCount++;
+  }
+
+  public long first() {
+    if (size == 0) {
+      throw new NoSuchElementException("Set is empty");
+    }
+    return first.keys[0];
+  }
+
+  public long last() {
+    if (size == 0) {
+      throw new NoSuchElementException("Set is empty");
+    }
+    return last.keys[last.size - 1];
+  }
+
+  // The smallest key >= key, or defaultValue if there is none
+  public long ceilingOrDefault(long key, long defaultValue) {
+    return above(key, true, defaultValue);
+  }
+
+  // The smallest key > key, or defaultValue if there is none
+  public long higherOrDefault(long key, long defaultValue) {
+    return above(key, false, defaultValue);
+  }
+
+  // The largest key <= key, or defaultValue if there is none
+  public long floorOrDefault(long key, long defaultValue) {
+    return below(key, true, defaultValue);
+  }
+
+  // The largest key < key, or defaultValue if there is none
+  public long lowerOrDefault(long key, long defaultValue) {
+    return below(key, false, defaultValue);
+  }
+
+  public void forEach(LongConsumer action) {
+    int expectedModCount = modCount;
+    for (Leaf leaf = first; leaf != null; leaf = leaf.next) {
+      long[] keys = leaf.keys;
+      for (int i = 0, n = leaf.size; i < n; i++) {
+        action.accept(keys[i]);
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+  }
+
+  // Passes the keys from (inclusive) to to (exclusive) to action in ascending order
+  public void forEachInRange(long from, long to, LongConsumer action) {
+    if (from >= to) {
+      return;
+    }
+    int expectedModCount = modCount;
+    Leaf leaf = leafFor(from);
+    int i = insertionPoint(leaf, from);
+    while (leaf != null) {
+      long[] keys = leaf.keys;
+      for (int n = leaf.size; i < n; i++) {
+        if (keys[i] >= to) {
+          return;
+        }
+        action.accept(keys[i]);
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      leaf = leaf.next;
+      i = 0;
+    }
+  }
+
+  // The number of keys from (inclusive) to to (exclusive); whole leaves in between are counted by their size
+  public int countInRange(long from, long to) {
+    if (from >= to) {
+      return 0;
+    }
+    Leaf leaf = leafFor(from);
+    int i = insertionPoint(leaf, from);
+    int count = 0;
+    while (leaf != null) {
+      if (leaf.size > 0 && leaf.keys[leaf.size - 1] < to) {
+        count += leaf.size - i;
+      } else {
+        return count + insertionPoint(leaf, to) - i;
+      }
+      leaf = leaf.next;
+      i = 0;
+    }
+    return count;
+  }
+
+  // Ascending; fail-fast, and can't remove
+  public PrimitiveIterator.OfLong iterator() {
+    return new PrimitiveIterator.OfLong() {
+      private Leaf leaf = size == 0 ? null : first;
+      private int index;
+      private final int expectedModCount = modCount;
+
+      @Override
+      public boolean hasNext() {
+        return leaf != null;
+      }
+
+      @Override
+      public long nextLong() {
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        if (leaf == null) {
+          throw new NoSuchElementException();
+        }
+        long key = leaf.keys[index];
+        if (++index == leaf.size) {
+          leaf = leaf.next;
+          index = 0;
+        }
+        return key;
+      }
+    };
+  }
+
+  public long[] toArray() {
+    long[] array = new long[size];
+    int at = 0;
+    for (Leaf leaf = first; leaf != null; leaf = leaf.next) {
+      System.arraycopy(leaf.keys, 0, array, at, leaf.size);
+      at += leaf.size;
+    }
+    return array;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  private static int insertionPoint(Leaf leaf, long key) {
+    int i = Arrays.binarySearch(leaf.keys, 0, leaf.size, key);
+    return i >= 0 ? i : -i - 1;
+  }
+
+  private Leaf leafFor(long key) {
+    Node node = root;
+    for (int level = height; level > 0; level--) {
+      Branch branch = (Branch) node;
+      int i = Arrays.binarySearch(branch.keys, 0, branch.size, key);
+      node = branch.children[i >= 0 ? i + 1 : -i - 1];
+    }
+    return (Leaf) node;
+  }
+
+  // The answer is in key's leaf or starts the next one
+  private long above(long key, boolean inclusive, long defaultValue) {
+    Leaf leaf = leafFor(key);
+    int i = Arrays.binarySearch(leaf.keys, 0, leaf.size, key);
+    int index = i >= 0 ? (inclusive ? i : i + 1) : -i - 1;
+    if (index < leaf.size) {
+      return leaf.keys[index];
+    }
+    return leaf.next == null ? defaultValue : leaf.next.keys[0];
+  }
+
+  // The answer is in key's leaf or ends the previous one
+  private long below(long key, boolean inclusive, long defaultValue) {
+    Leaf leaf = leafFor(key);
+    int i = Arrays.binarySearch(leaf.keys, 0, leaf.size, key);
+    int index = i >= 0 ? (inclusive ? i : i - 1) : -i - 2;
+    if (index >= 0) {
+      return leaf.keys[index];
+    }
+    return leaf.prev == null ? defaultValue : leaf.prev.keys[leaf.prev.size - 1];
+  }
+
+  // Returns the new right sibling when node had to split, with the key that separates them in promoted
+  private Node insert(Node node, int level, long key, boolean rightmost) {
+    if (level == 0) {
+      Leaf leaf = (Leaf) node;
+      int i = Arrays.binarySearch(leaf.keys, 0, leaf.size, key);
+      if (i >= 0) {
+        return null;
+      }
+      i = -i - 1;
+      size++;
+      modCount++;
+      if (leaf.size < MAX_KEYS) {
+        insertAt(leaf, i, key);
+        return null;
+      }
+      int at = rightmost && i == MAX_KEYS ? MAX_KEYS : MAX_KEYS / 2;
+      Leaf right = splitLeaf(leaf, at);
+      if (i < at) {
+        insertAt(leaf, i, key);
+      } else {
+        insertAt(right, i - at, key);
+      }
+      promoted = right.keys[0];
+      return right;
+    }
+    Branch branch = (Branch) node;
+    int i = Arrays.binarySearch(branch.keys, 0, branch.size, key);
+    int c = i >= 0 ? i + 1 : -i - 1;
+    Node split = insert(branch.children[c], level - 1, key, rightmost && c == branch.size);
+    if (split == null) {
+      return null;
+    }
+    if (branch.size < MAX_KEYS) {
+      System.arraycopy(branch.keys, c, branch.keys, c + 1, branch.size - c);
+      System.arraycopy(branch.children, c + 1, branch.children, c + 2, branch.size - c);
+      branch.keys[c] = promoted;
+      branch.children[c + 1] = split;
+      branch.size++;
+      return null;
+    }
+    return splitBranch(branch, c, promoted, split);
+  }
+
+  private static void insertAt(Node node, int i, long key) {
+    System.arraycopy(node.keys, i, node.keys, i + 1, node.size - i);
+    node.keys[i] = key;
+    node.size++;
+  }
+
+  // Moves the keys from index at on into a new leaf linked after this one
+  private Leaf splitLeaf(Leaf leaf, int at) {
+    Leaf right = new Leaf();
+    right.size = leaf.size - at;
+    System.arraycopy(leaf.keys, at, right.keys, 0, right.size);
+    leaf.size = at;
+    right.prev = leaf;
+    right.next = leaf.next;
+    if (leaf.next == null) {
+      last = right;
+    } else {
+      leaf.next.prev = right;
+    }
+    leaf.next = right;
+    return right;
+  }
+
+  // Splits a full branch around the middle key once separator and child are added after position c
+  private Branch splitBranch(Branch branch, int c, long separator, Node child) {
+    long[] keys = Arrays.copyOf(branch.keys, MAX_KEYS + 1);
+    Node[] children = Arrays.copyOf(branch.children, MAX_KEYS + 2);
+    System.arraycopy(keys, c, keys, c + 1, MAX_KEYS - c);
+    System.arraycopy(children, c + 1, children, c + 2, MAX_KEYS - c);
+    keys[c] = separator;
+    children[c + 1] = child;
+    int mid = (MAX_KEYS + 1) / 2;
+    Branch right = new Branch();
+    right.size = MAX_KEYS - mid;
+    System.arraycopy(keys, mid + 1, right.keys, 0, right.size);
+    System.arraycopy(children, mid + 1, right.children, 0, right.size + 1);
+    System.arraycopy(keys, 0, branch.keys, 0, mid);
+    System.arraycopy(children, 0, branch.children, 0, mid + 1);
+    Arrays.fill(branch.children, mid + 1, MAX_KEYS + 1, null);
+    branch.size = mid;
+    promoted = keys[mid];
+    return right;
+  }
+
+  private boolean remove(Node node, int level, long key) {
+    if (level == 0) {
+      int i = Arrays.binarySearch(node.keys, 0, node.size, key);
+      if (i < 0) {
+        return false;
+      }
+      System.arraycopy(node.keys, i + 1, node.keys, i, node.size - i - 1);
+      node.size--;
+      return true;
+    }
+    Branch branch = (Branch) node;
+    int i = Arrays.binarySearch(branch.keys, 0, branch.size, key);
+    int c = i >= 0 ? i + 1 : -i - 1;
+    if (!remove(branch.children[c], level - 1, key)) {
+      return false;
+    }
+    if (branch.children[c].size < MIN_KEYS) {
+      rebalance(branch, c, level - 1 == 0);
+    }
+    return true;
+  }
+
+  // Refills child c of parent from a neighbour that can spare a key, or merges it with one
+  private void rebalance(Branch parent, int c, boolean leaves) {
+    Node child = parent.children[c];
+    Node left = c > 0 ? parent.children[c - 1] : null;
+    Node right = c < parent.size ? parent.children[c + 1] : null;
+    if (left != null && left.size > MIN_KEYS) {
+      if (leaves) {
+        left.size--;
+        insertAt(child, 0, left.keys[left.size]);
+        parent.keys[c - 1] = child.keys[0];
+      } else {
+        borrowLeft((Branch) left, (Branch) child, parent, c);
+      }
+    } else if (right != null && right.size > MIN_KEYS) {
+      if (leaves) {
+        child.keys[child.size++] = right.keys[0];
+        right.size--;
+        System.arraycopy(right.keys, 1, right.keys, 0, right.size);
+        parent.keys[c] = right.keys[0];
+      } else {
+        borrowRight((Branch) child, (Branch) right, parent, c);
+      }
+    } else {
+      int at = left != null ? c - 1 : c;
+      if (leaves) {
+        merge((Leaf) parent.children[at], (Leaf) parent.children[at + 1]);
+      } else {
+        merge((Branch) parent.children[at], (Branch) parent.children[at + 1], parent.keys[at]);
+      }
+      System.arraycopy(parent.keys, at + 1, parent.keys, at, parent.size - at - 1);
+      System.arraycopy(parent.children, at + 2, parent.children, at + 1, parent.size - at - 1);
+      parent.size--;
+      parent.children[parent.size + 1] = null;
+    }
+  }
+
+  // The separator comes down in front of child's keys, left's last key goes up in its place
+  private static void borrowLeft(Branch left, Branch child, Branch parent, int c) {
+    System.arraycopy(child.keys, 0, child.keys, 1, child.size);
+    System.arraycopy(child.children, 0, child.children, 1, child.size + 1);
+    child.keys[0] = parent.keys[c - 1];
+    child.children[0] = left.children[left.size];
+    child.size++;
+    parent.keys[c - 1] = left.keys[left.size - 1];
+    left.children[left.size] = null;
+    left.size--;
+  }
+
+  private static void borrowRight(Branch child, Branch right, Branch parent, int c) {
+    child.keys[child.size] = parent.keys[c];
+    child.children[child.size + 1] = right.children[0];
+    child.size++;
+    parent.keys[c] = right.keys[0];
+    System.arraycopy(right.keys, 1, right.keys, 0, right.size - 1);
+    System.arraycopy(right.children, 1, right.children, 0, right.size);
+    right.size--;
+    right.children[right.size + 1] = null;
+  }
+
+  private void merge(Leaf left, Leaf right) {
+    System.arraycopy(right.keys, 0, left.keys, left.size, right.size);
+    left.size += right.size;
+    left.next = right.next;
+    if (right.next == null) {
+      last = left;
+    } else {
+      right.next.prev = left;
+    }
+  }
+
+  private static void merge(Branch left, Branch right, long separator) {
+    left.keys[left.size] = separator;
+    System.arraycopy(right.keys, 0, left.keys, left.size + 1, right.size);
+    System.arraycopy(right.children, 0, left.children, left.size + 1, right.size + 1);
+    left.size += right.size + 1;
+  }
+}
@@ -0,0 +1,25 @@
+package com.java.genericsCollections;
+
+/*
+Crate<T> specialized for long; see IntCrate.
+A Long is 16 bytes plus the reference to it, and Long.valueOf caches only -128..127, so most values allocate.
+ */
+
+class LongCrate {
+  private long contents;
+
+  public LongCrate() {
+  }
+
+  public LongCrate(long contents) {
+    this.contents = contents;
+  }
+
+  public long emptyCrate() {
+    return contents;
+  }
+
+  public void packCrate(long contents) {
+    this.contents = contents;
+  }
+}
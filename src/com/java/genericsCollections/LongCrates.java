@@ -0,0 +1,75 @@
+package com.java.genericsCollections;
+
+/*
+Many LongCrates stored as one long[]; see IntCrates.
+8 bytes per value instead of a 16-byte Long plus its reference.
+ */
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+class LongCrates {
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private long[] contents;
+  private int size;
+
+  public LongCrates() {
+    this(10);
+  }
+
+  public LongCrates(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+    }
+    contents = new long[initialCapacity];
+  }
+
+  public int add(long crateContents) {
+    if (size == contents.length) {
+      grow();
+    }
+    contents[size] = crateContents;
+    return size++;
+  }
+
+  public long emptyCrate(int index) {
+    return contents[Objects.checkIndex(index, size)];
+  }
+
+  public void packCrate(int index, long crateContents) {
+    contents[Objects.checkIndex(index, size)] = crateContents;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public void forEach(LongConsumer action) {
+    for (int i = 0; i < size; i++) {
+      action.accept(contents[i]);
+    }
+  }
+
+  public LongStream stream() {
+    return Arrays.stream(contents, 0, size);
+  }
+
+  public long[] toArray() {
+    return Arrays.copyOf(contents, size);
+  }
+
+  private void grow() {
+    if (size == MAX_CAPACITY) {
+      throw new OutOfMemoryError("LongCrates is full");
+    }
+    int capacity = (int) Math.min(MAX_CAPACITY, size + (size >> 1) + 1L);
+    contents = Arrays.copyOf(contents, capacity);
+  }
+}
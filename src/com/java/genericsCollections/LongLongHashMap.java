@@ -0,0 +1,236 @@
+package com.java.genericsCollections;
+
+/*
+A long to long map without boxing; see IntIntHashMap, which this mirrors for 64-bit keys and values.
+A HashMap<Long, Long> entry is a 32-byte Node plus two 16-byte Longs; here it is 16 bytes per slot.
+ */
+
+import java.util.Arrays;
+import java.util.function.LongBinaryOperator;
+
+public class LongLongHashMap {
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  @FunctionalInterface
+  public interface LongLongConsumer {
+
+    void accept(long key, long value);
+  }
+
+  private long[] keys;
+  private long[] values;
+  private int mask;
+  private int size;
+  private int maxFill;
+  private boolean hasZeroKey;
+  private long zeroValue;
+
+  public LongLongHashMap() {
+    this(16);
+  }
+
+  public LongLongHashMap(int expectedSize) {
+    allocate(ObjectIntHashMap.capacityFor(expectedSize));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean containsKey(long key) {
+    return key == 0 ? hasZeroKey : find(key) >= 0;
+  }
+
+  public long get(long key) {
+    return getOrDefault(key, 0);
+  }
+
+  public long getOrDefault(long key, long defaultValue) {
+    if (key == 0) {
+      return hasZeroKey ? zeroValue : defaultValue;
+    }
+    int slot = find(key);
+    return slot >= 0 ? values[slot] : defaultValue;
+  }
+
+  // Returns the previous value, or 0 if there was none
+  public long put(long key, long value) {
+    if (key == 0) {
+      long previous = zeroValue;
+      zeroValue = value;
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        size++;
+        return 0;
+      }
+      return previous;
+    }
+    int slot = slotFor(key);
+    if (keys[slot] != 0) {
+      long previous = values[slot];
+      values[slot] = value;
+      return previous;
+    }
+    insert(slot, key, value);
+    return 0;
+  }
+
+  // Stores value if the key is missing, otherwise remapping(old, value); returns the new value
+  public long merge(long key, long value, LongBinaryOperator remapping) {
+    if (key == 0) {
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        size++;
+        return zeroValue = value;
+      }
+      return zeroValue = remapping.applyAsLong(zeroValue, value);
+    }
+    int slot = slotFor(key);
+    if (keys[slot] != 0) {
+      return values[slot] = remapping.applyAsLong(values[slot], value);
+    }
+    insert(slot, key, value);
+    return value;
+  }
+
+  // Returns the removed value, or 0 if the key was missing
+  public long remove(long key) {
+    if (key == 0) {
+      if (!hasZeroKey) {
+        return 0;
+      }
+      hasZeroKey = false;
+      size--;
+      return zeroValue;
+    }
+    int slot = find(key);
+    if (slot < 0) {
+      return 0;
+    }
+    long previous = values[slot];
+    shiftBack(slot);
+    size--;
+    return previous;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, 0);
+    hasZeroKey = false;
+    size = 0;
+  }
+
+  public void forEach(LongLongConsumer action) {
+    if (hasZeroKey) {
+      action.accept(0, zeroValue);
+    }
+    long[] keys = this.keys;
+    long[] values = this.values;
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != 0) {
+        action.accept(keys[slot], values[slot]);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("{");
+    forEach((key, value) -> {
+      if (builder.length() > 1) {
+        builder.append(", ");
+      }
+      builder.append(key).append('=').append(value);
+    });
+    return builder.append('}').toString();
+  }
+
+  private static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 32;
+    return (int) (h ^ (h >>> 16));
+  }
+
+  private int find(long key) {
+    long[] keys = this.keys;
+    int slot = hash(key) & mask;
+    long current;
+    while ((current = keys[slot]) != 0) {
+      if (current == key) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  // The slot holding key, or the empty slot where it would be inserted
+  private int slotFor(long key) {
+    long[] keys = this.keys;
+    int slot = hash(key) & mask;
+    long current;
+    while ((current = keys[slot]) != 0 && current != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void insert(int slot, long key, long value) {
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > maxFill) {
+      rehash(keys.length << 1);
+    }
+  }
+
+  // Same backward shift as ObjectIntHashMap.shiftBack
+  private void shiftBack(int hole) {
+    long[] keys = this.keys;
+    int slot = hole;
+    while (true) {
+      slot = (slot + 1) & mask;
+      long current = keys[slot];
+      if (current == 0) {
+        keys[hole] = 0;
+        return;
+      }
+      int home = hash(current) & mask;
+      boolean homeInRange = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+      if (!homeInRange) {
+        keys[hole] = current;
+        values[hole] = values[slot];
+        hole = slot;
+      }
+    }
+  }
+
+  private void rehash(int capacity) {
+    if (capacity <= 0 || capacity > MAX_CAPACITY) {
+      throw new IllegalStateException("LongLongHashMap can't hold more than " + maxFill + " keys");
+    }
+    long[] oldKeys = keys;
+    long[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      long key = oldKeys[i];
+      if (key != 0) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new long[capacity];
+    mask = capacity - 1;
+    maxFill = capacity / 4 * 3;
+  }
+}
@@ -0,0 +1,226 @@
+package com.java.genericsCollections;
+
+/*
+A map from objects to int values that stores the ints unboxed.
+A HashMap<String, Integer> allocates a 32-byte Node per entry and, for most values, a 16-byte Integer, and reaches the Node through a table slot. This map keeps keys and values in two parallel arrays (open addressing): an entry costs one key reference and one int in the arrays, about 11-21 bytes depending on how full they are, and nothing is allocated per put().
+
+A key goes to the slot its mixed hash code points at; if that slot holds another key, the next slot is tried, and so on (linear probing). Lookups therefore read neighbouring array slots instead of chasing Node pointers. The arrays double when they are 3/4 full.
+remove() doesn't leave a "deleted" marker behind: the entries after the removed one that were displaced past it are shifted back, so lookups never have to skip over dead slots no matter how many removals there have been.
+
+get() returns 0 for a missing key, like an unset int field; use getOrDefault() or containsKey() when 0 is a valid value. Null keys are not allowed. Not thread-safe, like HashMap.
+ */
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ObjIntConsumer;
+
+public class ObjectIntHashMap<K> {
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private Object[] keys;
+  private int[] values;
+  private int mask;
+  private int size;
+  private int maxFill;
+
+  public ObjectIntHashMap() {
+    this(16);
+  }
+
+  public ObjectIntHashMap(int expectedSize) {
+    allocate(capacityFor(expectedSize));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean containsKey(K key) {
+    return find(key) >= 0;
+  }
+
+  public int get(K key) {
+    return getOrDefault(key, 0);
+  }
+
+  public int getOrDefault(K key, int defaultValue) {
+    int slot = find(key);
+    return slot >= 0 ? values[slot] : defaultValue;
+  }
+
+  // Returns the previous value, or 0 if there was none
+  public int put(K key, int value) {
+    int slot = slotFor(key);
+    if (keys[slot] != null) {
+      int previous = values[slot];
+      values[slot] = value;
+      return previous;
+    }
+    insert(slot, key, value);
+    return 0;
+  }
+
+  // Stores value if the key is missing, otherwise remapping(old, value); returns the new value
+  public int merge(K key, int value, IntBinaryOperator remapping) {
+    int slot = slotFor(key);
+    if (keys[slot] != null) {
+      return values[slot] = remapping.applyAsInt(values[slot], value);
+    }
+    insert(slot, key, value);
+    return value;
+  }
+
+  // Returns the removed value, or 0 if the key was missing
+  public int remove(K key) {
+    int slot = find(key);
+    if (slot < 0) {
+      return 0;
+    }
+    int previous = values[slot];
+    shiftBack(slot);
+    size--;
+    return previous;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, null);
+    size = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEach(ObjIntConsumer<? super K> action) {
+    Object[] keys = this.keys;
+    int[] values = this.values;
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != null) {
+        action.accept((K) keys[slot], values[slot]);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("{");
+    forEach((key, value) -> {
+      if (builder.length() > 1) {
+        builder.append(", ");
+      }
+      builder.append(key).append('=').append(value);
+    });
+    return builder.append('}').toString();
+  }
+
+  private static int hash(Object key) {
+    return mix(key.hashCode());
+  }
+
+  private static int mix(int hashCode) {
+    int h = hashCode * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  // Like HashMap: the same instance, or an equal hash code before the more expensive equals()
+  private static boolean matches(Object current, Object key, int keyHash) {
+    return current == key || (current.hashCode() == keyHash && current.equals(key));
+  }
+
+  private int find(Object key) {
+    Objects.requireNonNull(key, "key");
+    Object[] keys = this.keys;
+    int keyHash = key.hashCode();
+    int slot = mix(keyHash) & mask;
+    Object current;
+    while ((current = keys[slot]) != null) {
+      if (matches(current, key, keyHash)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  // The slot holding key, or the empty slot where it would be inserted
+  private int slotFor(Object key) {
+    Objects.requireNonNull(key, "key");
+    Object[] keys = this.keys;
+    int keyHash = key.hashCode();
+    int slot = mix(keyHash) & mask;
+    Object current;
+    while ((current = keys[slot]) != null && !matches(current, key, keyHash)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void insert(int slot, Object key, int value) {
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > maxFill) {
+      rehash(keys.length << 1);
+    }
+  }
+
+  // Knuth's deletion for linear probing: pull back later entries whose home slot is at or before the hole
+  private void shiftBack(int hole) {
+    Object[] keys = this.keys;
+    int slot = hole;
+    while (true) {
+      slot = (slot + 1) & mask;
+      Object current = keys[slot];
+      if (current == null) {
+        keys[hole] = null;
+        return;
+      }
+      int home = hash(current) & mask;
+      boolean homeInRange = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+      if (!homeInRange) {
+        keys[hole] = current;
+        values[hole] = values[slot];
+        hole = slot;
+      }
+    }
+  }
+
+  private void rehash(int capacity) {
+    if (capacity <= 0 || capacity > MAX_CAPACITY) {
+      throw new IllegalStateException("ObjectIntHashMap can't hold more than " + maxFill + " keys");
+    }
+    Object[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      Object key = oldKeys[i];
+      if (key != null) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new Object[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+    maxFill = capacity / 4 * 3;
+  }
+
+  static int capacityFor(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+    }
+    long needed = Math.max(4, (long) expectedSize * 4 / 3 + 1);
+    if (needed > MAX_CAPACITY) {
+      return MAX_CAPACITY;
+    }
+    return Integer.highestOneBit((int) needed - 1) << 1;
+  }
+}
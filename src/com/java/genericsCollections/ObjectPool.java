@@ -0,0 +1,226 @@
+package com.java.genericsCollections;
+
+/*
+A thread-safe pool that hands out recycled objects instead of new ones.
+acquire() returns an object from the pool, or a new one from the factory when the pool is empty; release() runs the reset hook on it and puts it back for the next acquire().
+
+Each thread first uses its own small cache (a ThreadLocal array used as a stack), so the usual acquire()/release() pair touches no shared state at all. When a thread's cache runs empty it takes a batch from a global stack, and when the cache is full it moves half of it there, both under one short lock. The global stack is bounded too: objects that don't fit are left to the garbage collector, so a burst can't pin memory forever.
+The cache of a thread that dies is lost with it, which costs nothing but a few fresh allocations later.
+
+Pooling pays off only for objects that escape (are stored, returned or handed to another thread). An object that never leaves the method that creates it is usually not allocated at all, because the JIT replaces it with its fields (escape analysis), and a pool is then slower than new.
+
+Leak detection (the detectLeaks constructor argument, or -Dpool.detectLeaks=true for pools built with the defaults) tracks every acquired object with a weak reference and the stack trace of the acquire() call. An object that becomes unreachable without having been released is reported on System.err with that stack trace and counted in leakCount(). Releasing an object twice, or one that didn't come from this pool, throws IllegalStateException in this mode. It costs a stack trace per acquire(), so use it in tests, not in production.
+ */
+
+import com.java.concurrency.StripedCounter;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class ObjectPool<T> {
+  private static final int DEFAULT_LOCAL_CAPACITY = 256;
+  private static final int DEFAULT_GLOBAL_CAPACITY = 4096;
+
+  private static final class LocalCache {
+    final Object[] items;
+    int size;
+
+    LocalCache(int capacity) {
+      items = new Object[capacity];
+    }
+  }
+
+  private static final class Tracker extends WeakReference<Object> {
+    final int identity;
+    final Throwable acquiredAt;
+    Tracker next;
+
+    Tracker(Object pooled, ReferenceQueue<Object> queue) {
+      super(pooled, queue);
+      this.identity = System.identityHashCode(pooled);
+      this.acquiredAt = new Throwable("Acquired here and never released");
+    }
+  }
+
+  private final Supplier<? extends T> factory;
+  private final Consumer<? super T> reset;
+  private final int localCapacity;
+  private final ThreadLocal<LocalCache> local;
+  private final Object[] global;
+  private int globalSize;
+
+  private final StripedCounter created = new StripedCounter();
+  private final StripedCounter discarded = new StripedCounter();
+
+  private final boolean detectLeaks;
+  private final ReferenceQueue<Object> unreachable = new ReferenceQueue<>();
+  // Outstanding objects by identity hash code, chained through Tracker.next
+  private final Map<Integer, Tracker> outstanding = new HashMap<>();
+  private final StripedCounter leaks = new StripedCounter();
+
+  public ObjectPool(Supplier<? extends T> factory, Consumer<? super T> reset) {
+    this(factory, reset, DEFAULT_LOCAL_CAPACITY, DEFAULT_GLOBAL_CAPACITY,
+        Boolean.getBoolean("pool.detectLeaks"));
+  }
+
+  public ObjectPool(Supplier<? extends T> factory, Consumer<? super T> reset, int localCapacity,
+      int globalCapacity, boolean detectLeaks) {
+    if (localCapacity < 2 || globalCapacity < 0) {
+      throw new IllegalArgumentException(
+          "Need localCapacity >= 2 and globalCapacity >= 0: " + localCapacity + ", "
+              + globalCapacity);
+    }
+    this.factory = factory;
+    this.reset = reset;
+    this.localCapacity = localCapacity;
+    this.local = ThreadLocal.withInitial(() -> new LocalCache(localCapacity));
+    this.global = new Object[globalCapacity];
+    this.detectLeaks = detectLeaks;
+  }
+
+  @SuppressWarnings("unchecked")
+  public T acquire() {
+    LocalCache cache = local.get();
+    if (cache.size == 0) {
+      refill(cache);
+    }
+    T pooled;
+    if (cache.size > 0) {
+      pooled = (T) cache.items[--cache.size];
+      cache.items[cache.size] = null;
+    } else {
+      pooled = factory.get();
+      created.increment();
+    }
+    if (detectLeaks) {
+      track(pooled);
+    }
+    return pooled;
+  }
+
+  public void release(T pooled) {
+    if (detectLeaks) {
+      untrack(pooled);
+    }
+    reset.accept(pooled);
+    LocalCache cache = local.get();
+    if (cache.size == localCapacity) {
+      spill(cache);
+    }
+    cache.items[cache.size++] = pooled;
+  }
+
+  // Objects the factory had to create because the pool was empty
+  public long createdCount() {
+    return created.sum();
+  }
+
+  // Released objects that didn't fit in the global stack and were left to the GC
+  public long discardedCount() {
+    return discarded.sum();
+  }
+
+  public long leakCount() {
+    if (detectLeaks) {
+      reportLeaks();
+    }
+    return leaks.sum();
+  }
+
+  // Objects acquired and not yet released; only tracked with leak detection
+  public int outstandingCount() {
+    synchronized (outstanding) {
+      int count = 0;
+      for (Tracker tracker : outstanding.values()) {
+        for (; tracker != null; tracker = tracker.next) {
+          count++;
+        }
+      }
+      return count;
+    }
+  }
+
+  private void refill(LocalCache cache) {
+    synchronized (global) {
+      int take = Math.min(globalSize, localCapacity / 2);
+      globalSize -= take;
+      System.arraycopy(global, globalSize, cache.items, 0, take);
+      Arrays.fill(global, globalSize, globalSize + take, null);
+      cache.size = take;
+    }
+  }
+
+  private void spill(LocalCache cache) {
+    int move = localCapacity / 2;
+    int from = cache.size - move;
+    int moved;
+    synchronized (global) {
+      moved = Math.min(move, global.length - globalSize);
+      System.arraycopy(cache.items, from, global, globalSize, moved);
+      globalSize += moved;
+    }
+    if (moved < move) {
+      discarded.add(move - moved);
+    }
+    Arrays.fill(cache.items, from, cache.size, null);
+    cache.size = from;
+  }
+
+  private void track(Object pooled) {
+    reportLeaks();
+    Tracker tracker = new Tracker(pooled, unreachable);
+    synchronized (outstanding) {
+      tracker.next = outstanding.put(tracker.identity, tracker);
+    }
+  }
+
+  private void untrack(Object pooled) {
+    reportLeaks();
+    int identity = System.identityHashCode(pooled);
+    synchronized (outstanding) {
+      Tracker previous = null;
+      for (Tracker tracker = outstanding.get(identity); tracker != null;
+          previous = tracker, tracker = tracker.next) {
+        if (tracker.get() == pooled) {
+          unlink(identity, previous, tracker);
+          tracker.clear();
+          return;
+        }
+      }
+    }
+    throw new IllegalStateException("Released twice, or not acquired from this pool: " + pooled);
+  }
+
+  private void reportLeaks() {
+    Tracker leaked;
+    while ((leaked = (Tracker) unreachable.poll()) != null) {
+      synchronized (outstanding) {
+        Tracker previous = null;
+        for (Tracker tracker = outstanding.get(leaked.identity); tracker != null;
+            previous = tracker, tracker = tracker.next) {
+          if (tracker == leaked) {
+            unlink(leaked.identity, previous, tracker);
+            break;
+          }
+        }
+      }
+      leaks.increment();
+      System.err.println("ObjectPool leak: an object was garbage collected without release()");
+      leaked.acquiredAt.printStackTrace();
+    }
+  }
+
+  private void unlink(int identity, Tracker previous, Tracker tracker) {
+    if (previous != null) {
+      previous.next = tracker.next;
+    } else if (tracker.next != null) {
+      outstanding.put(identity, tracker.next);
+    } else {
+      outstanding.remove(identity);
+    }
+  }
+}
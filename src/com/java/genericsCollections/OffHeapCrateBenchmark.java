@@ -0,0 +1,99 @@
+package com.java.genericsCollections;
+
+/*
+GC cost of keeping a lot of live data on the heap versus in OffHeapSizeLimitedCrates.
+Each benchmark first packs `millionDucks` million Ducks: heapCrate keeps them as Duck objects in an array (about 20 bytes each with compressed references), offHeapCrate as 4-byte records in crates of up to 256 MB from one CrateArena. Each invocation then does 10_000 operations that overwrite a random Duck, read another one and allocate a little short-lived garbage, the way a request handler would. The reported ns/op is per operation; check gcCount and gcTimeMs in the JSON report for the collections it caused.
+On the heap every overwritten Duck ends up referenced from the old generation, so young collections have more to scan and the old generation slowly fills until a full collection has to mark every live Duck. Off the heap the live data is invisible to the collector.
+The default sizes fit the default heap on a small machine. For the 10 GB case run with something like -Xmx24g -XX:MaxDirectMemorySize=4g -Dbench.params=500 (500 million Ducks, 10 GB on the heap, 2 GB off it).
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.SplittableRandom;
+
+public class OffHeapCrateBenchmark {
+
+  private static final int OPERATIONS = 10_000;
+  private static final int CRATE_BYTES = 256 << 20;
+
+  public static void main(String[] args) throws Exception {
+    new Harness("genericsCollections-offHeap", "millionDucks", 1, 10, 40)
+        .add("heapCrate", OffHeapCrateBenchmark::heapCrate)
+        .add("offHeapCrate", OffHeapCrateBenchmark::offHeapCrate)
+        .runAndReport();
+  }
+
+  private static Workload.Invocation heapCrate(int millionDucks) {
+    Duck[] ducks = new Duck[millionDucks * 1_000_000];
+    for (int i = 0; i < ducks.length; i++) {
+      ducks[i] = new Duck(i);
+    }
+    SplittableRandom random = new SplittableRandom(42);
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+          ducks[random.nextInt(ducks.length)] = new Duck(i);
+          sum += ducks[random.nextInt(ducks.length)].getWeight();
+          sum += requestGarbage(i).length;
+        }
+        return sum;
+      }
+
+      @Override
+      public long operations() {
+        return OPERATIONS;
+      }
+    };
+  }
+
+  private static Workload.Invocation offHeapCrate(int millionDucks) {
+    int count = millionDucks * 1_000_000;
+    int perCrate = CRATE_BYTES / RecordLayout.DUCK.recordBytes();
+    CrateArena arena = new CrateArena();
+    @SuppressWarnings("unchecked")
+    OffHeapSizeLimitedCrate<Duck>[] crates =
+        (OffHeapSizeLimitedCrate<Duck>[]) new OffHeapSizeLimitedCrate<?>[(count - 1) / perCrate + 1];
+    for (int c = 0; c < crates.length; c++) {
+      int ducks = Math.min(perCrate, count - c * perCrate);
+      crates[c] = arena.newCrate(RecordLayout.DUCK, ducks * RecordLayout.DUCK.recordBytes());
+      for (int i = 0; i < ducks; i++) {
+        crates[c].packCrate(new Duck(c * perCrate + i));
+      }
+    }
+    SplittableRandom random = new SplittableRandom(42);
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+          int write = random.nextInt(count);
+          crates[write / perCrate].packCrate(write % perCrate, new Duck(i));
+          int read = random.nextInt(count);
+          sum += crates[read / perCrate].emptyCrate(read % perCrate).getWeight();
+          sum += requestGarbage(i).length;
+        }
+        return sum;
+      }
+
+      @Override
+      public long operations() {
+        return OPERATIONS;
+      }
+
+      @Override
+      public void close() {
+        System.out.println("  " + millionDucks + "M ducks: " + (arena.bytesUsed() >> 20)
+            + " MB used of " + (arena.bytesReserved() >> 20) + " MB off the heap");
+        arena.close();
+      }
+    };
+  }
+
+  private static int[] requestGarbage(int i) {
+    int[] garbage = new int[16];
+    garbage[0] = i;
+    return garbage;
+  }
+}
@@ -0,0 +1,126 @@
+package com.java.genericsCollections;
+
+/*
+A SizeLimitedCrate whose contents live outside the Java heap.
+The size limit is in bytes, and the whole limit is reserved up front as one direct ByteBuffer. Each packed object is written into it as a fixed-size record (see RecordLayout) and read back as a new object on emptyCrate(). The garbage collector sees one small ByteBuffer object however much data is packed, so a full crate adds nothing to marking or copying work, and overwriting a record creates no garbage.
+The price: a read allocates a fresh object (which usually dies young), only fixed-size data fits, and the memory must be released. release() (or close()) frees it at once; a crate made by a CrateArena is released with the arena. A released crate throws IllegalStateException on any access. Without release the memory is only returned once the GC happens to collect the ByteBuffer.
+A direct ByteBuffer holds at most 2 GB, so one crate does too; larger data is spread over several crates in one arena. Direct memory counts against -XX:MaxDirectMemorySize, which defaults to the maximum heap size.
+Not thread-safe, like Crate.
+ */
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+class OffHeapSizeLimitedCrate<T> implements AutoCloseable {
+
+  // sun.misc.Unsafe.invokeCleaner frees a direct buffer right away; null if this JVM doesn't allow it
+  private static final Object UNSAFE;
+  private static final Method INVOKE_CLEANER;
+
+  static {
+    Object unsafe = null;
+    Method invokeCleaner = null;
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      unsafe = theUnsafe.get(null);
+      invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // fall back to letting the GC free the buffer
+    }
+    UNSAFE = unsafe;
+    INVOKE_CLEANER = invokeCleaner;
+  }
+
+  private final RecordLayout<T> layout;
+  private final int recordBytes;
+  private final int capacity;
+  private ByteBuffer buffer;
+  private int size;
+
+  public OffHeapSizeLimitedCrate(RecordLayout<T> layout, int sizeLimitBytes) {
+    if (sizeLimitBytes < layout.recordBytes()) {
+      throw new IllegalArgumentException(
+          "Size limit " + sizeLimitBytes + " is smaller than one record: " + layout.recordBytes());
+    }
+    this.layout = layout;
+    this.recordBytes = layout.recordBytes();
+    this.capacity = sizeLimitBytes / recordBytes;
+    this.buffer = ByteBuffer.allocateDirect(sizeLimitBytes).order(ByteOrder.nativeOrder());
+  }
+
+  // Appends a record; false if the size limit has been reached
+  public boolean packCrate(T contents) {
+    ByteBuffer buffer = open();
+    if (size == capacity) {
+      return false;
+    }
+    layout.write(buffer, size * recordBytes, contents);
+    size++;
+    return true;
+  }
+
+  // Overwrites record `index` in place
+  public void packCrate(int index, T contents) {
+    ByteBuffer buffer = open();
+    layout.write(buffer, Objects.checkIndex(index, size) * recordBytes, contents);
+  }
+
+  public T emptyCrate(int index) {
+    ByteBuffer buffer = open();
+    return layout.read(buffer, Objects.checkIndex(index, size) * recordBytes);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public long bytesUsed() {
+    return (long) size * recordBytes;
+  }
+
+  // Bytes reserved off the heap, 0 once released
+  public long sizeLimit() {
+    return buffer == null ? 0 : buffer.capacity();
+  }
+
+  public boolean isReleased() {
+    return buffer == null;
+  }
+
+  public void release() {
+    ByteBuffer released = buffer;
+    if (released == null) {
+      return;
+    }
+    buffer = null;
+    size = 0;
+    if (INVOKE_CLEANER != null) {
+      try {
+        INVOKE_CLEANER.invoke(UNSAFE, released);
+      } catch (ReflectiveOperationException e) {
+        // the GC will free it
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    release();
+  }
+
+  private ByteBuffer open() {
+    if (buffer == null) {
+      throw new IllegalStateException("Crate has been released");
+    }
+    return buffer;
+  }
+}
@@ -0,0 +1,501 @@
+package com.java.genericsCollections;
+
+/*
+An immutable map for large static lookup tables, built once with a minimal perfect hash function so that every lookup reads exactly one slot.
+Map.ofEntries() stores its entries in a table twice as large as needed and searches it by linear probing: a lookup may compare several keys before finding its own, and more of them as the keys cluster. HashMap follows a chain of Nodes. Here the n keys are spread over exactly n slots, one key per slot, by the CHD ("compress, hash and displace") construction:
+1. Every key's hash code is mixed into a 64-bit hash and the keys are split into about n/3 buckets by that hash.
+2. Buckets are placed largest first. For a bucket the builder tries displacements d = 0, 1, 2, ... until the slot function hash(key, d) sends every key of the bucket to a distinct free slot, and stores d for the bucket. A bucket with a single key simply takes the next free slot, stored as a negative displacement.
+3. A lookup mixes the hash code, reads the displacement of the key's bucket and computes the key's slot from it: one read of the small displacement array (about 1.3 bytes per key) and one read of the slot, whose key is compared with equals().
+
+Keys and values are stored next to each other in one array, two references per entry with no empty slots, so the map takes about 60% of the space of Map.ofEntries() and a quarter of a HashMap (9 bytes per entry against 16 and 41, not counting keys and values).
+A lookup of a missing key still reads one slot and calls equals(), so misses cost about as much as hits; a HashMap usually finds an empty bucket and is faster there.
+Keys with equal hash codes (like "Aa" and "BB") can't be told apart by any function of the hash code; they share one slot that holds a small array searched linearly.
+
+save() writes the table to a file and load() reads it back without rebuilding, which for a million keys skips most of the startup cost. load() checks that every key still hashes to its slot and rebuilds the table if not, since hash codes of some classes (enums, Objects without hashCode()) change from one JVM run to the next. Keys and values must be Serializable, and like any Java deserialization load() must only be given files this program wrote itself.
+Null keys and values are not allowed, and duplicate keys throw IllegalArgumentException, as in Map.ofEntries().
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+public final class PerfectHashMap<K, V> extends AbstractMap<K, V> {
+  private static final int FILE_MAGIC = 0x50484D31; // "PHM1"
+  private static final int KEYS_PER_BUCKET = 3;
+  private static final int MAX_DISPLACEMENT = 1 << 20;
+  private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+  // Tags of the items in a saved file
+  private static final int STRING = 1;
+  private static final int INTEGER = 2;
+  private static final int LONG = 3;
+  private static final int OBJECT = 4;
+  // writeUTF() takes at most 65535 bytes, and a char takes at most 3
+  private static final int MAX_UTF_CHARS = 65535 / 3;
+
+  // The keys and values of one slot whose keys all have the same hash code
+  private static final class Collision {
+    final Object[] entries;
+
+    Collision(Object[] entries) {
+      this.entries = entries;
+    }
+  }
+
+  private final int size;
+  private final long seed;
+  private final int[] displacements;
+  // Key of slot i at 2 * i and its value at 2 * i + 1; the key is a Collision for shared hash codes
+  private final Object[] slots;
+
+  private PerfectHashMap(int size, long seed, int[] displacements, Object[] slots) {
+    this.size = size;
+    this.seed = seed;
+    this.displacements = displacements;
+    this.slots = slots;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PerfectHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    if (map instanceof PerfectHashMap) {
+      return (PerfectHashMap<K, V>) map;
+    }
+    return rebuild(map);
+  }
+
+  private static <K, V> PerfectHashMap<K, V> rebuild(Map<? extends K, ? extends V> map) {
+    Object[] keys = new Object[map.size()];
+    Object[] values = new Object[map.size()];
+    int[] count = {0};
+    map.forEach((key, value) -> {
+      keys[count[0]] = key;
+      values[count[0]++] = value;
+    });
+    return build(keys, values);
+  }
+
+  @SafeVarargs
+  public static <K, V> PerfectHashMap<K, V> ofEntries(
+      Map.Entry<? extends K, ? extends V>... entries) {
+    Object[] keys = new Object[entries.length];
+    Object[] values = new Object[entries.length];
+    for (int i = 0; i < entries.length; i++) {
+      keys[i] = entries[i].getKey();
+      values[i] = entries[i].getValue();
+    }
+    return build(keys, values);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    if (size == 0) {
+      Objects.requireNonNull(key, "key");
+      return null;
+    }
+    int hashCode = key.hashCode();
+    int slot = 2 * slotOf(hashCode);
+    Object current = slots[slot];
+    if (current == key || current.equals(key)) {
+      return (V) slots[slot + 1];
+    }
+    if (current instanceof Collision) {
+      Object[] entries = ((Collision) current).entries;
+      for (int i = 0; i < entries.length; i += 2) {
+        if (entries[i].equals(key)) {
+          return (V) entries[i + 1];
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    for (int slot = 0; slot < slots.length; slot += 2) {
+      Object key = slots[slot];
+      if (key instanceof Collision) {
+        Object[] entries = ((Collision) key).entries;
+        for (int i = 0; i < entries.length; i += 2) {
+          action.accept((K) entries[i], (V) entries[i + 1]);
+        }
+      } else {
+        action.accept((K) key, (V) slots[slot + 1]);
+      }
+    }
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new EntryIterator();
+      }
+    };
+  }
+
+  private final class EntryIterator implements Iterator<Entry<K, V>> {
+    private int slot;
+    private Object[] collision;
+    private int collisionIndex;
+
+    @Override
+    public boolean hasNext() {
+      return collision != null || slot < slots.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Entry<K, V> next() {
+      if (collision == null) {
+        if (slot >= slots.length) {
+          throw new NoSuchElementException();
+        }
+        Object key = slots[slot];
+        Object value = slots[slot + 1];
+        slot += 2;
+        if (!(key instanceof Collision)) {
+          return new SimpleImmutableEntry<>((K) key, (V) value);
+        }
+        collision = ((Collision) key).entries;
+        collisionIndex = 0;
+      }
+      Entry<K, V> entry = new SimpleImmutableEntry<>((K) collision[collisionIndex],
+          (V) collision[collisionIndex + 1]);
+      collisionIndex += 2;
+      if (collisionIndex == collision.length) {
+        collision = null;
+      }
+      return entry;
+    }
+  }
+
+  // Writes the table so that load() can skip the construction
+  public void save(Path file) throws IOException {
+    try (ObjectOutputStream out = new ObjectOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(FILE_MAGIC);
+      out.writeInt(size);
+      out.writeLong(seed);
+      out.writeInt(displacements.length);
+      for (int displacement : displacements) {
+        out.writeInt(displacement);
+      }
+      out.writeInt(slots.length / 2);
+      for (int slot = 0; slot < slots.length; slot += 2) {
+        Object key = slots[slot];
+        if (key instanceof Collision) {
+          Object[] entries = ((Collision) key).entries;
+          out.writeInt(entries.length / 2);
+          for (Object item : entries) {
+            writeItem(out, item);
+          }
+        } else {
+          out.writeInt(1);
+          writeItem(out, key);
+          writeItem(out, slots[slot + 1]);
+        }
+      }
+    }
+  }
+
+  public static <K, V> PerfectHashMap<K, V> load(Path file) throws IOException {
+    try (ObjectInputStream in = new ObjectInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != FILE_MAGIC) {
+        throw new IOException("Not a PerfectHashMap file: " + file);
+      }
+      int size = in.readInt();
+      long seed = in.readLong();
+      int[] displacements = new int[in.readInt()];
+      for (int i = 0; i < displacements.length; i++) {
+        displacements[i] = in.readInt();
+      }
+      Object[] slots = new Object[2 * in.readInt()];
+      for (int slot = 0; slot < slots.length; slot += 2) {
+        int keys = in.readInt();
+        if (keys == 1) {
+          slots[slot] = readItem(in);
+          slots[slot + 1] = readItem(in);
+        } else {
+          Object[] entries = new Object[2 * keys];
+          for (int i = 0; i < entries.length; i++) {
+            entries[i] = readItem(in);
+          }
+          slots[slot] = new Collision(entries);
+        }
+      }
+      PerfectHashMap<K, V> map = new PerfectHashMap<>(size, seed, displacements, slots);
+      return map.slotsStillMatch() ? map : rebuild(map);
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Can't load " + file, e);
+    }
+  }
+
+  /*
+  Strings, Integers and Longs, the usual keys and values of lookup tables, are written as a tag and their content.
+  Everything else goes through Java serialization, which costs a class descriptor lookup and a handle per object and made loading a million String keys slower than building the table.
+   */
+  private static void writeItem(ObjectOutputStream out, Object item) throws IOException {
+    if (item instanceof String && ((String) item).length() <= MAX_UTF_CHARS) {
+      out.writeByte(STRING);
+      out.writeUTF((String) item);
+    } else if (item instanceof Integer) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer) item);
+    } else if (item instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) item);
+    } else {
+      out.writeByte(OBJECT);
+      out.writeObject(item);
+    }
+  }
+
+  private static Object readItem(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    int tag = in.readByte();
+    switch (tag) {
+      case STRING:
+        return in.readUTF();
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case OBJECT:
+        return in.readObject();
+      default:
+        throw new IOException("Corrupt PerfectHashMap file: tag " + tag);
+    }
+  }
+
+  private boolean slotsStillMatch() {
+    for (int slot = 0; slot < slots.length; slot += 2) {
+      Object key = slots[slot];
+      Object first = key instanceof Collision ? ((Collision) key).entries[0] : key;
+      int hashCode = first.hashCode();
+      if (2 * slotOf(hashCode) != slot) {
+        return false;
+      }
+      if (key instanceof Collision) {
+        Object[] entries = ((Collision) key).entries;
+        for (int i = 2; i < entries.length; i += 2) {
+          if (entries[i].hashCode() != hashCode) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  private int slotOf(int hashCode) {
+    long hash = mix(hashCode ^ seed);
+    int displacement = displacements[reduce(hash, displacements.length)];
+    if (displacement < 0) {
+      return -displacement - 1;
+    }
+    return slotFor(hash, displacement, slots.length / 2);
+  }
+
+  private static int slotFor(long hash, int displacement, int slotCount) {
+    return reduce((hash ^ (displacement + 1) * GOLDEN) * 0xD6E8FEB86659FD93L, slotCount);
+  }
+
+  // Murmur3's 64-bit finalizer
+  private static long mix(long x) {
+    x = (x ^ (x >>> 33)) * 0xFF51AFD7ED558CCDL;
+    x = (x ^ (x >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return x ^ (x >>> 33);
+  }
+
+  // Maps the high 32 bits of hash onto [0, n) with a multiplication instead of a division
+  private static int reduce(long hash, int n) {
+    return (int) (((hash >>> 32) * n) >>> 32);
+  }
+
+  /*
+  Groups the keys by hash code (one group per slot), then places the groups with CHD.
+  If some bucket finds no displacement within MAX_DISPLACEMENT tries, everything is tried again with another seed; with 3 keys per bucket that practically never happens. Larger buckets would make the displacement array smaller, but the last buckets placed then need many more tries: with 5 keys per bucket a million keys took four times as long to build.
+   */
+  private static <K, V> PerfectHashMap<K, V> build(Object[] keys, Object[] values) {
+    int n = keys.length;
+    long[] byHashCode = new long[n];
+    for (int i = 0; i < n; i++) {
+      Objects.requireNonNull(keys[i], "key");
+      Objects.requireNonNull(values[i], "value");
+      byHashCode[i] = ((long) keys[i].hashCode() << 32) | i;
+    }
+    Arrays.sort(byHashCode);
+    int groupCount = 0;
+    int[] groupStart = new int[n + 1];
+    for (int i = 0; i < n; i++) {
+      if (i == 0 || (int) (byHashCode[i] >> 32) != (int) (byHashCode[i - 1] >> 32)) {
+        groupStart[groupCount++] = i;
+      }
+    }
+    groupStart[groupCount] = n;
+    Object[] slotKeys = new Object[groupCount];
+    Object[] slotValues = new Object[groupCount];
+    int[] hashCodes = new int[groupCount];
+    for (int group = 0; group < groupCount; group++) {
+      int from = groupStart[group];
+      int to = groupStart[group + 1];
+      hashCodes[group] = (int) (byHashCode[from] >> 32);
+      if (to - from == 1) {
+        int index = (int) byHashCode[from];
+        slotKeys[group] = keys[index];
+        slotValues[group] = values[index];
+      } else {
+        slotKeys[group] = collision(keys, values, byHashCode, from, to);
+      }
+    }
+
+    for (long seed = GOLDEN; ; seed = mix(seed)) {
+      int[] displacements = new int[Math.max(1, (groupCount + KEYS_PER_BUCKET - 1)
+          / KEYS_PER_BUCKET)];
+      int[] slotOfGroup = place(hashCodes, seed, displacements);
+      if (slotOfGroup != null) {
+        Object[] slots = new Object[2 * groupCount];
+        for (int group = 0; group < groupCount; group++) {
+          slots[2 * slotOfGroup[group]] = slotKeys[group];
+          slots[2 * slotOfGroup[group] + 1] = slotValues[group];
+        }
+        return new PerfectHashMap<>(n, seed, displacements, slots);
+      }
+    }
+  }
+
+  private static Collision collision(Object[] keys, Object[] values, long[] byHashCode,
+      int from, int to) {
+    Object[] entries = new Object[2 * (to - from)];
+    for (int i = from; i < to; i++) {
+      int index = (int) byHashCode[i];
+      for (int j = from; j < i; j++) {
+        if (keys[(int) byHashCode[j]].equals(keys[index])) {
+          throw new IllegalArgumentException("duplicate key: " + keys[index]);
+        }
+      }
+      entries[2 * (i - from)] = keys[index];
+      entries[2 * (i - from) + 1] = values[index];
+    }
+    return new Collision(entries);
+  }
+
+  // Fills displacements and returns the slot of every group, or null if this seed doesn't work
+  private static int[] place(int[] hashCodes, long seed, int[] displacements) {
+    int groups = hashCodes.length;
+    int buckets = displacements.length;
+    long[] hashes = new long[groups];
+    int[] bucketSize = new int[buckets];
+    for (int group = 0; group < groups; group++) {
+      hashes[group] = mix(hashCodes[group] ^ seed);
+      bucketSize[reduce(hashes[group], buckets)]++;
+    }
+    // Groups ordered by bucket, buckets ordered by decreasing size (counting sorts)
+    int[] bucketStart = new int[buckets + 1];
+    for (int bucket = 0; bucket < buckets; bucket++) {
+      bucketStart[bucket + 1] = bucketStart[bucket] + bucketSize[bucket];
+    }
+    int[] members = new int[groups];
+    int[] next = Arrays.copyOf(bucketStart, buckets);
+    for (int group = 0; group < groups; group++) {
+      members[next[reduce(hashes[group], buckets)]++] = group;
+    }
+    int maxSize = 0;
+    for (int size : bucketSize) {
+      maxSize = Math.max(maxSize, size);
+    }
+    int[] sizeStart = new int[maxSize + 2];
+    for (int size : bucketSize) {
+      sizeStart[maxSize - size + 1]++;
+    }
+    for (int i = 1; i < sizeStart.length; i++) {
+      sizeStart[i] += sizeStart[i - 1];
+    }
+    int[] bucketOrder = new int[buckets];
+    for (int bucket = 0; bucket < buckets; bucket++) {
+      bucketOrder[sizeStart[maxSize - bucketSize[bucket]]++] = bucket;
+    }
+
+    int[] slotOfGroup = new int[groups];
+    boolean[] taken = new boolean[groups];
+    int[] tried = new int[maxSize];
+    int nextFree = 0;
+    for (int bucket : bucketOrder) {
+      int from = bucketStart[bucket];
+      int size = bucketSize[bucket];
+      if (size == 0) {
+        break;
+      }
+      if (size == 1) {
+        while (taken[nextFree]) {
+          nextFree++;
+        }
+        taken[nextFree] = true;
+        slotOfGroup[members[from]] = nextFree;
+        displacements[bucket] = -nextFree - 1;
+        continue;
+      }
+      int displacement = 0;
+      while (!fits(hashes, members, from, size, displacement, taken, tried)) {
+        if (++displacement == MAX_DISPLACEMENT) {
+          return null;
+        }
+      }
+      for (int i = 0; i < size; i++) {
+        taken[tried[i]] = true;
+        slotOfGroup[members[from + i]] = tried[i];
+      }
+      displacements[bucket] = displacement;
+    }
+    return slotOfGroup;
+  }
+
+  // Whether every member of the bucket lands on a distinct free slot; the slots are left in tried
+  private static boolean fits(long[] hashes, int[] members, int from, int size, int displacement,
+      boolean[] taken, int[] tried) {
+    for (int i = 0; i < size; i++) {
+      int slot = slotFor(hashes[members[from + i]], displacement, taken.length);
+      if (taken[slot]) {
+        return false;
+      }
+      for (int j = 0; j < i; j++) {
+        if (tried[j] == slot) {
+          return false;
+        }
+      }
+      tried[i] = slot;
+    }
+    return true;
+  }
+}
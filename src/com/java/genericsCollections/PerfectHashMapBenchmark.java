@@ -0,0 +1,139 @@
+package com.java.genericsCollections;
+
+/*
+Lookups in a static String-keyed table of `size` entries: Map.ofEntries() (built with Map.copyOf(), which makes the same table), HashMap and PerfectHashMap.
+Each invocation looks up 1000 random keys that are present (or, for the Miss benchmarks, 1000 keys that are not); the reported ns/op is one lookup. Like PrimitiveMapBenchmark the probes are the same String instances as the keys, so a hit in any of the maps ends with an identity comparison.
+Before the timed runs the retained heap per entry is printed for 1M entries of each map, along with how long it takes to build the PerfectHashMap, save it, and load it back.
+ */
+
+import com.java.benchmark.Footprint;
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class PerfectHashMapBenchmark {
+
+  private static final int PROBES = 1000;
+  private static final int FOOTPRINT_ENTRIES = 1_000_000;
+
+  public static void main(String[] args) throws Exception {
+    String[] keys = keys(FOOTPRINT_ENTRIES);
+    Integer[] values = values(FOOTPRINT_ENTRIES);
+    Map<String, Integer> source = hashMap(keys, values, FOOTPRINT_ENTRIES);
+    Footprint.measure("Map.ofEntries", FOOTPRINT_ENTRIES, n -> Map.copyOf(source));
+    Footprint.measure("HashMap", FOOTPRINT_ENTRIES, n -> new HashMap<>(source));
+    Footprint.measure("PerfectHashMap", FOOTPRINT_ENTRIES, n -> PerfectHashMap.copyOf(source));
+    if (!Harness.forked()) {
+      buildSaveLoad(source);
+    }
+
+    new Harness("genericsCollections-perfectHash", "size", 1_000, 100_000, 1_000_000)
+        .add("mapOfEntriesGet", size -> hits(Map.copyOf(hashMap(keys, values, size)), keys, size))
+        .add("hashMapGet", size -> hits(hashMap(keys, values, size), keys, size))
+        .add("perfectHashGet",
+            size -> hits(PerfectHashMap.copyOf(hashMap(keys, values, size)), keys, size))
+        .add("mapOfEntriesMiss", size -> misses(Map.copyOf(hashMap(keys, values, size)), size))
+        .add("hashMapMiss", size -> misses(hashMap(keys, values, size), size))
+        .add("perfectHashMiss",
+            size -> misses(PerfectHashMap.copyOf(hashMap(keys, values, size)), size))
+        .runAndReport();
+  }
+
+  private static void buildSaveLoad(Map<String, Integer> source) throws Exception {
+    Path file = Files.createTempFile("perfect-hash", ".bin");
+    try {
+      for (int round = 1; round <= 3; round++) {
+        long start = System.nanoTime();
+        PerfectHashMap<String, Integer> map = PerfectHashMap.copyOf(source);
+        long built = System.nanoTime();
+        map.save(file);
+        long saved = System.nanoTime();
+        PerfectHashMap<String, Integer> loaded = PerfectHashMap.load(file);
+        long done = System.nanoTime();
+        System.out.printf("round %d: build %d ms, save %d ms, load %d ms (%d entries, %d KB)%n",
+            round, TimeUnit.NANOSECONDS.toMillis(built - start),
+            TimeUnit.NANOSECONDS.toMillis(saved - built),
+            TimeUnit.NANOSECONDS.toMillis(done - saved), loaded.size(),
+            Files.size(file) / 1024);
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static String[] keys(int size) {
+    String[] keys = new String[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = "bunny-" + i;
+    }
+    return keys;
+  }
+
+  private static Integer[] values(int size) {
+    Integer[] values = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = i;
+    }
+    return values;
+  }
+
+  // The first size of the shared keys, so that every map of one size holds the same entries
+  private static Map<String, Integer> hashMap(String[] keys, Integer[] values, int size) {
+    Map<String, Integer> map = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(keys[i], values[i]);
+    }
+    return map;
+  }
+
+  private static abstract class Probes implements Workload.Invocation {
+
+    @Override
+    public long operations() {
+      return PROBES;
+    }
+  }
+
+  private static Workload.Invocation hits(Map<String, Integer> map, String[] keys, int size) {
+    Random random = new Random(7);
+    String[] probes = new String[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = keys[random.nextInt(size)];
+    }
+    return new Probes() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (String probe : probes) {
+          sum += map.get(probe);
+        }
+        return sum;
+      }
+    };
+  }
+
+  private static Workload.Invocation misses(Map<String, Integer> map, int size) {
+    Random random = new Random(7);
+    String[] probes = new String[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = "hare-" + random.nextInt(size);
+    }
+    return new Probes() {
+      @Override
+      public long invoke() {
+        long found = 0;
+        for (String probe : probes) {
+          if (map.get(probe) != null) {
+            found++;
+          }
+        }
+        return found;
+      }
+    };
+  }
+}
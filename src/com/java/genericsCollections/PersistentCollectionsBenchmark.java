@@ -0,0 +1,205 @@
+package com.java.genericsCollections;
+
+/*
+The cost of "changing" an immutable snapshot of `size` elements: copying it as the notes in Test do, against the persistent collections.
+Each invocation replaces one random element (or maps one random key to a new value) and keeps the result as the new snapshot; the reported ns/op and B/op are per update.
+listCopyOf           new ArrayList<>(snapshot), set(), List.copyOf()
+persistentVector     PersistentVector.with()
+mapCopyOf            new HashMap<>(snapshot), put(), Map.copyOf()
+persistentMap        PersistentHashMap.with()
+persistentMapBatch   64 puts through asTransient(), then persistent(); ns/op is per put
+
+Before the timed runs the retained heap is printed per element of a single snapshot of 1M elements, and then per snapshot for a history of snapshots of 100_000 elements that each differ from the previous one in a single element, which is where structural sharing shows (100 copies, or 10_000 persistent versions so that their few hundred bytes each stand out from the measurement noise). Keys and values are boxed beforehand and shared, so only the collections' own memory is counted.
+ */
+
+import com.java.benchmark.Footprint;
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class PersistentCollectionsBenchmark {
+
+  private static final int FOOTPRINT_ELEMENTS = 1_000_000;
+  private static final int VERSION_ELEMENTS = 100_000;
+  private static final int COPY_VERSIONS = 100;
+  private static final int PERSISTENT_VERSIONS = 10_000;
+  private static final int BATCH = 64;
+
+  public static void main(String[] args) throws Exception {
+    footprints();
+    new Harness("genericsCollections-persistent", "size", 1_000, 10_000, 100_000, 1_000_000)
+        .add("listCopyOf", PersistentCollectionsBenchmark::listCopyOf)
+        .add("persistentVector", PersistentCollectionsBenchmark::persistentVector)
+        .add("mapCopyOf", PersistentCollectionsBenchmark::mapCopyOf)
+        .add("persistentMap", PersistentCollectionsBenchmark::persistentMap)
+        .add("persistentMapBatch", PersistentCollectionsBenchmark::persistentMapBatch)
+        .runAndReport();
+  }
+
+  private static void footprints() {
+    Integer[] boxed = boxed(FOOTPRINT_ELEMENTS);
+    List<Integer> list = List.of(boxed);
+    PersistentVector<Integer> vector = PersistentVector.copyOf(list);
+    Map<Integer, Integer> map = map(boxed);
+
+    Footprint.measure("List.copyOf", FOOTPRINT_ELEMENTS, n -> List.copyOf(vector));
+    Footprint.measure("PersistentVector", FOOTPRINT_ELEMENTS, n -> PersistentVector.copyOf(list));
+    Footprint.measure("Map.copyOf", FOOTPRINT_ELEMENTS, n -> Map.copyOf(map));
+    Footprint.measure("HashMap", FOOTPRINT_ELEMENTS, n -> new HashMap<>(map));
+    Footprint.measure("PersistentHashMap", FOOTPRINT_ELEMENTS,
+        n -> PersistentHashMap.copyOf(map));
+
+    Integer[] versionBoxed = boxed(VERSION_ELEMENTS);
+    List<Integer> versionList = List.of(versionBoxed);
+    PersistentVector<Integer> versionVector = PersistentVector.copyOf(versionList);
+    Map<Integer, Integer> versionMap = Map.copyOf(map(versionBoxed));
+    PersistentHashMap<Integer, Integer> versionPersistentMap =
+        PersistentHashMap.copyOf(versionMap);
+
+    Footprint.measure("List.copyOf versions", COPY_VERSIONS, n -> {
+      List<List<Integer>> versions = new ArrayList<>();
+      List<Integer> snapshot = versionList;
+      for (int i = 0; i < n; i++) {
+        List<Integer> next = new ArrayList<>(snapshot);
+        next.set(i, versionBoxed[i + 1]);
+        snapshot = List.copyOf(next);
+        versions.add(snapshot);
+      }
+      return versions;
+    });
+    Footprint.measure("PersistentVector versions", PERSISTENT_VERSIONS, n -> {
+      List<PersistentVector<Integer>> versions = new ArrayList<>();
+      PersistentVector<Integer> snapshot = versionVector;
+      for (int i = 0; i < n; i++) {
+        snapshot = snapshot.with(i, versionBoxed[i + 1]);
+        versions.add(snapshot);
+      }
+      return versions;
+    });
+    Footprint.measure("Map.copyOf versions", COPY_VERSIONS, n -> {
+      List<Map<Integer, Integer>> versions = new ArrayList<>();
+      Map<Integer, Integer> snapshot = versionMap;
+      for (int i = 0; i < n; i++) {
+        Map<Integer, Integer> next = new HashMap<>(snapshot);
+        next.put(versionBoxed[i], versionBoxed[i + 1]);
+        snapshot = Map.copyOf(next);
+        versions.add(snapshot);
+      }
+      return versions;
+    });
+    Footprint.measure("PersistentHashMap versions", PERSISTENT_VERSIONS, n -> {
+      List<PersistentHashMap<Integer, Integer>> versions = new ArrayList<>();
+      PersistentHashMap<Integer, Integer> snapshot = versionPersistentMap;
+      for (int i = 0; i < n; i++) {
+        snapshot = snapshot.with(versionBoxed[i], versionBoxed[i + 1]);
+        versions.add(snapshot);
+      }
+      return versions;
+    });
+  }
+
+  private static Integer[] boxed(int size) {
+    Integer[] boxed = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      boxed[i] = i;
+    }
+    return boxed;
+  }
+
+  private static Map<Integer, Integer> map(Integer[] boxed) {
+    Map<Integer, Integer> map = new HashMap<>();
+    for (Integer key : boxed) {
+      map.put(key, key);
+    }
+    return map;
+  }
+
+  private static Workload.Invocation listCopyOf(int size) {
+    Integer[] boxed = boxed(size);
+    Random random = new Random(42);
+    return new Workload.Invocation() {
+      private List<Integer> snapshot = List.of(boxed);
+
+      @Override
+      public long invoke() {
+        List<Integer> next = new ArrayList<>(snapshot);
+        next.set(random.nextInt(size), boxed[random.nextInt(size)]);
+        snapshot = List.copyOf(next);
+        return snapshot.size();
+      }
+    };
+  }
+
+  private static Workload.Invocation persistentVector(int size) {
+    Integer[] boxed = boxed(size);
+    Random random = new Random(42);
+    return new Workload.Invocation() {
+      private PersistentVector<Integer> snapshot = PersistentVector.of(boxed);
+
+      @Override
+      public long invoke() {
+        snapshot = snapshot.with(random.nextInt(size), boxed[random.nextInt(size)]);
+        return snapshot.size();
+      }
+    };
+  }
+
+  private static Workload.Invocation mapCopyOf(int size) {
+    Integer[] boxed = boxed(size);
+    Random random = new Random(42);
+    return new Workload.Invocation() {
+      private Map<Integer, Integer> snapshot = Map.copyOf(map(boxed));
+
+      @Override
+      public long invoke() {
+        Map<Integer, Integer> next = new HashMap<>(snapshot);
+        next.put(boxed[random.nextInt(size)], boxed[random.nextInt(size)]);
+        snapshot = Map.copyOf(next);
+        return snapshot.size();
+      }
+    };
+  }
+
+  private static Workload.Invocation persistentMap(int size) {
+    Integer[] boxed = boxed(size);
+    Random random = new Random(42);
+    return new Workload.Invocation() {
+      private PersistentHashMap<Integer, Integer> snapshot =
+          PersistentHashMap.copyOf(map(boxed));
+
+      @Override
+      public long invoke() {
+        snapshot = snapshot.with(boxed[random.nextInt(size)], boxed[random.nextInt(size)]);
+        return snapshot.size();
+      }
+    };
+  }
+
+  private static Workload.Invocation persistentMapBatch(int size) {
+    Integer[] boxed = boxed(size);
+    Random random = new Random(42);
+    return new Workload.Invocation() {
+      private PersistentHashMap<Integer, Integer> snapshot =
+          PersistentHashMap.copyOf(map(boxed));
+
+      @Override
+      public long invoke() {
+        PersistentHashMap.Transient<Integer, Integer> batch = snapshot.asTransient();
+        for (int i = 0; i < BATCH; i++) {
+          batch.put(boxed[random.nextInt(size)], boxed[random.nextInt(size)]);
+        }
+        snapshot = batch.persistent();
+        return snapshot.size();
+      }
+
+      @Override
+      public long operations() {
+        return BATCH;
+      }
+    };
+  }
+}
@@ -0,0 +1,520 @@
+package com.java.genericsCollections;
+
+/*
+An immutable map whose "modified copies" share almost all of their memory with the original.
+Map.copyOf() and Map.ofEntries() build a new hash table, so putting one entry into an immutable map of n entries costs O(n) time and O(n) garbage. A PersistentHashMap is a hash array mapped trie (HAMT): the first 5 bits of a key's hash pick one of 32 branches at the root, the next 5 bits one of 32 branches below that, and so on. with() and without() copy only the nodes on the path to the key (about log32 n of them, 4 for a million entries) and share every other node with the previous version, which stays valid and unchanged.
+A node stores a 32-bit bitmap of the branches it actually has and an array just big enough for those, so sparse nodes cost no empty slots. Keys whose full hash codes are equal end up in a collision node that is searched linearly.
+
+A PersistentHashMap is a java.util.Map (read-only: put() and remove() throw UnsupportedOperationException), so it can be handed to any code that expects a Map without copying. copyOf() turns any map into one.
+asTransient() returns a Transient for many changes in one go: it edits the nodes it has already copied in place, and persistent() turns it back into a PersistentHashMap in O(1). A Transient is not thread-safe and can't be used after persistent().
+Null keys and values are not allowed, as in Map.of().
+ */
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(0, null);
+
+  private final int size;
+  private final Node root;
+
+  private PersistentHashMap(int size, Node root) {
+    this.size = size;
+    this.root = root;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentHashMap<K, V> empty() {
+    return (PersistentHashMap<K, V>) EMPTY;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    if (map instanceof PersistentHashMap) {
+      return (PersistentHashMap<K, V>) map;
+    }
+    Transient<K, V> copy = PersistentHashMap.<K, V>empty().asTransient();
+    map.forEach(copy::put);
+    return copy.persistent();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    Objects.requireNonNull(key, "key");
+    return root == null ? null : (V) root.find(0, hash(key), key);
+  }
+
+  // A copy with key mapped to value
+  public PersistentHashMap<K, V> with(K key, V value) {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(value, "value");
+    boolean[] added = new boolean[1];
+    Node start = root != null ? root : BitmapNode.EMPTY;
+    Node newRoot = start.with(null, 0, hash(key), key, value, added);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentHashMap<>(added[0] ? size + 1 : size, newRoot);
+  }
+
+  // A copy without key
+  public PersistentHashMap<K, V> without(K key) {
+    Objects.requireNonNull(key, "key");
+    if (root == null) {
+      return this;
+    }
+    boolean[] removed = new boolean[1];
+    Node newRoot = root.without(null, 0, hash(key), key, removed);
+    if (!removed[0]) {
+      return this;
+    }
+    return newRoot == null ? empty() : new PersistentHashMap<>(size - 1, newRoot);
+  }
+
+  public Transient<K, V> asTransient() {
+    return new Transient<>(this);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    if (root != null) {
+      root.forEach((BiConsumer<Object, Object>) action);
+    }
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public Iterator<Entry<K, V>> iterator() {
+        return new NodeIterator<>(root,
+            (key, value) -> new SimpleImmutableEntry<>((K) key, (V) value));
+      }
+    };
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return new AbstractSet<>() {
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public boolean contains(Object key) {
+        return containsKey(key);
+      }
+
+      @Override
+      public Iterator<K> iterator() {
+        return keyIterator();
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  Iterator<K> keyIterator() {
+    return new NodeIterator<>(root, (key, value) -> (K) key);
+  }
+
+  // Spreads the high bits down like HashMap does, since the trie uses the low bits first
+  static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static int bitFor(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  /*
+  Both kinds of node keep their contents in one array of pairs: a key followed by its value, or (in a BitmapNode) null followed by a child node.
+  edit is the Transient that may change the node in place, or null when no one may.
+   */
+  private abstract static class Node {
+    Object edit;
+    Object[] array;
+
+    Node(Object edit, Object[] array) {
+      this.edit = edit;
+      this.array = array;
+    }
+
+    // The value for key, or null (values are never null)
+    abstract Object find(int shift, int hash, Object key);
+
+    // Returns this when nothing changed; sets added[0] when the key is new
+    abstract Node with(Object edit, int shift, int hash, Object key, Object value,
+        boolean[] added);
+
+    // Returns this when nothing changed and null when the node became empty; sets removed[0]
+    abstract Node without(Object edit, int shift, int hash, Object key, boolean[] removed);
+
+    boolean editable(Object edit) {
+      return edit != null && this.edit == edit;
+    }
+
+    void forEach(BiConsumer<Object, Object> action) {
+      Object[] array = this.array;
+      for (int i = 0; i < array.length; i += 2) {
+        Object key = array[i];
+        if (key != null) {
+          action.accept(key, array[i + 1]);
+        } else if (array[i + 1] != null) {
+          ((Node) array[i + 1]).forEach(action);
+        }
+      }
+    }
+  }
+
+  private static final class BitmapNode extends Node {
+    static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+    int bitmap;
+
+    BitmapNode(Object edit, int bitmap, Object[] array) {
+      super(edit, array);
+      this.bitmap = bitmap;
+    }
+
+    // Position of the pair for bit among the branches present
+    private int indexOf(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    Object find(int shift, int hash, Object key) {
+      int bit = bitFor(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      int i = 2 * indexOf(bit);
+      Object current = array[i];
+      if (current == null) {
+        return ((Node) array[i + 1]).find(shift + BITS, hash, key);
+      }
+      return current == key || current.equals(key) ? array[i + 1] : null;
+    }
+
+    @Override
+    Node with(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+      int bit = bitFor(hash, shift);
+      int i = 2 * indexOf(bit);
+      if ((bitmap & bit) != 0) {
+        Object current = array[i];
+        Object currentValue = array[i + 1];
+        if (current == null) {
+          Node child = (Node) currentValue;
+          Node newChild = child.with(edit, shift + BITS, hash, key, value, added);
+          return newChild == child ? this : set(edit, i + 1, newChild);
+        }
+        if (current == key || current.equals(key)) {
+          return currentValue == value ? this : set(edit, i + 1, value);
+        }
+        // Two keys share this branch: push both one level down
+        added[0] = true;
+        Node child = twoKeys(edit, shift + BITS, current, currentValue, hash, key, value);
+        BitmapNode copy = editableCopy(edit);
+        copy.array[i] = null;
+        copy.array[i + 1] = child;
+        return copy;
+      }
+      added[0] = true;
+      int n = array.length;
+      Object[] grown = new Object[n + 2];
+      System.arraycopy(array, 0, grown, 0, i);
+      grown[i] = key;
+      grown[i + 1] = value;
+      System.arraycopy(array, i, grown, i + 2, n - i);
+      if (editable(edit)) {
+        array = grown;
+        bitmap |= bit;
+        return this;
+      }
+      return new BitmapNode(edit, bitmap | bit, grown);
+    }
+
+    @Override
+    Node without(Object edit, int shift, int hash, Object key, boolean[] removed) {
+      int bit = bitFor(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = 2 * indexOf(bit);
+      Object current = array[i];
+      if (current == null) {
+        Node child = (Node) array[i + 1];
+        Node newChild = child.without(edit, shift + BITS, hash, key, removed);
+        if (newChild == child) {
+          return this;
+        }
+        if (newChild != null) {
+          return set(edit, i + 1, newChild);
+        }
+      } else if (current != key && !current.equals(key)) {
+        return this;
+      } else {
+        removed[0] = true;
+      }
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] shrunk = new Object[array.length - 2];
+      System.arraycopy(array, 0, shrunk, 0, i);
+      System.arraycopy(array, i + 2, shrunk, i, shrunk.length - i);
+      if (editable(edit)) {
+        array = shrunk;
+        bitmap ^= bit;
+        return this;
+      }
+      return new BitmapNode(edit, bitmap ^ bit, shrunk);
+    }
+
+    private BitmapNode editableCopy(Object edit) {
+      return editable(edit) ? this : new BitmapNode(edit, bitmap, array.clone());
+    }
+
+    private BitmapNode set(Object edit, int i, Object item) {
+      BitmapNode copy = editableCopy(edit);
+      copy.array[i] = item;
+      return copy;
+    }
+  }
+
+  // Keys whose hash codes are equal in all 32 bits
+  private static final class CollisionNode extends Node {
+    final int hash;
+
+    CollisionNode(Object edit, int hash, Object[] array) {
+      super(edit, array);
+      this.hash = hash;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (array[i] == key || array[i].equals(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Object find(int shift, int hash, Object key) {
+      if (hash != this.hash) {
+        return null;
+      }
+      int i = indexOf(key);
+      return i >= 0 ? array[i + 1] : null;
+    }
+
+    @Override
+    Node with(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+      if (hash != this.hash) {
+        // A key with a different hash: put this node under a bitmap node and add the key there
+        BitmapNode parent = new BitmapNode(edit, bitFor(this.hash, shift), new Object[]{null, this});
+        return parent.with(edit, shift, hash, key, value, added);
+      }
+      int i = indexOf(key);
+      if (i >= 0) {
+        if (array[i + 1] == value) {
+          return this;
+        }
+        Object[] copy = editable(edit) ? array : array.clone();
+        copy[i + 1] = value;
+        return copy == array ? this : new CollisionNode(edit, hash, copy);
+      }
+      added[0] = true;
+      Object[] grown = Arrays.copyOf(array, array.length + 2);
+      grown[array.length] = key;
+      grown[array.length + 1] = value;
+      if (editable(edit)) {
+        array = grown;
+        return this;
+      }
+      return new CollisionNode(edit, hash, grown);
+    }
+
+    @Override
+    Node without(Object edit, int shift, int hash, Object key, boolean[] removed) {
+      int i = hash == this.hash ? indexOf(key) : -1;
+      if (i < 0) {
+        return this;
+      }
+      removed[0] = true;
+      if (array.length == 2) {
+        return null;
+      }
+      Object[] shrunk = new Object[array.length - 2];
+      System.arraycopy(array, 0, shrunk, 0, i);
+      System.arraycopy(array, i + 2, shrunk, i, shrunk.length - i);
+      if (editable(edit)) {
+        array = shrunk;
+        return this;
+      }
+      return new CollisionNode(edit, hash, shrunk);
+    }
+  }
+
+  // A node holding two keys that landed on the same branch at the level above
+  private static Node twoKeys(Object edit, int shift, Object key1, Object value1, int hash2,
+      Object key2, Object value2) {
+    int hash1 = hash(key1);
+    if (hash1 == hash2) {
+      return new CollisionNode(edit, hash1, new Object[]{key1, value1, key2, value2});
+    }
+    boolean[] added = new boolean[1];
+    return BitmapNode.EMPTY
+        .with(edit, shift, hash1, key1, value1, added)
+        .with(edit, shift, hash2, key2, value2, added);
+  }
+
+  // Walks the trie depth first with a stack of arrays and positions
+  private static final class NodeIterator<R> implements Iterator<R> {
+    private final BiFunction<Object, Object, R> result;
+    // 7 levels of 5 bits cover a 32-bit hash, plus one for a collision node
+    private final Object[][] arrays = new Object[8][];
+    private final int[] positions = new int[8];
+    private int depth = -1;
+    private Object nextKey;
+    private Object nextValue;
+
+    NodeIterator(Node root, BiFunction<Object, Object, R> result) {
+      this.result = result;
+      if (root != null) {
+        arrays[++depth] = root.array;
+      }
+      advance();
+    }
+
+    private void advance() {
+      while (depth >= 0) {
+        Object[] array = arrays[depth];
+        int i = positions[depth];
+        if (i >= array.length) {
+          positions[depth--] = 0;
+          continue;
+        }
+        positions[depth] = i + 2;
+        if (array[i] != null) {
+          nextKey = array[i];
+          nextValue = array[i + 1];
+          return;
+        }
+        arrays[++depth] = ((Node) array[i + 1]).array;
+      }
+      nextKey = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextKey != null;
+    }
+
+    @Override
+    public R next() {
+      if (nextKey == null) {
+        throw new NoSuchElementException();
+      }
+      R next = result.apply(nextKey, nextValue);
+      advance();
+      return next;
+    }
+  }
+
+  /*
+  A mutable builder over a PersistentHashMap. Nodes it has copied belong to it and are changed in place, so a batch of puts copies each node about once instead of once per put.
+   */
+  public static final class Transient<K, V> {
+    private Object edit = new Object();
+    private int size;
+    private Node root;
+    private final boolean[] changed = new boolean[1];
+
+    private Transient(PersistentHashMap<K, V> map) {
+      this.size = map.size;
+      this.root = map.root;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+      ensureEditable();
+      Objects.requireNonNull(key, "key");
+      return root == null ? null : (V) root.find(0, hash(key), key);
+    }
+
+    public Transient<K, V> put(K key, V value) {
+      ensureEditable();
+      Objects.requireNonNull(key, "key");
+      Objects.requireNonNull(value, "value");
+      changed[0] = false;
+      Node start = root != null ? root : BitmapNode.EMPTY;
+      root = start.with(edit, 0, hash(key), key, value, changed);
+      if (changed[0]) {
+        size++;
+      }
+      return this;
+    }
+
+    public Transient<K, V> remove(K key) {
+      ensureEditable();
+      Objects.requireNonNull(key, "key");
+      if (root != null) {
+        changed[0] = false;
+        root = root.without(edit, 0, hash(key), key, changed);
+        if (changed[0]) {
+          size--;
+        }
+      }
+      return this;
+    }
+
+    // Ends the transient; its nodes now belong to the returned map
+    public PersistentHashMap<K, V> persistent() {
+      ensureEditable();
+      edit = null;
+      return root == null ? empty() : new PersistentHashMap<>(size, root);
+    }
+
+    private void ensureEditable() {
+      if (edit == null) {
+        throw new IllegalStateException("Transient used after persistent()");
+      }
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.java.genericsCollections;
+
+/*
+An immutable set whose "modified copies" share almost all of their memory with the original: a PersistentHashMap from each element to Boolean.TRUE.
+with() and without() copy about log32 n nodes instead of the whole set, as Set.copyOf() would. It is a read-only java.util.Set, and asTransient() builds or changes many elements in one go, like PersistentHashMap.
+Null elements are not allowed, as in Set.of().
+ */
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+public final class PersistentHashSet<E> extends AbstractSet<E> {
+  private static final PersistentHashSet<?> EMPTY =
+      new PersistentHashSet<>(PersistentHashMap.empty());
+
+  private final PersistentHashMap<E, Boolean> map;
+
+  private PersistentHashSet(PersistentHashMap<E, Boolean> map) {
+    this.map = map;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentHashSet<E> empty() {
+    return (PersistentHashSet<E>) EMPTY;
+  }
+
+  @SafeVarargs
+  public static <E> PersistentHashSet<E> of(E... elements) {
+    Transient<E> set = PersistentHashSet.<E>empty().asTransient();
+    for (E element : elements) {
+      set.add(element);
+    }
+    return set.persistent();
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentHashSet<E> copyOf(Collection<? extends E> elements) {
+    if (elements instanceof PersistentHashSet) {
+      return (PersistentHashSet<E>) elements;
+    }
+    Transient<E> set = PersistentHashSet.<E>empty().asTransient();
+    for (E element : elements) {
+      set.add(element);
+    }
+    return set.persistent();
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean contains(Object element) {
+    return map.containsKey(element);
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return map.keyIterator();
+  }
+
+  // A copy with element added
+  public PersistentHashSet<E> with(E element) {
+    PersistentHashMap<E, Boolean> newMap = map.with(element, Boolean.TRUE);
+    return newMap == map ? this : new PersistentHashSet<>(newMap);
+  }
+
+  // A copy without element
+  public PersistentHashSet<E> without(E element) {
+    PersistentHashMap<E, Boolean> newMap = map.without(element);
+    return newMap == map ? this : new PersistentHashSet<>(newMap);
+  }
+
+  public Transient<E> asTransient() {
+    return new Transient<>(map.asTransient());
+  }
+
+  public static final class Transient<E> {
+    private final PersistentHashMap.Transient<E, Boolean> map;
+
+    private Transient(PersistentHashMap.Transient<E, Boolean> map) {
+      this.map = map;
+    }
+
+    public int size() {
+      return map.size();
+    }
+
+    public boolean contains(E element) {
+      return map.get(element) != null;
+    }
+
+    public Transient<E> add(E element) {
+      map.put(element, Boolean.TRUE);
+      return this;
+    }
+
+    public Transient<E> remove(E element) {
+      map.remove(element);
+      return this;
+    }
+
+    // Ends the transient; its nodes now belong to the returned set
+    public PersistentHashSet<E> persistent() {
+      return new PersistentHashSet<>(map.persistent());
+    }
+  }
+}
@@ -0,0 +1,362 @@
+package com.java.genericsCollections;
+
+/*
+An immutable list whose "modified copies" share almost all of their memory with the original.
+List.copyOf() and List.of() copy every element, so changing one element of an immutable list of n elements costs O(n) time and O(n) garbage. A PersistentVector keeps its elements in a tree of 32-element arrays; with(), plus() and withoutLast() copy only the arrays on the path from the root to the changed element (at most 4 of them for a million elements, log32 n) and share every other array with the previous version, which stays valid and unchanged.
+The last, possibly partial, 32 elements live in a separate tail array, so plus() usually copies just that array.
+
+A PersistentVector is a java.util.List (read-only: add(), set() and remove() throw UnsupportedOperationException), so it can be handed to any code that expects a List without copying. copyOf() turns any collection into one.
+asTransient() returns a Transient for building or changing many elements in one go: it edits the arrays it has already copied in place instead of copying them again, and persistent() turns it back into a PersistentVector in O(1). A Transient is not thread-safe and can't be used after persistent().
+Null elements are not allowed, as in List.of().
+ */
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  // An inner tree node; edit is the Transient that may change it in place, or null
+  private static final class Node {
+    final Object edit;
+    final Object[] array;
+
+    Node(Object edit, Object[] array) {
+      this.edit = edit;
+      this.array = array;
+    }
+  }
+
+  private static final Node EMPTY_NODE = new Node(null, new Object[WIDTH]);
+  private static final PersistentVector<?> EMPTY =
+      new PersistentVector<>(0, BITS, EMPTY_NODE, new Object[0]);
+
+  private final int size;
+  private final int shift;
+  private final Node root;
+  private final Object[] tail;
+
+  private PersistentVector(int size, int shift, Node root, Object[] tail) {
+    this.size = size;
+    this.shift = shift;
+    this.root = root;
+    this.tail = tail;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentVector<E> empty() {
+    return (PersistentVector<E>) EMPTY;
+  }
+
+  @SafeVarargs
+  public static <E> PersistentVector<E> of(E... elements) {
+    Transient<E> vector = PersistentVector.<E>empty().asTransient();
+    for (E element : elements) {
+      vector.add(element);
+    }
+    return vector.persistent();
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentVector<E> copyOf(Collection<? extends E> elements) {
+    if (elements instanceof PersistentVector) {
+      return (PersistentVector<E>) elements;
+    }
+    Transient<E> vector = PersistentVector.<E>empty().asTransient();
+    for (E element : elements) {
+      vector.add(element);
+    }
+    return vector.persistent();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    Objects.checkIndex(index, size);
+    return (E) leafFor(index)[index & MASK];
+  }
+
+  // A copy with element index replaced
+  public PersistentVector<E> with(int index, E element) {
+    Objects.checkIndex(index, size);
+    Objects.requireNonNull(element, "element");
+    if (index >= tailOffset(size)) {
+      Object[] newTail = tail.clone();
+      newTail[index & MASK] = element;
+      return new PersistentVector<>(size, shift, root, newTail);
+    }
+    return new PersistentVector<>(size, shift, set(null, shift, root, index, element), tail);
+  }
+
+  // A copy with element appended
+  public PersistentVector<E> plus(E element) {
+    Objects.requireNonNull(element, "element");
+    if (size - tailOffset(size) < WIDTH) {
+      Object[] newTail = new Object[tail.length + 1];
+      System.arraycopy(tail, 0, newTail, 0, tail.length);
+      newTail[tail.length] = element;
+      return new PersistentVector<>(size + 1, shift, root, newTail);
+    }
+    Node tailNode = new Node(null, tail);
+    Node newRoot;
+    int newShift = shift;
+    if ((size >>> BITS) > (1 << shift)) {
+      // The tree is full: add a level on top
+      newRoot = new Node(null, new Object[WIDTH]);
+      newRoot.array[0] = root;
+      newRoot.array[1] = newPath(null, shift, tailNode);
+      newShift += BITS;
+    } else {
+      newRoot = pushTail(null, size, shift, root, tailNode);
+    }
+    return new PersistentVector<>(size + 1, newShift, newRoot, new Object[]{element});
+  }
+
+  // A copy without the last element
+  public PersistentVector<E> withoutLast() {
+    if (size == 0) {
+      throw new IllegalStateException("Can't remove from an empty vector");
+    }
+    if (size == 1) {
+      return empty();
+    }
+    if (size - tailOffset(size) > 1) {
+      Object[] newTail = new Object[tail.length - 1];
+      System.arraycopy(tail, 0, newTail, 0, newTail.length);
+      return new PersistentVector<>(size - 1, shift, root, newTail);
+    }
+    // The tail becomes empty: the last leaf of the tree becomes the new tail
+    Object[] newTail = leafFor(size - 2);
+    Node newRoot = popTail(size, shift, root);
+    int newShift = shift;
+    if (newRoot == null) {
+      newRoot = EMPTY_NODE;
+    }
+    if (shift > BITS && newRoot.array[1] == null) {
+      newRoot = (Node) newRoot.array[0];
+      newShift -= BITS;
+    }
+    return new PersistentVector<>(size - 1, newShift, newRoot, newTail);
+  }
+
+  public Transient<E> asTransient() {
+    return new Transient<>(this);
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<>() {
+      private int index;
+      private Object[] leaf;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public E next() {
+        if (index >= size) {
+          throw new NoSuchElementException();
+        }
+        if ((index & MASK) == 0 || leaf == null) {
+          leaf = leafFor(index);
+        }
+        return (E) leaf[index++ & MASK];
+      }
+    };
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEach(Consumer<? super E> action) {
+    for (int start = 0; start < size; start += WIDTH) {
+      Object[] leaf = leafFor(start);
+      int end = Math.min(WIDTH, size - start);
+      for (int i = 0; i < end; i++) {
+        action.accept((E) leaf[i]);
+      }
+    }
+  }
+
+  // Index of the first element in the tail
+  private static int tailOffset(int size) {
+    return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+  }
+
+  private Object[] leafFor(int index) {
+    return leafFor(index, size, shift, root, tail);
+  }
+
+  private static Object[] leafFor(int index, int size, int shift, Node root, Object[] tail) {
+    if (index >= tailOffset(size)) {
+      return tail;
+    }
+    Node node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      node = (Node) node.array[(index >>> level) & MASK];
+    }
+    return node.array;
+  }
+
+  // The node itself if the Transient edit already owns it, otherwise a copy it owns
+  private static Node editable(Object edit, Node node) {
+    if (edit != null && node.edit == edit) {
+      return node;
+    }
+    return new Node(edit, node.array.clone());
+  }
+
+  private static Node set(Object edit, int level, Node node, int index, Object element) {
+    Node copy = editable(edit, node);
+    if (level == 0) {
+      copy.array[index & MASK] = element;
+    } else {
+      int child = (index >>> level) & MASK;
+      copy.array[child] = set(edit, level - BITS, (Node) node.array[child], index, element);
+    }
+    return copy;
+  }
+
+  private static Node newPath(Object edit, int level, Node node) {
+    if (level == 0) {
+      return node;
+    }
+    Node path = new Node(edit, new Object[WIDTH]);
+    path.array[0] = newPath(edit, level - BITS, node);
+    return path;
+  }
+
+  // Adds a full tail as the last leaf of the tree of a vector of size elements
+  private static Node pushTail(Object edit, int size, int level, Node parent, Node tailNode) {
+    Node copy = editable(edit, parent);
+    int child = ((size - 1) >>> level) & MASK;
+    Node inserted;
+    if (level == BITS) {
+      inserted = tailNode;
+    } else {
+      Node existing = (Node) parent.array[child];
+      inserted = existing != null
+          ? pushTail(edit, size, level - BITS, existing, tailNode)
+          : newPath(edit, level - BITS, tailNode);
+    }
+    copy.array[child] = inserted;
+    return copy;
+  }
+
+  // Removes the last leaf of the tree of a vector of size elements; null when nothing is left
+  private static Node popTail(int size, int level, Node node) {
+    int child = ((size - 2) >>> level) & MASK;
+    if (level > BITS) {
+      Node newChild = popTail(size, level - BITS, (Node) node.array[child]);
+      if (newChild == null && child == 0) {
+        return null;
+      }
+      Node copy = new Node(null, node.array.clone());
+      copy.array[child] = newChild;
+      return copy;
+    }
+    if (child == 0) {
+      return null;
+    }
+    Node copy = new Node(null, node.array.clone());
+    copy.array[child] = null;
+    return copy;
+  }
+
+  /*
+  A mutable builder over a PersistentVector. Arrays it has copied belong to it and are changed in place, so adding n elements copies each array about once instead of once per element.
+   */
+  public static final class Transient<E> {
+    private Object edit = new Object();
+    private int size;
+    private int shift;
+    private Node root;
+    private Object[] tail;
+
+    private Transient(PersistentVector<E> vector) {
+      this.size = vector.size;
+      this.shift = vector.shift;
+      this.root = vector.root;
+      // The tail always has room for WIDTH elements while transient
+      this.tail = new Object[WIDTH];
+      System.arraycopy(vector.tail, 0, tail, 0, vector.tail.length);
+    }
+
+    public int size() {
+      return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+      ensureEditable();
+      Objects.checkIndex(index, size);
+      return (E) leafFor(index, size, shift, root, tail)[index & MASK];
+    }
+
+    public Transient<E> set(int index, E element) {
+      ensureEditable();
+      Objects.checkIndex(index, size);
+      Objects.requireNonNull(element, "element");
+      if (index >= tailOffset(size)) {
+        tail[index & MASK] = element;
+      } else {
+        root = PersistentVector.set(edit, shift, root, index, element);
+      }
+      return this;
+    }
+
+    public Transient<E> add(E element) {
+      ensureEditable();
+      Objects.requireNonNull(element, "element");
+      if (size - tailOffset(size) < WIDTH) {
+        tail[size & MASK] = element;
+        size++;
+        return this;
+      }
+      Node tailNode = new Node(edit, tail);
+      tail = new Object[WIDTH];
+      tail[0] = element;
+      if ((size >>> BITS) > (1 << shift)) {
+        Node newRoot = new Node(edit, new Object[WIDTH]);
+        newRoot.array[0] = root;
+        newRoot.array[1] = newPath(edit, shift, tailNode);
+        root = newRoot;
+        shift += BITS;
+      } else {
+        root = pushTail(edit, size, shift, root, tailNode);
+      }
+      size++;
+      return this;
+    }
+
+    // Ends the transient; its arrays now belong to the returned vector
+    public PersistentVector<E> persistent() {
+      ensureEditable();
+      edit = null;
+      int tailSize = size - tailOffset(size);
+      Object[] trimmed = new Object[tailSize];
+      System.arraycopy(tail, 0, trimmed, 0, tailSize);
+      return new PersistentVector<>(size, shift, root, trimmed);
+    }
+
+    private void ensureEditable() {
+      if (edit == null) {
+        throw new IllegalStateException("Transient used after persistent()");
+      }
+    }
+  }
+}
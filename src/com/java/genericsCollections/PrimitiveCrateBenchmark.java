@@ -0,0 +1,186 @@
+package com.java.genericsCollections;
+
+/*
+What boxing costs: Crate<Integer> against IntCrate and IntCrates.
+Each invocation packs `size` values into crates and reads them back; the reported ns/op and B/op are per value. Values are multiples of 31, so almost none of them come from the Integer cache.
+boxedCrates      one Crate<Integer> per value, an Integer allocated for each
+intCrates        one IntCrate per value, no wrapper
+intCratesColumn  all values in one IntCrates
+boxedList        ArrayList<Integer>, for comparison with the usual way of keeping many ints
+
+Before the timed runs the retained heap per value is printed for 1M values of each representation, including the long and double variants. It is measured with Footprint, so expect it to be off by a few percent.
+ */
+
+import com.java.benchmark.Footprint;
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PrimitiveCrateBenchmark {
+
+  private static final int FOOTPRINT_VALUES = 1_000_000;
+
+  public static void main(String[] args) throws Exception {
+    Footprint.measure("Crate<Integer>[]", FOOTPRINT_VALUES, n -> {
+      List<Crate<Integer>> crates = new ArrayList<>(n);
+      for (int i = 0; i < n; i++) {
+        Crate<Integer> crate = new Crate<>();
+        crate.packCrate(i * 31);
+        crates.add(crate);
+      }
+      return crates.toArray();
+    });
+    Footprint.measure("IntCrate[]", FOOTPRINT_VALUES, n -> {
+      IntCrate[] crates = new IntCrate[n];
+      for (int i = 0; i < n; i++) {
+        crates[i] = new IntCrate(i * 31);
+      }
+      return crates;
+    });
+    Footprint.measure("IntCrates", FOOTPRINT_VALUES, n -> {
+      IntCrates crates = new IntCrates(n);
+      for (int i = 0; i < n; i++) {
+        crates.add(i * 31);
+      }
+      return crates;
+    });
+    Footprint.measure("ArrayList<Integer>", FOOTPRINT_VALUES, n -> {
+      List<Integer> list = new ArrayList<>(n);
+      for (int i = 0; i < n; i++) {
+        list.add(i * 31);
+      }
+      return list;
+    });
+    Footprint.measure("Crate<Long>[]", FOOTPRINT_VALUES, n -> {
+      Object[] crates = new Object[n];
+      for (int i = 0; i < n; i++) {
+        Crate<Long> crate = new Crate<>();
+        crate.packCrate(i * 31L);
+        crates[i] = crate;
+      }
+      return crates;
+    });
+    Footprint.measure("LongCrates", FOOTPRINT_VALUES, n -> {
+      LongCrates crates = new LongCrates(n);
+      for (int i = 0; i < n; i++) {
+        crates.add(i * 31L);
+      }
+      return crates;
+    });
+    Footprint.measure("Crate<Double>[]", FOOTPRINT_VALUES, n -> {
+      Object[] crates = new Object[n];
+      for (int i = 0; i < n; i++) {
+        Crate<Double> crate = new Crate<>();
+        crate.packCrate(i * 0.5);
+        crates[i] = crate;
+      }
+      return crates;
+    });
+    Footprint.measure("DoubleCrates", FOOTPRINT_VALUES, n -> {
+      DoubleCrates crates = new DoubleCrates(n);
+      for (int i = 0; i < n; i++) {
+        crates.add(i * 0.5);
+      }
+      return crates;
+    });
+
+    new Harness("genericsCollections-primitiveCrates", "size", 1_000, 100_000, 10_000_000)
+        .add("boxedCrates", PrimitiveCrateBenchmark::boxedCrates)
+        .add("intCrates", PrimitiveCrateBenchmark::intCrates)
+        .add("intCratesColumn", PrimitiveCrateBenchmark::intCratesColumn)
+        .add("boxedList", PrimitiveCrateBenchmark::boxedList)
+        .runAndReport();
+  }
+
+  private static Workload.Invocation boxedCrates(int size) {
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        @SuppressWarnings("unchecked")
+        Crate<Integer>[] crates = (Crate<Integer>[]) new Crate<?>[size];
+        for (int i = 0; i < size; i++) {
+          crates[i] = new Crate<>();
+          crates[i].packCrate(i * 31);
+        }
+        long sum = 0;
+        for (Crate<Integer> crate : crates) {
+          sum += crate.emptyCrate();
+        }
+        return sum;
+      }
+
+      @Override
+      public long operations() {
+        return size;
+      }
+    };
+  }
+
+  private static Workload.Invocation intCrates(int size) {
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        IntCrate[] crates = new IntCrate[size];
+        for (int i = 0; i < size; i++) {
+          crates[i] = new IntCrate();
+          crates[i].packCrate(i * 31);
+        }
+        long sum = 0;
+        for (IntCrate crate : crates) {
+          sum += crate.emptyCrate();
+        }
+        return sum;
+      }
+
+      @Override
+      public long operations() {
+        return size;
+      }
+    };
+  }
+
+  private static Workload.Invocation intCratesColumn(int size) {
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        IntCrates crates = new IntCrates(size);
+        for (int i = 0; i < size; i++) {
+          crates.add(i * 31);
+        }
+        long sum = 0;
+        for (int i = 0; i < crates.size(); i++) {
+          sum += crates.emptyCrate(i);
+        }
+        return sum;
+      }
+
+      @Override
+      public long operations() {
+        return size;
+      }
+    };
+  }
+
+  private static Workload.Invocation boxedList(int size) {
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(i * 31);
+        }
+        long sum = 0;
+        for (Integer value : list) {
+          sum += value;
+        }
+        return sum;
+      }
+
+      @Override
+      public long operations() {
+        return size;
+      }
+    };
+  }
+}
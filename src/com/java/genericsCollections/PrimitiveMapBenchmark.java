@@ -0,0 +1,269 @@
+package com.java.genericsCollections;
+
+/*
+HashMap with boxed values against the open-addressing ObjectIntHashMap, IntIntHashMap and LongLongHashMap.
+Each invocation looks up 1000 random keys that are present in a map of `size` entries (or merges a count into them); the reported ns/op is one lookup. At 10M entries neither map fits in the CPU caches, so this mostly measures how many cache misses a lookup takes: a HashMap walks table slot, Node, key and boxed value, the open-addressing maps read one or two neighbouring array slots and the key.
+Before the timed runs the retained heap per entry is printed for 1M entries of each map. String keys are built beforehand and shared, so only the map's own cost is counted for them; boxed Integer and Long keys are part of the HashMap's cost.
+String-keyed maps with 10M entries need more than the default heap on a small machine; they are skipped when the maximum heap is under 4 GB.
+ */
+
+import com.java.benchmark.Footprint;
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class PrimitiveMapBenchmark {
+
+  private static final int PROBES = 1000;
+  private static final int FOOTPRINT_ENTRIES = 1_000_000;
+  private static final int LARGE_STRING_MAP = 1_000_000;
+  private static final long LARGE_STRING_MAP_HEAP = 4L << 30;
+
+  public static void main(String[] args) throws Exception {
+    String[] keys = stringKeys(FOOTPRINT_ENTRIES);
+    Footprint.measure("HashMap<String,Integer>", FOOTPRINT_ENTRIES, n -> {
+      Map<String, Integer> map = new HashMap<>();
+      for (int i = 0; i < n; i++) {
+        map.put(keys[i], i * 31);
+      }
+      return map;
+    });
+    Footprint.measure("ObjectIntHashMap", FOOTPRINT_ENTRIES, n -> {
+      ObjectIntHashMap<String> map = new ObjectIntHashMap<>();
+      for (int i = 0; i < n; i++) {
+        map.put(keys[i], i * 31);
+      }
+      return map;
+    });
+    Footprint.measure("HashMap<Integer,Integer>", FOOTPRINT_ENTRIES, n -> {
+      Map<Integer, Integer> map = new HashMap<>();
+      for (int i = 0; i < n; i++) {
+        map.put(i * 31, i * 31);
+      }
+      return map;
+    });
+    Footprint.measure("IntIntHashMap", FOOTPRINT_ENTRIES, n -> {
+      IntIntHashMap map = new IntIntHashMap();
+      for (int i = 0; i < n; i++) {
+        map.put(i * 31, i * 31);
+      }
+      return map;
+    });
+    Footprint.measure("HashMap<Long,Long>", FOOTPRINT_ENTRIES, n -> {
+      Map<Long, Long> map = new HashMap<>();
+      for (int i = 0; i < n; i++) {
+        map.put(i * 31L, i * 31L);
+      }
+      return map;
+    });
+    Footprint.measure("LongLongHashMap", FOOTPRINT_ENTRIES, n -> {
+      LongLongHashMap map = new LongLongHashMap();
+      for (int i = 0; i < n; i++) {
+        map.put(i * 31L, i * 31L);
+      }
+      return map;
+    });
+
+    new Harness("genericsCollections-primitiveMaps", "size", 1_000, 100_000, 1_000_000, 10_000_000)
+        .add("hashMapStringGet", PrimitiveMapBenchmark::hashMapStringGet)
+        .add("objectIntGet", PrimitiveMapBenchmark::objectIntGet)
+        .add("hashMapStringMerge", PrimitiveMapBenchmark::hashMapStringMerge)
+        .add("objectIntMerge", PrimitiveMapBenchmark::objectIntMerge)
+        .add("hashMapIntGet", PrimitiveMapBenchmark::hashMapIntGet)
+        .add("intIntGet", PrimitiveMapBenchmark::intIntGet)
+        .add("hashMapLongGet", PrimitiveMapBenchmark::hashMapLongGet)
+        .add("longLongGet", PrimitiveMapBenchmark::longLongGet)
+        .runAndReport();
+  }
+
+  private static String[] stringKeys(int size) {
+    String[] keys = new String[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = "bunny-" + i;
+    }
+    return keys;
+  }
+
+  private static int[] probes(int size) {
+    Random random = new Random(7);
+    int[] probes = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = random.nextInt(size);
+    }
+    return probes;
+  }
+
+  private static boolean tooLargeForHeap(int size) {
+    return size > LARGE_STRING_MAP && Runtime.getRuntime().maxMemory() < LARGE_STRING_MAP_HEAP;
+  }
+
+  private static abstract class Probes implements Workload.Invocation {
+
+    @Override
+    public long operations() {
+      return PROBES;
+    }
+  }
+
+  private static Workload.Invocation hashMapStringGet(int size) {
+    if (tooLargeForHeap(size)) {
+      return null;
+    }
+    String[] keys = stringKeys(size);
+    Map<String, Integer> map = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(keys[i], i);
+    }
+    int[] probes = probes(size);
+    return new Probes() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int probe : probes) {
+          sum += map.get(keys[probe]);
+        }
+        return sum;
+      }
+    };
+  }
+
+  private static Workload.Invocation objectIntGet(int size) {
+    if (tooLargeForHeap(size)) {
+      return null;
+    }
+    String[] keys = stringKeys(size);
+    ObjectIntHashMap<String> map = new ObjectIntHashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(keys[i], i);
+    }
+    int[] probes = probes(size);
+    return new Probes() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int probe : probes) {
+          sum += map.get(keys[probe]);
+        }
+        return sum;
+      }
+    };
+  }
+
+  private static Workload.Invocation hashMapStringMerge(int size) {
+    if (tooLargeForHeap(size)) {
+      return null;
+    }
+    String[] keys = stringKeys(size);
+    Map<String, Integer> map = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(keys[i], i);
+    }
+    int[] probes = probes(size);
+    return new Probes() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int probe : probes) {
+          sum += map.merge(keys[probe], 1, Integer::sum);
+        }
+        return sum;
+      }
+    };
+  }
+
+  private static Workload.Invocation objectIntMerge(int size) {
+    if (tooLargeForHeap(size)) {
+      return null;
+    }
+    String[] keys = stringKeys(size);
+    ObjectIntHashMap<String> map = new ObjectIntHashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(keys[i], i);
+    }
+    int[] probes = probes(size);
+    return new Probes() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int probe : probes) {
+          sum += map.merge(keys[probe], 1, Integer::sum);
+        }
+        return sum;
+      }
+    };
+  }
+
+  private static Workload.Invocation hashMapIntGet(int size) {
+    Map<Integer, Integer> map = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(i * 31, i);
+    }
+    int[] probes = probes(size);
+    return new Probes() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int probe : probes) {
+          sum += map.get(probe * 31);
+        }
+        return sum;
+      }
+    };
+  }
+
+  private static Workload.Invocation intIntGet(int size) {
+    IntIntHashMap map = new IntIntHashMap();
+    for (int i = 0; i < size; i++) {
+      map.put(i * 31, i);
+    }
+    int[] probes = probes(size);
+    return new Probes() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int probe : probes) {
+          sum += map.get(probe * 31);
+        }
+        return sum;
+      }
+    };
+  }
+
+  private static Workload.Invocation hashMapLongGet(int size) {
+    Map<Long, Long> map = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(i * 31L, (long) i);
+    }
+    int[] probes = probes(size);
+    return new Probes() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int probe : probes) {
+          sum += map.get(probe * 31L);
+        }
+        return sum;
+      }
+    };
+  }
+
+  private static Workload.Invocation longLongGet(int size) {
+    LongLongHashMap map = new LongLongHashMap();
+    for (int i = 0; i < size; i++) {
+      map.put(i * 31L, i);
+    }
+    int[] probes = probes(size);
+    return new Probes() {
+      @Override
+      public long invoke() {
+        long sum = 0;
+        for (int probe : probes) {
+          sum += map.get(probe * 31L);
+        }
+        return sum;
+      }
+    };
+  }
+}
@@ -0,0 +1,184 @@
+package com.java.genericsCollections;
+
+/*
+Sorts a list by an int or long key with an LSD radix sort instead of a Comparator.
+Collections.sort(ducks, (d1, d2) -> d1.getWeight() - d2.getWeight()) makes about n log n comparator calls, each of which loads two Ducks, and the subtraction gives the wrong order once the difference overflows an int. Here every key is extracted exactly once into a primitive array together with the element's position. Those pairs are then sorted one byte at a time, least significant byte first, with a counting pass and a scatter pass per byte: 4 passes for an int key, 8 for a long key, so the work grows linearly with the list. A byte in which all keys agree (for example the high bytes of small weights) is skipped. Finally the elements are put back in the order of the sorted positions.
+
+The sort is stable: elements with equal keys keep their order, just like Collections.sort. Keys are compared as signed numbers, so negative keys come first and nothing can overflow.
+Lists shorter than SMALL_LIST are sorted with List.sort and Comparator.comparingInt/comparingLong, because a few hundred elements don't repay the passes over the 256-entry count tables.
+parallelSortByInt/Long split each pass into chunks on the common ForkJoinPool: every chunk counts its digits, the chunk offsets are added up in order (which keeps the sort stable), and every chunk scatters its own elements. Lists shorter than PARALLEL_LIST are sorted sequentially.
+
+The extra memory is a long and an int per element, twice: about 24 bytes per element while sorting.
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+public final class RadixSort {
+  static final int SMALL_LIST = 128;
+  static final int PARALLEL_LIST = 1 << 16;
+
+  private static final int RADIX = 256;
+  private static final int MIN_CHUNK = 1 << 14;
+
+  private RadixSort() {
+  }
+
+  public static <T> void sortByInt(List<T> list, ToIntFunction<? super T> key) {
+    sortByInt(list, key, false);
+  }
+
+  public static <T> void parallelSortByInt(List<T> list, ToIntFunction<? super T> key) {
+    sortByInt(list, key, list.size() >= PARALLEL_LIST);
+  }
+
+  public static <T> void sortByLong(List<T> list, ToLongFunction<? super T> key) {
+    sortByLong(list, key, false);
+  }
+
+  public static <T> void parallelSortByLong(List<T> list, ToLongFunction<? super T> key) {
+    sortByLong(list, key, list.size() >= PARALLEL_LIST);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void sortByInt(List<T> list, ToIntFunction<? super T> key, boolean parallel) {
+    if (list.size() < SMALL_LIST) {
+      list.sort(Comparator.comparingInt(key));
+      return;
+    }
+    Object[] elements = list.toArray();
+    long[] keys = new long[elements.length];
+    int chunks = parallel ? chunkCount(elements.length) : 1;
+    forEachChunk(chunks, elements.length, (chunk, from, to) -> {
+      for (int i = from; i < to; i++) {
+        // Flipping the sign bit makes the unsigned byte order match the signed int order
+        keys[i] = (key.applyAsInt((T) elements[i]) ^ Integer.MIN_VALUE) & 0xFFFF_FFFFL;
+      }
+    });
+    writeBack(list, elements, sortPositions(keys, Integer.BYTES, chunks));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void sortByLong(List<T> list, ToLongFunction<? super T> key,
+      boolean parallel) {
+    if (list.size() < SMALL_LIST) {
+      list.sort(Comparator.comparingLong(key));
+      return;
+    }
+    Object[] elements = list.toArray();
+    long[] keys = new long[elements.length];
+    int chunks = parallel ? chunkCount(elements.length) : 1;
+    forEachChunk(chunks, elements.length, (chunk, from, to) -> {
+      for (int i = from; i < to; i++) {
+        keys[i] = key.applyAsLong((T) elements[i]) ^ Long.MIN_VALUE;
+      }
+    });
+    writeBack(list, elements, sortPositions(keys, Long.BYTES, chunks));
+  }
+
+  // Sorts keys (as unsigned numbers of the given byte width) and returns the original positions in sorted order
+  private static int[] sortPositions(long[] keys, int keyBytes, int chunks) {
+    int n = keys.length;
+    int[] positions = new int[n];
+    Arrays.setAll(positions, i -> i);
+    long[] keyBuffer = new long[n];
+    int[] positionBuffer = new int[n];
+    int[][] counts = new int[chunks][RADIX];
+
+    for (int pass = 0; pass < keyBytes; pass++) {
+      int shift = pass * Byte.SIZE;
+      long[] sourceKeys = keys;
+      forEachChunk(chunks, n, (chunk, from, to) -> {
+        int[] count = counts[chunk];
+        Arrays.fill(count, 0);
+        for (int i = from; i < to; i++) {
+          count[(int) (sourceKeys[i] >>> shift) & 0xFF]++;
+        }
+      });
+      if (allInOneBucket(counts, n)) {
+        continue;
+      }
+      // Turn counts into start offsets: all of digit 0 (chunk by chunk), then all of digit 1, ...
+      int offset = 0;
+      for (int digit = 0; digit < RADIX; digit++) {
+        for (int[] count : counts) {
+          int c = count[digit];
+          count[digit] = offset;
+          offset += c;
+        }
+      }
+      int[] sourcePositions = positions;
+      long[] targetKeys = keyBuffer;
+      int[] targetPositions = positionBuffer;
+      forEachChunk(chunks, n, (chunk, from, to) -> {
+        int[] next = counts[chunk];
+        for (int i = from; i < to; i++) {
+          int slot = next[(int) (sourceKeys[i] >>> shift) & 0xFF]++;
+          targetKeys[slot] = sourceKeys[i];
+          targetPositions[slot] = sourcePositions[i];
+        }
+      });
+      keyBuffer = keys;
+      positionBuffer = positions;
+      keys = targetKeys;
+      positions = targetPositions;
+    }
+    return positions;
+  }
+
+  private static boolean allInOneBucket(int[][] counts, int n) {
+    for (int digit = 0; digit < RADIX; digit++) {
+      int total = 0;
+      for (int[] count : counts) {
+        total += count[digit];
+      }
+      if (total == n) {
+        return true;
+      }
+      if (total > 0) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void writeBack(List<T> list, Object[] elements, int[] positions) {
+    ListIterator<T> iterator = list.listIterator();
+    for (int position : positions) {
+      iterator.next();
+      iterator.set((T) elements[position]);
+    }
+  }
+
+  @FunctionalInterface
+  private interface ChunkTask {
+
+    void run(int chunk, int from, int to);
+  }
+
+  private static int chunkCount(int n) {
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    return Math.max(1, Math.min(parallelism * 4, n / MIN_CHUNK));
+  }
+
+  private static int chunkStart(int chunk, int n, int chunks) {
+    return (int) ((long) n * chunk / chunks);
+  }
+
+  private static void forEachChunk(int chunks, int n, ChunkTask task) {
+    if (chunks == 1) {
+      task.run(0, 0, n);
+      return;
+    }
+    IntConsumer runChunk = c -> task.run(c, chunkStart(c, n, chunks),
+        chunkStart(c + 1, n, chunks));
+    IntStream.range(0, chunks).parallel().forEach(runChunk);
+  }
+}
@@ -0,0 +1,56 @@
+package com.java.genericsCollections;
+
+/*
+Sorting `size` Ducks by weight: Collections.sort with the comparators from Test against RadixSort.
+Each invocation first restores the list to the same shuffled order (included in every variant's time) and then sorts it; the reported ns/op is per element. Weights are random in [0, 1_000_000), so the top byte is always 0 and RadixSort skips that pass.
+Lists up to 10M Ducks fit the default heap of a small machine; for 50M run with -Xmx8g -Dbench.params=50000000.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+public class RadixSortBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    new Harness("genericsCollections-radixSort", "size", 100, 10_000, 1_000_000, 10_000_000)
+        .add("collectionsSortLambda", size -> sort(size,
+            ducks -> Collections.sort(ducks, (d1, d2) -> d1.getWeight() - d2.getWeight())))
+        .add("collectionsSortComparing", size -> sort(size,
+            ducks -> Collections.sort(ducks, Comparator.comparingInt(Duck::getWeight))))
+        .add("radixSort", size -> sort(size, ducks -> RadixSort.sortByInt(ducks, Duck::getWeight)))
+        .add("parallelRadixSort", size -> sort(size,
+            ducks -> RadixSort.parallelSortByInt(ducks, Duck::getWeight)))
+        .runAndReport();
+  }
+
+  private static Workload.Invocation sort(int size, Consumer<List<Duck>> sorter) {
+    Random random = new Random(42);
+    Duck[] shuffled = new Duck[size];
+    for (int i = 0; i < size; i++) {
+      shuffled[i] = new Duck(random.nextInt(1_000_000));
+    }
+    List<Duck> ducks = new ArrayList<>(size);
+    Collections.addAll(ducks, shuffled);
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        for (int i = 0; i < size; i++) {
+          ducks.set(i, shuffled[i]);
+        }
+        sorter.accept(ducks);
+        return ducks.get(size / 2).getWeight();
+      }
+
+      @Override
+      public long operations() {
+        return size;
+      }
+    };
+  }
+}
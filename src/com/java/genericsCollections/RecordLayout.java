@@ -0,0 +1,36 @@
+package com.java.genericsCollections;
+
+/*
+How an object is written to and read from a fixed number of bytes, for OffHeapSizeLimitedCrate.
+Every record has the same size, so record i always starts at byte i * recordBytes() and can be read or overwritten in place without any index.
+write() and read() use the absolute get/put methods of ByteBuffer and must stay within [offset, offset + recordBytes()).
+ */
+
+import java.nio.ByteBuffer;
+
+interface RecordLayout<T> {
+
+  int recordBytes();
+
+  void write(ByteBuffer buffer, int offset, T value);
+
+  T read(ByteBuffer buffer, int offset);
+
+  // A Duck is just its weight
+  RecordLayout<Duck> DUCK = new RecordLayout<>() {
+    @Override
+    public int recordBytes() {
+      return Integer.BYTES;
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, int offset, Duck duck) {
+      buffer.putInt(offset, duck.getWeight());
+    }
+
+    @Override
+    public Duck read(ByteBuffer buffer, int offset) {
+      return new Duck(buffer.getInt(offset));
+    }
+  };
+}
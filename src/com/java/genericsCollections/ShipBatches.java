@@ -0,0 +1,61 @@
+package com.java.genericsCollections;
+
+/*
+The micro-batching behind Shippable.shipAll().
+A RandomAccess list is cut into subList() views of at most MAX_BATCH items without copying. Other collections and spliterators are copied into a reused buffer; when the size isn't known the batches start at MIN_BATCH items and double while they keep filling up, so a short shipment doesn't allocate a large buffer and a long one soon reaches MAX_BATCH.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+final class ShipBatches {
+  private static final int MIN_BATCH = 16;
+  private static final int MAX_BATCH = 1024;
+
+  private ShipBatches() {
+  }
+
+  static <T> void shipAll(Shippable<T> crate, Collection<? extends T> items) {
+    int size = items.size();
+    if (!(items instanceof List && items instanceof RandomAccess)) {
+      shipAll(crate, items.spliterator());
+    } else if (size <= MAX_BATCH) {
+      if (size > 0) {
+        crate.shipBatch((List<? extends T>) items);
+      }
+    } else {
+      List<? extends T> list = (List<? extends T>) items;
+      for (int from = 0; from < size; from += MAX_BATCH) {
+        crate.shipBatch(list.subList(from, Math.min(size, from + MAX_BATCH)));
+      }
+    }
+  }
+
+  static <T> void shipAll(Shippable<T> crate, Spliterator<? extends T> items) {
+    int capacity = items.hasCharacteristics(Spliterator.SIZED)
+        ? (int) Math.min(items.estimateSize(), MAX_BATCH) : MIN_BATCH;
+    if (capacity == 0) {
+      return;
+    }
+    List<T> batch = new ArrayList<>(capacity);
+    Consumer<T> add = batch::add;
+    while (true) {
+      while (batch.size() < capacity && items.tryAdvance(add)) {
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+      crate.shipBatch(batch);
+      boolean filled = batch.size() == capacity;
+      batch.clear();
+      if (!filled) {
+        return;
+      }
+      capacity = Math.min(MAX_BATCH, capacity << 1);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.java.genericsCollections;
+
+/*
+Shipping one item at a time pays the call and whatever setup ship() does (taking a lock, finding the destination) for every item. shipAll() hands the items to shipBatch() in micro-batches, which an implementation overrides to pay that setup once per batch; the default shipBatch() just calls ship() for each item.
+How the items are cut into batches is up to ShipBatches. A batch is always a RandomAccess list, only valid during the shipBatch() call.
+ */
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+
+interface Shippable<T> {
+
+  void ship(T t);
+
+  default void shipBatch(List<? extends T> batch) {
+    for (int i = 0, n = batch.size(); i < n; i++) {
+      ship(batch.get(i));
+    }
+  }
+
+  default void shipAll(Collection<? extends T> items) {
+    ShipBatches.shipAll(this, items);
+  }
+
+  default void shipAll(Spliterator<? extends T> items) {
+    ShipBatches.shipAll(this, items);
+  }
+}
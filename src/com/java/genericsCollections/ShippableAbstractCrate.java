@@ -0,0 +1,28 @@
+package com.java.genericsCollections;
+
+/*
+Keeps whatever is shipped until it is unloaded.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ShippableAbstractCrate<U> implements Shippable<U> {
+  private final List<U> loaded = new ArrayList<>();
+
+  public synchronized void ship(U t) {
+    loaded.add(t);
+  }
+
+  // One lock and one array copy per batch
+  @Override
+  public synchronized void shipBatch(List<? extends U> batch) {
+    loaded.addAll(batch);
+  }
+
+  public synchronized List<U> unload() {
+    List<U> unloaded = new ArrayList<>(loaded);
+    loaded.clear();
+    return unloaded;
+  }
+}
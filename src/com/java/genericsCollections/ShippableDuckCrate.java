@@ -0,0 +1,38 @@
+package com.java.genericsCollections;
+
+/*
+Counts the ducks and their weight; the counters are guarded by the crate, which several loaders may share.
+ */
+
+import java.util.List;
+
+class ShippableDuckCrate implements Shippable<Duck> {
+  private long ducks;
+  private long totalWeight;
+
+  public synchronized void ship(Duck t) {
+    ducks++;
+    totalWeight += t.getWeight();
+  }
+
+  // Sums the batch outside the lock and takes the lock once
+  @Override
+  public void shipBatch(List<? extends Duck> batch) {
+    long weight = 0;
+    for (int i = 0, n = batch.size(); i < n; i++) {
+      weight += batch.get(i).getWeight();
+    }
+    synchronized (this) {
+      ducks += batch.size();
+      totalWeight += weight;
+    }
+  }
+
+  public synchronized long getDucks() {
+    return ducks;
+  }
+
+  public synchronized long getTotalWeight() {
+    return totalWeight;
+  }
+}
@@ -0,0 +1,111 @@
+package com.java.genericsCollections;
+
+/*
+Shipping 4096 ducks into a Shippable, either one ship() call per duck or shipAll() over slices of `batch` ducks; the reported ns/op is per duck.
+ShippableDuckCrate takes its lock once per ship() or once per batch, ShippableAbstractCrate also copies the batch into its list with one addAll(). noOverride ships into WeightSum, which only has ship(), to show what the default micro-batching costs when there is no setup to amortize; it is the same as shipEach apart from slicing. duckCrateSpliterator passes each slice as a Spliterator, which the default copies into its buffer first.
+shipEach doesn't depend on the batch size; it is run for every size as the baseline of that row.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ShippingBenchmark {
+
+  private static final int DUCKS = 4096;
+
+  public static void main(String[] args) throws Exception {
+    List<Duck> ducks = new ArrayList<>(DUCKS);
+    for (int i = 0; i < DUCKS; i++) {
+      ducks.add(new Duck(i % 50));
+    }
+
+    new Harness("genericsCollections-shipping", "batch", 1, 4, 16, 64, 256, 1024, 4096)
+        .add("duckCrateShipEach", batch -> shipEach(new ShippableDuckCrate(), ducks))
+        .add("duckCrateShipAll", batch -> shipAll(new ShippableDuckCrate(), ducks, batch))
+        .add("duckCrateSpliterator",
+            batch -> shipSpliterators(new ShippableDuckCrate(), ducks, batch))
+        .add("abstractCrateShipEach", batch -> unloading(new ShippableAbstractCrate<>(), ducks, 0))
+        .add("abstractCrateShipAll",
+            batch -> unloading(new ShippableAbstractCrate<>(), ducks, batch))
+        .add("noOverrideShipEach", batch -> shipEach(new WeightSum(), ducks))
+        .add("noOverrideShipAll", batch -> shipAll(new WeightSum(), ducks, batch))
+        .runAndReport();
+  }
+
+  // Only ship(), so shipAll() goes through the default shipBatch()
+  private static final class WeightSum implements Shippable<Duck> {
+    long weight;
+
+    @Override
+    public void ship(Duck duck) {
+      weight += duck.getWeight();
+    }
+  }
+
+  private static abstract class PerDuck implements Workload.Invocation {
+
+    @Override
+    public long operations() {
+      return DUCKS;
+    }
+  }
+
+  private static Workload.Invocation shipEach(Shippable<Duck> crate, List<Duck> ducks) {
+    return new PerDuck() {
+      @Override
+      public long invoke() {
+        for (int i = 0; i < DUCKS; i++) {
+          crate.ship(ducks.get(i));
+        }
+        return crate.hashCode();
+      }
+    };
+  }
+
+  private static Workload.Invocation shipAll(Shippable<Duck> crate, List<Duck> ducks, int batch) {
+    return new PerDuck() {
+      @Override
+      public long invoke() {
+        for (int from = 0; from < DUCKS; from += batch) {
+          crate.shipAll(ducks.subList(from, Math.min(DUCKS, from + batch)));
+        }
+        return crate.hashCode();
+      }
+    };
+  }
+
+  private static Workload.Invocation shipSpliterators(Shippable<Duck> crate, List<Duck> ducks,
+      int batch) {
+    return new PerDuck() {
+      @Override
+      public long invoke() {
+        for (int from = 0; from < DUCKS; from += batch) {
+          crate.shipAll(ducks.subList(from, Math.min(DUCKS, from + batch)).spliterator());
+        }
+        return crate.hashCode();
+      }
+    };
+  }
+
+  // Ships one at a time when batch is 0, and empties the crate afterwards so it doesn't grow
+  private static Workload.Invocation unloading(ShippableAbstractCrate<Duck> crate,
+      List<Duck> ducks, int batch) {
+    return new PerDuck() {
+      @Override
+      public long invoke() {
+        if (batch == 0) {
+          for (int i = 0; i < DUCKS; i++) {
+            crate.ship(ducks.get(i));
+          }
+        } else {
+          for (int from = 0; from < DUCKS; from += batch) {
+            crate.shipAll(ducks.subList(from, Math.min(DUCKS, from + batch)));
+          }
+        }
+        return crate.unload().size();
+      }
+    };
+  }
+}
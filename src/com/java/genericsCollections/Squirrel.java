@@ -0,0 +1,34 @@
+package com.java.genericsCollections;
+
+/*
+The Squirrel from the comparator notes in Test, with a few more keys to sort by.
+ */
+class Squirrel {
+  private final String species;
+  private final int weight;
+  private final int age;
+  private final double tailLength;
+  private final long id;
+  public Squirrel(String species, int weight, int age, double tailLength, long id) {
+    this.species = species;
+    this.weight = weight;
+    this.age = age;
+    this.tailLength = tailLength;
+    this.id = id;
+  }
+  public String getSpecies() {
+    return species;
+  }
+  public int getWeight() {
+    return weight;
+  }
+  public int getAge() {
+    return age;
+  }
+  public double getTailLength() {
+    return tailLength;
+  }
+  public long getId() {
+    return id;
+  }
+}
@@ -70,11 +70,20 @@ public class Test {
     Arrays.asList(1,2,3); // returns fixed size list backed by an array. can't add elements. can replace elements. can't delete elements
     List.of(1,2,3); // returns immutable list. can't add,replace or delete elements
     List.copyOf(list); // returns immutable list with copy of original collection's value. can't add replace or delete elements.
+    /*
+    "Changing" an immutable list means copying all of it. PersistentVector.with(), plus() and withoutLast() return a changed copy that shares all but about log32 n arrays with the original, and the vector is itself a read-only List.
+     */
+    PersistentVector<Integer> vector = PersistentVector.of(1, 2, 3).plus(4).with(0, 0);
 
     List<String> listCast = (List<String>)  list;
     listCast.add(1, "ghi");
     listCast.set(1, "hij");
     listCast.replaceAll(x -> x+"i");
+    /*
+    removeIf() and replaceAll() call the lambda once per element on one thread. On a list of tens of millions of elements, BulkArrayList.parallelBulk(true) splits those calls over the common ForkJoinPool; the lambda must then be safe to call from several threads in any order.
+     */
+    BulkArrayList<String> bulk = new BulkArrayList<>(listCast).parallelBulk(true);
+    bulk.removeIf(a -> a.contains("a"));
 
     Queue<Integer> queue = new LinkedList<>();
     // Adds an element to the back of the queue and returns whether successful
@@ -88,17 +97,27 @@ public class Test {
     // add -> Adds an element to the back of the queue and returns true or throws an exception
     // element -> Returns next element or throws an exception if empty queue
 
+    // A queue of ints without a Node and an Integer per element: one circular int[]
+    IntArrayDeque intQueue = new IntArrayDeque();
+    intQueue.offer(10);
+    intQueue.offer(4);
+    System.out.println(intQueue.peek()); // 10
+    System.out.println(intQueue.poll()); // 10
+
 
     /*
     A HashSet stores its elements in a hash table, which means the keys are a hash and the values are an Object. This means that it uses the hashCode() method of the objects to retrieve them more efficiently.
     The main benefit is that adding elements and checking whether an element is in the set both have constant time. The trade‐off is that you lose the order in which you inserted the elements. Most of the time, you aren't concerned with this in a set anyway, making HashSet the most common set.
+    To reject duplicates among hundreds of millions of elements that are mostly new, a BloomFilter answers "definitely not added" from about 10 bits per element; BloomFilteredSet puts one in front of a set whose lookups are slow, and BloomFilter.save() keeps one on its own in a file.
 
     A TreeSet stores its elements in a sorted tree structure. The main benefit is that the set is always in sorted order. The trade‐off is that adding and checking whether an element exists take longer than with a HashSet, especially as the tree grows larger.
+    The tree is a red-black tree with one node per element. BTreeSet and BTreeMap keep up to 64 sorted elements per node in an array, so a large tree has far fewer nodes to go through and a range is read along arrays; LongBTreeSet does the same with the longs themselves in the arrays.
      */
 
     /*
     A HashMap stores the keys in a hash table. This means that it uses the hashCode() method of the keys to retrieve their values more efficiently.
     The main benefit is that adding elements and retrieving the element by key both have constant time. The trade‐off is that you lose the order in which you inserted the elements. Most of the time, you aren't concerned with this in a map anyway. If you were, you could use LinkedHashMap
+    A LinkedHashMap in access order with removeEldestEntry() is also the usual small LRU cache, but behind Collections.synchronizedMap() every get() takes the lock, and one pass over keys never used again evicts everything. TinyLfuCache reads without a lock and keeps the entries that have been asked for most often.
 
     A TreeMap stores the keys in a sorted tree structure. The main benefit is that the keys are always in sorted order. Like a TreeSet, the trade‐off is that adding and checking whether a key is present takes longer as the tree grows larger.
 
@@ -113,6 +132,14 @@ public class Test {
     map.entrySet().forEach(e ->
         System.out.println(e.getKey() + e.getValue()));
 
+    /*
+    Map.ofEntries() finds a key by linear probing, which gets slower as a large table fills up. For big static lookup tables PerfectHashMap.ofEntries() takes the same entries and finds every key with a single probe; save() and load() keep the built table in a file.
+     */
+    PerfectHashMap<String, String> lookup = PerfectHashMap.copyOf(map);
+
+    // The same for maps: PersistentHashMap.with() and without() copy a path of the trie, not the whole map
+    PersistentHashMap<String, String> config = PersistentHashMap.copyOf(map).with("key2", "value2");
+
     /*
     Java provides an interface called Comparable. If your class implements Comparable, it can be used in these data structures that require comparison. There is also a class called Comparator, which is used to specify that you want to use a different order than the object itself provides.
 
@@ -145,6 +172,9 @@ public class Test {
 
    var c = Comparator.comparing(Squirrel::getSpecies).reversed();
 
+   The same orderings as one flat list of keys; sort() extracts each key once into a primitive array:
+   ComparatorChain.comparing(Squirrel::getSpecies).thenComparingInt(Squirrel::getWeight).reversed().sort(squirrels);
+
    List<Rabbit> rabbits = new ArrayList<>();
    rabbits.add(new Rabbit());
    Comparator<Rabbit> c = (r1, r2) -> r1.id - r2.id;
@@ -166,21 +196,15 @@ public class Test {
         return o1.getWeight() - o2.getWeight();
       }
     });
+    // Radix sort on the extracted int key: no comparator calls, no overflow in d1 - d2, still stable
+    RadixSort.sortByInt(ducks, Duck::getWeight);
+    // One lock per batch of ducks instead of one per duck
+    new ShippableDuckCrate().shipAll(ducks);
 
   }
 
 }
 
-class Duck {
-  int weight;
-  public Duck(int weight) {
-    this.weight = weight;
-  }
-  public int getWeight(){
-    return this.weight;
-  }
-}
-
 /*
  The syntax for introducing a generic is to declare a formal type parameter in angle brackets
 
@@ -193,22 +217,6 @@ N for a number
 T for a generic data type
 S, U, V, and so forth for multiple generic types
  */
-class Crate<T> {
-  private T contents;
-  public T emptyCrate() {
-    return contents;
-  }
-  public void packCrate(T contents) {
-    this.contents = contents;
-  }
-
-  public static void main(String[] args) {
-    Duck duck = new Duck(10);
-    Crate<Duck> crateForDuck = new Crate<>();
-    crateForDuck.packCrate(duck);
-    Duck unpacked = crateForDuck.emptyCrate();
-  }
-}
 
 class SizeLimitedCrate<T, U> {
   private T contents;
@@ -225,6 +233,9 @@ class SizeLimitedCrate<T, U> {
         = new SizeLimitedCrate<>(duck, numPounds);
   }
 }
+/*
+OffHeapSizeLimitedCrate is a size-limited crate that keeps its contents outside the heap, as fixed-size records in a direct ByteBuffer as large as the limit (in bytes), so a full crate gives the garbage collector nothing to scan.
+ */
 
 /*
 TYPE ERASURE
@@ -244,17 +255,6 @@ compiler adds the relevant casts for your code to work with this type of erased
 Duck unpacked = (Duck) crate.emptyCrate();
  */
 
-interface Shippable<T> {
-  void ship(T t);
-}
-
-class ShippableDuckCrate implements Shippable<Duck> {
-  public void ship(Duck t) { }
-}
-
-class ShippableAbstractCrate<U> implements Shippable<U> {
-  public void ship(U t) { }
-}
 /*
 There are some limitations on what you can do with a generic type due to type erasure.
 Oracle refers to types whose information is fully available at runtime as reifiable. Reifiable types can do anything that Java allows. Nonreifiable types have some limitations.
@@ -262,18 +262,10 @@ Calling a constructor: Writing new T() is not allowed because at runtime it woul
 Creating an array of that generic type: This one is the most annoying, but it makes sense because you'd be creating an array of Object values.
 Calling instanceof: This is not allowed because at runtime List<Integer> and List<String> look the same to Java thanks to type erasure.
 Using a primitive type as a generic type parameter: This isn't a big deal because you can use the wrapper class instead. If you want a type of int, just use Integer.
+  The wrapper costs memory, though: a Crate<Integer> holds a reference to a separate 16-byte Integer. IntCrate, LongCrate and DoubleCrate (and IntCrates, LongCrates and DoubleCrates for many values in one array) are the same API written out for each primitive, without boxing.
 Creating a static variable as a generic type parameter: This is not allowed because the type is linked to the instance of the class.
  */
 
-class Handler {
-  public static <T> void prepare(T t) {
-    System.out.println("Preparing " + t);
-  }
-  public static <T> Crate<T> ship(T t) {
-    System.out.println("Shipping " + t);
-    return new Crate<T>();
-  }
-}
 /*
 Box.<String>ship("package");
 Box.<String[]>ship(args);
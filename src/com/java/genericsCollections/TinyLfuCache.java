@@ -0,0 +1,716 @@
+package com.java.genericsCollections;
+
+/*
+A bounded cache that many threads can read at once and that keeps the entries most likely to be asked for again.
+The usual small cache is a LinkedHashMap in access order with removeEldestEntry(), wrapped in Collections.synchronizedMap(): every get() takes the same lock, because in access order even a read moves the entry to the end of the list. It also evicts purely by recency, so one pass over many keys that are never used again (a scan, a batch job) pushes out everything that was popular.
+
+Here the entries are in a ConcurrentHashMap and get() takes no lock. It records the read in a small lossy ring buffer (RingQueue.multiProducer()); whoever next holds the lock replays the buffer into the eviction policy. When the buffer is full a read is simply not recorded, which only makes the policy slightly less exact. put(), invalidate() and loads that complete take the lock, like the buffer replay.
+The policy is W-TinyLFU:
+- New entries go into a small LRU window (1% of the capacity), so a burst of new keys competes there first.
+- An entry that falls out of the window becomes a candidate for the main space, an SLRU: probation (20%) and protected (80%) segments, where a second access promotes an entry from probation to protected.
+- When the main space is full, the candidate is admitted only if it has been asked for more often than the entry probation would evict. How often is estimated by a count-min sketch, four 4-bit counters per key in a long[], whose counters are all halved every 10 accesses per counter word so that old popularity fades.
+A scan's keys are each seen once, lose every comparison with entries that were asked for more than once, and are dropped after passing through the window.
+
+The capacity is a number of entries, or a total weight when the cache is created with a weigher (an entry heavier than the whole capacity is evicted right away, without pushing out any other entry).
+expireAfterWrite() and expireAfterAccess() make an entry count as missing once it is that old or has gone that long without a read. Expired entries are removed when the lock is next taken, or on cleanUp(); the clock is System.nanoTime() unless ticker() sets another one. Configure expiry, executor and ticker before the cache is used; they throw IllegalStateException on a non-empty cache.
+get(key, loader) and getAsync(key, loader) load a missing value; concurrent calls for the same key share one load. getAsync() runs the loader on the executor (the common ForkJoinPool by default). A loader that returns null caches nothing; one that throws fails the callers waiting for it, and nothing is cached.
+stats() counts hits, misses, loads, load time and evictions (including expired entries) in StripedCounters.
+Null keys and values aren't allowed, as in ConcurrentHashMap.
+ */
+
+import com.java.concurrency.RingQueue;
+import com.java.concurrency.StripedCounter;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+public class TinyLfuCache<K, V> {
+  private static final int READ_BUFFER = 256;
+  private static final double WINDOW_SHARE = 0.01;
+  private static final double PROTECTED_SHARE = 0.8;
+
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+  private static final int DEAD = 3;
+
+  private static final class Node<K, V> {
+    final K key;
+    volatile V value;
+    volatile long writeTime;
+    volatile long accessTime;
+    // The rest is guarded by the eviction lock
+    int weight;
+    int queue;
+    Node<K, V> prev;
+    Node<K, V> next;
+    Node<K, V> writePrev;
+    Node<K, V> writeNext;
+
+    Node(K key) {
+      this.key = key;
+    }
+  }
+
+  // A doubly linked list through Node.prev and next, with a sentinel so that it is never empty
+  private static final class AccessQueue<K, V> {
+    final Node<K, V> head = new Node<>(null);
+
+    AccessQueue() {
+      head.prev = head;
+      head.next = head;
+    }
+
+    Node<K, V> first() {
+      return head.next == head ? null : head.next;
+    }
+
+    Node<K, V> after(Node<K, V> node) {
+      return node.next == head ? null : node.next;
+    }
+
+    void addLast(Node<K, V> node) {
+      node.prev = head.prev;
+      node.next = head;
+      head.prev.next = node;
+      head.prev = node;
+    }
+
+    void remove(Node<K, V> node) {
+      node.prev.next = node.next;
+      node.next.prev = node.prev;
+      node.prev = null;
+      node.next = null;
+    }
+
+    void moveToLast(Node<K, V> node) {
+      remove(node);
+      addLast(node);
+    }
+
+    void clear() {
+      head.prev = head;
+      head.next = head;
+    }
+  }
+
+  private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+  private final RingQueue<Node<K, V>> readBuffer = RingQueue.multiProducer(READ_BUFFER);
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final long maximum;
+  private final ToIntBiFunction<? super K, ? super V> weigher;
+  private long expireAfterWriteNanos;
+  private long expireAfterAccessNanos;
+  private Executor executor = ForkJoinPool.commonPool();
+  private LongSupplier ticker = System::nanoTime;
+
+  // Guarded by the lock
+  private final FrequencySketch sketch;
+  private final AccessQueue<K, V> window = new AccessQueue<>();
+  private final AccessQueue<K, V> probation = new AccessQueue<>();
+  private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+  private final Node<K, V> writeOrder = new Node<>(null);
+  private long windowWeight;
+  private long protectedWeight;
+  private long totalWeight;
+  private final long windowMaximum;
+  private final long protectedMaximum;
+
+  private final StripedCounter hits = new StripedCounter();
+  private final StripedCounter misses = new StripedCounter();
+  private final StripedCounter loadSuccesses = new StripedCounter();
+  private final StripedCounter loadFailures = new StripedCounter();
+  private final StripedCounter loadNanos = new StripedCounter();
+  private final StripedCounter evictions = new StripedCounter();
+  private final StripedCounter evictedWeight = new StripedCounter();
+
+  // Holds at most maximumSize entries
+  public TinyLfuCache(long maximumSize) {
+    this(maximumSize, (key, value) -> 1);
+  }
+
+  // Holds entries whose weights add up to at most maximumWeight; weights must not be negative
+  public TinyLfuCache(long maximumWeight, ToIntBiFunction<? super K, ? super V> weigher) {
+    if (maximumWeight <= 0) {
+      throw new IllegalArgumentException("Illegal maximum: " + maximumWeight);
+    }
+    this.maximum = maximumWeight;
+    this.weigher = Objects.requireNonNull(weigher);
+    this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_SHARE));
+    this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_SHARE);
+    this.sketch = new FrequencySketch(maximumWeight);
+    writeOrder.writePrev = writeOrder;
+    writeOrder.writeNext = writeOrder;
+  }
+
+  public TinyLfuCache<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+    checkUnused();
+    this.expireAfterWriteNanos = positive(unit.toNanos(duration));
+    return this;
+  }
+
+  public TinyLfuCache<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+    checkUnused();
+    this.expireAfterAccessNanos = positive(unit.toNanos(duration));
+    return this;
+  }
+
+  // Where getAsync() runs its loaders
+  public TinyLfuCache<K, V> executor(Executor executor) {
+    checkUnused();
+    this.executor = Objects.requireNonNull(executor);
+    return this;
+  }
+
+  // The clock for expiry, in nanoseconds
+  public TinyLfuCache<K, V> ticker(LongSupplier ticker) {
+    checkUnused();
+    this.ticker = Objects.requireNonNull(ticker);
+    return this;
+  }
+
+  private void checkUnused() {
+    if (!data.isEmpty()) {
+      throw new IllegalStateException("Configure the cache before using it");
+    }
+  }
+
+  private static long positive(long nanos) {
+    if (nanos <= 0) {
+      throw new IllegalArgumentException("Duration must be positive");
+    }
+    return nanos;
+  }
+
+  // The value, or null if it is missing or expired; takes no lock
+  public V getIfPresent(K key) {
+    Node<K, V> node = data.get(key);
+    if (node == null) {
+      misses.increment();
+      return null;
+    }
+    V value = node.value;
+    if (expiresAtAll()) {
+      long now = ticker.getAsLong();
+      if (expired(node, now)) {
+        misses.increment();
+        // Queued so that the next drain removes it, wherever it is in its queue
+        readBuffer.offer(node);
+        tryCleanUp();
+        return null;
+      }
+      if (expireAfterAccessNanos > 0) {
+        node.accessTime = now;
+      }
+    }
+    hits.increment();
+    if (!readBuffer.offer(node)) {
+      tryCleanUp();
+    }
+    return value;
+  }
+
+  // Loads a missing value on this thread, or waits for the load another thread started
+  public V get(K key, Function<? super K, ? extends V> loader) {
+    V value = getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> running = loading.putIfAbsent(key, future);
+    if (running == null) {
+      load(key, loader, future);
+      running = future;
+    }
+    try {
+      return running.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  // Completes with the cached value, or with the value loader returns on the executor
+  public CompletableFuture<V> getAsync(K key, Function<? super K, ? extends V> loader) {
+    V value = getIfPresent(key);
+    if (value != null) {
+      return CompletableFuture.completedFuture(value);
+    }
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> running = loading.putIfAbsent(key, future);
+    if (running != null) {
+      return running;
+    }
+    try {
+      executor.execute(() -> load(key, loader, future));
+    } catch (RuntimeException e) {
+      loading.remove(key, future);
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /*
+  A caller can miss in getIfPresent() just before another load puts the value, and claim loading just after that load's future has left it.
+  So the value is looked up once more before the loader is called: a load puts its value before its future leaves loading, and this future went in only after that, so a finished load is always seen here and each value is loaded once.
+   */
+  private void load(K key, Function<? super K, ? extends V> loader,
+      CompletableFuture<V> future) {
+    V cached = peek(key);
+    if (cached != null) {
+      future.complete(cached);
+      loading.remove(key, future);
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      V value = loader.apply(key);
+      if (value != null) {
+        put(key, value);
+      }
+      loadSuccesses.increment();
+      future.complete(value);
+    } catch (Throwable t) {
+      loadFailures.increment();
+      future.completeExceptionally(t);
+    } finally {
+      loadNanos.add(System.nanoTime() - start);
+      loading.remove(key, future);
+    }
+  }
+
+  // Like getIfPresent() but without recording anything
+  private V peek(K key) {
+    Node<K, V> node = data.get(key);
+    if (node == null || (expiresAtAll() && expired(node, ticker.getAsLong()))) {
+      return null;
+    }
+    return node.value;
+  }
+
+  public void put(K key, V value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+    int weight = weigher.applyAsInt(key, value);
+    if (weight < 0) {
+      throw new IllegalArgumentException("Negative weight: " + weight);
+    }
+    lock.lock();
+    try {
+      long now = expiresAtAll() ? ticker.getAsLong() : 0;
+      drainReadBuffer();
+      Node<K, V> node = data.get(key);
+      if (node == null) {
+        node = new Node<>(key);
+        node.value = value;
+        node.writeTime = now;
+        node.accessTime = now;
+        node.weight = weight;
+        node.queue = WINDOW;
+        data.put(key, node);
+        window.addLast(node);
+        windowWeight += weight;
+        totalWeight += weight;
+        addToWriteOrder(node);
+      } else {
+        node.value = value;
+        node.writeTime = now;
+        node.accessTime = now;
+        reweigh(node, weight);
+        moveToEndOfWriteOrder(node);
+        onAccess(node);
+      }
+      sketch.increment(key);
+      expire(now);
+      // Nothing can make room for it, so it goes before the admission policy evicts anything for it
+      if (node.weight > maximum) {
+        evict(node);
+      }
+      evict();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void invalidate(K key) {
+    lock.lock();
+    try {
+      Node<K, V> node = data.get(key);
+      if (node != null) {
+        unlink(node);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void invalidateAll() {
+    lock.lock();
+    try {
+      while (readBuffer.poll() != null) {
+      }
+      for (Node<K, V> node : data.values()) {
+        node.queue = DEAD;
+      }
+      data.clear();
+      window.clear();
+      probation.clear();
+      protectedQueue.clear();
+      writeOrder.writePrev = writeOrder;
+      writeOrder.writeNext = writeOrder;
+      windowWeight = 0;
+      protectedWeight = 0;
+      totalWeight = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // Replays the recorded reads and removes expired entries now instead of on the next write
+  public void cleanUp() {
+    lock.lock();
+    try {
+      maintenance();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // Includes expired entries that haven't been removed yet
+  public long estimatedSize() {
+    return data.size();
+  }
+
+  public long weightedSize() {
+    lock.lock();
+    try {
+      return totalWeight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Stats stats() {
+    return new Stats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(),
+        loadNanos.sum(), evictions.sum(), evictedWeight.sum());
+  }
+
+  private void tryCleanUp() {
+    if (lock.tryLock()) {
+      try {
+        maintenance();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void maintenance() {
+    drainReadBuffer();
+    expire(expiresAtAll() ? ticker.getAsLong() : 0);
+    evict();
+  }
+
+  private boolean expiresAtAll() {
+    return expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+  }
+
+  private boolean expired(Node<K, V> node, long now) {
+    return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+        || (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+  }
+
+  // A node that has expired since it was read (or was read expired) is removed instead
+  private void drainReadBuffer() {
+    long now = expiresAtAll() ? ticker.getAsLong() : 0;
+    Node<K, V> node;
+    while ((node = readBuffer.poll()) != null) {
+      if (node.queue == DEAD) {
+        continue;
+      }
+      if (expiresAtAll() && expired(node, now)) {
+        evict(node);
+      } else {
+        sketch.increment(node.key);
+        onAccess(node);
+      }
+    }
+  }
+
+  // A read moves the entry to the end of its queue; a second one promotes it from probation
+  private void onAccess(Node<K, V> node) {
+    if (node.queue == WINDOW) {
+      window.moveToLast(node);
+    } else if (node.queue == PROTECTED) {
+      protectedQueue.moveToLast(node);
+    } else if (node.queue == PROBATION) {
+      probation.remove(node);
+      protectedQueue.addLast(node);
+      node.queue = PROTECTED;
+      protectedWeight += node.weight;
+      while (protectedWeight > protectedMaximum) {
+        Node<K, V> demoted = protectedQueue.first();
+        protectedQueue.remove(demoted);
+        probation.addLast(demoted);
+        demoted.queue = PROBATION;
+        protectedWeight -= demoted.weight;
+      }
+    }
+  }
+
+  private void reweigh(Node<K, V> node, int weight) {
+    int change = weight - node.weight;
+    node.weight = weight;
+    totalWeight += change;
+    if (node.queue == WINDOW) {
+      windowWeight += change;
+    } else if (node.queue == PROTECTED) {
+      protectedWeight += change;
+    }
+  }
+
+  /*
+  The write order list is in write order, so entries expired after write are all at its front.
+  The access queues are only roughly in access order: getIfPresent() sets accessTime even when the read buffer drops the read, and entries that move from the window to probation or from protected to probation go to the end with their old accessTime. So expireFront() can stop at a head that is still fresh with expired entries behind it.
+  Those are never returned, since every read checks the entry's own times; a read of one queues it for removal in drainReadBuffer(), and the others go when they reach a front or are evicted for size.
+   */
+  private void expire(long now) {
+    if (expireAfterAccessNanos > 0) {
+      expireFront(window, now);
+      expireFront(probation, now);
+      expireFront(protectedQueue, now);
+    }
+    if (expireAfterWriteNanos > 0) {
+      Node<K, V> node = writeOrder.writeNext;
+      while (node != writeOrder && expired(node, now)) {
+        Node<K, V> next = node.writeNext;
+        evict(node);
+        node = next;
+      }
+    }
+  }
+
+  private void expireFront(AccessQueue<K, V> queue, long now) {
+    Node<K, V> node = queue.first();
+    while (node != null && expired(node, now)) {
+      Node<K, V> next = queue.after(node);
+      evict(node);
+      node = next;
+    }
+  }
+
+  /*
+  Entries past the window's share move to the end of probation as candidates. While the cache is over its maximum, the first candidate is compared with probation's least recently used entry (the victim) and the one asked for less often is evicted; ties go to the victim, which has been in the cache longer.
+   */
+  private void evict() {
+    Node<K, V> candidate = null;
+    while (windowWeight > windowMaximum) {
+      Node<K, V> node = window.first();
+      window.remove(node);
+      windowWeight -= node.weight;
+      probation.addLast(node);
+      node.queue = PROBATION;
+      if (candidate == null) {
+        candidate = node;
+      }
+    }
+    while (totalWeight > maximum) {
+      Node<K, V> victim = probation.first();
+      if (victim == null) {
+        victim = protectedQueue.first() != null ? protectedQueue.first() : window.first();
+      }
+      if (candidate == null || candidate.queue != PROBATION) {
+        evict(victim);
+      } else if (victim == candidate) {
+        candidate = probation.after(candidate);
+        evict(victim);
+      } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+        evict(victim);
+      } else {
+        Node<K, V> rejected = candidate;
+        candidate = probation.after(candidate);
+        evict(rejected);
+      }
+    }
+  }
+
+  private void evict(Node<K, V> node) {
+    unlink(node);
+    evictions.increment();
+    evictedWeight.add(node.weight);
+  }
+
+  private void unlink(Node<K, V> node) {
+    data.remove(node.key, node);
+    if (node.queue == WINDOW) {
+      window.remove(node);
+      windowWeight -= node.weight;
+    } else if (node.queue == PROBATION) {
+      probation.remove(node);
+    } else if (node.queue == PROTECTED) {
+      protectedQueue.remove(node);
+      protectedWeight -= node.weight;
+    }
+    totalWeight -= node.weight;
+    node.queue = DEAD;
+    node.writePrev.writeNext = node.writeNext;
+    node.writeNext.writePrev = node.writePrev;
+  }
+
+  private void addToWriteOrder(Node<K, V> node) {
+    node.writePrev = writeOrder.writePrev;
+    node.writeNext = writeOrder;
+    writeOrder.writePrev.writeNext = node;
+    writeOrder.writePrev = node;
+  }
+
+  private void moveToEndOfWriteOrder(Node<K, V> node) {
+    node.writePrev.writeNext = node.writeNext;
+    node.writeNext.writePrev = node.writePrev;
+    addToWriteOrder(node);
+  }
+
+  /*
+  Four 4-bit counters per key, each in a different long of the table (16 counters per long); the estimate is the smallest of the four, which an unrelated key can raise only by colliding with all of them.
+  After 10 increments per long of the table every counter is halved, so the estimates follow what is popular now. Only used under the cache's lock.
+   */
+  private static final class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+        0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long HALF_MASK = 0x7777_7777_7777_7777L;
+    private static final int MAX_TABLE = 1 << 20;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long maximum) {
+      int length = (int) Math.min(MAX_TABLE, Math.max(16, Long.highestOneBit(maximum - 1) << 1));
+      table = new long[length];
+      mask = length - 1;
+      sampleSize = 10 * length;
+    }
+
+    int frequency(Object key) {
+      int hash = spread(key.hashCode());
+      int frequency = 15;
+      for (int i = 0; i < 4; i++) {
+        int count = (int) ((table[index(hash, i)] >>> offset(hash, i)) & 0xF);
+        frequency = Math.min(frequency, count);
+      }
+      return frequency;
+    }
+
+    void increment(Object key) {
+      int hash = spread(key.hashCode());
+      boolean added = false;
+      for (int i = 0; i < 4; i++) {
+        int index = index(hash, i);
+        int offset = offset(hash, i);
+        if (((table[index] >>> offset) & 0xF) != 0xF) {
+          table[index] += 1L << offset;
+          added = true;
+        }
+      }
+      if (added && ++additions == sampleSize) {
+        for (int i = 0; i < table.length; i++) {
+          table[i] = (table[i] >>> 1) & HALF_MASK;
+        }
+        additions /= 2;
+      }
+    }
+
+    private static int spread(int hash) {
+      hash *= 0x9E3779B9;
+      return hash ^ (hash >>> 16);
+    }
+
+    private int index(int hash, int i) {
+      long h = (hash + SEEDS[i]) * SEEDS[i];
+      return (int) (h + (h >>> 32)) & mask;
+    }
+
+    // Which of the long's 16 counters, from a different 4 bits of the hash for each i
+    private static int offset(int hash, int i) {
+      return ((hash >>> (i << 3)) & 15) << 2;
+    }
+  }
+
+  // A snapshot of the counters; every field only grows
+  public static final class Stats {
+    private final long hits;
+    private final long misses;
+    private final long loadSuccesses;
+    private final long loadFailures;
+    private final long loadNanos;
+    private final long evictions;
+    private final long evictedWeight;
+
+    Stats(long hits, long misses, long loadSuccesses, long loadFailures, long loadNanos,
+        long evictions, long evictedWeight) {
+      this.hits = hits;
+      this.misses = misses;
+      this.loadSuccesses = loadSuccesses;
+      this.loadFailures = loadFailures;
+      this.loadNanos = loadNanos;
+      this.evictions = evictions;
+      this.evictedWeight = evictedWeight;
+    }
+
+    public long hits() {
+      return hits;
+    }
+
+    public long misses() {
+      return misses;
+    }
+
+    public double hitRate() {
+      long requests = hits + misses;
+      return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    public long loadSuccesses() {
+      return loadSuccesses;
+    }
+
+    public long loadFailures() {
+      return loadFailures;
+    }
+
+    public long loadNanos() {
+      return loadNanos;
+    }
+
+    public long evictions() {
+      return evictions;
+    }
+
+    public long evictedWeight() {
+      return evictedWeight;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("hits=%d misses=%d hitRate=%.3f loads=%d failures=%d loadMs=%d "
+              + "evictions=%d evictedWeight=%d", hits, misses, hitRate(), loadSuccesses,
+          loadFailures, TimeUnit.NANOSECONDS.toMillis(loadNanos), evictions, evictedWeight);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.java.lambdas;
 
+import com.java.genericsCollections.ObjectIntHashMap;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -73,6 +74,13 @@ public class Test {
     //BiConsumer
     bunnies1.forEach((k, v) -> System.out.println(k + " " + v));
 
+    // The same map without a Node and an Integer per entry; forEach takes an ObjIntConsumer
+    ObjectIntHashMap<String> bunnies2 = new ObjectIntHashMap<>();
+    bunnies2.put("long ear", 3);
+    bunnies2.put("floppy", 8);
+    bunnies2.merge("floppy", 1, Integer::sum);
+    bunnies2.forEach((k, v) -> System.out.println(k + " " + v));
+
   }
 
 }
@@ -0,0 +1,82 @@
+package com.java.string;
+
+/*
+Checks the note in Test that StringBuffer performs slower than StringBuilder.
+Both classes have the same API, but every StringBuffer method is synchronized. Each invocation appends `size` characters to a fresh builder; the reported ns/op is the cost of one append().
+sharedStringBuffer appends to one buffer from two threads at once, which is the case StringBuffer's locking exists for.
+ */
+
+import com.java.benchmark.Harness;
+import com.java.benchmark.Workload;
+
+public class StringBuilderBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    new Harness("string", "size", 10, 1_000, 100_000, 10_000_000)
+        .add("stringBuilder", StringBuilderBenchmark::builderAppend)
+        .add("stringBuffer", StringBuilderBenchmark::bufferAppend)
+        .add("sharedStringBuffer", StringBuilderBenchmark::sharedAppend)
+        .runAndReport();
+  }
+
+  private static Workload.Invocation builderAppend(int size) {
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+          builder.append((char) ('a' + (i & 15)));
+        }
+        return builder.length();
+      }
+
+      @Override
+      public long operations() {
+        return size;
+      }
+    };
+  }
+
+  private static Workload.Invocation bufferAppend(int size) {
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() {
+        StringBuffer buffer = new StringBuffer();
+        for (int i = 0; i < size; i++) {
+          buffer.append((char) ('a' + (i & 15)));
+        }
+        return buffer.length();
+      }
+
+      @Override
+      public long operations() {
+        return size;
+      }
+    };
+  }
+
+  private static Workload.Invocation sharedAppend(int size) {
+    return new Workload.Invocation() {
+      @Override
+      public long invoke() throws Exception {
+        StringBuffer buffer = new StringBuffer();
+        Thread other = new Thread(() -> {
+          for (int i = 0; i < size / 2; i++) {
+            buffer.append('x');
+          }
+        });
+        other.start();
+        for (int i = size / 2; i < size; i++) {
+          buffer.append('y');
+        }
+        other.join();
+        return buffer.length();
+      }
+
+      @Override
+      public long operations() {
+        return size;
+      }
+    };
+  }
+}